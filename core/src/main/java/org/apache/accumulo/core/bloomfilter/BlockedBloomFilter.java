@@ -0,0 +1,327 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.bloomfilter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.util.bloom.Key;
+import org.apache.hadoop.util.hash.Hash;
+
+/**
+ * A Bloom filter that keeps all of the bits for a key within a single 64 byte block, so that a membership test touches at most one cache line. A single 64 bit
+ * hash is computed for each key. The high half selects the block and the low half is split into the bit positions probed within that block.
+ * <p>
+ * The serialized form is a small header followed by the blocks as big endian longs. A filter can be probed directly from a {@link ByteBuffer} holding that
+ * form, so a filter stored in a cached block or in a direct buffer never has to be deserialized onto the heap.
+ * <p>
+ * Like {@link DynamicBloomFilter}, a filter holding more keys than it was sized for is made of several segments of the same size, and a key may be present if
+ * any segment may hold it. A membership test touches one cache line in each segment.
+ * <p>
+ * Blocked filters need slightly more bits than a standard Bloom filter for the same false positive rate, and the sizing in {@link Builder} accounts for that.
+ */
+public class BlockedBloomFilter {
+
+  // version 1 had a single segment and no segment count in its header
+  private static final int VERSION = 2;
+
+  static final int BLOCK_BYTES = 64;
+  private static final int BLOCK_BITS = BLOCK_BYTES * 8;
+  private static final int MAX_HASHES = 16;
+
+  /** version, hash type, number of hashes, number of blocks in each segment, and number of segments */
+  static final int HEADER_BYTES = 20;
+
+  private final ByteBuffer blocks;
+  private final Hash hash;
+  private final int hashType;
+  private final int nbHash;
+  private final int numBlocks;
+  private final int numSegments;
+
+  private BlockedBloomFilter(ByteBuffer blocks, int hashType, int nbHash, int numBlocks, int numSegments) {
+    this.blocks = blocks;
+    this.hashType = hashType;
+    this.hash = Hash.getInstance(hashType);
+    this.nbHash = nbHash;
+    this.numBlocks = numBlocks;
+    this.numSegments = numSegments;
+
+    if (hash == null)
+      throw new IllegalArgumentException("Unknown hash type " + hashType);
+    if (nbHash < 1 || nbHash > MAX_HASHES)
+      throw new IllegalArgumentException("Bad number of hashes " + nbHash);
+    if (numBlocks < 1 || numSegments < 1 || blocks.remaining() < (long) numSegments * numBlocks * BLOCK_BYTES)
+      throw new IllegalArgumentException("Buffer with " + blocks.remaining() + " bytes can not hold " + numSegments + " segments of " + numBlocks + " blocks");
+  }
+
+  /**
+   * Creates a filter that reads its bits directly from the serialized form in the buffer. The buffer's position should be at the start of the serialized
+   * filter. The buffer is not copied, so it must not be modified while the filter is in use.
+   */
+  public static BlockedBloomFilter wrap(ByteBuffer buffer) throws IOException {
+    ByteBuffer bb = buffer.duplicate();
+    if (bb.remaining() < HEADER_BYTES)
+      throw new IOException("Blocked bloom filter header truncated");
+    int version = bb.getInt();
+    if (version != VERSION && version != 1)
+      throw new IOException("Unknown blocked bloom filter version " + version);
+    int hashType = bb.getInt();
+    int nbHash = bb.getInt();
+    int numBlocks = bb.getInt();
+    int numSegments = version == 1 ? 1 : bb.getInt();
+    try {
+      return new BlockedBloomFilter(bb.slice(), hashType, nbHash, numBlocks, numSegments);
+    } catch (IllegalArgumentException iae) {
+      throw new IOException(iae.getMessage());
+    }
+  }
+
+  /**
+   * Reads a serialized filter from the input into a newly allocated buffer.
+   *
+   * @param direct
+   *          if true the bits are stored in a direct buffer, outside of the java heap
+   */
+  public static BlockedBloomFilter read(DataInput in, boolean direct) throws IOException {
+    int version = in.readInt();
+    if (version != VERSION && version != 1)
+      throw new IOException("Unknown blocked bloom filter version " + version);
+    int hashType = in.readInt();
+    int nbHash = in.readInt();
+    int numBlocks = in.readInt();
+    int numSegments = version == 1 ? 1 : in.readInt();
+    if (numBlocks < 1 || numSegments < 1 || (long) numSegments * numBlocks > Integer.MAX_VALUE / BLOCK_BYTES)
+      throw new IOException("Bad number of blocks " + numBlocks + " in " + numSegments + " segments");
+
+    int size = numSegments * numBlocks * BLOCK_BYTES;
+    byte[] buf = new byte[BLOCK_BYTES * 64];
+    ByteBuffer bb = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    while (bb.hasRemaining()) {
+      int len = Math.min(buf.length, bb.remaining());
+      in.readFully(buf, 0, len);
+      bb.put(buf, 0, len);
+    }
+    bb.flip();
+
+    try {
+      return new BlockedBloomFilter(bb, hashType, nbHash, numBlocks, numSegments);
+    } catch (IllegalArgumentException iae) {
+      throw new IOException(iae.getMessage());
+    }
+  }
+
+  public boolean membershipTest(Key key) {
+    if (key == null) {
+      throw new NullPointerException("key cannot be null");
+    }
+    long h = hash64(hash, key.getBytes());
+    for (int i = 0; i < numSegments; i++)
+      if (membershipTest(h, i * numBlocks * BLOCK_BYTES))
+        return true;
+    return false;
+  }
+
+  private boolean membershipTest(long h, int segmentOffset) {
+    int offset = segmentOffset + blockOffset(h, numBlocks);
+    int probe = (int) h;
+    int delta = probeDelta(probe);
+    for (int i = 0; i < nbHash; i++) {
+      int bit = probe & (BLOCK_BITS - 1);
+      if ((blocks.getLong(offset + ((bit >>> 6) << 3)) & (1L << bit)) == 0)
+        return false;
+      probe += delta;
+    }
+    return true;
+  }
+
+  /**
+   * @return the number of blocks in each segment
+   */
+  public int getNumBlocks() {
+    return numBlocks;
+  }
+
+  public int getNumSegments() {
+    return numSegments;
+  }
+
+  public int getNumHashes() {
+    return nbHash;
+  }
+
+  public int getHashType() {
+    return hashType;
+  }
+
+  /**
+   * @return true if the bits of this filter are stored outside of the java heap
+   */
+  public boolean isDirect() {
+    return blocks.isDirect();
+  }
+
+  private static long hash64(Hash hash, byte[] bytes) {
+    int h1 = hash.hash(bytes, bytes.length, 0);
+    int h2 = hash.hash(bytes, bytes.length, h1);
+    return ((long) h1 << 32) | (h2 & 0xffffffffL);
+  }
+
+  private static int blockOffset(long h, int numBlocks) {
+    // maps the high 32 bits onto [0,numBlocks) without a division
+    return (int) (((h >>> 32) * numBlocks) >>> 32) * BLOCK_BYTES;
+  }
+
+  private static int probeDelta(int probe) {
+    // odd, so successive probes do not repeat within a block
+    return Integer.rotateLeft(probe, 15) | 1;
+  }
+
+  /**
+   * Builds the filter for a file as keys are added to it. The 64 bit hashes of up to expectedKeys keys are kept, so a file with fewer keys gets a single
+   * segment sized for the number of distinct hashes it has. Past that, keys set their bits as they arrive in segments sized for expectedKeys, so memory use
+   * is about the size of the filter being written.
+   */
+  public static class Builder {
+    private final Hash hash;
+    private final int hashType;
+    private final double errorRate;
+    private final int nbHash;
+    private final int expectedKeys;
+
+    private long[] hashes;
+    private int count = 0;
+    private long lastHash;
+
+    // used once more than expectedKeys hashes are added
+    private List<long[]> segments = null;
+    private int segmentBlocks;
+    private int segmentKeys;
+
+    public Builder(double errorRate, int hashType, int expectedKeys) {
+      if (errorRate <= 0 || errorRate >= 1)
+        throw new IllegalArgumentException("Bad error rate " + errorRate);
+      if (expectedKeys < 1)
+        throw new IllegalArgumentException("Bad expected number of keys " + expectedKeys);
+      this.hash = Hash.getInstance(hashType);
+      if (hash == null)
+        throw new IllegalArgumentException("Unknown hash type " + hashType);
+      this.hashType = hashType;
+      this.errorRate = errorRate;
+      this.nbHash = numHashes(errorRate);
+      this.expectedKeys = expectedKeys;
+      this.hashes = new long[Math.min(1024, expectedKeys)];
+    }
+
+    public void add(Key key) {
+      long h = hash64(hash, key.getBytes());
+
+      // keys are added in sorted order, so avoid adding the same hash for every column of a row
+      if ((count > 0 || segments != null) && h == lastHash)
+        return;
+      lastHash = h;
+
+      if (segments != null) {
+        addToSegment(h);
+        return;
+      }
+
+      if (count == hashes.length) {
+        if (count >= expectedKeys) {
+          segments = new ArrayList<long[]>();
+          segmentBlocks = numBlocks(expectedKeys, errorRate);
+          for (int i = 0; i < count; i++)
+            addToSegment(hashes[i]);
+          hashes = null;
+          addToSegment(h);
+          return;
+        }
+        hashes = Arrays.copyOf(hashes, (int) Math.min(expectedKeys, hashes.length * 2L));
+      }
+      hashes[count++] = h;
+    }
+
+    private void addToSegment(long h) {
+      if (segments.isEmpty() || segmentKeys == expectedKeys) {
+        if ((long) (segments.size() + 1) * segmentBlocks > Integer.MAX_VALUE / BLOCK_BYTES)
+          throw new IllegalArgumentException("Blocked bloom filter with " + segments.size() + " segments is too large");
+        segments.add(new long[segmentBlocks * (BLOCK_BYTES / 8)]);
+        segmentKeys = 0;
+      }
+      setBits(segments.get(segments.size() - 1), segmentBlocks, nbHash, h);
+      segmentKeys++;
+    }
+
+    public void write(DataOutput out) throws IOException {
+      if (segments == null) {
+        Arrays.sort(hashes, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++)
+          if (i == 0 || hashes[i] != hashes[i - 1])
+            hashes[distinct++] = hashes[i];
+
+        segments = new ArrayList<long[]>();
+        segmentBlocks = numBlocks(distinct, errorRate);
+        long[] words = new long[segmentBlocks * (BLOCK_BYTES / 8)];
+        for (int i = 0; i < distinct; i++)
+          setBits(words, segmentBlocks, nbHash, hashes[i]);
+        segments.add(words);
+        hashes = null;
+      }
+
+      out.writeInt(VERSION);
+      out.writeInt(hashType);
+      out.writeInt(nbHash);
+      out.writeInt(segmentBlocks);
+      out.writeInt(segments.size());
+      for (long[] words : segments)
+        for (long w : words)
+          out.writeLong(w);
+    }
+
+    private static void setBits(long[] words, int numBlocks, int nbHash, long h) {
+      int word = blockOffset(h, numBlocks) / 8;
+      int probe = (int) h;
+      int delta = probeDelta(probe);
+      for (int j = 0; j < nbHash; j++) {
+        int bit = probe & (BLOCK_BITS - 1);
+        words[word + (bit >>> 6)] |= 1L << bit;
+        probe += delta;
+      }
+    }
+
+    static int numHashes(double errorRate) {
+      int k = (int) Math.round(-Math.log(errorRate) / Math.log(2));
+      return Math.max(1, Math.min(MAX_HASHES, k));
+    }
+
+    static int numBlocks(int numKeys, double errorRate) {
+      // optimal bits for a standard filter, plus extra to make up for keys not being spread evenly over the blocks
+      double bits = -numKeys * Math.log(errorRate) / (Math.log(2) * Math.log(2));
+      bits *= 1.2;
+      long blocks = (long) Math.ceil(bits / BLOCK_BITS);
+      if (blocks > Integer.MAX_VALUE / BLOCK_BYTES)
+        throw new IllegalArgumentException("Blocked bloom filter for " + numKeys + " keys is too large");
+      return (int) Math.max(1, blocks);
+    }
+  }
+}
@@ -46,6 +46,8 @@ public class BatchWriterConfig implements Writable {
   private static final Integer DEFAULT_MAX_WRITE_THREADS = 3;
   private Integer maxWriteThreads = null;
   
+  private Durability durability = null;
+  
   /**
    * Sets the maximum memory to batch before writing. The smaller this value, the more frequently the {@link BatchWriter} will write.<br />
    * If set to a value smaller than a single mutation, then it will {@link BatchWriter#flush()} after each added mutation. Must be non-negative.
@@ -150,6 +152,25 @@ public class BatchWriterConfig implements Writable {
     return this;
   }
   
+  /**
+   * Sets how far writes are persisted before the tablet servers acknowledge them. Each table's {@code table.durability} is the most that its writes get, so
+   * this can only lower it.
+   * 
+   * <p>
+   * <b>Default:</b> {@link Durability#DEFAULT} (the durability of each table)
+   * 
+   * @param durability
+   *          the durability of writes
+   * @return {@code this} to allow chaining of set methods
+   * @since 1.6.0
+   */
+  public BatchWriterConfig setDurability(Durability durability) {
+    if (durability == null)
+      throw new IllegalArgumentException("Durability must not be null");
+    this.durability = durability;
+    return this;
+  }
+  
   public long getMaxMemory() {
     return maxMemory != null ? maxMemory : DEFAULT_MAX_MEMORY;
   }
@@ -166,6 +187,13 @@ public class BatchWriterConfig implements Writable {
     return maxWriteThreads != null ? maxWriteThreads : DEFAULT_MAX_WRITE_THREADS;
   }
   
+  /**
+   * @since 1.6.0
+   */
+  public Durability getDurability() {
+    return durability != null ? durability : Durability.DEFAULT;
+  }
+  
   @Override
   public void write(DataOutput out) throws IOException {
     // write this out in a human-readable way
@@ -178,6 +206,8 @@ public class BatchWriterConfig implements Writable {
       addField(fields, "maxWriteThreads", maxWriteThreads);
     if (timeout != null)
       addField(fields, "timeout", timeout);
+    if (durability != null)
+      addField(fields, "durability", durability);
     String output = StringUtils.join(",", fields);
     
     byte[] bytes = output.getBytes(Charset.forName("UTF-8"));
@@ -218,6 +248,8 @@ public class BatchWriterConfig implements Writable {
         maxWriteThreads = Integer.valueOf(value);
       } else if ("timeout".equals(key)) {
         timeout = Long.valueOf(value);
+      } else if ("durability".equals(key)) {
+        durability = Durability.valueOf(value);
       } else {
         /* ignore any other properties */
       }
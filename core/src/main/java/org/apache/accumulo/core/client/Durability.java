@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client;
+
+/**
+ * How far the writes of a {@link BatchWriter} are persisted before the tablet servers acknowledge them. A batch writer may ask for less durability than the
+ * table it writes to is configured with in {@code table.durability}, but not for more.
+ * 
+ * @since 1.6.0
+ */
+public enum Durability {
+  /** use the durability of each table written to */
+  DEFAULT,
+  /** do not write to the write-ahead log */
+  NONE,
+  /** write to the write-ahead log, which may buffer the writes */
+  LOG,
+  /** flush the write-ahead log to its datanodes */
+  FLUSH,
+  /** sync the write-ahead log to disk on its datanodes */
+  SYNC
+}
@@ -60,6 +60,7 @@ import org.apache.accumulo.core.security.thrift.TCredentials;
 import org.apache.accumulo.core.tabletserver.thrift.ConstraintViolationException;
 import org.apache.accumulo.core.tabletserver.thrift.NoSuchScanIDException;
 import org.apache.accumulo.core.tabletserver.thrift.NotServingTabletException;
+import org.apache.accumulo.core.tabletserver.thrift.TDurability;
 import org.apache.accumulo.core.tabletserver.thrift.TabletClientService;
 import org.apache.accumulo.core.util.SimpleThreadPool;
 import org.apache.accumulo.core.util.ThriftUtil;
@@ -124,6 +125,7 @@ public class TabletServerBatchWriter {
   private long maxLatency;
   
   private long timeout;
+  private TDurability durability;
   
   private long lastProcessingStartTime;
   
@@ -193,6 +195,7 @@ public class TabletServerBatchWriter {
     this.maxLatency = config.getMaxLatency(TimeUnit.MILLISECONDS) <= 0 ? Long.MAX_VALUE : config.getMaxLatency(TimeUnit.MILLISECONDS);
     this.credentials = credentials;
     this.timeout = config.getTimeout(TimeUnit.MILLISECONDS);
+    this.durability = DurabilityImpl.toThrift(config.getDurability());
     mutations = new MutationSet();
     
     violations = new Violations();
@@ -867,7 +870,7 @@ public class TabletServerBatchWriter {
             Entry<KeyExtent,List<Mutation>> entry = tabMuts.entrySet().iterator().next();
             
             try {
-              client.update(tinfo, credentials, entry.getKey().toThrift(), entry.getValue().get(0).toThrift());
+              client.update(tinfo, credentials, entry.getKey().toThrift(), entry.getValue().get(0).toThrift(), durability);
             } catch (NotServingTabletException e) {
               allFailures.addAll(entry.getKey().getTableId().toString(), entry.getValue());
               TabletLocator.getInstance(instance, new Text(entry.getKey().getTableId())).invalidateCache(entry.getKey());
@@ -877,7 +880,7 @@ public class TabletServerBatchWriter {
             timeoutTracker.madeProgress();
           } else {
             
-            long usid = client.startUpdate(tinfo, credentials);
+            long usid = client.startUpdate(tinfo, credentials, durability);
             
             List<TMutation> updates = new ArrayList<TMutation>();
             for (Entry<KeyExtent,List<Mutation>> entry : tabMuts.entrySet()) {
@@ -917,6 +920,24 @@ public class TabletServerBatchWriter {
               allFailures.addAll(table, mutations.subList(numCommitted, mutations.size()));
             }
             
+            if (updateErrors.isSetHeldExtents()) {
+              // the tablets are still served here, but their tables are over their ingest limits. Requeuing the rest of their mutations with the
+              // failures backs off from the server for a second or more before they are resent, without looking up the tablets again.
+              Map<KeyExtent,Long> held = Translator.translate(updateErrors.heldExtents, Translator.TKET);
+              for (Entry<KeyExtent,Long> entry : held.entrySet()) {
+                KeyExtent heldExtent = entry.getKey();
+                int numCommitted = (int) (long) entry.getValue();
+                totalCommitted += numCommitted;
+                
+                ArrayList<Mutation> mutations = (ArrayList<Mutation>) tabMuts.get(heldExtent);
+                allFailures.addAll(heldExtent.getTableId().toString(), mutations.subList(numCommitted, mutations.size()));
+              }
+              
+              if (log.isTraceEnabled())
+                log.trace("mutations for " + held.size() + " tablets were held by " + location + " due to ingest limits");
+              failures.putAll(held);
+            }
+            
             if (failures.keySet().containsAll(tabMuts.keySet()) && totalCommitted == 0) {
               // nothing was successfully written
               timeoutTracker.wroteNothing();
@@ -74,7 +74,7 @@ public class AccumuloFileOutputFormat extends FileOutputFormat<Key,Value> {
    * @param job
    *          the Hadoop job instance to be configured
    * @param compressionType
-   *          one of "none", "gz", "lzo", or "snappy"
+   *          one of "none", "gz", "lzo", "snappy", "lz4", or "zstd"
    * @since 1.5.0
    */
   public static void setCompressionType(Job job, String compressionType) {
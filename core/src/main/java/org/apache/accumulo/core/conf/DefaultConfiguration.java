@@ -113,7 +113,7 @@ public class DefaultConfiguration extends AccumuloConfiguration {
       doc.println(indent(indentDepth) + "<tr><td colspan='5'" + (isDeprecated ? " class='deprecated'" : "") + "><i>"
           + (isDeprecated ? "<b><i>Deprecated.</i></b> " : "") + prefix.getDescription() + "</i></td></tr>");
       if (!prefix.equals(Property.TABLE_CONSTRAINT_PREFIX) && !prefix.equals(Property.TABLE_ITERATOR_PREFIX)
-          && !prefix.equals(Property.TABLE_LOCALITY_GROUP_PREFIX))
+          && !prefix.equals(Property.TABLE_LOCALITY_GROUP_PREFIX) && !prefix.equals(Property.TABLE_COMPACTION_STRATEGY_PREFIX))
         doc.println(indent(indentDepth) + "<tr><th>Property</th><th>Type</th><th>Zookeeper Mutable</th><th>Default Value</th><th>Description</th></tr>");
       
       boolean highlight = true;
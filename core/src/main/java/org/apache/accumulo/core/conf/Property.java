@@ -123,40 +123,74 @@ public enum Property {
   TSERV_CLIENTPORT("tserver.port.client", "9997", PropertyType.PORT, "The port used for handling client connections on the tablet servers"),
   TSERV_MUTATION_QUEUE_MAX("tserver.mutation.queue.max", "256K", PropertyType.MEMORY,
       "The amount of memory to use to store write-ahead-log mutations-per-session before flushing them."),
+  TSERV_COMMIT_MAXCONCURRENT("tserver.commit.concurrent.max", "4", PropertyType.COUNT,
+      "The maximum number of threads that check constraints and insert mutations into memory when a batch of updates spanning several tablets is "
+          + "flushed. The thread handling the request also does part of the work. Set to 1 to apply each batch on the request thread alone."),
   TSERV_TABLET_SPLIT_FINDMIDPOINT_MAXOPEN("tserver.tablet.split.midpoint.files.max", "30", PropertyType.COUNT,
       "To find a tablets split points, all index files are opened. This setting determines how many index "
           + "files can be opened at once. When there are more index files than this setting multiple passes "
           + "must be made, which is slower. However opening too many files at once can cause problems."),
   TSERV_WALOG_MAX_SIZE("tserver.walog.max.size", "1G", PropertyType.MEMORY,
       "The maximum size for each write-ahead log.  See comment for property tserver.memory.maps.max"),
+  TSERV_WALOG_CONCURRENT("tserver.walog.concurrent", "1", PropertyType.COUNT,
+      "The number of write-ahead logs a tablet server writes to at once. Each tablet is assigned to one of the logs by its extent, so that "
+          + "mutations for different tablets are written through separate streams and pipelines."),
   TSERV_MAJC_DELAY("tserver.compaction.major.delay", "30s", PropertyType.TIMEDURATION,
       "Time a tablet server will sleep between checking which tablets need compaction."),
   TSERV_MAJC_THREAD_MAXOPEN("tserver.compaction.major.thread.files.open.max", "10", PropertyType.COUNT,
       "Max number of files a major compaction thread can open at once. "),
+  TSERV_COMPACTION_PIPELINE_DEPTH("tserver.compaction.pipeline.depth", "0", PropertyType.COUNT,
+      "The number of batches of key values a major compaction reads ahead of each input file and queues for its output file, so that reading, merging "
+          + "and writing run on separate threads. Minor compactions always run on a single thread. Set to 0 to compact on a single thread."),
+  TSERV_COMPACTION_PIPELINE_THREADS("tserver.compaction.pipeline.threads.max", "16", PropertyType.COUNT,
+      "The maximum number of threads all major compactions on a tablet server may use to read their input files and write their output files "
+          + "ahead of merging. A compaction does the work on its own thread when none are free. Only used when tserver.compaction.pipeline.depth "
+          + "is positive."),
   TSERV_SCAN_MAX_OPENFILES("tserver.scan.files.open.max", "100", PropertyType.COUNT,
       "Maximum total files that all tablets in a tablet server can open for scans. "),
   TSERV_MAX_IDLE("tserver.files.open.idle", "1m", PropertyType.TIMEDURATION, "Tablet servers leave previously used files open for future queries. "
       + "This setting determines how much time an unused file should be kept open until it is closed."),
   TSERV_NATIVEMAP_ENABLED("tserver.memory.maps.native.enabled", "true", PropertyType.BOOLEAN,
       "An in-memory data store for accumulo implemented in c++ that increases the amount of data accumulo can hold in memory and avoids Java GC pauses."),
+  TSERV_NATIVEMAP_SHARDS("tserver.memory.maps.native.shards", "1", PropertyType.COUNT,
+      "The number of native maps each tablet's in-memory data is split across by row. Writes to different shards proceed in parallel, so a tablet "
+          + "receiving writes from many clients can use more than one core. Every tablet allocates each shard when first written, and scans and minor "
+          + "compactions merge the shards, so only raise this for tables with many concurrent writers per tablet."),
   TSERV_MAXMEM("tserver.memory.maps.max", "1G", PropertyType.MEMORY,
       "Maximum amount of memory that can be used to buffer data written to a tablet server. There are two other properties that can effectively limit memory"
           + " usage table.compaction.minor.logs.threshold and tserver.walog.max.size. Ensure that table.compaction.minor.logs.threshold *"
           + " tserver.walog.max.size >= this property."),
   TSERV_MEM_MGMT("tserver.memory.manager", "org.apache.accumulo.server.tabletserver.LargestFirstMemoryManager", PropertyType.CLASSNAME,
-      "An implementation of MemoryManger that accumulo will use."),
+      "An implementation of MemoryManger that accumulo will use. org.apache.accumulo.server.tabletserver.PredictiveMemoryManager forecasts memory use "
+          + "from ingest rates and flushes early enough that commits are not held under steady load."),
   TSERV_SESSION_MAXIDLE("tserver.session.idle.max", "1m", PropertyType.TIMEDURATION, "maximum idle time for a session"),
   TSERV_READ_AHEAD_MAXCONCURRENT("tserver.readahead.concurrent.max", "16", PropertyType.COUNT,
       "The maximum number of concurrent read ahead that will execute.  This effectively"
           + " limits the number of long running scans that can run concurrently per tserver."),
+  TSERV_PREFETCH_MAXCONCURRENT("tserver.prefetch.concurrent.max", "16", PropertyType.COUNT,
+      "The maximum number of threads that load file data blocks ahead of sequential scans. See table.file.prefetch.blocks.max."),
+  TSERV_MMAP_LOCAL_FILES("tserver.file.mmap.local", "false", PropertyType.BOOLEAN,
+      "Memory map files stored on the local file system when opening them to scan. Uncompressed blocks are then read in place and kept out of the data "
+          + "cache, and compressed blocks are decompressed straight from the mapping. Mappings are only released by garbage collection, so deleted or "
+          + "compacted files may hold disk and address space for a while, and mapped reads skip the local file system's checksums."),
   TSERV_METADATA_READ_AHEAD_MAXCONCURRENT("tserver.metadata.readahead.concurrent.max", "8", PropertyType.COUNT,
       "The maximum number of concurrent metadata read ahead that will execute."),
   TSERV_MIGRATE_MAXCONCURRENT("tserver.migrations.concurrent.max", "1", PropertyType.COUNT,
-      "The maximum number of concurrent tablet migrations for a tablet server"),
+      "The maximum number of concurrent tablet migrations for a tablet server. Unloading a tablet flushes its in-memory data, which shares the limit set "
+          + "by tserver.compaction.minor.throughput, and tablets with no in-memory data unload without flushing. Raising this lets unloads overlap."),
+  TSERV_ASSIGNMENT_MAXCONCURRENT("tserver.assignment.concurrent.max", "1", PropertyType.COUNT,
+      "The number of threads available to load tablets. Raising this lets tablets load concurrently, which adds load on the metadata table when many "
+          + "tablet servers start at once. Tablets that must recover write-ahead logs still recover one at a time."),
   TSERV_MAJC_MAXCONCURRENT("tserver.compaction.major.concurrent.max", "3", PropertyType.COUNT,
       "The maximum number of concurrent major compactions for a tablet server"),
   TSERV_MINC_MAXCONCURRENT("tserver.compaction.minor.concurrent.max", "4", PropertyType.COUNT,
       "The maximum number of concurrent minor compactions for a tablet server"),
+  TSERV_MAJC_THROUGHPUT("tserver.compaction.major.throughput", "0B", PropertyType.MEMORY,
+      "The maximum number of bytes per second that all major compactions on a tablet server may read and write together. While scans are running the "
+          + "limit is lowered, down to a quarter of this value when all read ahead threads are busy. Set to 0B for no limit."),
+  TSERV_MINC_THROUGHPUT("tserver.compaction.minor.throughput", "0B", PropertyType.MEMORY,
+      "The maximum number of bytes per second that all minor compactions on a tablet server may read and write together. Limiting minor compactions "
+          + "can cause writes to be held when memory fills. Set to 0B for no limit."),
   TSERV_BLOOM_LOAD_MAXCONCURRENT("tserver.bloom.load.concurrent.max", "4", PropertyType.COUNT,
       "The number of concurrent threads that will load bloom filters in the background. "
           + "Setting this to zero will make bloom filters load in the foreground."),
@@ -250,14 +284,34 @@ public enum Property {
   TABLE_MAJC_RATIO("table.compaction.major.ratio", "3", PropertyType.FRACTION,
       "minimum ratio of total input size to maximum input file size for running a major compaction.   When adjusting this property you may want to also "
           + "adjust table.file.max.  Want to avoid the situation where only merging minor compactions occur."),
+  TABLE_MAJC_WEIGHT("table.compaction.major.weight", "1", PropertyType.FRACTION,
+      "The relative priority of this table's major compactions. A tablet server runs queued major compactions for tablets with the most files that "
+          + "are read most often first, and this multiplies the priority of the table's tablets."),
   TABLE_MAJC_COMPACTALL_IDLETIME("table.compaction.major.everything.idle", "1h", PropertyType.TIMEDURATION,
       "After a tablet has been idle (no mutations) for this time period it may have all "
           + "of its files compacted into one.  There is no guarantee an idle tablet will be compacted. "
           + "Compactions of idle tablets are only started when regular compactions are not running. Idle "
           + "compactions only take place for tablets that have one or more files."),
+  TABLE_COMPACTION_STRATEGY("table.compaction.major.strategy", "org.apache.accumulo.server.tabletserver.compaction.DefaultCompactionStrategy",
+      PropertyType.CLASSNAME, "A customizable major compaction strategy, which decides what files are compacted and how the result is written.  The default"
+          + " strategy uses table.compaction.major.ratio.  org.apache.accumulo.server.tabletserver.compaction.SizeTieredCompactionStrategy compacts files of"
+          + " similar size together and org.apache.accumulo.server.tabletserver.compaction.TimeWindowCompactionStrategy only compacts files whose newest"
+          + " data falls in the same time window."),
+  TABLE_COMPACTION_STRATEGY_PREFIX("table.compaction.major.strategy.opts.", null, PropertyType.PREFIX,
+      "Properties in this category are used to configure the compaction strategy.  For example"
+          + " table.compaction.major.strategy.opts.min.threshold = 6 passes min.threshold=6 to the strategy."),
+  TABLE_COMPACTION_SINGLE_PASS("table.compaction.single.pass", "false", PropertyType.BOOLEAN,
+      "When a table has locality groups, compactions read their input once and write all locality groups at the same time, instead of reading the input"
+          + " again for each locality group.  This holds one data block in memory for each locality group."),
   TABLE_SPLIT_THRESHOLD("table.split.threshold", "1G", PropertyType.MEMORY, "When combined size of files exceeds this amount a tablet is split."),
   TABLE_MINC_LOGS_MAX("table.compaction.minor.logs.threshold", "3", PropertyType.COUNT,
       "When there are more than this many write-ahead logs against a tablet, it will be minor compacted.  See comment for property tserver.memory.maps.max"),
+  TABLE_INGEST_THROUGHPUT("table.ingest.throughput", "0B", PropertyType.MEMORY,
+      "The maximum number of mutation bytes per second each tablet server accepts for this table. Writes over the limit wait until the table is "
+          + "back under it, so only this table's writers slow down. Set to 0B for no limit."),
+  TABLE_INGEST_MEMORY_MAX("table.ingest.memory.max", "100%", PropertyType.FRACTION,
+      "The fraction of tserver.memory.maps.max this table's in-memory maps may use on a tablet server. While the table is over this, its "
+          + "largest tablet is flushed and commits to the table are held, instead of holding commits for every table once memory fills."),
   TABLE_MINC_COMPACT_IDLETIME("table.compaction.minor.idle", "5m", PropertyType.TIMEDURATION,
       "After a tablet has been idle (no mutations) for this time period it may have its "
           + "in-memory map flushed to disk in a minor compaction.  There is no guarantee an idle " + "tablet will be compacted."),
@@ -267,7 +321,8 @@ public enum Property {
   TABLE_FILE_TYPE("table.file.type", RFile.EXTENSION, PropertyType.STRING, "Change the type of file a table writes"),
   TABLE_LOAD_BALANCER("table.balancer", "org.apache.accumulo.server.master.balancer.DefaultLoadBalancer", PropertyType.STRING,
       "This property can be set to allow the LoadBalanceByTable load balancer to change the called Load Balancer for this table"),
-  TABLE_FILE_COMPRESSION_TYPE("table.file.compress.type", "gz", PropertyType.STRING, "One of gz,lzo,none"),
+  TABLE_FILE_COMPRESSION_TYPE("table.file.compress.type", "gz", PropertyType.STRING, "One of gz,lzo,snappy,lz4,zstd,none. Codecs other than gz and none "
+      + "need their Hadoop codec classes and native libraries. The zstd level is set with io.compression.codec.zstd.level in the Hadoop configuration."),
   TABLE_FILE_COMPRESSED_BLOCK_SIZE("table.file.compress.blocksize", "100K", PropertyType.MEMORY,
       "Similar to the hadoop io.seqfile.compress.blocksize setting, so that files have better query performance. The maximum value for this is "
           + Integer.MAX_VALUE + ". (This setting is the size threshold prior to compression, and applies even compression is disabled.)"),
@@ -278,11 +333,18 @@ public enum Property {
       "Overrides the hadoop dfs.block.size setting so that files have better query performance. The maximum value for this is " + Integer.MAX_VALUE),
   TABLE_FILE_REPLICATION("table.file.replication", "0", PropertyType.COUNT, "Determines how many replicas to keep of a tables' files in HDFS. "
       + "When this value is LTE 0, HDFS defaults are used."),
+  TABLE_FILE_PREFETCH_BLOCKS("table.file.prefetch.blocks.max", "4", PropertyType.COUNT,
+      "The maximum number of data blocks a scan reading sequentially through a file will load ahead of its position. A scan starts by loading one "
+          + "block ahead and goes further only when it has to wait for blocks it asked for. Prefetched blocks enter the data cache only when read. "
+          + "Set to 0 to disable."),
   TABLE_FILE_MAX("table.file.max", "15", PropertyType.COUNT,
       "Determines the max # of files each tablet in a table can have. When adjusting this property you may want to consider adjusting"
           + " table.compaction.major.ratio also.  Setting this property to 0 will make it default to tserver.scan.files.open.max-1, this will prevent a"
           + " tablet from having more files than can be opened.  Setting this property low may throttle ingest and increase query performance."),
   TABLE_WALOG_ENABLED("table.walog.enabled", "true", PropertyType.BOOLEAN, "Use the write-ahead log to prevent the loss of data."),
+  TABLE_DURABILITY("table.durability", "sync", PropertyType.DURABILITY,
+      "How durable writes to this table are when they are acknowledged. 'none' skips the write-ahead log, 'log' writes it without flushing, 'flush' "
+          + "sends it to the datanodes and 'sync' also syncs it to disk. When writes with different levels are logged together, the strongest level is used."),
   TABLE_BLOOM_ENABLED("table.bloom.enabled", "false", PropertyType.BOOLEAN, "Use bloom filters on this table."),
   TABLE_BLOOM_LOAD_THRESHOLD("table.bloom.load.threshold", "1", PropertyType.COUNT,
       "This number of seeks that would actually use a bloom filter must occur before a file's bloom filter is loaded."
@@ -291,9 +353,23 @@ public enum Property {
   TABLE_BLOOM_ERRORRATE("table.bloom.error.rate", "0.5%", PropertyType.FRACTION, "Bloom filter error rate."),
   TABLE_BLOOM_KEY_FUNCTOR("table.bloom.key.functor", "org.apache.accumulo.core.file.keyfunctor.RowFunctor", PropertyType.CLASSNAME,
       "A function that can transform the key prior to insertion and check of bloom filter.  org.apache.accumulo.core.file.keyfunctor.RowFunctor,"
-          + ",org.apache.accumulo.core.file.keyfunctor.ColumnFamilyFunctor, and org.apache.accumulo.core.file.keyfunctor.ColumnQualifierFunctor are"
-          + " allowable values. One can extend any of the above mentioned classes to perform specialized parsing of the key. "),
+          + ",org.apache.accumulo.core.file.keyfunctor.ColumnFamilyFunctor, org.apache.accumulo.core.file.keyfunctor.ColumnQualifierFunctor, and"
+          + " org.apache.accumulo.core.file.keyfunctor.RowPrefixFunctor are allowable values. One can extend any of the above mentioned classes to perform"
+          + " specialized parsing of the key. "),
+  TABLE_BLOOM_PREFIX_LENGTH("table.bloom.key.functor.prefix.length", "0", PropertyType.COUNT,
+      "The number of leading bytes of each row that the RowPrefixFunctor puts in the bloom filter.  Scans whose rows all share one prefix can then skip"
+          + " files.  Set this or table.bloom.key.functor.prefix.delimiter, but not both.  If both or neither are set, whole rows are used."),
+  TABLE_BLOOM_PREFIX_DELIMITER("table.bloom.key.functor.prefix.delimiter", "", PropertyType.STRING,
+      "When set, the RowPrefixFunctor puts each row up to and including the first occurrence of this string in the bloom filter.  Set this or"
+          + " table.bloom.key.functor.prefix.length, but not both."),
   TABLE_BLOOM_HASHTYPE("table.bloom.hash.type", "murmur", PropertyType.STRING, "The bloom filter hash type"),
+  TABLE_BLOOM_FORMAT("table.bloom.format", "dynamic", PropertyType.STRING,
+      "The bloom filter format written to new files.  The dynamic format spreads each key's bits over a large vector.  The blocked format keeps all of a"
+          + " key's bits in one 64 byte block, so a lookup touches a single cache line, and it can be probed without deserializing it.  A blocked filter for a"
+          + " file with up to table.bloom.size keys is sized for the keys in the file. Larger files get further filters of table.bloom.size keys, as dynamic"
+          + " ones do."),
+  TABLE_BLOOM_OFFHEAP("table.bloom.offheap", "false", PropertyType.BOOLEAN,
+      "When set to true, blocked bloom filters that are not already in the index cache are loaded into direct memory outside of the java heap."),
   TABLE_FAILURES_IGNORE("table.failures.ignore", "false", PropertyType.BOOLEAN,
       "If you want queries for your table to hang or fail when data is missing from the system, "
           + "then set this to false. When this set to true missing data will be reported but queries "
@@ -448,7 +524,8 @@ public enum Property {
     }
     
     return validTableProperties.contains(key) || key.startsWith(Property.TABLE_CONSTRAINT_PREFIX.getKey())
-        || key.startsWith(Property.TABLE_ITERATOR_PREFIX.getKey()) || key.startsWith(Property.TABLE_LOCALITY_GROUP_PREFIX.getKey());
+        || key.startsWith(Property.TABLE_ITERATOR_PREFIX.getKey()) || key.startsWith(Property.TABLE_LOCALITY_GROUP_PREFIX.getKey())
+        || key.startsWith(Property.TABLE_COMPACTION_STRATEGY_PREFIX.getKey());
   }
   
   private static final EnumSet<Property> fixedProperties = EnumSet.of(Property.TSERV_CLIENTPORT, Property.TSERV_NATIVEMAP_ENABLED,
@@ -482,7 +559,7 @@ public enum Property {
   public static boolean isClassProperty(String key) {
     return (key.startsWith(Property.TABLE_CONSTRAINT_PREFIX.getKey()) && key.substring(Property.TABLE_CONSTRAINT_PREFIX.getKey().length()).split("\\.").length == 1)
         || (key.startsWith(Property.TABLE_ITERATOR_PREFIX.getKey()) && key.substring(Property.TABLE_ITERATOR_PREFIX.getKey().length()).split("\\.").length == 2)
-        || key.equals(Property.TABLE_LOAD_BALANCER.getKey());
+        || key.equals(Property.TABLE_LOAD_BALANCER.getKey()) || key.equals(Property.TABLE_COMPACTION_STRATEGY.getKey());
   }
   
   public boolean isDeprecated() {
@@ -65,6 +65,8 @@ public enum PropertyType {
   STRING("string", ".*",
       "An arbitrary string of characters whose format is unspecified and interpreted based on the context of the property to which it applies."),
   BOOLEAN("boolean", "(?:true|false)", "Has a value of either 'true' or 'false'"),
+  DURABILITY("durability", "(?:none|log|flush|sync)", "One of 'none', 'log', 'flush' or 'sync'. Writes that are only logged are lost if the tablet server "
+      + "process dies, flushed writes are lost if the datanodes holding them lose power, and synced writes are on disk."),
   URI("uri", ".*", "A valid URI");
   
   private String shortname, format;
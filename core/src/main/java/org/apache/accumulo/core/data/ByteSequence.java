@@ -16,7 +16,7 @@
  */
 package org.apache.accumulo.core.data;
 
-import org.apache.hadoop.io.WritableComparator;
+import org.apache.accumulo.core.util.FastByteComparisons;
 
 public abstract class ByteSequence implements Comparable<ByteSequence> {
   
@@ -53,7 +53,7 @@ public abstract class ByteSequence implements Comparable<ByteSequence> {
   
   public int compareTo(ByteSequence obs) {
     if (isBackedByArray() && obs.isBackedByArray()) {
-      return WritableComparator.compareBytes(getBackingArray(), offset(), length(), obs.getBackingArray(), obs.offset(), obs.length());
+      return FastByteComparisons.compareTo(getBackingArray(), offset(), length(), obs.getBackingArray(), obs.offset(), obs.length());
     }
     
     return compareBytes(this, obs);
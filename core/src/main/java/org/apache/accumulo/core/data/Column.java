@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 
 import org.apache.accumulo.core.data.thrift.TColumn;
+import org.apache.accumulo.core.util.FastByteComparisons;
 import org.apache.hadoop.io.WritableComparable;
 import org.apache.hadoop.io.WritableComparator;
 
@@ -36,7 +37,7 @@ public class Column implements WritableComparable<Column> {
       return -1;
     if (b == null)
       return 1;
-    return WritableComparator.compareBytes(a, 0, a.length, b, 0, b.length);
+    return FastByteComparisons.compareTo(a, 0, a.length, b, 0, b.length);
   }
   
   public int compareTo(Column that) {
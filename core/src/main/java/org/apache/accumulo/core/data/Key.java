@@ -37,6 +37,7 @@ import org.apache.accumulo.core.Constants;
 import org.apache.accumulo.core.data.thrift.TKey;
 import org.apache.accumulo.core.data.thrift.TKeyValue;
 import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.accumulo.core.util.FastByteComparisons;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.WritableComparable;
 import org.apache.hadoop.io.WritableComparator;
@@ -335,7 +336,7 @@ public class Key implements WritableComparable<Key>, Cloneable {
    */
   
   public int compareRow(Text r) {
-    return WritableComparator.compareBytes(row, 0, row.length, r.getBytes(), 0, r.getLength());
+    return FastByteComparisons.compareTo(row, 0, row.length, r.getBytes(), 0, r.getLength());
   }
   
   /**
@@ -380,7 +381,7 @@ public class Key implements WritableComparable<Key>, Cloneable {
    */
   
   public int compareColumnFamily(Text cf) {
-    return WritableComparator.compareBytes(colFamily, 0, colFamily.length, cf.getBytes(), 0, cf.getLength());
+    return FastByteComparisons.compareTo(colFamily, 0, colFamily.length, cf.getBytes(), 0, cf.getLength());
   }
   
   /**
@@ -425,7 +426,7 @@ public class Key implements WritableComparable<Key>, Cloneable {
    */
   
   public int compareColumnQualifier(Text cq) {
-    return WritableComparator.compareBytes(colQualifier, 0, colQualifier.length, cq.getBytes(), 0, cq.getLength());
+    return FastByteComparisons.compareTo(colQualifier, 0, colQualifier.length, cq.getBytes(), 0, cq.getLength());
   }
   
   public void setTimestamp(long ts) {
@@ -583,22 +584,22 @@ public class Key implements WritableComparable<Key>, Cloneable {
   
   public int compareTo(Key other, PartialKey part) {
     // check for matching row
-    int result = WritableComparator.compareBytes(row, 0, row.length, other.row, 0, other.row.length);
+    int result = FastByteComparisons.compareTo(row, 0, row.length, other.row, 0, other.row.length);
     if (result != 0 || part.equals(PartialKey.ROW))
       return result;
     
     // check for matching column family
-    result = WritableComparator.compareBytes(colFamily, 0, colFamily.length, other.colFamily, 0, other.colFamily.length);
+    result = FastByteComparisons.compareTo(colFamily, 0, colFamily.length, other.colFamily, 0, other.colFamily.length);
     if (result != 0 || part.equals(PartialKey.ROW_COLFAM))
       return result;
     
     // check for matching column qualifier
-    result = WritableComparator.compareBytes(colQualifier, 0, colQualifier.length, other.colQualifier, 0, other.colQualifier.length);
+    result = FastByteComparisons.compareTo(colQualifier, 0, colQualifier.length, other.colQualifier, 0, other.colQualifier.length);
     if (result != 0 || part.equals(PartialKey.ROW_COLFAM_COLQUAL))
       return result;
     
     // check for matching column visibility
-    result = WritableComparator.compareBytes(colVisibility, 0, colVisibility.length, other.colVisibility, 0, other.colVisibility.length);
+    result = FastByteComparisons.compareTo(colVisibility, 0, colVisibility.length, other.colVisibility, 0, other.colVisibility.length);
     if (result != 0 || part.equals(PartialKey.ROW_COLFAM_COLQUAL_COLVIS))
       return result;
     
@@ -27,6 +27,7 @@ import java.nio.ByteBuffer;
 import java.util.List;
 
 import org.apache.accumulo.core.Constants;
+import org.apache.accumulo.core.util.FastByteComparisons;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.WritableComparable;
 import org.apache.hadoop.io.WritableComparator;
@@ -179,7 +180,7 @@ public class Value implements WritableComparable<Object> {
    */
   public int compareTo(final byte[] that) {
     int diff = this.value.length - that.length;
-    return (diff != 0) ? diff : WritableComparator.compareBytes(this.value, 0, this.value.length, that, 0, that.length);
+    return (diff != 0) ? diff : FastByteComparisons.compareTo(this.value, 0, this.value.length, that, 0, that.length);
   }
   
   /** {@inheritDoc} */
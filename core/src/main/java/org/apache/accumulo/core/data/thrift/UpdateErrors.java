@@ -52,6 +52,7 @@ import org.slf4j.LoggerFactory;
   private static final org.apache.thrift.protocol.TField FAILED_EXTENTS_FIELD_DESC = new org.apache.thrift.protocol.TField("failedExtents", org.apache.thrift.protocol.TType.MAP, (short)1);
   private static final org.apache.thrift.protocol.TField VIOLATION_SUMMARIES_FIELD_DESC = new org.apache.thrift.protocol.TField("violationSummaries", org.apache.thrift.protocol.TType.LIST, (short)2);
   private static final org.apache.thrift.protocol.TField AUTHORIZATION_FAILURES_FIELD_DESC = new org.apache.thrift.protocol.TField("authorizationFailures", org.apache.thrift.protocol.TType.MAP, (short)3);
+  private static final org.apache.thrift.protocol.TField HELD_EXTENTS_FIELD_DESC = new org.apache.thrift.protocol.TField("heldExtents", org.apache.thrift.protocol.TType.MAP, (short)4);
 
   private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
   static {
@@ -62,12 +63,14 @@ import org.slf4j.LoggerFactory;
   public Map<TKeyExtent,Long> failedExtents; // required
   public List<TConstraintViolationSummary> violationSummaries; // required
   public Map<TKeyExtent,org.apache.accumulo.core.client.impl.thrift.SecurityErrorCode> authorizationFailures; // required
+  public Map<TKeyExtent,Long> heldExtents; // optional
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
   @SuppressWarnings("all") public enum _Fields implements org.apache.thrift.TFieldIdEnum {
     FAILED_EXTENTS((short)1, "failedExtents"),
     VIOLATION_SUMMARIES((short)2, "violationSummaries"),
-    AUTHORIZATION_FAILURES((short)3, "authorizationFailures");
+    AUTHORIZATION_FAILURES((short)3, "authorizationFailures"),
+    HELD_EXTENTS((short)4, "heldExtents");
 
     private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
 
@@ -88,6 +91,8 @@ import org.slf4j.LoggerFactory;
           return VIOLATION_SUMMARIES;
         case 3: // AUTHORIZATION_FAILURES
           return AUTHORIZATION_FAILURES;
+        case 4: // HELD_EXTENTS
+          return HELD_EXTENTS;
         default:
           return null;
       }
@@ -128,6 +133,7 @@ import org.slf4j.LoggerFactory;
   }
 
   // isset id assignments
+  private _Fields optionals[] = {_Fields.HELD_EXTENTS};
   public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
     Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
@@ -142,6 +148,10 @@ import org.slf4j.LoggerFactory;
         new org.apache.thrift.meta_data.MapMetaData(org.apache.thrift.protocol.TType.MAP, 
             new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TKeyExtent.class), 
             new org.apache.thrift.meta_data.EnumMetaData(org.apache.thrift.protocol.TType.ENUM, org.apache.accumulo.core.client.impl.thrift.SecurityErrorCode.class))));
+    tmpMap.put(_Fields.HELD_EXTENTS, new org.apache.thrift.meta_data.FieldMetaData("heldExtents", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.MapMetaData(org.apache.thrift.protocol.TType.MAP, 
+            new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TKeyExtent.class), 
+            new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64))));
     metaDataMap = Collections.unmodifiableMap(tmpMap);
     org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(UpdateErrors.class, metaDataMap);
   }
@@ -201,6 +211,21 @@ import org.slf4j.LoggerFactory;
       }
       this.authorizationFailures = __this__authorizationFailures;
     }
+    if (other.isSetHeldExtents()) {
+      Map<TKeyExtent,Long> __this__heldExtents = new HashMap<TKeyExtent,Long>();
+      for (Map.Entry<TKeyExtent, Long> other_element : other.heldExtents.entrySet()) {
+
+        TKeyExtent other_element_key = other_element.getKey();
+        Long other_element_value = other_element.getValue();
+
+        TKeyExtent __this__heldExtents_copy_key = new TKeyExtent(other_element_key);
+
+        Long __this__heldExtents_copy_value = other_element_value;
+
+        __this__heldExtents.put(__this__heldExtents_copy_key, __this__heldExtents_copy_value);
+      }
+      this.heldExtents = __this__heldExtents;
+    }
   }
 
   public UpdateErrors deepCopy() {
@@ -212,6 +237,7 @@ import org.slf4j.LoggerFactory;
     this.failedExtents = null;
     this.violationSummaries = null;
     this.authorizationFailures = null;
+    this.heldExtents = null;
   }
 
   public int getFailedExtentsSize() {
@@ -323,6 +349,41 @@ import org.slf4j.LoggerFactory;
     }
   }
 
+  public int getHeldExtentsSize() {
+    return (this.heldExtents == null) ? 0 : this.heldExtents.size();
+  }
+
+  public void putToHeldExtents(TKeyExtent key, long val) {
+    if (this.heldExtents == null) {
+      this.heldExtents = new HashMap<TKeyExtent,Long>();
+    }
+    this.heldExtents.put(key, val);
+  }
+
+  public Map<TKeyExtent,Long> getHeldExtents() {
+    return this.heldExtents;
+  }
+
+  public UpdateErrors setHeldExtents(Map<TKeyExtent,Long> heldExtents) {
+    this.heldExtents = heldExtents;
+    return this;
+  }
+
+  public void unsetHeldExtents() {
+    this.heldExtents = null;
+  }
+
+  /** Returns true if field heldExtents is set (has been assigned a value) and false otherwise */
+  public boolean isSetHeldExtents() {
+    return this.heldExtents != null;
+  }
+
+  public void setHeldExtentsIsSet(boolean value) {
+    if (!value) {
+      this.heldExtents = null;
+    }
+  }
+
   public void setFieldValue(_Fields field, Object value) {
     switch (field) {
     case FAILED_EXTENTS:
@@ -349,6 +410,14 @@ import org.slf4j.LoggerFactory;
       }
       break;
 
+    case HELD_EXTENTS:
+      if (value == null) {
+        unsetHeldExtents();
+      } else {
+        setHeldExtents((Map<TKeyExtent,Long>)value);
+      }
+      break;
+
     }
   }
 
@@ -363,6 +432,9 @@ import org.slf4j.LoggerFactory;
     case AUTHORIZATION_FAILURES:
       return getAuthorizationFailures();
 
+    case HELD_EXTENTS:
+      return getHeldExtents();
+
     }
     throw new IllegalStateException();
   }
@@ -380,6 +452,8 @@ import org.slf4j.LoggerFactory;
       return isSetViolationSummaries();
     case AUTHORIZATION_FAILURES:
       return isSetAuthorizationFailures();
+    case HELD_EXTENTS:
+      return isSetHeldExtents();
     }
     throw new IllegalStateException();
   }
@@ -424,6 +498,15 @@ import org.slf4j.LoggerFactory;
         return false;
     }
 
+    boolean this_present_heldExtents = true && this.isSetHeldExtents();
+    boolean that_present_heldExtents = true && that.isSetHeldExtents();
+    if (this_present_heldExtents || that_present_heldExtents) {
+      if (!(this_present_heldExtents && that_present_heldExtents))
+        return false;
+      if (!this.heldExtents.equals(that.heldExtents))
+        return false;
+    }
+
     return true;
   }
 
@@ -470,6 +553,16 @@ import org.slf4j.LoggerFactory;
         return lastComparison;
       }
     }
+    lastComparison = Boolean.valueOf(isSetHeldExtents()).compareTo(typedOther.isSetHeldExtents());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetHeldExtents()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.heldExtents, typedOther.heldExtents);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     return 0;
   }
 
@@ -513,6 +606,16 @@ import org.slf4j.LoggerFactory;
       sb.append(this.authorizationFailures);
     }
     first = false;
+    if (isSetHeldExtents()) {
+      if (!first) sb.append(", ");
+      sb.append("heldExtents:");
+      if (this.heldExtents == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.heldExtents);
+      }
+      first = false;
+    }
     sb.append(")");
     return sb.toString();
   }
@@ -617,6 +720,27 @@ import org.slf4j.LoggerFactory;
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
             }
             break;
+          case 4: // HELD_EXTENTS
+            if (schemeField.type == org.apache.thrift.protocol.TType.MAP) {
+              {
+                org.apache.thrift.protocol.TMap _map78 = iprot.readMapBegin();
+                struct.heldExtents = new HashMap<TKeyExtent,Long>(2*_map78.size);
+                for (int _i79 = 0; _i79 < _map78.size; ++_i79)
+                {
+                  TKeyExtent _key80; // required
+                  long _val81; // required
+                  _key80 = new TKeyExtent();
+                  _key80.read(iprot);
+                  _val81 = iprot.readI64();
+                  struct.heldExtents.put(_key80, _val81);
+                }
+                iprot.readMapEnd();
+              }
+              struct.setHeldExtentsIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
           default:
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
         }
@@ -670,6 +794,21 @@ import org.slf4j.LoggerFactory;
         }
         oprot.writeFieldEnd();
       }
+      if (struct.heldExtents != null) {
+        if (struct.isSetHeldExtents()) {
+          oprot.writeFieldBegin(HELD_EXTENTS_FIELD_DESC);
+          {
+            oprot.writeMapBegin(new org.apache.thrift.protocol.TMap(org.apache.thrift.protocol.TType.STRUCT, org.apache.thrift.protocol.TType.I64, struct.heldExtents.size()));
+            for (Map.Entry<TKeyExtent, Long> _iter82 : struct.heldExtents.entrySet())
+            {
+              _iter82.getKey().write(oprot);
+              oprot.writeI64(_iter82.getValue());
+            }
+            oprot.writeMapEnd();
+          }
+          oprot.writeFieldEnd();
+        }
+      }
       oprot.writeFieldStop();
       oprot.writeStructEnd();
     }
@@ -697,7 +836,10 @@ import org.slf4j.LoggerFactory;
       if (struct.isSetAuthorizationFailures()) {
         optionals.set(2);
       }
-      oprot.writeBitSet(optionals, 3);
+      if (struct.isSetHeldExtents()) {
+        optionals.set(3);
+      }
+      oprot.writeBitSet(optionals, 4);
       if (struct.isSetFailedExtents()) {
         {
           oprot.writeI32(struct.failedExtents.size());
@@ -727,12 +869,22 @@ import org.slf4j.LoggerFactory;
           }
         }
       }
+      if (struct.isSetHeldExtents()) {
+        {
+          oprot.writeI32(struct.heldExtents.size());
+          for (Map.Entry<TKeyExtent, Long> _iter83 : struct.heldExtents.entrySet())
+          {
+            _iter83.getKey().write(oprot);
+            oprot.writeI64(_iter83.getValue());
+          }
+        }
+      }
     }
 
     @Override
     public void read(org.apache.thrift.protocol.TProtocol prot, UpdateErrors struct) throws org.apache.thrift.TException {
       TTupleProtocol iprot = (TTupleProtocol) prot;
-      BitSet incoming = iprot.readBitSet(3);
+      BitSet incoming = iprot.readBitSet(4);
       if (incoming.get(0)) {
         {
           org.apache.thrift.protocol.TMap _map67 = new org.apache.thrift.protocol.TMap(org.apache.thrift.protocol.TType.STRUCT, org.apache.thrift.protocol.TType.I64, iprot.readI32());
@@ -779,6 +931,22 @@ import org.slf4j.LoggerFactory;
         }
         struct.setAuthorizationFailuresIsSet(true);
       }
+      if (incoming.get(3)) {
+        {
+          org.apache.thrift.protocol.TMap _map84 = new org.apache.thrift.protocol.TMap(org.apache.thrift.protocol.TType.STRUCT, org.apache.thrift.protocol.TType.I64, iprot.readI32());
+          struct.heldExtents = new HashMap<TKeyExtent,Long>(2*_map84.size);
+          for (int _i85 = 0; _i85 < _map84.size; ++_i85)
+          {
+            TKeyExtent _key86; // required
+            long _val87; // required
+            _key86 = new TKeyExtent();
+            _key86.read(iprot);
+            _val87 = iprot.readI64();
+            struct.heldExtents.put(_key86, _val87);
+          }
+        }
+        struct.setHeldExtentsIsSet(true);
+      }
     }
   }
 
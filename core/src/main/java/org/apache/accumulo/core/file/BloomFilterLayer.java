@@ -36,6 +36,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.accumulo.core.bloomfilter.BlockedBloomFilter;
 import org.apache.accumulo.core.bloomfilter.DynamicBloomFilter;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.ConfigurationCopy;
@@ -44,7 +45,9 @@ import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile.CachedBlockRead;
 import org.apache.accumulo.core.file.keyfunctor.KeyFunctor;
+import org.apache.accumulo.core.file.keyfunctor.RowPrefixFunctor;
 import org.apache.accumulo.core.file.rfile.RFile;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
@@ -55,6 +58,7 @@ import org.apache.accumulo.start.classloader.vfs.AccumuloVFSClassLoader;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.util.bloom.Key;
 import org.apache.hadoop.util.hash.Hash;
 import org.apache.log4j.Logger;
@@ -66,6 +70,9 @@ import org.apache.log4j.Logger;
 public class BloomFilterLayer {
   private static final Logger LOG = Logger.getLogger(BloomFilterLayer.class);
   public static final String BLOOM_FILE_NAME = "acu_bloom";
+  public static final String BLOCKED_BLOOM_FILE_NAME = "acu_bloom_blocked";
+  public static final String DYNAMIC_FORMAT = "dynamic";
+  public static final String BLOCKED_FORMAT = "blocked";
   public static final int HASH_COUNT = 5;
   
   private static ExecutorService loadThreadPool = null;
@@ -85,6 +92,7 @@ public class BloomFilterLayer {
   
   public static class Writer implements FileSKVWriter {
     private DynamicBloomFilter bloomFilter;
+    private BlockedBloomFilter.Builder blockedBloomFilter;
     private int numKeys;
     private int vectorSize;
     
@@ -99,15 +107,17 @@ public class BloomFilterLayer {
     
     private synchronized void initBloomFilter(AccumuloConfiguration acuconf) {
       
-      numKeys = acuconf.getCount(Property.TABLE_BLOOM_SIZE);
-      // vector size should be <code>-kn / (ln(1 - c^(1/k)))</code> bits for
-      // single key, where <code> is the number of hash functions,
-      // <code>n</code> is the number of keys and <code>c</code> is the desired
-      // max. error rate.
-      // Our desired error rate is by default 0.005, i.e. 0.5%
       double errorRate = acuconf.getFraction(Property.TABLE_BLOOM_ERRORRATE);
-      vectorSize = (int) Math.ceil(-HASH_COUNT * numKeys / Math.log(1.0 - Math.pow(errorRate, 1.0 / HASH_COUNT)));
-      bloomFilter = new DynamicBloomFilter(vectorSize, HASH_COUNT, Hash.parseHashType(acuconf.get(Property.TABLE_BLOOM_HASHTYPE)), numKeys);
+      int hashType = Hash.parseHashType(acuconf.get(Property.TABLE_BLOOM_HASHTYPE));
+      String format = acuconf.get(Property.TABLE_BLOOM_FORMAT);
+      
+      if (BLOCKED_FORMAT.equals(format)) {
+        blockedBloomFilter = new BlockedBloomFilter.Builder(errorRate, hashType, acuconf.getCount(Property.TABLE_BLOOM_SIZE));
+      } else {
+        if (!DYNAMIC_FORMAT.equals(format))
+          LOG.warn("Unknown bloom filter format " + format + ", using " + DYNAMIC_FORMAT);
+        initDynamicBloomFilter(acuconf, errorRate, hashType);
+      }
       
       /**
        * load KeyFunctor
@@ -122,14 +132,32 @@ public class BloomFilterLayer {
         
       }
       
+      if (transformer instanceof RowPrefixFunctor)
+        ((RowPrefixFunctor) transformer).init(acuconf);
+      
+    }
+    
+    private void initDynamicBloomFilter(AccumuloConfiguration acuconf, double errorRate, int hashType) {
+      numKeys = acuconf.getCount(Property.TABLE_BLOOM_SIZE);
+      // vector size should be <code>-kn / (ln(1 - c^(1/k)))</code> bits for
+      // single key, where <code> is the number of hash functions,
+      // <code>n</code> is the number of keys and <code>c</code> is the desired
+      // max. error rate.
+      // Our desired error rate is by default 0.005, i.e. 0.5%
+      vectorSize = (int) Math.ceil(-HASH_COUNT * numKeys / Math.log(1.0 - Math.pow(errorRate, 1.0 / HASH_COUNT)));
+      bloomFilter = new DynamicBloomFilter(vectorSize, HASH_COUNT, hashType, numKeys);
     }
     
     @Override
     public synchronized void append(org.apache.accumulo.core.data.Key key, Value val) throws IOException {
       writer.append(key, val);
       Key bloomKey = transformer.transform(key);
-      if (bloomKey.getBytes().length > 0)
-        bloomFilter.add(bloomKey);
+      if (bloomKey.getBytes().length > 0) {
+        if (blockedBloomFilter != null)
+          blockedBloomFilter.add(bloomKey);
+        else
+          bloomFilter.add(bloomKey);
+      }
     }
     
     @Override
@@ -138,9 +166,15 @@ public class BloomFilterLayer {
       if (closed)
         return;
       
-      DataOutputStream out = writer.createMetaStore(BLOOM_FILE_NAME);
+      DataOutputStream out = writer.createMetaStore(blockedBloomFilter != null ? BLOCKED_BLOOM_FILE_NAME : BLOOM_FILE_NAME);
       out.writeUTF(transformer.getClass().getCanonicalName());
-      bloomFilter.write(out);
+      // functors with settings store them ahead of the filter, so reading a file does not depend on the current configuration
+      if (transformer instanceof Writable)
+        ((Writable) transformer).write(out);
+      if (blockedBloomFilter != null)
+        blockedBloomFilter.write(out);
+      else
+        bloomFilter.write(out);
       out.flush();
       out.close();
       writer.close();
@@ -163,6 +197,11 @@ public class BloomFilterLayer {
       writer.startNewLocalityGroup(name, columnFamilies);
     }
     
+    @Override
+    public void startAllLocalityGroups(Map<String,Set<ByteSequence>> groups) throws IOException {
+      writer.startAllLocalityGroups(groups);
+    }
+    
     @Override
     public boolean supportsLocalityGroups() {
       return writer.supportsLocalityGroups();
@@ -172,6 +211,7 @@ public class BloomFilterLayer {
   static class BloomFilterLoader {
     
     private volatile DynamicBloomFilter bloomFilter;
+    private volatile BlockedBloomFilter blockedBloomFilter;
     private int loadRequest = 0;
     private int loadThreshold = 1;
     private int maxLoadThreads;
@@ -185,6 +225,8 @@ public class BloomFilterLayer {
       
       loadThreshold = acuconf.getCount(Property.TABLE_BLOOM_LOAD_THRESHOLD);
       
+      final boolean offHeap = acuconf.getBoolean(Property.TABLE_BLOOM_OFFHEAP);
+      
       loadTask = new Runnable() {
         public void run() {
           
@@ -195,8 +237,13 @@ public class BloomFilterLayer {
           DataInputStream in = null;
           
           try {
-            in = reader.getMetaStore(BLOOM_FILE_NAME);
-            DynamicBloomFilter tmpBloomFilter = new DynamicBloomFilter();
+            boolean blocked = true;
+            try {
+              in = reader.getMetaStore(BLOCKED_BLOOM_FILE_NAME);
+            } catch (NoSuchMetaStoreException nsme) {
+              blocked = false;
+              in = reader.getMetaStore(BLOOM_FILE_NAME);
+            }
             
             // check for closed again after open but before reading the bloom filter in
             if (closed)
@@ -208,15 +255,30 @@ public class BloomFilterLayer {
             ClassName = in.readUTF();
             
             Class<? extends KeyFunctor> clazz = AccumuloVFSClassLoader.loadClass(ClassName, KeyFunctor.class);
-            transformer = clazz.newInstance();
+            KeyFunctor tmpTransformer = clazz.newInstance();
+            if (tmpTransformer instanceof Writable)
+              ((Writable) tmpTransformer).readFields(in);
+            transformer = tmpTransformer;
             
             /**
              * read in bloom filter
              */
             
-            tmpBloomFilter.readFields(in);
-            // only set the bloom filter after it is fully constructed
-            bloomFilter = tmpBloomFilter;
+            if (blocked) {
+              BlockedBloomFilter tmpBloomFilter;
+              if (!offHeap && in instanceof CachedBlockRead) {
+                // probe the cached meta block directly instead of copying it
+                tmpBloomFilter = BlockedBloomFilter.wrap(((CachedBlockRead) in).getRemainingBuffer());
+              } else {
+                tmpBloomFilter = BlockedBloomFilter.read(in, offHeap);
+              }
+              blockedBloomFilter = tmpBloomFilter;
+            } else {
+              DynamicBloomFilter tmpBloomFilter = new DynamicBloomFilter();
+              tmpBloomFilter.readFields(in);
+              // only set the bloom filter after it is fully constructed
+              bloomFilter = tmpBloomFilter;
+            }
           } catch (NoSuchMetaStoreException nsme) {
             // file does not have a bloom filter, ignore it
           } catch (IOException ioe) {
@@ -226,15 +288,19 @@ public class BloomFilterLayer {
               LOG.debug("Can't open BloomFilter, file closed : " + ioe.getMessage());
             
             bloomFilter = null;
+            blockedBloomFilter = null;
           } catch (ClassNotFoundException e) {
             LOG.error("Failed to find KeyFunctor in config: " + ClassName, e);
             bloomFilter = null;
+            blockedBloomFilter = null;
           } catch (InstantiationException e) {
             LOG.error("Could not instantiate KeyFunctor: " + ClassName, e);
             bloomFilter = null;
+            blockedBloomFilter = null;
           } catch (IllegalAccessException e) {
             LOG.error("Illegal acess exception", e);
             bloomFilter = null;
+            blockedBloomFilter = null;
           } catch (NullPointerException npe) {
             if (!closed)
               throw npe;
@@ -289,9 +355,9 @@ public class BloomFilterLayer {
      * @throws IOException
      */
     boolean probablyHasKey(Range range) throws IOException {
-      if (bloomFilter == null) {
+      if (bloomFilter == null && blockedBloomFilter == null) {
         initiateLoad(maxLoadThreads);
-        if (bloomFilter == null)
+        if (bloomFilter == null && blockedBloomFilter == null)
           return true;
       }
       
@@ -300,6 +366,10 @@ public class BloomFilterLayer {
       if (bloomKey == null || bloomKey.getBytes().length == 0)
         return true;
       
+      BlockedBloomFilter bbf = blockedBloomFilter;
+      if (bbf != null)
+        return bbf.membershipTest(bloomKey);
+      
       return bloomFilter.membershipTest(bloomKey);
     }
     
@@ -325,6 +395,10 @@ public class BloomFilterLayer {
     
     private boolean checkSuper = true;
     
+    boolean probablyHasKey(Range range) throws IOException {
+      return bfl.probablyHasKey(range);
+    }
+    
     @Override
     public boolean hasTop() {
       return checkSuper ? reader.hasTop() : false;
@@ -393,11 +467,21 @@ public class BloomFilterLayer {
       reader.closeDeepCopies();
     }
     
+    @Override
+    public boolean closeStream() throws IOException {
+      return reader.closeStream();
+    }
+    
     @Override
     public void setInterruptFlag(AtomicBoolean flag) {
       reader.setInterruptFlag(flag);
     }
     
+    @Override
+    public void setTimestampRange(TimestampRange timestampRange) {
+      reader.setTimestampRange(timestampRange);
+    }
+    
   }
   
   public static void main(String[] args) throws IOException {
@@ -31,5 +31,19 @@ public interface FileSKVIterator extends InterruptibleIterator {
   
   public void closeDeepCopies() throws IOException;
   
+  /**
+   * Restricts what subsequent seeks read to data that may contain keys with timestamps in the given range. Implementations are free to still return keys
+   * outside of the range, so this only reduces the amount of data read and never replaces filtering. Passing null removes any restriction.
+   */
+  public void setTimestampRange(TimestampRange timestampRange);
+  
+  /**
+   * Releases the file's open stream while keeping what was read from its indexes, so the reader can be reused later at the cost of opening a new stream. The
+   * reader must be seeked again before it is used, whether or not the stream was released. Should not be called while deep copies are in use.
+   * 
+   * @return false if the reader does not support reopening its stream, in which case nothing was released
+   */
+  public boolean closeStream() throws IOException;
+  
   public void close() throws IOException;
 }
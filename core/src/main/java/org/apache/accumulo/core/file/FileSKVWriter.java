@@ -18,6 +18,7 @@ package org.apache.accumulo.core.file;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.accumulo.core.data.ByteSequence;
@@ -31,6 +32,12 @@ public interface FileSKVWriter {
   
   void startDefaultLocalityGroup() throws IOException;
   
+  /**
+   * Starts the given locality groups and the default locality group at once. Keys are then appended in sorted order and each key is stored in the group of
+   * its column family, so that all groups can be written in one pass over the data. Only supported when {@link #supportsLocalityGroups()} is true.
+   */
+  void startAllLocalityGroups(Map<String,Set<ByteSequence>> groups) throws IOException;
+  
   void append(Key key, Value value) throws IOException;
   
   DataOutputStream createMetaStore(String name) throws IOException;
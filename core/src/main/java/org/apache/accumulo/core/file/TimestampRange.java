@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file;
+
+/**
+ * An inclusive range of key timestamps. A file reader that has been given a timestamp range may skip any data that it knows can not contain a key in the
+ * range.
+ */
+public class TimestampRange {
+
+  private final long start;
+  private final long end;
+
+  public TimestampRange(long start, long end) {
+    if (start > end)
+      throw new IllegalArgumentException("start " + start + " is after end " + end);
+    this.start = start;
+    this.end = end;
+  }
+
+  public long getStart() {
+    return start;
+  }
+
+  public long getEnd() {
+    return end;
+  }
+
+  public boolean contains(long timestamp) {
+    return timestamp >= start && timestamp <= end;
+  }
+
+  /**
+   * Determines if data with the given timestamp statistics can be skipped. Data containing delete markers is never excluded, because a delete can hide keys
+   * that are stored elsewhere.
+   *
+   * @param minTimestamp
+   *          the smallest timestamp in the data
+   * @param maxTimestamp
+   *          the largest timestamp in the data
+   * @param containsDeletes
+   *          true if the data contains at least one delete marker
+   * @return true if no key in the data can fall within this range
+   */
+  public boolean excludes(long minTimestamp, long maxTimestamp, boolean containsDeletes) {
+    if (containsDeletes)
+      return false;
+    return maxTimestamp < start || minTimestamp > end;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o instanceof TimestampRange) {
+      TimestampRange otr = (TimestampRange) o;
+      return start == otr.start && end == otr.end;
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (start ^ (start >>> 32)) * 31 + (int) (end ^ (end >>> 32));
+  }
+
+  @Override
+  public String toString() {
+    return "[" + start + "," + end + "]";
+  }
+}
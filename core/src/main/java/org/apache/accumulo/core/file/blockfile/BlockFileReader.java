@@ -34,8 +34,22 @@ public interface BlockFileReader {
   
   public void close() throws IOException;
   
+  /**
+   * Closes the underlying stream while keeping the file's indexes, so that the next block read only has to open a new stream.
+   * 
+   * @return false if the stream can not be reopened, in which case it is left open
+   */
+  public boolean closeStream() throws IOException;
+  
   public ABlockReader getMetaBlock(long offset, long compressedSize, long rawSize) throws IOException;
   
   public ABlockReader getDataBlock(long offset, long compressedSize, long rawSize) throws IOException;
   
+  /**
+   * Starts loading a data block in the background, for a reader that expects to need it soon. Does nothing if background loading is not available.
+   */
+  public void prefetchDataBlock(int blockIndex);
+  
+  public void prefetchDataBlock(long offset, long compressedSize, long rawSize);
+  
 }
@@ -54,6 +54,15 @@ public interface BlockCache {
    */
   public CacheEntry getBlock(String blockName);
   
+  /**
+   * Check for a block without counting it as an access.
+   * 
+   * @param blockName
+   *          Block number to check.
+   * @return true if the block is in the cache.
+   */
+  public boolean containsBlock(String blockName);
+  
   /**
    * Shutdown the cache.
    */
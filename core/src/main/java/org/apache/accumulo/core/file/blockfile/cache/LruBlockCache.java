@@ -300,6 +300,11 @@ public class LruBlockCache implements BlockCache, HeapSize {
     return cb;
   }
   
+  @Override
+  public boolean containsBlock(String blockName) {
+    return map.containsKey(blockName);
+  }
+  
   protected long evictBlock(CachedBlock block) {
     map.remove(block.getName());
     size.addAndGet(-1 * block.heapSize());
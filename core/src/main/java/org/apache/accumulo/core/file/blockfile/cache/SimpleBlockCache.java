@@ -99,6 +99,12 @@ public class SimpleBlockCache implements BlockCache {
     return ref.get();
   }
   
+  public synchronized boolean containsBlock(String blockName) {
+    processQueue();
+    Ref ref = cache.get(blockName);
+    return ref != null && ref.get() != null;
+  }
+  
   public synchronized SimpleCacheEntry cacheBlock(String blockName, byte buf[]) {
     SimpleCacheEntry sce = new SimpleCacheEntry(buf);
     cache.put(blockName, new Ref(blockName, sce, q));
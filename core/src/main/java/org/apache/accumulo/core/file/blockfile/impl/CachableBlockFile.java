@@ -19,9 +19,22 @@ package org.apache.accumulo.core.file.blockfile.impl;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.accumulo.core.file.blockfile.ABlockReader;
 import org.apache.accumulo.core.file.blockfile.ABlockWriter;
@@ -32,7 +45,10 @@ import org.apache.accumulo.core.file.blockfile.cache.CacheEntry;
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile;
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile.Reader.BlockReader;
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile.Writer.BlockAppender;
+import org.apache.accumulo.core.file.rfile.bcfile.TFile;
+import org.apache.accumulo.core.util.ByteBufferInputStream;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.ChecksumFileSystem;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
@@ -50,6 +66,40 @@ public class CachableBlockFile {
   
   private static final Logger log = Logger.getLogger(CachableBlockFile.class);
   
+  private static volatile ExecutorService prefetchExecutor = null;
+  private static volatile boolean mapLocalFiles = false;
+  private static final AtomicLong prefetchRequests = new AtomicLong();
+  private static final AtomicLong prefetchHits = new AtomicLong();
+  
+  /**
+   * Sets the pool that loads data blocks ahead of sequential readers. Until this is called, prefetch requests are ignored.
+   */
+  public static void setPrefetchExecutor(ExecutorService executor) {
+    prefetchExecutor = executor;
+  }
+  
+  /**
+   * Determines whether files opened afterwards on the local file system are memory mapped. Blocks of a mapped file are read straight from the mapping, and
+   * uncompressed blocks are served from it without being copied or cached.
+   */
+  public static void setMapLocalFiles(boolean map) {
+    mapLocalFiles = map;
+  }
+  
+  /**
+   * @return the number of data blocks whose background load was started
+   */
+  public static long getPrefetchRequests() {
+    return prefetchRequests.get();
+  }
+  
+  /**
+   * @return the number of data blocks that were read from a completed background load
+   */
+  public static long getPrefetchHits() {
+    return prefetchHits.get();
+  }
+  
   public static class Writer implements BlockFileWriter {
     private BCFile.Writer _bc;
     private BlockWrite _bw;
@@ -150,9 +200,49 @@ public class CachableBlockFile {
     private Configuration conf;
     private boolean closed = false;
     
+    // the reader of a stream closed by closeStream(), whose indexes are reused when the stream is reopened
+    private BCFile.Reader parked = null;
+    private long fileLength;
+    
+    // bounds the mapped blocks kept for reuse, so a reader that scans a whole file does not hold a reference to each of its blocks
+    private static final int MAX_MAPPED_BLOCKS = 128;
+    
+    // uncompressed blocks of a mapped file, which stay out of the block caches because the page cache already holds them; the least recently used are
+    // dropped first
+    private final Map<String,MappedBlock> mappedBlocks = new LinkedHashMap<String,MappedBlock>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+      
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String,MappedBlock> eldest) {
+        return size() > MAX_MAPPED_BLOCKS;
+      }
+    };
+    
+    // bounds the memory held by blocks prefetched for readers that then seek elsewhere
+    private static final int MAX_PREFETCHED_BLOCKS = 32;
+    
+    // data blocks being loaded in the background, keyed the same way as the data cache
+    private final Map<String,Future<byte[]>> prefetched = new LinkedHashMap<String,Future<byte[]>>() {
+      private static final long serialVersionUID = 1L;
+      
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String,Future<byte[]>> eldest) {
+        if (size() > MAX_PREFETCHED_BLOCKS) {
+          eldest.getValue().cancel(false);
+          return true;
+        }
+        return false;
+      }
+    };
+    
     private interface BlockLoader {
       BlockReader get() throws IOException;
       
+      /**
+       * @return the whole uncompressed block
+       */
+      byte[] read() throws IOException;
+      
       String getInfo();
     }
     
@@ -169,6 +259,11 @@ public class CachableBlockFile {
         return getBCFile().getDataBlock(blockIndex);
       }
       
+      @Override
+      public byte[] read() throws IOException {
+        return getBCFile().readDataBlock(blockIndex);
+      }
+      
       @Override
       public String getInfo() {
         return "" + blockIndex;
@@ -193,6 +288,11 @@ public class CachableBlockFile {
         return getBCFile().getDataBlock(offset, compressedSize, rawSize);
       }
       
+      @Override
+      public byte[] read() throws IOException {
+        return getBCFile().readDataBlock(offset, compressedSize, rawSize);
+      }
+      
       @Override
       public String getInfo() {
         return "" + offset + "," + compressedSize + "," + rawSize;
@@ -212,6 +312,11 @@ public class CachableBlockFile {
         return getBCFile().getMetaBlock(name);
       }
       
+      @Override
+      public byte[] read() throws IOException {
+        return getBCFile().readMetaBlock(name);
+      }
+      
       @Override
       public String getInfo() {
         return name;
@@ -243,7 +348,11 @@ public class CachableBlockFile {
     }
     
     private void init(FSDataInputStream fsin, long len, Configuration conf) throws IOException {
-      this._bc = new BCFile.Reader(this, fsin, len, conf);
+      init(fsin, len, conf, true);
+    }
+    
+    private void init(FSDataInputStream fsin, long len, Configuration conf, boolean positionalReads) throws IOException {
+      this._bc = new BCFile.Reader(this, fsin, len, conf, positionalReads);
     }
     
     private synchronized BCFile.Reader getBCFile() throws IOException {
@@ -254,12 +363,42 @@ public class CachableBlockFile {
         // lazily open file if needed
         Path path = new Path(fileName);
         fin = fs.open(path);
-        init(fin, fs.getFileStatus(path).getLen(), conf);
+        // the local file system verifies checksums by opening the file again for every positional read, and may be hidden behind a wrapper
+        boolean local = "file".equals(fs.getUri().getScheme());
+        boolean positionalReads = !(fs instanceof ChecksumFileSystem || local);
+        if (parked == null) {
+          fileLength = fs.getFileStatus(path).getLen();
+          init(fin, fileLength, conf, positionalReads);
+        } else {
+          _bc = new BCFile.Reader(parked, fin, conf, positionalReads);
+          parked = null;
+        }
+        
+        if (local && mapLocalFiles)
+          _bc.setMapped(map(new File(fs.makeQualified(path).toUri().getPath()), fileLength));
       }
       
       return _bc;
     }
     
+    private ByteBuffer map(File file, long len) {
+      if (len > Integer.MAX_VALUE)
+        return null;
+      
+      try {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+          // the mapping stays valid after the channel is closed and is released when it is garbage collected
+          return raf.getChannel().map(MapMode.READ_ONLY, 0, len);
+        } finally {
+          raf.close();
+        }
+      } catch (IOException e) {
+        log.warn("Failed to map " + fileName + ", reading it as a stream", e);
+        return null;
+      }
+    }
+    
     public BlockRead getCachedMetaBlock(String blockName) throws IOException {
       String _lookup = fileName + "M" + blockName;
       
@@ -306,12 +445,41 @@ public class CachableBlockFile {
         }
         
       }
+      byte[] prefetchedBlock = takePrefetched(_lookup);
+      if (prefetchedBlock != null)
+        return cacheBlock(_lookup, cache, prefetchedBlock);
+      
+      if (cache != null && !readsInPlace()) {
+        // the block will be held in memory anyway, so decompress it in one step rather than through streams
+        byte[] b;
+        try {
+          b = loader.read();
+        } catch (IOException e) {
+          log.debug("Error full blockRead for file " + fileName + " for block " + loader.getInfo(), e);
+          throw e;
+        }
+        return cacheBlock(_lookup, cache, b);
+      }
+      
       /**
        * grab the currBlock at this point the block is still in the data stream
        * 
        */
       _currBlock = loader.get();
       
+      if (_currBlock.getBuffer() != null) {
+        MappedBlock mb;
+        synchronized (mappedBlocks) {
+          mb = mappedBlocks.get(_lookup);
+          if (mb == null) {
+            mb = new MappedBlock(_currBlock.getBuffer());
+            mappedBlocks.put(_lookup, mb);
+          }
+        }
+        _currBlock.close();
+        return new CachedBlockRead(mb, mb.buffer);
+      }
+      
       /**
        * If the block is bigger than the cache just return the stream
        */
@@ -340,19 +508,101 @@ public class CachableBlockFile {
           _currBlock.close();
         }
         
-        CacheEntry ce = null;
+        return cacheBlock(_lookup, cache, b);
+      }
+    }
+    
+    /**
+     * @return true if uncompressed blocks of a mapped file are read, which are served from the mapping
+     */
+    private boolean readsInPlace() throws IOException {
+      BCFile.Reader bc = getBCFile();
+      return bc.isMapped() && bc.getDefaultCompressionName().equals(TFile.COMPRESSION_NONE);
+    }
+    
+    private BlockRead cacheBlock(String _lookup, BlockCache cache, byte b[]) {
+      CacheEntry ce = null;
+      if (cache != null && b.length <= cache.getMaxSize()) {
         try {
           ce = cache.cacheBlock(_lookup, b);
         } catch (Exception e) {
           log.warn("Already cached block: " + _lookup, e);
         }
+      }
+      
+      if (ce == null)
+        return new BlockRead(new DataInputStream(new ByteArrayInputStream(b)), b.length);
+      else
+        return new CachedBlockRead(ce, ce.getBuffer());
+    }
+    
+    private void prefetch(String _lookup, final BlockLoader loader) {
+      ExecutorService executor = prefetchExecutor;
+      if (executor == null || (_dCache != null && _dCache.containsBlock(_lookup)))
+        return;
+      
+      try {
+        if (readsInPlace())
+          return;
+      } catch (IOException e) {
+        return;
+      }
+      
+      synchronized (prefetched) {
+        if (closed || prefetched.containsKey(_lookup))
+          return;
         
-        if (ce == null)
-          return new BlockRead(new DataInputStream(new ByteArrayInputStream(b)), b.length);
-        else
-          return new CachedBlockRead(ce, ce.getBuffer());
-        
+        try {
+          prefetched.put(_lookup, executor.submit(new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws IOException {
+              return loader.read();
+            }
+          }));
+        } catch (RejectedExecutionException e) {
+          return;
+        }
       }
+      prefetchRequests.incrementAndGet();
+    }
+    
+    /**
+     * @return the contents of a prefetched block, or null if the block was not prefetched or its load did not get far enough to help
+     */
+    private byte[] takePrefetched(String _lookup) {
+      Future<byte[]> future;
+      synchronized (prefetched) {
+        if (prefetched.isEmpty())
+          return null;
+        future = prefetched.remove(_lookup);
+      }
+      
+      // a load that is still queued is no faster than reading the block on this thread
+      if (future == null || future.cancel(false))
+        return null;
+      
+      try {
+        byte[] b = future.get();
+        prefetchHits.incrementAndGet();
+        return b;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (CancellationException e) {
+        // fall through and read the block
+      } catch (ExecutionException e) {
+        log.debug("Failed to prefetch block " + _lookup + " of " + fileName + ", reading it again", e.getCause());
+      }
+      return null;
+    }
+    
+    @Override
+    public void prefetchDataBlock(int blockIndex) {
+      prefetch(this.fileName + "O" + blockIndex, new OffsetBlockLoader(blockIndex));
+    }
+    
+    @Override
+    public void prefetchDataBlock(long offset, long compressedSize, long rawSize) {
+      prefetch(this.fileName + "R" + offset, new RawBlockLoader(offset, compressedSize, rawSize));
     }
     
     /**
@@ -393,11 +643,51 @@ public class CachableBlockFile {
       return getBlock(_lookup, _dCache, new RawBlockLoader(offset, compressedSize, rawSize));
     }
     
+    @Override
+    public synchronized boolean closeStream() throws IOException {
+      if (closed)
+        throw new IllegalStateException("File " + fileName + " is closed");
+      
+      // a stream handed to the constructor can not be reopened
+      if (fs == null)
+        return false;
+      
+      if (_bc == null)
+        return true;
+      
+      synchronized (prefetched) {
+        for (Future<byte[]> future : prefetched.values())
+          future.cancel(false);
+        prefetched.clear();
+      }
+      
+      synchronized (mappedBlocks) {
+        mappedBlocks.clear();
+      }
+      
+      _bc.close();
+      parked = _bc;
+      _bc = null;
+      
+      fin.close();
+      fin = null;
+      return true;
+    }
+    
     public synchronized void close() throws IOException {
       if (closed)
         return;
       
-      closed = true;
+      synchronized (prefetched) {
+        closed = true;
+        for (Future<byte[]> future : prefetched.values())
+          future.cancel(false);
+        prefetched.clear();
+      }
+      
+      synchronized (mappedBlocks) {
+        mappedBlocks.clear();
+      }
       
       if (_bc != null)
         _bc.close();
@@ -409,39 +699,52 @@ public class CachableBlockFile {
     
   }
   
-  static class SeekableByteArrayInputStream extends ByteArrayInputStream {
+  /**
+   * Takes the place of a cache entry for an uncompressed block of a mapped file, holding the block's index while the file is open.
+   */
+  private static class MappedBlock implements CacheEntry {
+    private final ByteBuffer buffer;
+    private Object index;
     
-    public SeekableByteArrayInputStream(byte[] buf) {
-      super(buf);
+    MappedBlock(ByteBuffer buffer) {
+      this.buffer = buffer;
     }
     
-    public SeekableByteArrayInputStream(byte buf[], int offset, int length) {
-      super(buf, offset, length);
-      throw new UnsupportedOperationException("Seek code assumes offset is zero"); // do not need this constructor, documenting that seek will not work
-                                                                                  // unless offset it kept track of
+    /**
+     * @return a copy of the mapped block; readers use the mapping itself
+     */
+    @Override
+    public byte[] getBuffer() {
+      ByteBuffer bb = buffer.duplicate();
+      byte[] copy = new byte[bb.remaining()];
+      bb.get(copy);
+      return copy;
     }
     
-    public void seek(int position) {
-      if (pos < 0 || pos >= buf.length)
-        throw new IllegalArgumentException("pos = " + pos + " buf.lenght = " + buf.length);
-      this.pos = position;
+    @Override
+    public Object getIndex() {
+      return index;
     }
     
-    public int getPosition() {
-      return this.pos;
+    @Override
+    public void setIndex(Object idx) {
+      this.index = idx;
     }
-    
   }
-
+  
   public static class CachedBlockRead extends BlockRead {
-    private SeekableByteArrayInputStream seekableInput;
+    private ByteBufferInputStream seekableInput;
     private final CacheEntry cb;
     
     public CachedBlockRead(CacheEntry cb, byte buf[]) {
-      this(new SeekableByteArrayInputStream(buf), buf.length, cb);
+      this(cb, ByteBuffer.wrap(buf));
+    }
+    
+    public CachedBlockRead(CacheEntry cb, ByteBuffer buf) {
+      this(new ByteBufferInputStream(buf), buf.remaining(), cb);
     }
     
-    private CachedBlockRead(SeekableByteArrayInputStream seekableInput, long size, CacheEntry cb) {
+    private CachedBlockRead(ByteBufferInputStream seekableInput, long size, CacheEntry cb) {
         super(seekableInput, size);
         this.seekableInput = seekableInput;
         this.cb = cb;
@@ -457,6 +760,13 @@ public class CachableBlockFile {
       return seekableInput.getPosition();
     }
     
+    /**
+     * @return a read only view of the cached bytes from the current position to the end of the block. The bytes are not copied.
+     */
+    public ByteBuffer getRemainingBuffer() {
+      return seekableInput.remaining();
+    }
+    
     @Override
     public boolean isIndexable() {
       return true;
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.keyfunctor;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.accumulo.core.Constants;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.util.FastByteComparisons;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.log4j.Logger;
+
+/**
+ * Puts a prefix of each row into the bloom filter, so that a file can be ruled out for any range whose rows all share one prefix. The prefix is either a fixed
+ * number of bytes, or everything up to and including the first occurrence of a delimiter. A row that is shorter than the fixed length, or that does not contain
+ * the delimiter, is its own prefix.
+ * <p>
+ * The prefix settings are taken from {@link Property#TABLE_BLOOM_PREFIX_LENGTH} or {@link Property#TABLE_BLOOM_PREFIX_DELIMITER} when a file is written, and
+ * are stored in the file with the bloom filter so that changing the table configuration does not affect existing files. If both or neither are set, each
+ * whole row is put in the bloom filter, as the {@link RowFunctor} does.
+ */
+public class RowPrefixFunctor implements KeyFunctor, Writable {
+
+  private static final Logger log = Logger.getLogger(RowPrefixFunctor.class);
+
+  private int prefixLength = 0;
+  private byte[] delimiter = new byte[0];
+
+  public RowPrefixFunctor() {}
+
+  public RowPrefixFunctor(int prefixLength, byte[] delimiter) {
+    setPrefix(prefixLength, delimiter);
+  }
+
+  /**
+   * Configures the prefix from the table configuration. When both or neither of the prefix length and the prefix delimiter are set, a warning is logged and
+   * whole rows are used, so that files can still be written.
+   */
+  public void init(AccumuloConfiguration acuconf) {
+    int len = acuconf.getCount(Property.TABLE_BLOOM_PREFIX_LENGTH);
+    byte[] delim = acuconf.get(Property.TABLE_BLOOM_PREFIX_DELIMITER).getBytes(Constants.UTF8);
+    if ((len > 0) == (delim.length > 0)) {
+      log.warn("Exactly one of " + Property.TABLE_BLOOM_PREFIX_LENGTH.getKey() + " and " + Property.TABLE_BLOOM_PREFIX_DELIMITER.getKey()
+          + " should be set, putting whole rows in the bloom filter");
+      len = 0;
+      delim = new byte[0];
+    }
+    this.prefixLength = len;
+    this.delimiter = delim;
+  }
+
+  private void setPrefix(int prefixLength, byte[] delimiter) {
+    if ((prefixLength > 0) == (delimiter.length > 0))
+      throw new IllegalArgumentException("Exactly one of " + Property.TABLE_BLOOM_PREFIX_LENGTH.getKey() + " and "
+          + Property.TABLE_BLOOM_PREFIX_DELIMITER.getKey() + " must be set");
+    this.prefixLength = prefixLength;
+    this.delimiter = delimiter;
+  }
+
+  /**
+   * @return the length of the prefix of the row, or -1 if the row is too short or does not contain the delimiter
+   */
+  private int prefixLength(byte[] row, int offset, int length) {
+    if (prefixLength > 0)
+      return length >= prefixLength ? prefixLength : -1;
+    if (delimiter.length == 0)
+      return -1;
+
+    outer: for (int i = 0; i <= length - delimiter.length; i++) {
+      for (int j = 0; j < delimiter.length; j++)
+        if (row[offset + i + j] != delimiter[j])
+          continue outer;
+      return i + delimiter.length;
+    }
+    return -1;
+  }
+
+  @Override
+  public org.apache.hadoop.util.bloom.Key transform(Key acuKey) {
+    ByteSequence row = acuKey.getRowData();
+    int len = prefixLength(row.getBackingArray(), row.offset(), row.length());
+    if (len < 0)
+      len = row.length();
+
+    byte keyData[] = new byte[len];
+    System.arraycopy(row.getBackingArray(), row.offset(), keyData, 0, len);
+
+    return new org.apache.hadoop.util.bloom.Key(keyData, 1.0);
+  }
+
+  @Override
+  public org.apache.hadoop.util.bloom.Key transform(Range range) {
+    if (range.getStartKey() == null)
+      return null;
+
+    Text startRow = range.getStartKey().getRow();
+    int len = prefixLength(startRow.getBytes(), 0, startRow.getLength());
+
+    if (len < 0) {
+      // the row is its own prefix, so only a range within that row can be checked
+      if (RowFunctor.isRangeInBloomFilter(range, PartialKey.ROW))
+        return transform(range.getStartKey());
+      return null;
+    }
+
+    Text prefix = new Text();
+    prefix.set(startRow.getBytes(), 0, len);
+    Text followingPrefix = Range.followingPrefix(prefix);
+
+    // every row from the start row up to the following prefix shares the prefix
+    if (followingPrefix != null) {
+      Key endKey = range.getEndKey();
+      if (endKey == null)
+        return null;
+
+      int cmp = compare(endKey.getRowData(), followingPrefix);
+      if (cmp > 0)
+        return null;
+      if (cmp == 0 && (range.isEndKeyInclusive() || !endKey.equals(new Key(followingPrefix), PartialKey.ROW_COLFAM_COLQUAL_COLVIS_TIME)))
+        return null;
+    }
+
+    byte keyData[] = new byte[len];
+    System.arraycopy(startRow.getBytes(), 0, keyData, 0, len);
+    return new org.apache.hadoop.util.bloom.Key(keyData, 1.0);
+  }
+
+  private static int compare(ByteSequence row, Text text) {
+    return FastByteComparisons.compareTo(row.getBackingArray(), row.offset(), row.length(), text.getBytes(), 0, text.getLength());
+  }
+
+  @Override
+  public void write(DataOutput out) throws IOException {
+    out.writeInt(prefixLength);
+    out.writeInt(delimiter.length);
+    out.write(delimiter);
+  }
+
+  @Override
+  public void readFields(DataInput in) throws IOException {
+    int len = in.readInt();
+    byte[] delim = new byte[in.readInt()];
+    in.readFully(delim);
+    if (len > 0 && delim.length > 0)
+      throw new IOException("Prefix length and delimiter are both set");
+    this.prefixLength = len;
+    this.delimiter = delim;
+  }
+
+  @Override
+  public String toString() {
+    if (prefixLength > 0)
+      return getClass().getSimpleName() + "(length=" + prefixLength + ")";
+    if (delimiter.length == 0)
+      return getClass().getSimpleName() + "(row)";
+    return getClass().getSimpleName() + "(delimiter=" + new String(delimiter, Constants.UTF8) + ")";
+  }
+}
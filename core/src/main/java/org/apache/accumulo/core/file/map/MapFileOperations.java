@@ -32,6 +32,7 @@ import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.file.FileOperations;
 import org.apache.accumulo.core.file.FileSKVIterator;
 import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.accumulo.core.file.TimestampRange;
 import org.apache.accumulo.core.file.blockfile.cache.BlockCache;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
@@ -128,10 +129,20 @@ public class MapFileOperations extends FileOperations {
       ((FileSKVIterator) reader).closeDeepCopies();
     }
     
+    @Override
+    public boolean closeStream() throws IOException {
+      return ((FileSKVIterator) reader).closeStream();
+    }
+    
     @Override
     public void setInterruptFlag(AtomicBoolean flag) {
       ((FileSKVIterator) reader).setInterruptFlag(flag);
     }
+    
+    @Override
+    public void setTimestampRange(TimestampRange timestampRange) {
+      ((FileSKVIterator) reader).setTimestampRange(timestampRange);
+    }
   }
   
   @Override
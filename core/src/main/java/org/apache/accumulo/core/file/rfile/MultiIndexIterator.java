@@ -29,6 +29,7 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.TimestampRange;
 import org.apache.accumulo.core.file.rfile.MultiLevelIndex.IndexEntry;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
@@ -73,6 +74,11 @@ class MultiIndexIterator extends HeapIterator implements FileSKVIterator {
     throw new UnsupportedOperationException();
   }
   
+  @Override
+  public boolean closeStream() throws IOException {
+    return false;
+  }
+  
   @Override
   public Key getFirstKey() throws IOException {
     throw new UnsupportedOperationException();
@@ -93,4 +99,9 @@ class MultiIndexIterator extends HeapIterator implements FileSKVIterator {
     throw new UnsupportedOperationException();
   }
   
+  @Override
+  public void setTimestampRange(TimestampRange timestampRange) {
+    throw new UnsupportedOperationException();
+  }
+  
 }
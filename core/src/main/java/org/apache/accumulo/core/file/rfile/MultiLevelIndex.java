@@ -48,21 +48,38 @@ public class MultiLevelIndex {
     private long offset;
     private long compressedSize;
     private long rawSize;
+    private long minTimestamp = Long.MIN_VALUE;
+    private long maxTimestamp = Long.MAX_VALUE;
+    private boolean containsDeletes = true;
     private boolean newFormat;
+    private boolean hasTimestamps;
     
     IndexEntry(Key k, int e, long offset, long compressedSize, long rawSize) {
+      this(k, e, offset, compressedSize, rawSize, Long.MIN_VALUE, Long.MAX_VALUE, true);
+    }
+    
+    IndexEntry(Key k, int e, long offset, long compressedSize, long rawSize, long minTimestamp, long maxTimestamp, boolean containsDeletes) {
       this.key = k;
       this.entries = e;
       this.offset = offset;
       this.compressedSize = compressedSize;
       this.rawSize = rawSize;
+      this.minTimestamp = minTimestamp;
+      this.maxTimestamp = maxTimestamp;
+      this.containsDeletes = containsDeletes;
       newFormat = true;
+      hasTimestamps = true;
     }
     
     public IndexEntry(boolean newFormat) {
       this.newFormat = newFormat;
     }
     
+    IndexEntry(int version) {
+      this.newFormat = version != RFile.RINDEX_VER_3 && version != RFile.RINDEX_VER_4;
+      this.hasTimestamps = version == RFile.RINDEX_VER_8;
+    }
+    
     @Override
     public void readFields(DataInput in) throws IOException {
       key = new Key();
@@ -77,6 +94,17 @@ public class MultiLevelIndex {
         compressedSize = -1;
         rawSize = -1;
       }
+      
+      if (hasTimestamps) {
+        minTimestamp = Utils.readVLong(in);
+        maxTimestamp = Utils.readVLong(in);
+        containsDeletes = in.readBoolean();
+      } else {
+        // nothing is known about the timestamps, so the block can never be skipped
+        minTimestamp = Long.MIN_VALUE;
+        maxTimestamp = Long.MAX_VALUE;
+        containsDeletes = true;
+      }
     }
     
     @Override
@@ -88,6 +116,11 @@ public class MultiLevelIndex {
         Utils.writeVLong(out, compressedSize);
         Utils.writeVLong(out, rawSize);
       }
+      if (hasTimestamps) {
+        Utils.writeVLong(out, minTimestamp);
+        Utils.writeVLong(out, maxTimestamp);
+        out.writeBoolean(containsDeletes);
+      }
     }
     
     public Key getKey() {
@@ -110,6 +143,27 @@ public class MultiLevelIndex {
       return rawSize;
     }
     
+    /**
+     * @return the smallest timestamp of any key in the block, or Long.MIN_VALUE if the file does not record timestamps
+     */
+    public long getMinTimestamp() {
+      return minTimestamp;
+    }
+    
+    /**
+     * @return the largest timestamp of any key in the block, or Long.MAX_VALUE if the file does not record timestamps
+     */
+    public long getMaxTimestamp() {
+      return maxTimestamp;
+    }
+    
+    /**
+     * @return true if the block contains a delete marker, always true if the file does not record timestamps
+     */
+    public boolean containsDeletes() {
+      return containsDeletes;
+    }
+    
     @Override
     public int compareTo(IndexEntry o) {
       return key.compareTo(o.key);
@@ -121,12 +175,12 @@ public class MultiLevelIndex {
     
     private int[] offsets;
     private byte[] data;
-    private boolean newFormat;
+    private int version;
     
-    SerializedIndex(int[] offsets, byte[] data, boolean newFormat) {
+    SerializedIndex(int[] offsets, byte[] data, int version) {
       this.offsets = offsets;
       this.data = data;
-      this.newFormat = newFormat;
+      this.version = version;
     }
     
     @Override
@@ -140,7 +194,7 @@ public class MultiLevelIndex {
       ByteArrayInputStream bais = new ByteArrayInputStream(data, offsets[index], len);
       DataInputStream dis = new DataInputStream(bais);
       
-      IndexEntry ie = new IndexEntry(newFormat);
+      IndexEntry ie = new IndexEntry(version);
       try {
         ie.readFields(dis);
       } catch (IOException e) {
@@ -211,6 +265,11 @@ public class MultiLevelIndex {
     KeyIndex keyIndex;
     private boolean hasNext;
     
+    // timestamp statistics for everything added to this block, used for the parent index entry
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+    private boolean containsDeletes = false;
+    
     public IndexBlock(int level, int totalAdded) {
       // System.out.println("IndexBlock("+level+","+levelCount+","+totalAdded+")");
       
@@ -224,9 +283,12 @@ public class MultiLevelIndex {
     
     public IndexBlock() {}
     
-    public void add(Key key, int value, long offset, long compressedSize, long rawSize) throws IOException {
+    public void add(IndexEntry ie) throws IOException {
       offsets.add(indexOut.size());
-      new IndexEntry(key, value, offset, compressedSize, rawSize).write(indexOut);
+      ie.write(indexOut);
+      minTimestamp = Math.min(minTimestamp, ie.getMinTimestamp());
+      maxTimestamp = Math.max(maxTimestamp, ie.getMaxTimestamp());
+      containsDeletes |= ie.containsDeletes();
     }
     
     int getSize() {
@@ -252,7 +314,7 @@ public class MultiLevelIndex {
     
     public void readFields(DataInput in, int version) throws IOException {
       
-      if (version == RFile.RINDEX_VER_6 || version == RFile.RINDEX_VER_7) {
+      if (version == RFile.RINDEX_VER_6 || version == RFile.RINDEX_VER_7 || version == RFile.RINDEX_VER_8) {
         level = in.readInt();
         offset = in.readInt();
         hasNext = in.readBoolean();
@@ -267,7 +329,7 @@ public class MultiLevelIndex {
         byte[] serializedIndex = new byte[indexSize];
         in.readFully(serializedIndex);
         
-        index = new SerializedIndex(offsets, serializedIndex, true);
+        index = new SerializedIndex(offsets, serializedIndex, version);
         keyIndex = new KeyIndex(offsets, serializedIndex);
       } else if (version == RFile.RINDEX_VER_3) {
         level = 0;
@@ -295,7 +357,7 @@ public class MultiLevelIndex {
         }
         
         byte[] serializedIndex = baos.toByteArray();
-        index = new SerializedIndex(oia, serializedIndex, false);
+        index = new SerializedIndex(oia, serializedIndex, version);
         keyIndex = new KeyIndex(oia, serializedIndex);
       } else if (version == RFile.RINDEX_VER_4) {
         level = 0;
@@ -312,7 +374,7 @@ public class MultiLevelIndex {
         byte[] indexData = new byte[size];
         in.readFully(indexData);
         
-        index = new SerializedIndex(offsets, indexData, false);
+        index = new SerializedIndex(offsets, indexData, version);
         keyIndex = new KeyIndex(offsets, indexData);
       } else {
         throw new RuntimeException("Unexpected version " + version);
@@ -369,10 +431,10 @@ public class MultiLevelIndex {
       
       DataInputStream dis = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
       
-      IndexEntry ie = new IndexEntry(true);
       for (int i = 0; i < buffered; i++) {
+        IndexEntry ie = new IndexEntry(RFile.RINDEX_VER_8);
         ie.readFields(dis);
-        writer.add(ie.getKey(), ie.getNumEntries(), ie.getOffset(), ie.getCompressedSize(), ie.getRawSize());
+        writer.add(ie);
       }
       
       buffered = 0;
@@ -382,17 +444,25 @@ public class MultiLevelIndex {
     }
     
     public void add(Key key, int data, long offset, long compressedSize, long rawSize) throws IOException {
+      add(new IndexEntry(key, data, offset, compressedSize, rawSize));
+    }
+    
+    void add(IndexEntry ie) throws IOException {
       if (buffer.size() > (10 * 1 << 20)) {
         flush();
       }
       
-      new IndexEntry(key, data, offset, compressedSize, rawSize).write(buffer);
+      ie.write(buffer);
       buffered++;
     }
     
     public void addLast(Key key, int data, long offset, long compressedSize, long rawSize) throws IOException {
+      addLast(new IndexEntry(key, data, offset, compressedSize, rawSize));
+    }
+    
+    void addLast(IndexEntry ie) throws IOException {
       flush();
-      writer.addLast(key, data, offset, compressedSize, rawSize);
+      writer.addLast(ie);
     }
     
     public void close(DataOutput out) throws IOException {
@@ -417,14 +487,14 @@ public class MultiLevelIndex {
       levels = new ArrayList<IndexBlock>();
     }
     
-    private void add(int level, Key key, int data, long offset, long compressedSize, long rawSize) throws IOException {
+    private void add(int level, IndexEntry ie) throws IOException {
       if (level == levels.size()) {
         levels.add(new IndexBlock(level, 0));
       }
       
       IndexBlock iblock = levels.get(level);
       
-      iblock.add(key, data, offset, compressedSize, rawSize);
+      iblock.add(ie);
     }
     
     private void flush(int level, Key lastKey, boolean last) throws IOException {
@@ -439,7 +509,8 @@ public class MultiLevelIndex {
         iblock.write(out);
         out.close();
         
-        add(level + 1, lastKey, 0, out.getStartPos(), out.getCompressedSize(), out.getRawSize());
+        add(level + 1, new IndexEntry(lastKey, 0, out.getStartPos(), out.getCompressedSize(), out.getRawSize(), iblock.minTimestamp, iblock.maxTimestamp,
+            iblock.containsDeletes));
         flush(level + 1, lastKey, last);
         
         if (last)
@@ -450,18 +521,26 @@ public class MultiLevelIndex {
     }
     
     public void add(Key key, int data, long offset, long compressedSize, long rawSize) throws IOException {
+      add(new IndexEntry(key, data, offset, compressedSize, rawSize));
+    }
+    
+    void add(IndexEntry ie) throws IOException {
       totalAdded++;
-      add(0, key, data, offset, compressedSize, rawSize);
-      flush(0, key, false);
+      add(0, ie);
+      flush(0, ie.getKey(), false);
     }
     
     public void addLast(Key key, int data, long offset, long compressedSize, long rawSize) throws IOException {
+      addLast(new IndexEntry(key, data, offset, compressedSize, rawSize));
+    }
+    
+    void addLast(IndexEntry ie) throws IOException {
       if (addedLast)
         throw new IllegalStateException("already added last");
       
       totalAdded++;
-      add(0, key, data, offset, compressedSize, rawSize);
-      flush(0, key, true);
+      add(0, ie);
+      flush(0, ie.getKey(), true);
       addedLast = true;
       
     }
@@ -723,7 +802,7 @@ public class MultiLevelIndex {
       
       size = 0;
       
-      if (version == RFile.RINDEX_VER_6 || version == RFile.RINDEX_VER_7) {
+      if (version == RFile.RINDEX_VER_6 || version == RFile.RINDEX_VER_7 || version == RFile.RINDEX_VER_8) {
         size = in.readInt();
       }
       
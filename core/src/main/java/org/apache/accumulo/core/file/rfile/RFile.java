@@ -16,6 +16,7 @@
  */
 package org.apache.accumulo.core.file.rfile;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
@@ -46,6 +47,7 @@ import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.file.FileSKVIterator;
 import org.apache.accumulo.core.file.FileSKVWriter;
 import org.apache.accumulo.core.file.NoSuchMetaStoreException;
+import org.apache.accumulo.core.file.TimestampRange;
 import org.apache.accumulo.core.file.blockfile.ABlockReader;
 import org.apache.accumulo.core.file.blockfile.ABlockWriter;
 import org.apache.accumulo.core.file.blockfile.BlockFileReader;
@@ -72,6 +74,7 @@ public class RFile {
   private RFile() {}
   
   private static final int RINDEX_MAGIC = 0x20637474;
+  static final int RINDEX_VER_8 = 8; // Added min/max timestamps to index entries and locality groups
   static final int RINDEX_VER_7 = 7;
   static final int RINDEX_VER_6 = 6;
   // static final int RINDEX_VER_5 = 5; // unreleased
@@ -102,10 +105,18 @@ public class RFile {
     
     private MultiLevelIndex.BufferedWriter indexWriter;
     private MultiLevelIndex.Reader indexReader;
+    private int version = RINDEX_VER_8;
+    
+    // when writing these start out empty, when reading a file that does not
+    // store them they are set to values that will never skip anything
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+    private boolean containsDeletes = false;
     
     public LocalityGroupMetadata(int version, BlockFileReader br) {
       columnFamilies = new HashMap<ByteSequence,Count>();
       indexReader = new MultiLevelIndex.Reader(br, version);
+      this.version = version;
     }
     
     public LocalityGroupMetadata(int nextBlock, Set<ByteSequence> pcf, int indexBlockSize, BlockFileWriter bfw) {
@@ -180,6 +191,12 @@ public class RFile {
       
     }
     
+    private void updateTimestamps(Key key) {
+      minTimestamp = Math.min(minTimestamp, key.getTimestamp());
+      maxTimestamp = Math.max(maxTimestamp, key.getTimestamp());
+      containsDeletes |= key.isDeleted();
+    }
+    
     @Override
     public void readFields(DataInput in) throws IOException {
       
@@ -220,6 +237,16 @@ public class RFile {
         firstKey = null;
       }
       
+      if (version == RINDEX_VER_8) {
+        minTimestamp = in.readLong();
+        maxTimestamp = in.readLong();
+        containsDeletes = in.readBoolean();
+      } else {
+        minTimestamp = Long.MIN_VALUE;
+        maxTimestamp = Long.MAX_VALUE;
+        containsDeletes = true;
+      }
+      
       indexReader.readFields(in);
     }
     
@@ -250,6 +277,10 @@ public class RFile {
       if (firstKey != null)
         firstKey.write(out);
       
+      out.writeLong(minTimestamp);
+      out.writeLong(maxTimestamp);
+      out.writeBoolean(containsDeletes);
+      
       indexWriter.close(out);
     }
     
@@ -281,36 +312,173 @@ public class RFile {
       }
       
       out.println("\tNum entries          : " + String.format("%,d", numKeys));
+      if (version == RINDEX_VER_8 && numKeys > 0) {
+        out.println("\tMin timestamp        : " + minTimestamp);
+        out.println("\tMax timestamp        : " + maxTimestamp);
+        out.println("\tContains deletes     : " + containsDeletes);
+      }
       out.println("\tColumn families      : " + (isDefaultLG && columnFamilies == null ? "<UNKNOWN>" : columnFamilies.keySet()));
     }
     
   }
   
+  /**
+   * Buffers a data block in memory and writes it to the file when it is closed. This allows blocks for many locality groups to be built at the same time,
+   * while each block is still written out as one contiguous piece.
+   */
+  private static class BufferedBlockWriter extends DataOutputStream implements ABlockWriter {
+    private final BlockFileWriter fileWriter;
+    private final ByteArrayOutputStream buffer;
+    private ABlockWriter blockWriter = null;
+    
+    BufferedBlockWriter(BlockFileWriter fileWriter, ByteArrayOutputStream buffer) {
+      super(buffer);
+      this.fileWriter = fileWriter;
+      this.buffer = buffer;
+      buffer.reset();
+    }
+    
+    @Override
+    public long getCompressedSize() throws IOException {
+      return blockWriter.getCompressedSize();
+    }
+    
+    @Override
+    public void close() throws IOException {
+      blockWriter = fileWriter.prepareDataBlock();
+      buffer.writeTo(blockWriter.getStream());
+      blockWriter.close();
+    }
+    
+    @Override
+    public long getRawSize() throws IOException {
+      if (blockWriter == null)
+        return size();
+      return blockWriter.getRawSize();
+    }
+    
+    @Override
+    public long getStartPos() throws IOException {
+      return blockWriter.getStartPos();
+    }
+    
+    @Override
+    public DataOutputStream getStream() throws IOException {
+      return this;
+    }
+  }
+  
   public static class Writer implements FileSKVWriter {
     
     public static final int MAX_CF_IN_DLG = 1000;
     
     private BlockFileWriter fileWriter;
-    private ABlockWriter blockWriter;
     
     // private BlockAppender blockAppender;
     private long blockSize = 100000;
     private int indexBlockSize;
-    private int entries = 0;
     
     private ArrayList<LocalityGroupMetadata> localityGroups = new ArrayList<LocalityGroupMetadata>();
-    private LocalityGroupMetadata currentLocalityGroup = null;
+    private LocalityGroupWriter currentLocalityGroup = null;
     private int nextBlock = 0;
     
-    private Key lastKeyInBlock = null;
+    // when all locality groups are written at once, the writers in the order they will be stored and the named group of each column family
+    private List<LocalityGroupWriter> allLocalityGroups = null;
+    private Map<ByteSequence,LocalityGroupWriter> familyGroups = null;
     
     private boolean dataClosed = false;
     private boolean closed = false;
-    private Key prevKey = new Key();
     private boolean startedDefaultLocalityGroup = false;
     
     private HashSet<ByteSequence> previousColumnFamilies;
     
+    private class LocalityGroupWriter {
+      private final LocalityGroupMetadata metadata;
+      // set when blocks are buffered in memory
+      private final ByteArrayOutputStream blockBuffer;
+      
+      private ABlockWriter blockWriter = null;
+      private int entries = 0;
+      private Key lastKeyInBlock = null;
+      private Key prevKey = new Key();
+      
+      private long blockMinTimestamp = Long.MAX_VALUE;
+      private long blockMaxTimestamp = Long.MIN_VALUE;
+      private boolean blockContainsDeletes = false;
+      
+      LocalityGroupWriter(LocalityGroupMetadata metadata, boolean buffered) {
+        this.metadata = metadata;
+        this.blockBuffer = buffered ? new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE, blockSize + blockSize / 4)) : null;
+      }
+      
+      private ABlockWriter prepareDataBlock() throws IOException {
+        if (blockBuffer != null)
+          return new BufferedBlockWriter(fileWriter, blockBuffer);
+        return fileWriter.prepareDataBlock();
+      }
+      
+      void append(Key key, Value value) throws IOException {
+        
+        if (key.compareTo(prevKey) < 0) {
+          throw new IllegalStateException("Keys appended out-of-order.  New key " + key + ", previous key " + prevKey);
+        }
+        
+        metadata.updateColumnCount(key);
+        metadata.updateTimestamps(key);
+        
+        if (metadata.getFirstKey() == null) {
+          metadata.setFirstKey(key);
+        }
+        
+        if (blockWriter == null) {
+          blockWriter = prepareDataBlock();
+        } else if (blockWriter.getRawSize() > blockSize) {
+          closeBlock(prevKey, false);
+          blockWriter = prepareDataBlock();
+        }
+        
+        RelativeKey rk = new RelativeKey(lastKeyInBlock, key);
+        
+        rk.write(blockWriter);
+        value.write(blockWriter);
+        entries++;
+        
+        blockMinTimestamp = Math.min(blockMinTimestamp, key.getTimestamp());
+        blockMaxTimestamp = Math.max(blockMaxTimestamp, key.getTimestamp());
+        blockContainsDeletes |= key.isDeleted();
+        
+        prevKey = new Key(key);
+        lastKeyInBlock = prevKey;
+        
+      }
+      
+      private void closeBlock(Key key, boolean lastBlock) throws IOException {
+        blockWriter.close();
+        
+        IndexEntry ie = new IndexEntry(key, entries, blockWriter.getStartPos(), blockWriter.getCompressedSize(), blockWriter.getRawSize(), blockMinTimestamp,
+            blockMaxTimestamp, blockContainsDeletes);
+        
+        if (lastBlock)
+          metadata.indexWriter.addLast(ie);
+        else
+          metadata.indexWriter.add(ie);
+        
+        blockWriter = null;
+        lastKeyInBlock = null;
+        entries = 0;
+        blockMinTimestamp = Long.MAX_VALUE;
+        blockMaxTimestamp = Long.MIN_VALUE;
+        blockContainsDeletes = false;
+        nextBlock++;
+      }
+      
+      void close() throws IOException {
+        if (blockWriter != null) {
+          closeBlock(lastKeyInBlock, true);
+        }
+      }
+    }
+    
     public Writer(BlockFileWriter bfw, int blockSize) throws IOException {
       this(bfw, blockSize, (int) AccumuloConfiguration.getDefaultConfiguration().getMemoryInBytes(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE_INDEX));
     }
@@ -319,7 +487,6 @@ public class RFile {
       this.blockSize = blockSize;
       this.indexBlockSize = indexBlockSize;
       this.fileWriter = bfw;
-      this.blockWriter = null;
       previousColumnFamilies = new HashSet<ByteSequence>();
     }
     
@@ -335,10 +502,10 @@ public class RFile {
       ABlockWriter mba = fileWriter.prepareMetaBlock("RFile.index");
       
       mba.writeInt(RINDEX_MAGIC);
-      mba.writeInt(RINDEX_VER_7);
+      mba.writeInt(RINDEX_VER_8);
       
       if (currentLocalityGroup != null)
-        localityGroups.add(currentLocalityGroup);
+        localityGroups.add(currentLocalityGroup.metadata);
       
       mba.writeInt(localityGroups.size());
       
@@ -361,8 +528,11 @@ public class RFile {
       
       dataClosed = true;
       
-      if (blockWriter != null) {
-        closeBlock(lastKeyInBlock, true);
+      if (allLocalityGroups != null) {
+        for (LocalityGroupWriter lgw : allLocalityGroups)
+          lgw.close();
+      } else if (currentLocalityGroup != null) {
+        currentLocalityGroup.close();
       }
     }
     
@@ -373,46 +543,14 @@ public class RFile {
         throw new IllegalStateException("Cannont append, data closed");
       }
       
-      if (key.compareTo(prevKey) < 0) {
-        throw new IllegalStateException("Keys appended out-of-order.  New key " + key + ", previous key " + prevKey);
-      }
-      
-      currentLocalityGroup.updateColumnCount(key);
-      
-      if (currentLocalityGroup.getFirstKey() == null) {
-        currentLocalityGroup.setFirstKey(key);
-      }
-      
-      if (blockWriter == null) {
-        blockWriter = fileWriter.prepareDataBlock();
-      } else if (blockWriter.getRawSize() > blockSize) {
-        closeBlock(prevKey, false);
-        blockWriter = fileWriter.prepareDataBlock();
+      if (familyGroups != null) {
+        LocalityGroupWriter lgw = familyGroups.get(key.getColumnFamilyData());
+        if (lgw == null)
+          lgw = currentLocalityGroup;
+        lgw.append(key, value);
+      } else {
+        currentLocalityGroup.append(key, value);
       }
-      
-      RelativeKey rk = new RelativeKey(lastKeyInBlock, key);
-      
-      rk.write(blockWriter);
-      value.write(blockWriter);
-      entries++;
-      
-      prevKey = new Key(key);
-      lastKeyInBlock = prevKey;
-      
-    }
-    
-    private void closeBlock(Key key, boolean lastBlock) throws IOException {
-      blockWriter.close();
-      
-      if (lastBlock)
-        currentLocalityGroup.indexWriter.addLast(key, entries, blockWriter.getStartPos(), blockWriter.getCompressedSize(), blockWriter.getRawSize());
-      else
-        currentLocalityGroup.indexWriter.add(key, entries, blockWriter.getStartPos(), blockWriter.getCompressedSize(), blockWriter.getRawSize());
-      
-      blockWriter = null;
-      lastKeyInBlock = null;
-      entries = 0;
-      nextBlock++;
     }
     
     @Override
@@ -422,6 +560,22 @@ public class RFile {
       return (DataOutputStream) fileWriter.prepareMetaBlock(name);
     }
     
+    private LocalityGroupMetadata newLocalityGroup(String name, Set<ByteSequence> columnFamilies) {
+      if (columnFamilies == null) {
+        startedDefaultLocalityGroup = true;
+        return new LocalityGroupMetadata(nextBlock, previousColumnFamilies, indexBlockSize, fileWriter);
+      } else {
+        if (!Collections.disjoint(columnFamilies, previousColumnFamilies)) {
+          HashSet<ByteSequence> overlap = new HashSet<ByteSequence>(columnFamilies);
+          overlap.retainAll(previousColumnFamilies);
+          throw new IllegalArgumentException("Column families over lap with previous locality group : " + overlap);
+        }
+        LocalityGroupMetadata lgm = new LocalityGroupMetadata(name, columnFamilies, nextBlock, indexBlockSize, fileWriter);
+        previousColumnFamilies.addAll(columnFamilies);
+        return lgm;
+      }
+    }
+    
     private void _startNewLocalityGroup(String name, Set<ByteSequence> columnFamilies) throws IOException {
       if (dataClosed) {
         throw new IllegalStateException("data closed");
@@ -431,28 +585,12 @@ public class RFile {
         throw new IllegalStateException("Can not start anymore new locality groups after default locality group started");
       }
       
-      if (blockWriter != null) {
-        closeBlock(lastKeyInBlock, true);
-      }
-      
       if (currentLocalityGroup != null) {
-        localityGroups.add(currentLocalityGroup);
-      }
-      
-      if (columnFamilies == null) {
-        startedDefaultLocalityGroup = true;
-        currentLocalityGroup = new LocalityGroupMetadata(nextBlock, previousColumnFamilies, indexBlockSize, fileWriter);
-      } else {
-        if (!Collections.disjoint(columnFamilies, previousColumnFamilies)) {
-          HashSet<ByteSequence> overlap = new HashSet<ByteSequence>(columnFamilies);
-          overlap.retainAll(previousColumnFamilies);
-          throw new IllegalArgumentException("Column families over lap with previous locality group : " + overlap);
-        }
-        currentLocalityGroup = new LocalityGroupMetadata(name, columnFamilies, nextBlock, indexBlockSize, fileWriter);
-        previousColumnFamilies.addAll(columnFamilies);
+        currentLocalityGroup.close();
+        localityGroups.add(currentLocalityGroup.metadata);
       }
       
-      prevKey = new Key();
+      currentLocalityGroup = new LocalityGroupWriter(newLocalityGroup(name, columnFamilies), false);
     }
     
     @Override
@@ -468,6 +606,36 @@ public class RFile {
       _startNewLocalityGroup(null, null);
     }
     
+    /**
+     * Starts the given locality groups followed by the default locality group, after which keys for all of them can be appended in one sorted pass. Each group
+     * keeps its current data block in memory, so this needs a block of memory per group.
+     */
+    @Override
+    public void startAllLocalityGroups(Map<String,Set<ByteSequence>> groups) throws IOException {
+      if (dataClosed) {
+        throw new IllegalStateException("data closed");
+      }
+      
+      if (currentLocalityGroup != null) {
+        throw new IllegalStateException("Locality groups already started");
+      }
+      
+      allLocalityGroups = new ArrayList<LocalityGroupWriter>();
+      familyGroups = new HashMap<ByteSequence,LocalityGroupWriter>();
+      
+      for (Entry<String,Set<ByteSequence>> entry : groups.entrySet()) {
+        LocalityGroupWriter lgw = new LocalityGroupWriter(newLocalityGroup(entry.getKey(), entry.getValue()), true);
+        allLocalityGroups.add(lgw);
+        localityGroups.add(lgw.metadata);
+        for (ByteSequence cf : entry.getValue())
+          familyGroups.put(cf, lgw);
+      }
+      
+      // the default group is added to the list of groups when the file is closed
+      currentLocalityGroup = new LocalityGroupWriter(newLocalityGroup(null, null), true);
+      allLocalityGroups.add(currentLocalityGroup);
+    }
+    
     @Override
     public boolean supportsLocalityGroups() {
       return true;
@@ -486,9 +654,24 @@ public class RFile {
     private boolean closed = false;
     private int version;
     private boolean checkRange = true;
+    private long minTimestamp;
+    private long maxTimestamp;
+    private boolean containsDeletes;
+    private TimestampRange timestampRange = null;
+    
+    // a block read that takes longer than this while the block was being prefetched means the prefetch is not far enough ahead
+    private static final long PREFETCH_STALL_NANOS = 1000000;
+    
+    private int maxPrefetchBlocks = 0;
+    private int prefetchBlocks = 1;
+    // the position in the index of the last block prefetched since the last seek
+    private int prefetchedThrough = -1;
     
     private LocalityGroupReader(BlockFileReader reader, LocalityGroupMetadata lgm, int version) throws IOException {
       this.firstKey = lgm.firstKey;
+      this.minTimestamp = lgm.minTimestamp;
+      this.maxTimestamp = lgm.maxTimestamp;
+      this.containsDeletes = lgm.containsDeletes;
       this.index = lgm.indexReader;
       this.startBlock = lgm.startBlock;
       blockCount = index.size();
@@ -509,6 +692,11 @@ public class RFile {
       this.isDefaultLocalityGroup = lgr.isDefaultLocalityGroup;
       this.reader = lgr.reader;
       this.version = lgr.version;
+      this.minTimestamp = lgr.minTimestamp;
+      this.maxTimestamp = lgr.maxTimestamp;
+      this.containsDeletes = lgr.containsDeletes;
+      this.timestampRange = lgr.timestampRange;
+      this.maxPrefetchBlocks = lgr.maxPrefetchBlocks;
     }
     
     Iterator<IndexEntry> getIndex() throws IOException {
@@ -567,12 +755,21 @@ public class RFile {
       if (entriesLeft == 0) {
         currBlock.close();
         
-        if (iiter.hasNext()) {
+        if (skipBlocksOutsideTimestampRange() && iiter.hasNext()) {
           IndexEntry indexEntry = iiter.next();
           entriesLeft = indexEntry.getNumEntries();
+          long t1 = System.nanoTime();
           currBlock = getDataBlock(indexEntry);
+          long waited = System.nanoTime() - t1;
           
           checkRange = range.afterEndKey(indexEntry.getKey());
+          
+          if (maxPrefetchBlocks > 0 && checkRange == false) {
+            // reading on into the next block is a sequential scan, so load the blocks after it ahead of time
+            if (waited > PREFETCH_STALL_NANOS && prefetchedThrough >= iiter.previousIndex())
+              prefetchBlocks = Math.min(prefetchBlocks * 2, maxPrefetchBlocks);
+            prefetch();
+          }
           if (!checkRange)
             hasTop = true;
 
@@ -592,6 +789,80 @@ public class RFile {
         hasTop = !range.afterEndKey(rk.getKey());
     }
     
+    /**
+     * Advances the index iterator past any blocks whose keys all fall outside of the timestamp range.
+     * 
+     * @return false if a skipped block extended past the end of the seek range, in which case there is nothing left to read
+     */
+    private boolean skipBlocksOutsideTimestampRange() {
+      if (timestampRange == null)
+        return true;
+      
+      while (iiter.hasNext()) {
+        IndexEntry indexEntry = iiter.peek();
+        if (!timestampRange.excludes(indexEntry.getMinTimestamp(), indexEntry.getMaxTimestamp(), indexEntry.containsDeletes()))
+          return true;
+        
+        iiter.next();
+        if (range.afterEndKey(indexEntry.getKey()))
+          return false;
+      }
+      
+      return true;
+    }
+    
+    boolean isExcludedByTimestampRange() {
+      return timestampRange != null && timestampRange.excludes(minTimestamp, maxTimestamp, containsDeletes);
+    }
+    
+    @Override
+    public void setTimestampRange(TimestampRange timestampRange) {
+      if (this.timestampRange == null ? timestampRange != null : !this.timestampRange.equals(timestampRange)) {
+        // the optimizations in seek rely on the current position having been reached using the same timestamp range
+        reset();
+      }
+      
+      this.timestampRange = timestampRange;
+    }
+    
+    /**
+     * Requests the blocks following the current one, up to the current prefetch depth, that the scan will read if it continues.
+     */
+    private void prefetch() {
+      int target = iiter.previousIndex() + prefetchBlocks;
+      if (prefetchedThrough >= target)
+        return;
+      
+      int steps = 0;
+      try {
+        while (iiter.hasNext() && iiter.nextIndex() <= target) {
+          IndexEntry indexEntry = iiter.next();
+          steps++;
+          int position = iiter.previousIndex();
+          if (position > prefetchedThrough) {
+            prefetchedThrough = position;
+            if (timestampRange == null || !timestampRange.excludes(indexEntry.getMinTimestamp(), indexEntry.getMaxTimestamp(), indexEntry.containsDeletes())) {
+              if (version == RINDEX_VER_3 || version == RINDEX_VER_4)
+                reader.prefetchDataBlock(startBlock + position);
+              else
+                reader.prefetchDataBlock(indexEntry.getOffset(), indexEntry.getCompressedSize(), indexEntry.getRawSize());
+            }
+          }
+          
+          // this block extends past the end of the range, so the scan will not read any further
+          if (range.afterEndKey(indexEntry.getKey()))
+            break;
+        }
+      } finally {
+        for (; steps > 0; steps--)
+          iiter.previous();
+      }
+    }
+    
+    void setMaxPrefetchBlocks(int maxPrefetchBlocks) {
+      this.maxPrefetchBlocks = maxPrefetchBlocks;
+    }
+    
     private ABlockReader getDataBlock(IndexEntry indexEntry) throws IOException {
       if (interruptFlag != null && interruptFlag.get())
         throw new IterationInterruptedException();
@@ -707,16 +978,25 @@ public class RFile {
         
         reset();
         
-        if (!iiter.hasNext()) {
-          // past the last key
-        } else {
-          
+        prefetchBlocks = 1;
+        prefetchedThrough = -1;
+        
+        boolean moreBlocks = iiter.hasNext();
+        
+        if (moreBlocks) {
           // if the index contains the same key multiple times, then go to the
           // earliest index entry containing the key
           while (iiter.hasPrevious() && iiter.peekPrevious().getKey().equals(iiter.peek().getKey())) {
             iiter.previous();
           }
           
+          moreBlocks = skipBlocksOutsideTimestampRange() && iiter.hasNext();
+        }
+        
+        if (!moreBlocks) {
+          // past the last key, or every remaining block in the range is outside of the timestamp range
+        } else {
+          
           if (iiter.hasPrevious())
             prevKey = new Key(iiter.peekPrevious().getKey()); // initially prevKey is the last key of the prev block
           else
@@ -796,6 +1076,11 @@ public class RFile {
       throw new UnsupportedOperationException();
     }
     
+    @Override
+    public boolean closeStream() throws IOException {
+      throw new UnsupportedOperationException();
+    }
+    
     @Override
     public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options, IteratorEnvironment env) throws IOException {
       throw new UnsupportedOperationException();
@@ -838,7 +1123,7 @@ public class RFile {
       
       if (magic != RINDEX_MAGIC)
         throw new IOException("Did not see expected magic number, saw " + magic);
-      if (ver != RINDEX_VER_7 && ver != RINDEX_VER_6 && ver != RINDEX_VER_4 && ver != RINDEX_VER_3)
+      if (ver != RINDEX_VER_8 && ver != RINDEX_VER_7 && ver != RINDEX_VER_6 && ver != RINDEX_VER_4 && ver != RINDEX_VER_3)
         throw new IOException("Did not see expected version, saw " + ver);
       
       int size = mb.readInt();
@@ -899,6 +1184,19 @@ public class RFile {
       deepCopies.clear();
     }
     
+    @Override
+    public boolean closeStream() throws IOException {
+      if (deepCopy)
+        throw new RuntimeException("Calling closeStream on a deep copy is not supported");
+      
+      // the parsed locality group and index metadata stay, but any position within a data block is gone
+      clear();
+      for (LocalityGroupReader lgr : lgReaders)
+        lgr.reset();
+      
+      return reader.closeStream();
+    }
+    
     @Override
     public void close() throws IOException {
       if (deepCopy)
@@ -1039,6 +1337,11 @@ public class RFile {
               }
         }
         
+        if (include && lgr.isExcludedByTimestampRange()) {
+          // no key in the locality group can fall within the timestamp range
+          include = false;
+        }
+        
         if (include) {
           lgr.seek(range, EMPTY_CF_SET, false);
           addSource(lgr);
@@ -1080,11 +1383,64 @@ public class RFile {
       setInterruptFlagInternal(flag);
     }
     
+    /**
+     * Sets the most data blocks each locality group may load ahead of a sequential scan. Zero, the default, disables prefetching. Deep copies made afterwards
+     * use the same setting.
+     */
+    public void setMaxPrefetchBlocks(int maxPrefetchBlocks) {
+      for (LocalityGroupReader lgr : lgReaders) {
+        lgr.setMaxPrefetchBlocks(maxPrefetchBlocks);
+      }
+    }
+    
     private void setInterruptFlagInternal(AtomicBoolean flag) {
       this.interruptFlag = flag;
       for (LocalityGroupReader lgr : lgReaders) {
         lgr.setInterruptFlag(interruptFlag);
       }
     }
+    
+    @Override
+    public void setTimestampRange(TimestampRange timestampRange) {
+      if (deepCopy)
+        throw new RuntimeException("Calling setTimestampRange on a deep copy is not supported");
+      
+      if (deepCopies.size() != 0)
+        throw new RuntimeException("Setting timestamp range after calling deep copy not supported");
+      
+      for (LocalityGroupReader lgr : lgReaders) {
+        lgr.setTimestampRange(timestampRange);
+      }
+    }
+    
+    /**
+     * @return the smallest timestamp in the file, Long.MIN_VALUE if the file does not record timestamps or Long.MAX_VALUE if the file is empty
+     */
+    public long getMinTimestamp() {
+      long min = Long.MAX_VALUE;
+      for (LocalityGroupMetadata lgm : localityGroups)
+        min = Math.min(min, lgm.minTimestamp);
+      return min;
+    }
+    
+    /**
+     * @return the largest timestamp in the file, Long.MAX_VALUE if the file does not record timestamps or Long.MIN_VALUE if the file is empty
+     */
+    public long getMaxTimestamp() {
+      long max = Long.MIN_VALUE;
+      for (LocalityGroupMetadata lgm : localityGroups)
+        max = Math.max(max, lgm.maxTimestamp);
+      return max;
+    }
+    
+    /**
+     * @return true if the file contains a delete marker, always true if the file does not record timestamps
+     */
+    public boolean containsDeletes() {
+      for (LocalityGroupMetadata lgm : localityGroups)
+        if (lgm.containsDeletes)
+          return true;
+      return false;
+    }
   }
 }
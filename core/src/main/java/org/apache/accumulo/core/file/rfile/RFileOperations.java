@@ -78,6 +78,9 @@ public class RFileOperations extends FileOperations {
     CachableBlockFile.Reader _cbr = new CachableBlockFile.Reader(fs, path, conf, dataCache, indexCache);
     Reader iter = new RFile.Reader(_cbr);
     
+    if (acuconf != null)
+      iter.setMaxPrefetchBlocks(acuconf.getCount(Property.TABLE_FILE_PREFETCH_BLOCKS));
+    
     if (seekToBeginning) {
       iter.seek(new Range((Key) null, null), EMPTY_CF_SET, false);
     }
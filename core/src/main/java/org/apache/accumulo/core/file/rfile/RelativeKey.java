@@ -23,6 +23,7 @@ import java.io.IOException;
 import org.apache.accumulo.core.data.ArrayByteSequence;
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.util.FastByteComparisons;
 import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.io.WritableUtils;
 
@@ -144,6 +145,11 @@ public class RelativeKey implements Writable {
     int curLen = cur.length();
     int maxChecks = Math.min(prevLen, curLen);
     int common = 0;
+    if (prev.isBackedByArray() && cur.isBackedByArray()) {
+      common = FastByteComparisons.commonPrefix(prev.getBackingArray(), prev.offset(), prevLen, cur.getBackingArray(), cur.offset(), curLen);
+      if (common < maxChecks)
+        return common;
+    }
     while (common < maxChecks) {
       int a = prev.byteAt(common) & 0xff;
       int b = cur.byteAt(common) & 0xff;
@@ -174,7 +180,7 @@ public class RelativeKey implements Writable {
     long ts;
     
     if ((fieldsSame & ROW_SAME) == ROW_SAME) {
-      row = prevKey.getRowData().toArray();
+      row = share(prevKey.getRowData());
     } else if ((fieldsPrefixed & ROW_COMMON_PREFIX) == ROW_COMMON_PREFIX) {
       row = readPrefix(in, prevKey.getRowData());
     } else {
@@ -182,7 +188,7 @@ public class RelativeKey implements Writable {
     }
     
     if ((fieldsSame & CF_SAME) == CF_SAME) {
-      cf = prevKey.getColumnFamilyData().toArray();
+      cf = share(prevKey.getColumnFamilyData());
     } else if ((fieldsPrefixed & CF_COMMON_PREFIX) == CF_COMMON_PREFIX) {
       cf = readPrefix(in, prevKey.getColumnFamilyData());
     } else {
@@ -190,7 +196,7 @@ public class RelativeKey implements Writable {
     }
     
     if ((fieldsSame & CQ_SAME) == CQ_SAME) {
-      cq = prevKey.getColumnQualifierData().toArray();
+      cq = share(prevKey.getColumnQualifierData());
     } else if ((fieldsPrefixed & CQ_COMMON_PREFIX) == CQ_COMMON_PREFIX) {
       cq = readPrefix(in, prevKey.getColumnQualifierData());
     } else {
@@ -198,7 +204,7 @@ public class RelativeKey implements Writable {
     }
     
     if ((fieldsSame & CV_SAME) == CV_SAME) {
-      cv = prevKey.getColumnVisibilityData().toArray();
+      cv = share(prevKey.getColumnVisibilityData());
     } else if ((fieldsPrefixed & CV_COMMON_PREFIX) == CV_COMMON_PREFIX) {
       cv = readPrefix(in, prevKey.getColumnVisibilityData());
     } else {
@@ -217,6 +223,16 @@ public class RelativeKey implements Writable {
     this.prevKey = this.key;
   }
   
+  /**
+   * A key never modifies its arrays, so when a field is the same as the previous key's the new key can reference the previous key's array instead of a copy.
+   * On scans where most entries are filtered out this avoids allocating and copying the fields that repeat, which is usually most of the key.
+   */
+  private static byte[] share(ByteSequence bs) {
+    if (bs.isBackedByArray() && bs.offset() == 0 && bs.length() == bs.getBackingArray().length)
+      return bs.getBackingArray();
+    return bs.toArray();
+  }
+  
   static class MByteSequence extends ArrayByteSequence {
     private static final long serialVersionUID = 1L;
 
@@ -23,9 +23,11 @@ import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
@@ -38,6 +40,7 @@ import org.apache.accumulo.core.file.rfile.bcfile.CompareUtils.ScalarComparator;
 import org.apache.accumulo.core.file.rfile.bcfile.CompareUtils.ScalarLong;
 import org.apache.accumulo.core.file.rfile.bcfile.Compression.Algorithm;
 import org.apache.accumulo.core.file.rfile.bcfile.Utils.Version;
+import org.apache.accumulo.core.util.ByteBufferInputStream;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
@@ -436,6 +439,18 @@ public final class BCFile {
     private static final String META_NAME = "BCFile.metaindex";
     private final FSDataInputStream in;
     private final Configuration conf;
+    private final boolean positionalReads;
+    // the whole file when it is memory mapped, otherwise null
+    private ByteBuffer mapped = null;
+    
+    // holds compressed blocks read by readBlock, so reading a block only allocates its uncompressed size
+    private static final int MAX_READ_BUFFER = 1 << 20;
+    private static final ThreadLocal<byte[]> READ_BUFFER = new ThreadLocal<byte[]>() {
+      @Override
+      protected byte[] initialValue() {
+        return new byte[128 * 1024];
+      }
+    };
     final DataIndex dataIndex;
     // Index for meta blocks
     final MetaIndex metaIndex;
@@ -449,19 +464,42 @@ public final class BCFile {
       private Decompressor decompressor;
       private final BlockRegion region;
       private final InputStream in;
+      private final ByteBuffer buffer;
       
-      public RBlockState(Algorithm compressionAlgo, FSDataInputStream fsin, BlockRegion region, Configuration conf) throws IOException {
+      public RBlockState(Algorithm compressionAlgo, FSDataInputStream fsin, BlockRegion region, Configuration conf, boolean positionalReads) throws IOException {
         this.compressAlgo = compressionAlgo;
         this.region = region;
         this.decompressor = compressionAlgo.getDecompressor();
         
         try {
-          this.in = compressAlgo.createDecompressionStream(new BoundedRangeFileInputStream(fsin, this.region.getOffset(), this.region.getCompressedSize()),
+          this.in = compressAlgo.createDecompressionStream(new BoundedRangeFileInputStream(fsin, this.region.getOffset(), this.region.getCompressedSize(),
+              positionalReads),
               decompressor, TFile.getFSInputBufferSize(conf));
         } catch (IOException e) {
           compressAlgo.returnDecompressor(decompressor);
           throw e;
         }
+        this.buffer = null;
+      }
+      
+      public RBlockState(Algorithm compressionAlgo, ByteBuffer mapped, BlockRegion region) throws IOException {
+        this.compressAlgo = compressionAlgo;
+        this.region = region;
+        this.decompressor = compressionAlgo.getDecompressor();
+        
+        ByteBuffer block = mapped.duplicate();
+        block.limit((int) (region.getOffset() + region.getCompressedSize()));
+        block.position((int) region.getOffset());
+        block = block.slice();
+        
+        try {
+          // reading the mapping needs no buffering, decompressors read straight from it
+          this.in = compressAlgo.createDecompressionStream(new ByteBufferInputStream(block), decompressor, 0);
+        } catch (IOException e) {
+          compressAlgo.returnDecompressor(decompressor);
+          throw e;
+        }
+        this.buffer = compressAlgo == Algorithm.NONE ? block.asReadOnlyBuffer() : null;
       }
       
       /**
@@ -481,6 +519,10 @@ public final class BCFile {
         return region;
       }
       
+      public ByteBuffer getBuffer() {
+        return buffer;
+      }
+      
       public void finish() throws IOException {
         try {
           in.close();
@@ -555,6 +597,15 @@ public final class BCFile {
       public long getStartPos() {
         return rBlkState.getBlockRegion().getOffset();
       }
+      
+      /**
+       * Get the contents of an uncompressed block of a memory mapped file.
+       * 
+       * @return a read only view of the whole block that shares the mapping, or null if the block can only be read through this stream.
+       */
+      public ByteBuffer getBuffer() {
+        return rBlkState.getBuffer();
+      }
     }
     
     /**
@@ -569,6 +620,7 @@ public final class BCFile {
     public Reader(FSDataInputStream fin, long fileLength, Configuration conf) throws IOException {
       this.in = fin;
       this.conf = conf;
+      this.positionalReads = true;
       
       // move the cursor to the beginning of the tail, containing: offset to the
       // meta block index, version and magic
@@ -595,8 +647,17 @@ public final class BCFile {
     }
     
     public Reader(CachableBlockFile.Reader cache, FSDataInputStream fin, long fileLength, Configuration conf) throws IOException {
+      this(cache, fin, fileLength, conf, true);
+    }
+    
+    /**
+     * @param positionalReads
+     *          false if positional reads of the stream are slower than seeking it, in which case block reads lock the stream instead
+     */
+    public Reader(CachableBlockFile.Reader cache, FSDataInputStream fin, long fileLength, Configuration conf, boolean positionalReads) throws IOException {
       this.in = fin;
       this.conf = conf;
+      this.positionalReads = positionalReads;
       
       BlockRead cachedMetaIndex = cache.getCachedMetaBlock(META_NAME);
       BlockRead cachedDataIndex = cache.getCachedMetaBlock(DataIndex.BLOCK_NAME);
@@ -641,6 +702,39 @@ public final class BCFile {
       }
     }
     
+    /**
+     * Reopens a file on a new stream, reusing the indexes an earlier reader of the same file already parsed so that nothing is read from the stream.
+     * 
+     * @param indexes
+     *          a reader of the same file, whose stream may be closed
+     */
+    public Reader(Reader indexes, FSDataInputStream fin, Configuration conf, boolean positionalReads) {
+      this.in = fin;
+      this.conf = conf;
+      this.positionalReads = positionalReads;
+      this.version = indexes.version;
+      this.metaIndex = indexes.metaIndex;
+      this.dataIndex = indexes.dataIndex;
+    }
+    
+    /**
+     * Reads blocks from a memory mapping of the whole file instead of the input stream. The stream is still used to read the file's indexes when they are not
+     * cached.
+     * 
+     * @param mapped
+     *          the entire file, starting at position zero
+     */
+    public void setMapped(ByteBuffer mapped) {
+      this.mapped = mapped;
+    }
+    
+    /**
+     * @return true if blocks are read from a memory mapping of the file
+     */
+    public boolean isMapped() {
+      return mapped != null;
+    }
+    
     /**
      * Get the name of the default compression algorithm.
      * 
@@ -726,8 +820,81 @@ public final class BCFile {
       return createReader(dataIndex.getDefaultCompressionAlgorithm(), region);
     }
     
+    /**
+     * Reads and decompresses a whole meta block at once, without creating streams.
+     * 
+     * @throws MetaBlockDoesNotExist
+     *           The Meta Block with the given name does not exist.
+     */
+    public byte[] readMetaBlock(String name) throws IOException, MetaBlockDoesNotExist {
+      MetaIndexEntry imeBCIndex = metaIndex.getMetaByName(name);
+      if (imeBCIndex == null) {
+        throw new MetaBlockDoesNotExist("name=" + name);
+      }
+      
+      return readBlock(imeBCIndex.getCompressionAlgorithm(), imeBCIndex.getRegion());
+    }
+    
+    /**
+     * Reads and decompresses a whole data block at once, without creating streams.
+     * 
+     * @param blockIndex
+     *          0-based data block index.
+     */
+    public byte[] readDataBlock(int blockIndex) throws IOException {
+      if (blockIndex < 0 || blockIndex >= getBlockCount()) {
+        throw new IndexOutOfBoundsException(String.format("blockIndex=%d, numBlocks=%d", blockIndex, getBlockCount()));
+      }
+      
+      return readBlock(dataIndex.getDefaultCompressionAlgorithm(), dataIndex.getBlockRegionList().get(blockIndex));
+    }
+    
+    public byte[] readDataBlock(long offset, long compressedSize, long rawSize) throws IOException {
+      return readBlock(dataIndex.getDefaultCompressionAlgorithm(), new BlockRegion(offset, compressedSize, rawSize));
+    }
+    
+    private byte[] readBlock(Algorithm compressAlgo, BlockRegion region) throws IOException {
+      byte[] raw = new byte[(int) region.getRawSize()];
+      
+      ByteBuffer compressed;
+      if (mapped != null) {
+        compressed = mapped.duplicate();
+        compressed.limit((int) (region.getOffset() + region.getCompressedSize()));
+        compressed.position((int) region.getOffset());
+      } else {
+        byte[] b = READ_BUFFER.get();
+        if (b.length < region.getCompressedSize()) {
+          b = new byte[(int) region.getCompressedSize()];
+          // an unusually large block should not stay allocated to this thread
+          if (b.length <= MAX_READ_BUFFER)
+            READ_BUFFER.set(b);
+        }
+        
+        BoundedRangeFileInputStream bin = new BoundedRangeFileInputStream(in, region.getOffset(), region.getCompressedSize(), positionalReads);
+        try {
+          int len = (int) region.getCompressedSize();
+          for (int off = 0; off < len;) {
+            int n = bin.read(b, off, len - off);
+            if (n < 0)
+              throw new EOFException("Block at " + region.getOffset() + " ended after " + off + " of " + len + " bytes");
+            off += n;
+          }
+        } finally {
+          bin.close();
+        }
+        compressed = ByteBuffer.wrap(b, 0, (int) region.getCompressedSize());
+      }
+      
+      compressAlgo.decompress(compressed, raw, 0, raw.length);
+      return raw;
+    }
+    
     private BlockReader createReader(Algorithm compressAlgo, BlockRegion region) throws IOException {
-      RBlockState rbs = new RBlockState(compressAlgo, in, region, conf);
+      RBlockState rbs;
+      if (mapped != null)
+        rbs = new RBlockState(compressAlgo, mapped, region);
+      else
+        rbs = new RBlockState(compressAlgo, in, region, conf, positionalReads);
       return new BlockReader(rbs);
     }
     
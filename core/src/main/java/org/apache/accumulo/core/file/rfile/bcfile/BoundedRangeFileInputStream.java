@@ -27,11 +27,13 @@ import org.apache.hadoop.fs.FSDataInputStream;
 
 /**
  * BoundedRangeFIleInputStream abstracts a contiguous region of a Hadoop FSDataInputStream as a regular input stream. One can create multiple
- * BoundedRangeFileInputStream on top of the same FSDataInputStream and they would not interfere with each other.
+ * BoundedRangeFileInputStream on top of the same FSDataInputStream and they would not interfere with each other. Reads are positional by default, so
+ * streams on different threads can read the same FSDataInputStream at once.
  */
 class BoundedRangeFileInputStream extends InputStream {
   
   private FSDataInputStream in;
+  private final boolean positional;
   private long pos;
   private long end;
   private long mark;
@@ -50,11 +52,20 @@ class BoundedRangeFileInputStream extends InputStream {
    *          The actual length of the region may be smaller if (off_begin + length) goes beyond the end of FS input stream.
    */
   public BoundedRangeFileInputStream(FSDataInputStream in, long offset, long length) {
+    this(in, offset, length, true);
+  }
+  
+  /**
+   * @param positional
+   *          true to use positional reads; false to seek and read the shared stream while holding its lock, for streams whose positional reads are slow
+   */
+  public BoundedRangeFileInputStream(FSDataInputStream in, long offset, long length, boolean positional) {
     if (offset < 0 || length < 0) {
       throw new IndexOutOfBoundsException("Invalid offset/length: " + offset + "/" + length);
     }
     
     this.in = in;
+    this.positional = positional;
     this.pos = offset;
     this.end = offset + length;
     this.mark = -1;
@@ -94,20 +105,27 @@ class BoundedRangeFileInputStream extends InputStream {
       return -1;
     Integer ret = 0;
     final FSDataInputStream inLocal = in;
-    synchronized (inLocal) {
-    	inLocal.seek(pos);
-      try {
-        ret = AccessController.doPrivileged(new PrivilegedExceptionAction<Integer>() {
-          @Override
-          public Integer run() throws IOException {
-            int ret = 0;
+    final long position = pos;
+    PrivilegedExceptionAction<Integer> action = new PrivilegedExceptionAction<Integer>() {
+      @Override
+      public Integer run() throws IOException {
+        int ret = 0;
+        if (positional) {
+          // positional reads leave the shared stream's position alone, so readers of different blocks need not wait on each other
+          ret = inLocal.read(position, b, off, n);
+        } else {
+          synchronized (inLocal) {
+            inLocal.seek(position);
             ret = inLocal.read(b, off, n);
-            return ret;
           }
-        });
-      } catch (PrivilegedActionException e) {
-        throw (IOException) e.getException();
+        }
+        return ret;
       }
+    };
+    try {
+      ret = AccessController.doPrivileged(action);
+    } catch (PrivilegedActionException e) {
+      throw (IOException) e.getException();
     }
     if (ret < 0) {
       end = pos;
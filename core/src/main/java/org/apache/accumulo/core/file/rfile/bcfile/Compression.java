@@ -18,10 +18,12 @@ package org.apache.accumulo.core.file.rfile.bcfile;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.EOFException;
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 import org.apache.commons.logging.Log;
@@ -32,14 +34,16 @@ import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.io.compress.CompressionInputStream;
 import org.apache.hadoop.io.compress.CompressionOutputStream;
 import org.apache.hadoop.io.compress.Compressor;
+import org.apache.hadoop.io.compress.CompressorStream;
 import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.hadoop.io.compress.DecompressorStream;
 import org.apache.hadoop.io.compress.DefaultCodec;
 import org.apache.hadoop.util.ReflectionUtils;
 
 /**
  * Compression related stuff.
  */
-final class Compression {
+public final class Compression {
   static final Log LOG = LogFactory.getLog(Compression.class);
   
   /**
@@ -71,7 +75,7 @@ final class Compression {
   /**
    * Compression algorithms.
    */
-  static enum Algorithm {
+  public static enum Algorithm {
     LZO(TFile.COMPRESSION_LZO) {
       private transient boolean checked = false;
       private static final String defaultClazz = "org.apache.hadoop.io.compress.LzoCodec";
@@ -103,7 +107,7 @@ final class Compression {
       }
       
       @Override
-      public synchronized InputStream createDecompressionStream(InputStream downStream, Decompressor decompressor, int downStreamBufferSize) throws IOException {
+      public InputStream createDecompressionStream(InputStream downStream, Decompressor decompressor, int downStreamBufferSize) throws IOException {
         if (!isSupported()) {
           throw new IOException("LZO codec class not specified. Did you forget to set property " + CONF_LZO_CLASS + "?");
         }
@@ -113,14 +117,13 @@ final class Compression {
         } else {
           bis1 = downStream;
         }
-        conf.setInt("io.compression.codec.lzo.buffersize", 64 * 1024);
         CompressionInputStream cis = codec.createInputStream(bis1, decompressor);
         BufferedInputStream bis2 = new BufferedInputStream(cis, DATA_IBUF_SIZE);
         return bis2;
       }
       
       @Override
-      public synchronized OutputStream createCompressionStream(OutputStream downStream, Compressor compressor, int downStreamBufferSize) throws IOException {
+      public OutputStream createCompressionStream(OutputStream downStream, Compressor compressor, int downStreamBufferSize) throws IOException {
         if (!isSupported()) {
           throw new IOException("LZO codec class not specified. Did you forget to set property " + CONF_LZO_CLASS + "?");
         }
@@ -130,11 +133,15 @@ final class Compression {
         } else {
           bos1 = downStream;
         }
-        conf.setInt("io.compression.codec.lzo.buffersize", 64 * 1024);
         CompressionOutputStream cos = codec.createOutputStream(bos1, compressor);
         BufferedOutputStream bos2 = new BufferedOutputStream(new FinishOnFlushCompressionStream(cos), DATA_OBUF_SIZE);
         return bos2;
       }
+      
+      @Override
+      boolean isBlockFramed() {
+        return true;
+      }
     },
     
     GZ(TFile.COMPRESSION_GZ) {
@@ -151,26 +158,22 @@ final class Compression {
       }
       
       @Override
-      public synchronized InputStream createDecompressionStream(InputStream downStream, Decompressor decompressor, int downStreamBufferSize) throws IOException {
+      public InputStream createDecompressionStream(InputStream downStream, Decompressor decompressor, int downStreamBufferSize) throws IOException {
         // Set the internal buffer size to read from down stream.
-        if (downStreamBufferSize > 0) {
-          codec.getConf().setInt("io.file.buffer.size", downStreamBufferSize);
-        }
-        CompressionInputStream cis = codec.createInputStream(downStream, decompressor);
+        CompressionInputStream cis = new DecompressorStream(downStream, decompressor, downStreamBufferSize > 0 ? downStreamBufferSize : 4 * 1024);
         BufferedInputStream bis2 = new BufferedInputStream(cis, DATA_IBUF_SIZE);
         return bis2;
       }
       
       @Override
-      public synchronized OutputStream createCompressionStream(OutputStream downStream, Compressor compressor, int downStreamBufferSize) throws IOException {
+      public OutputStream createCompressionStream(OutputStream downStream, Compressor compressor, int downStreamBufferSize) throws IOException {
         OutputStream bos1 = null;
         if (downStreamBufferSize > 0) {
           bos1 = new BufferedOutputStream(downStream, downStreamBufferSize);
         } else {
           bos1 = downStream;
         }
-        codec.getConf().setInt("io.file.buffer.size", 32 * 1024);
-        CompressionOutputStream cos = codec.createOutputStream(bos1, compressor);
+        CompressionOutputStream cos = new CompressorStream(bos1, compressor, 32 * 1024);
         BufferedOutputStream bos2 = new BufferedOutputStream(new FinishOnFlushCompressionStream(cos), DATA_OBUF_SIZE);
         return bos2;
       }
@@ -188,7 +191,7 @@ final class Compression {
       }
       
       @Override
-      public synchronized InputStream createDecompressionStream(InputStream downStream, Decompressor decompressor, int downStreamBufferSize) throws IOException {
+      public InputStream createDecompressionStream(InputStream downStream, Decompressor decompressor, int downStreamBufferSize) throws IOException {
         if (downStreamBufferSize > 0) {
           return new BufferedInputStream(downStream, downStreamBufferSize);
         }
@@ -196,7 +199,7 @@ final class Compression {
       }
       
       @Override
-      public synchronized OutputStream createCompressionStream(OutputStream downStream, Compressor compressor, int downStreamBufferSize) throws IOException {
+      public OutputStream createCompressionStream(OutputStream downStream, Compressor compressor, int downStreamBufferSize) throws IOException {
         if (downStreamBufferSize > 0) {
           return new BufferedOutputStream(downStream, downStreamBufferSize);
         }
@@ -224,7 +227,7 @@ final class Compression {
       }
       
       @Override
-      public synchronized OutputStream createCompressionStream(OutputStream downStream, Compressor compressor, int downStreamBufferSize) throws IOException {
+      public OutputStream createCompressionStream(OutputStream downStream, Compressor compressor, int downStreamBufferSize) throws IOException {
         
         if (!isSupported()) {
           throw new IOException("SNAPPY codec class not specified. Did you forget to set property " + CONF_SNAPPY_CLASS + "?");
@@ -235,21 +238,23 @@ final class Compression {
         } else {
           bos1 = downStream;
         }
-        conf.setInt("io.compression.codec.snappy.buffersize", 64 * 1024);
         CompressionOutputStream cos = snappyCodec.createOutputStream(bos1, compressor);
         BufferedOutputStream bos2 = new BufferedOutputStream(new FinishOnFlushCompressionStream(cos), DATA_OBUF_SIZE);
         return bos2;
       }
       
       @Override
-      public synchronized InputStream createDecompressionStream(InputStream downStream, Decompressor decompressor, int downStreamBufferSize) throws IOException {
+      public InputStream createDecompressionStream(InputStream downStream, Decompressor decompressor, int downStreamBufferSize) throws IOException {
         if (!isSupported()) {
           throw new IOException("SNAPPY codec class not specified. Did you forget to set property " + CONF_SNAPPY_CLASS + "?");
         }
+        InputStream bis1 = null;
         if (downStreamBufferSize > 0) {
-          conf.setInt("io.file.buffer.size", downStreamBufferSize);
+          bis1 = new BufferedInputStream(downStream, downStreamBufferSize);
+        } else {
+          bis1 = downStream;
         }
-        CompressionInputStream cis = snappyCodec.createInputStream(downStream, decompressor);
+        CompressionInputStream cis = snappyCodec.createInputStream(bis1, decompressor);
         BufferedInputStream bis2 = new BufferedInputStream(cis, DATA_IBUF_SIZE);
         return bis2;
       }
@@ -269,10 +274,144 @@ final class Compression {
         }
         return snappyCodec != null;
       }
+      
+      @Override
+      boolean isBlockFramed() {
+        return true;
+      }
+    },
+    
+    LZ4(TFile.COMPRESSION_LZ4) {
+      // Use base type to avoid compile-time dependencies.
+      private transient CompressionCodec lz4Codec = null;
+      private transient boolean checked = false;
+      private static final String defaultClazz = "org.apache.hadoop.io.compress.Lz4Codec";
+      
+      public CompressionCodec getCodec() throws IOException {
+        if (!isSupported()) {
+          throw new IOException("LZ4 codec class not specified. Did you forget to set property " + CONF_LZ4_CLASS + "?");
+        }
+        return lz4Codec;
+      }
+      
+      @Override
+      public OutputStream createCompressionStream(OutputStream downStream, Compressor compressor, int downStreamBufferSize) throws IOException {
+        CompressionCodec codec = getCodec();
+        OutputStream bos1 = null;
+        if (downStreamBufferSize > 0) {
+          bos1 = new BufferedOutputStream(downStream, downStreamBufferSize);
+        } else {
+          bos1 = downStream;
+        }
+        CompressionOutputStream cos = codec.createOutputStream(bos1, compressor);
+        BufferedOutputStream bos2 = new BufferedOutputStream(new FinishOnFlushCompressionStream(cos), DATA_OBUF_SIZE);
+        return bos2;
+      }
+      
+      @Override
+      public InputStream createDecompressionStream(InputStream downStream, Decompressor decompressor, int downStreamBufferSize) throws IOException {
+        CompressionCodec codec = getCodec();
+        InputStream bis1 = null;
+        if (downStreamBufferSize > 0) {
+          bis1 = new BufferedInputStream(downStream, downStreamBufferSize);
+        } else {
+          bis1 = downStream;
+        }
+        CompressionInputStream cis = codec.createInputStream(bis1, decompressor);
+        BufferedInputStream bis2 = new BufferedInputStream(cis, DATA_IBUF_SIZE);
+        return bis2;
+      }
+      
+      @Override
+      public synchronized boolean isSupported() {
+        if (!checked) {
+          checked = true;
+          String extClazz = (conf.get(CONF_LZ4_CLASS) == null ? System.getProperty(CONF_LZ4_CLASS) : conf.get(CONF_LZ4_CLASS));
+          String clazz = (extClazz != null) ? extClazz : defaultClazz;
+          try {
+            LOG.info("Trying to load lz4 codec class: " + clazz);
+            lz4Codec = (CompressionCodec) ReflectionUtils.newInstance(Class.forName(clazz), conf);
+          } catch (ClassNotFoundException e) {
+            // that is okay
+          }
+        }
+        return lz4Codec != null;
+      }
+      
+      @Override
+      boolean isBlockFramed() {
+        return true;
+      }
+    },
+    
+    /**
+     * Zstandard, through the Hadoop codec. The compression level is read from io.compression.codec.zstd.level in the Hadoop configuration.
+     */
+    ZSTANDARD(TFile.COMPRESSION_ZSTD) {
+      // Use base type to avoid compile-time dependencies.
+      private transient CompressionCodec zstdCodec = null;
+      private transient boolean checked = false;
+      private static final String defaultClazz = "org.apache.hadoop.io.compress.ZStandardCodec";
+      
+      public CompressionCodec getCodec() throws IOException {
+        if (!isSupported()) {
+          throw new IOException("ZSTD codec class not specified. Did you forget to set property " + CONF_ZSTD_CLASS + "?");
+        }
+        return zstdCodec;
+      }
+      
+      @Override
+      public OutputStream createCompressionStream(OutputStream downStream, Compressor compressor, int downStreamBufferSize) throws IOException {
+        CompressionCodec codec = getCodec();
+        OutputStream bos1 = null;
+        if (downStreamBufferSize > 0) {
+          bos1 = new BufferedOutputStream(downStream, downStreamBufferSize);
+        } else {
+          bos1 = downStream;
+        }
+        CompressionOutputStream cos = codec.createOutputStream(bos1, compressor);
+        BufferedOutputStream bos2 = new BufferedOutputStream(new FinishOnFlushCompressionStream(cos), DATA_OBUF_SIZE);
+        return bos2;
+      }
+      
+      @Override
+      public InputStream createDecompressionStream(InputStream downStream, Decompressor decompressor, int downStreamBufferSize) throws IOException {
+        CompressionCodec codec = getCodec();
+        InputStream bis1 = null;
+        if (downStreamBufferSize > 0) {
+          bis1 = new BufferedInputStream(downStream, downStreamBufferSize);
+        } else {
+          bis1 = downStream;
+        }
+        CompressionInputStream cis = codec.createInputStream(bis1, decompressor);
+        BufferedInputStream bis2 = new BufferedInputStream(cis, DATA_IBUF_SIZE);
+        return bis2;
+      }
+      
+      @Override
+      public synchronized boolean isSupported() {
+        if (!checked) {
+          checked = true;
+          String extClazz = (conf.get(CONF_ZSTD_CLASS) == null ? System.getProperty(CONF_ZSTD_CLASS) : conf.get(CONF_ZSTD_CLASS));
+          String clazz = (extClazz != null) ? extClazz : defaultClazz;
+          try {
+            LOG.info("Trying to load zstd codec class: " + clazz);
+            zstdCodec = (CompressionCodec) ReflectionUtils.newInstance(Class.forName(clazz), conf);
+          } catch (ClassNotFoundException e) {
+            // that is okay
+          }
+        }
+        return zstdCodec != null;
+      }
     };
     // We require that all compression related settings are configured
     // statically in the Configuration object.
     protected static final Configuration conf = new Configuration();
+    static {
+      // set once here rather than when each stream is created, so that streams can be created concurrently
+      conf.setInt("io.compression.codec.lzo.buffersize", 64 * 1024);
+      conf.setInt("io.compression.codec.snappy.buffersize", 64 * 1024);
+    }
     private final String compressName;
     // data input buffer size to absorb small reads from application.
     private static final int DATA_IBUF_SIZE = 1 * 1024;
@@ -280,6 +419,8 @@ final class Compression {
     private static final int DATA_OBUF_SIZE = 4 * 1024;
     public static final String CONF_LZO_CLASS = "io.compression.codec.lzo.class";
     public static final String CONF_SNAPPY_CLASS = "io.compression.codec.snappy.class";
+    public static final String CONF_LZ4_CLASS = "io.compression.codec.lz4.class";
+    public static final String CONF_ZSTD_CLASS = "io.compression.codec.zstd.class";
     
     Algorithm(String name) {
       this.compressName = name;
@@ -293,6 +434,38 @@ final class Compression {
     
     public abstract boolean isSupported();
     
+    /**
+     * @return true if the codec's streams split the data into separately compressed chunks, each preceded by its length, as Hadoop's BlockCompressorStream
+     *         does; false if the compressed data is one continuous stream
+     */
+    boolean isBlockFramed() {
+      return false;
+    }
+    
+    /**
+     * Decompresses a whole block at once, reading straight from the compressed bytes into the destination. The decompressor comes from the codec pool and
+     * no stream buffers are allocated.
+     * 
+     * @param src
+     *          the remaining bytes of the buffer are the compressed block
+     * @param dest
+     *          receives exactly len uncompressed bytes
+     */
+    public void decompress(ByteBuffer src, byte[] dest, int off, int len) throws IOException {
+      Decompressor decompressor = getDecompressor();
+      try {
+        if (decompressor == null) {
+          if (src.remaining() != len)
+            throw new IOException("Expected " + len + " bytes, but block has " + src.remaining());
+          src.duplicate().get(dest, off, len);
+        } else {
+          Compression.decompress(decompressor, isBlockFramed(), src.duplicate(), dest, off, len);
+        }
+      } finally {
+        returnDecompressor(decompressor);
+      }
+    }
+    
     public Compressor getCompressor() throws IOException {
       CompressionCodec codec = getCodec();
       if (codec != null) {
@@ -357,7 +530,74 @@ final class Compression {
     }
   }
   
-  static Algorithm getCompressionAlgorithmByName(String compressName) {
+  // how much of a continuously compressed block is given to the decompressor at once
+  private static final int STREAM_INPUT_SIZE = 64 * 1024;
+  
+  private static class BlockBuffers {
+    byte[] input = new byte[64 * 1024];
+    
+    byte[] input(int size) {
+      if (input.length < size)
+        input = new byte[Math.max(size, input.length * 2)];
+      return input;
+    }
+  }
+  
+  private static final ThreadLocal<BlockBuffers> BLOCK_BUFFERS = new ThreadLocal<BlockBuffers>() {
+    @Override
+    protected BlockBuffers initialValue() {
+      return new BlockBuffers();
+    }
+  };
+  
+  static void decompress(Decompressor decompressor, boolean blockFramed, ByteBuffer src, byte[] dest, int off, int len) throws IOException {
+    int end = off + len;
+    int groupEnd = blockFramed ? off : end;
+    while (off < end) {
+      if (off == groupEnd) {
+        // the start of a run of chunks written together, see BlockDecompressorStream
+        groupEnd = off + readInt(src);
+        if (groupEnd > end || groupEnd < off)
+          throw new IOException("Corrupt block, chunk length exceeds block length");
+        continue;
+      }
+      
+      int n = decompressor.decompress(dest, off, groupEnd - off);
+      if (n > 0) {
+        off += n;
+      } else if (blockFramed && decompressor.finished() && src.hasRemaining()) {
+        // each chunk was compressed on its own, see BlockCompressorStream
+        decompressor.reset();
+        setInput(decompressor, src, readInt(src));
+      } else if (decompressor.needsInput() && src.hasRemaining()) {
+        setInput(decompressor, src, blockFramed ? readInt(src) : Math.min(src.remaining(), STREAM_INPUT_SIZE));
+      } else {
+        throw new EOFException("Block ended after " + (len - (end - off)) + " of " + len + " bytes");
+      }
+    }
+  }
+  
+  private static int readInt(ByteBuffer src) throws IOException {
+    if (src.remaining() < 4)
+      throw new EOFException("Corrupt block, missing length");
+    return src.getInt();
+  }
+  
+  private static void setInput(Decompressor decompressor, ByteBuffer src, int len) throws IOException {
+    if (len < 0 || len > src.remaining())
+      throw new EOFException("Corrupt block, compressed length " + len + " exceeds the " + src.remaining() + " bytes remaining");
+    
+    if (src.hasArray()) {
+      decompressor.setInput(src.array(), src.arrayOffset() + src.position(), len);
+    } else {
+      byte[] input = BLOCK_BUFFERS.get().input(len);
+      src.duplicate().get(input, 0, len);
+      decompressor.setInput(input, 0, len);
+    }
+    src.position(src.position() + len);
+  }
+  
+  public static Algorithm getCompressionAlgorithmByName(String compressName) {
     Algorithm[] algos = Algorithm.class.getEnumConstants();
     
     for (Algorithm a : algos) {
@@ -369,7 +609,7 @@ final class Compression {
     throw new IllegalArgumentException("Unsupported compression algorithm name: " + compressName);
   }
   
-  static String[] getSupportedAlgorithms() {
+  public static String[] getSupportedAlgorithms() {
     Algorithm[] algos = Algorithm.class.getEnumConstants();
     
     ArrayList<String> ret = new ArrayList<String>();
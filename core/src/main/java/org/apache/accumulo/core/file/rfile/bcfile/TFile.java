@@ -126,6 +126,10 @@ public class TFile {
   
   /** snappy codec **/
   public static final String COMPRESSION_SNAPPY = "snappy";
+  /** compression: lz4 */
+  public static final String COMPRESSION_LZ4 = "lz4";
+  /** compression: zstandard */
+  public static final String COMPRESSION_ZSTD = "zstd";
 
   /** compression: gzip */
   public static final String COMPRESSION_GZ = "gz";
@@ -163,6 +167,8 @@ public class TFile {
    *         <li>"lzo" - LZO compression.
    *         <li>"gz" - GZIP compression.
    *         <li>"snappy" - Snappy compression
+   *         <li>"lz4" - LZ4 compression
+   *         <li>"zstd" - Zstandard compression
    *         </ul>
    */
   public static String[] getSupportedCompressionAlgorithms() {
@@ -35,7 +35,10 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.KeyExtent;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.thrift.IterInfo;
+import org.apache.accumulo.core.file.TimestampRange;
 import org.apache.accumulo.core.iterators.system.SynchronizedIterator;
+import org.apache.accumulo.core.iterators.user.AgeOffFilter;
+import org.apache.accumulo.core.iterators.user.TimestampFilter;
 import org.apache.accumulo.core.iterators.user.VersioningIterator;
 import org.apache.accumulo.core.tabletserver.thrift.IteratorConfig;
 import org.apache.accumulo.core.tabletserver.thrift.TIteratorSetting;
@@ -85,6 +88,27 @@ public class IteratorUtil {
     return props;
   }
   
+  /**
+   * The iterators a configuration sets for one scope, sorted by priority, and their options by iterator name. Parsing these walks every property of the
+   * configuration, so a configuration that is read often can keep the result until it changes. Instances are shared and never modified.
+   */
+  public static class ParsedIterators {
+    private final List<IterInfo> iters;
+    private final Map<String,Map<String,String>> options;
+    
+    private ParsedIterators(List<IterInfo> iters, Map<String,Map<String,String>> options) {
+      this.iters = Collections.unmodifiableList(iters);
+      this.options = Collections.unmodifiableMap(options);
+    }
+  }
+  
+  public static ParsedIterators parseIterators(IteratorScope scope, AccumuloConfiguration conf) {
+    List<IterInfo> iters = new ArrayList<IterInfo>();
+    Map<String,Map<String,String>> allOptions = new HashMap<String,Map<String,String>>();
+    parseIterConf(scope, iters, allOptions, conf);
+    return new ParsedIterators(iters, allOptions);
+  }
+  
   public static int getMaxPriority(IteratorScope scope, AccumuloConfiguration conf) {
     List<IterInfo> iters = new ArrayList<IterInfo>();
     parseIterConf(scope, iters, new HashMap<String,Map<String,String>>(), conf);
@@ -200,7 +224,35 @@ public class IteratorUtil {
     List<IterInfo> iters = new ArrayList<IterInfo>(ssiList);
     Map<String,Map<String,String>> allOptions = new HashMap<String,Map<String,String>>();
     
-    parseIterConf(scope, iters, allOptions, conf);
+    mergeIterConf(parseIterators(scope, conf), iters, allOptions, ssio);
+    
+    return loadIterators(source, iters, allOptions, env, useAccumuloClassLoader, conf.get(Property.TABLE_CLASSPATH));
+  }
+  
+  /**
+   * Loads the iterators of an already parsed configuration together with the iterators of a scan.
+   * 
+   * @param context
+   *          the table's class path context, or null to use the system class loader
+   */
+  public static <K extends WritableComparable<?>,V extends Writable> SortedKeyValueIterator<K,V> loadIterators(SortedKeyValueIterator<K,V> source,
+      ParsedIterators tableIters, String context, List<IterInfo> ssiList, Map<String,Map<String,String>> ssio, IteratorEnvironment env) throws IOException {
+    List<IterInfo> iters = new ArrayList<IterInfo>(ssiList);
+    Map<String,Map<String,String>> allOptions = new HashMap<String,Map<String,String>>();
+    
+    mergeIterConf(tableIters, iters, allOptions, ssio);
+    
+    return loadIterators(source, iters, allOptions, env, true, context);
+  }
+  
+  private static void mergeIterConf(ParsedIterators tableIters, List<IterInfo> iters, Map<String,Map<String,String>> allOptions,
+      Map<String,Map<String,String>> ssio) {
+    iters.addAll(tableIters.iters);
+    Collections.sort(iters, new IterInfoComparator());
+    
+    // copied, because the options of a scan are added to them
+    for (Entry<String,Map<String,String>> entry : tableIters.options.entrySet())
+      allOptions.put(entry.getKey(), new HashMap<String,String>(entry.getValue()));
     
     for (Entry<String,Map<String,String>> entry : ssio.entrySet()) {
       if (entry.getValue() == null)
@@ -212,8 +264,52 @@ public class IteratorUtil {
         options.putAll(entry.getValue());
       }
     }
+  }
+  
+  public static TimestampRange getTimestampRange(IteratorScope scope, AccumuloConfiguration conf, List<IteratorSetting> iterators) {
+    List<IterInfo> ssiList = new ArrayList<IterInfo>();
+    Map<String,Map<String,String>> ssio = new HashMap<String,Map<String,String>>();
     
-    return loadIterators(source, iters, allOptions, env, useAccumuloClassLoader, conf.get(Property.TABLE_CLASSPATH));
+    for (IteratorSetting is : iterators) {
+      ssiList.add(new IterInfo(is.getPriority(), is.getIteratorClass(), is.getName()));
+      ssio.put(is.getName(), is.getOptions());
+    }
+    
+    return getTimestampRange(scope, conf, ssiList, ssio);
+  }
+  
+  /**
+   * Determines the range of timestamps that the iterators configured for a scope will let through, so that files can skip data outside of it. A range is
+   * only derived when the first iterator applied to the data is a {@link TimestampFilter} or an {@link AgeOffFilter}. When any other iterator comes first,
+   * for example the default versioning iterator, it may depend on keys the filter later drops, so nothing may be skipped.
+   * 
+   * @return the range of timestamps the iterator stack can return, or null if no range can be determined
+   */
+  public static TimestampRange getTimestampRange(IteratorScope scope, AccumuloConfiguration conf, List<IterInfo> ssiList, Map<String,Map<String,String>> ssio) {
+    return getTimestampRange(parseIterators(scope, conf), ssiList, ssio);
+  }
+  
+  public static TimestampRange getTimestampRange(ParsedIterators tableIters, List<IterInfo> ssiList, Map<String,Map<String,String>> ssio) {
+    List<IterInfo> iters = new ArrayList<IterInfo>(ssiList);
+    Map<String,Map<String,String>> allOptions = new HashMap<String,Map<String,String>>();
+    
+    mergeIterConf(tableIters, iters, allOptions, ssio);
+    
+    if (iters.size() == 0)
+      return null;
+    
+    IterInfo first = iters.get(0);
+    if (iters.size() > 1 && iters.get(1).priority == first.priority) {
+      // the order of iterators with the same priority is not well defined
+      return null;
+    }
+    
+    if (first.className.equals(TimestampFilter.class.getName()))
+      return TimestampFilter.getTimestampRange(allOptions.get(first.iterName));
+    if (first.className.equals(AgeOffFilter.class.getName()))
+      return AgeOffFilter.getTimestampRange(allOptions.get(first.iterName));
+    
+    return null;
   }
   
   @SuppressWarnings("unchecked")
@@ -29,6 +29,7 @@ import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.file.FileSKVIterator;
 import org.apache.accumulo.core.file.NoSuchMetaStoreException;
+import org.apache.accumulo.core.file.TimestampRange;
 import org.apache.accumulo.core.file.map.MapFileUtil;
 import org.apache.accumulo.core.iterators.IterationInterruptedException;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
@@ -68,6 +69,11 @@ public class MapFileIterator implements FileSKVIterator {
     this.interruptFlag = flag;
   }
   
+  @Override
+  public void setTimestampRange(TimestampRange timestampRange) {
+    // map files do not record timestamps, so there is nothing to skip
+  }
+  
   @Override
   public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options, IteratorEnvironment env) throws IOException {
     throw new UnsupportedOperationException();
@@ -155,6 +161,12 @@ public class MapFileIterator implements FileSKVIterator {
     // nothing to do, deep copies are externally managed/closed
   }
   
+  @Override
+  public boolean closeStream() throws IOException {
+    // a map file reader can not reopen its streams
+    return false;
+  }
+  
   @Override
   public void close() throws IOException {
     reader.close();
@@ -27,6 +27,7 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.TimestampRange;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.hadoop.io.SequenceFile;
@@ -48,6 +49,11 @@ public class SequenceFileIterator implements FileSKVIterator {
     throw new UnsupportedOperationException();
   }
   
+  @Override
+  public boolean closeStream() throws IOException {
+    return false;
+  }
+  
   public SequenceFileIterator(SequenceFile.Reader reader, boolean readValue) throws IOException {
     this.reader = reader;
     this.readValue = readValue;
@@ -120,4 +126,9 @@ public class SequenceFileIterator implements FileSKVIterator {
   public void setInterruptFlag(AtomicBoolean flag) {
     throw new UnsupportedOperationException();
   }
+  
+  @Override
+  public void setTimestampRange(TimestampRange timestampRange) {
+    throw new UnsupportedOperationException();
+  }
 }
@@ -22,6 +22,7 @@ import java.util.Map;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.TimestampRange;
 import org.apache.accumulo.core.iterators.Filter;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
@@ -71,6 +72,33 @@ public class AgeOffFilter extends Filter {
     // add sanity checks for threshold and currentTime?
   }
   
+  /**
+   * Determines the inclusive range of timestamps an age off filter configured with the given options will accept, measured from the current time when no
+   * current time option is set.
+   * 
+   * @return the range of accepted timestamps, or null if the options do not describe a single range (for example when the filter is negated)
+   */
+  public static TimestampRange getTimestampRange(Map<String,String> options) {
+    if (options == null || options.get(TTL) == null || Boolean.parseBoolean(options.get(NEGATE)))
+      return null;
+    
+    long threshold;
+    long currentTime;
+    try {
+      threshold = Long.parseLong(options.get(TTL));
+      String time = options.get(CURRENT_TIME);
+      currentTime = time == null ? System.currentTimeMillis() : Long.parseLong(time);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    
+    if (threshold < 0 || currentTime - threshold > currentTime)
+      return null;
+    
+    // accept() keeps a key when currentTime - timestamp <= threshold
+    return new TimestampRange(currentTime - threshold, Long.MAX_VALUE);
+  }
+  
   @Override
   public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
     AgeOffFilter copy = (AgeOffFilter) super.deepCopy(env);
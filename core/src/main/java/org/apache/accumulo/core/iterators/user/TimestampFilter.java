@@ -25,6 +25,7 @@ import java.util.TimeZone;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.TimestampRange;
 import org.apache.accumulo.core.iterators.Filter;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
@@ -110,6 +111,50 @@ public class TimestampFilter extends Filter {
       endInclusive = Boolean.parseBoolean(options.get(END_INCL));
   }
   
+  /**
+   * Determines the inclusive range of timestamps a timestamp filter configured with the given options will accept.
+   * 
+   * @return the range of accepted timestamps, or null if the options do not describe a single range (for example when the filter is negated)
+   */
+  public static TimestampRange getTimestampRange(Map<String,String> options) {
+    if (options == null || Boolean.parseBoolean(options.get(NEGATE)))
+      return null;
+    
+    String startOpt = options.get(START);
+    String endOpt = options.get(END);
+    if (startOpt == null && endOpt == null)
+      return null;
+    
+    SimpleDateFormat dateParser = initDateParser();
+    long start = Long.MIN_VALUE;
+    long end = Long.MAX_VALUE;
+    try {
+      if (startOpt != null) {
+        start = startOpt.startsWith(LONG_PREFIX) ? Long.valueOf(startOpt.substring(LONG_PREFIX.length())) : dateParser.parse(startOpt).getTime();
+        if (options.get(START_INCL) != null && !Boolean.parseBoolean(options.get(START_INCL))) {
+          if (start == Long.MAX_VALUE)
+            return null;
+          start++;
+        }
+      }
+      if (endOpt != null) {
+        end = endOpt.startsWith(LONG_PREFIX) ? Long.valueOf(endOpt.substring(LONG_PREFIX.length())) : dateParser.parse(endOpt).getTime();
+        if (options.get(END_INCL) != null && !Boolean.parseBoolean(options.get(END_INCL))) {
+          if (end == Long.MIN_VALUE)
+            return null;
+          end--;
+        }
+      }
+    } catch (Exception e) {
+      return null;
+    }
+    
+    if (start > end)
+      return null;
+    
+    return new TimestampRange(start, end);
+  }
+  
   @Override
   public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
     TimestampFilter copy = (TimestampFilter) super.deepCopy(env);
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.util;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the remaining bytes of a buffer without copying them first. The buffer may be on or off the heap, for example a memory mapped file. Reads are not
+ * synchronized.
+ */
+public class ByteBufferInputStream extends InputStream {
+  
+  private final ByteBuffer buffer;
+  private final int start;
+  private int mark;
+  
+  public ByteBufferInputStream(ByteBuffer buffer) {
+    this.buffer = buffer.duplicate();
+    this.start = this.buffer.position();
+    this.mark = this.start;
+  }
+  
+  @Override
+  public int read() {
+    if (!buffer.hasRemaining())
+      return -1;
+    return buffer.get() & 0xff;
+  }
+  
+  @Override
+  public int read(byte[] b, int off, int len) {
+    if (len == 0)
+      return 0;
+    if (!buffer.hasRemaining())
+      return -1;
+    
+    len = Math.min(len, buffer.remaining());
+    buffer.get(b, off, len);
+    return len;
+  }
+  
+  @Override
+  public long skip(long n) {
+    if (n <= 0)
+      return 0;
+    int skipped = (int) Math.min(n, buffer.remaining());
+    buffer.position(buffer.position() + skipped);
+    return skipped;
+  }
+  
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+  
+  @Override
+  public boolean markSupported() {
+    return true;
+  }
+  
+  @Override
+  public void mark(int readlimit) {
+    mark = buffer.position();
+  }
+  
+  @Override
+  public void reset() {
+    buffer.position(mark);
+  }
+  
+  /**
+   * @param position
+   *          offset from the start of the stream to read from next
+   */
+  public void seek(int position) {
+    if (position < 0 || start + position > buffer.limit())
+      throw new IllegalArgumentException("position = " + position + " length = " + (buffer.limit() - start));
+    buffer.position(start + position);
+  }
+  
+  /**
+   * @return the offset from the start of the stream that will be read next
+   */
+  public int getPosition() {
+    return buffer.position() - start;
+  }
+  
+  /**
+   * @return a read only view of the bytes from the current position to the end of the stream. The bytes are not copied.
+   */
+  public ByteBuffer remaining() {
+    return buffer.slice().asReadOnlyBuffer();
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.util;
+
+import java.lang.reflect.Field;
+import java.nio.ByteOrder;
+
+import sun.misc.Unsafe;
+
+/**
+ * Lexicographic comparison of unsigned bytes, which is how keys are ordered. When the platform allows it, eight bytes are compared at a time by reading them
+ * as a long. Otherwise the bytes are compared one at a time.
+ * <p>
+ * The results are the same as {@link org.apache.hadoop.io.WritableComparator#compareBytes(byte[], int, int, byte[], int, int)}: the difference of the first
+ * unequal bytes, or the difference of the lengths if one array is a prefix of the other.
+ */
+public class FastByteComparisons {
+
+  private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder().equals(ByteOrder.LITTLE_ENDIAN);
+  private static final boolean WORD_AT_A_TIME;
+
+  static {
+    boolean wordAtATime = false;
+
+    // reading a long at an arbitrary offset is only safe on platforms that allow unaligned access
+    String arch = System.getProperty("os.arch");
+    if ("amd64".equals(arch) || "x86_64".equals(arch) || "i386".equals(arch) || "x86".equals(arch) || "aarch64".equals(arch)) {
+      try {
+        // only touch the class that uses Unsafe once it is known to exist, so other JVMs fall back to comparing bytes
+        Class.forName("sun.misc.Unsafe");
+        wordAtATime = Words.UNSAFE != null;
+      } catch (Throwable t) {
+        wordAtATime = false;
+      }
+    }
+
+    WORD_AT_A_TIME = wordAtATime;
+  }
+
+  /**
+   * Reads words from byte arrays. This is only loaded when Unsafe is available.
+   */
+  private static class Words {
+    static final Unsafe UNSAFE;
+    static final long BYTE_ARRAY_BASE_OFFSET;
+
+    static {
+      Unsafe unsafe = null;
+      long offset = 0;
+      try {
+        Field f = Unsafe.class.getDeclaredField("theUnsafe");
+        f.setAccessible(true);
+        unsafe = (Unsafe) f.get(null);
+        offset = unsafe.arrayBaseOffset(byte[].class);
+        if (unsafe.arrayIndexScale(byte[].class) != 1)
+          unsafe = null;
+      } catch (Throwable t) {
+        unsafe = null;
+      }
+      UNSAFE = unsafe;
+      BYTE_ARRAY_BASE_OFFSET = offset;
+    }
+
+    static long getLong(byte[] b, int off) {
+      return UNSAFE.getLong(b, BYTE_ARRAY_BASE_OFFSET + off);
+    }
+  }
+
+  private FastByteComparisons() {}
+
+  /**
+   * @return true if bytes are being compared a word at a time
+   */
+  public static boolean isWordAtATime() {
+    return WORD_AT_A_TIME;
+  }
+
+  public static int compareTo(byte[] b1, byte[] b2) {
+    return compareTo(b1, 0, b1.length, b2, 0, b2.length);
+  }
+
+  public static int compareTo(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+    if (b1 == b2 && s1 == s2 && l1 == l2)
+      return 0;
+
+    if (!WORD_AT_A_TIME)
+      return compareBytes(b1, s1, l1, b2, s2, l2, 0);
+
+    // the word reads are not bounds checked, so check once up front
+    checkBounds(b1, s1, l1);
+    checkBounds(b2, s2, l2);
+
+    int minLength = Math.min(l1, l2);
+    int words = minLength & ~7;
+
+    for (int i = 0; i < words; i += 8) {
+      long lw = Words.getLong(b1, s1 + i);
+      long rw = Words.getLong(b2, s2 + i);
+      if (lw != rw) {
+        // find the shift of the first unequal byte, which is the lowest order byte on little endian platforms
+        int shift;
+        if (LITTLE_ENDIAN)
+          shift = Long.numberOfTrailingZeros(lw ^ rw) & ~7;
+        else
+          shift = 56 - (Long.numberOfLeadingZeros(lw ^ rw) & ~7);
+        return (int) ((lw >>> shift) & 0xff) - (int) ((rw >>> shift) & 0xff);
+      }
+    }
+
+    return compareBytes(b1, s1, l1, b2, s2, l2, words);
+  }
+
+  private static int compareBytes(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2, int start) {
+    int minLength = Math.min(l1, l2);
+    for (int i = start; i < minLength; i++) {
+      int a = (b1[s1 + i] & 0xff);
+      int b = (b2[s2 + i] & 0xff);
+      if (a != b)
+        return a - b;
+    }
+    return l1 - l2;
+  }
+
+  /**
+   * @return the number of leading bytes that are the same in both ranges
+   */
+  public static int commonPrefix(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+    int minLength = Math.min(l1, l2);
+    int i = 0;
+
+    if (WORD_AT_A_TIME) {
+      checkBounds(b1, s1, l1);
+      checkBounds(b2, s2, l2);
+
+      int words = minLength & ~7;
+      for (; i < words; i += 8) {
+        long diff = Words.getLong(b1, s1 + i) ^ Words.getLong(b2, s2 + i);
+        if (diff != 0)
+          return i + ((LITTLE_ENDIAN ? Long.numberOfTrailingZeros(diff) : Long.numberOfLeadingZeros(diff)) >>> 3);
+      }
+    }
+
+    while (i < minLength && b1[s1 + i] == b2[s2 + i])
+      i++;
+    return i;
+  }
+
+  private static void checkBounds(byte[] b, int off, int len) {
+    if (off < 0 || len < 0 || off > b.length - len)
+      throw new ArrayIndexOutOfBoundsException("offset " + off + " length " + len + " array length " + b.length);
+  }
+}
@@ -107,7 +107,9 @@ struct TConstraintViolationSummary {
 struct UpdateErrors {
 	1:map<TKeyExtent, i64> failedExtents,
 	2:list<TConstraintViolationSummary> violationSummaries,
-	3:map<TKeyExtent, client.SecurityErrorCode> authorizationFailures
+	3:map<TKeyExtent, client.SecurityErrorCode> authorizationFailures,
+	// extents whose remaining mutations were not written because the table's ingest was held too long; resend them later, to the same server
+	4:optional map<TKeyExtent, i64> heldExtents
 }
 
 struct MapFileInfo {
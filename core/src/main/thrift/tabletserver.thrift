@@ -102,6 +102,14 @@ enum CompactionReason {
    CLOSE
 }
 
+enum TDurability {
+   DEFAULT,
+   NONE,
+   LOG,
+   FLUSH,
+   SYNC
+}
+
 struct ActiveCompaction {
     1:data.TKeyExtent extent
     2:i64 age
@@ -116,6 +124,17 @@ struct ActiveCompaction {
     11:map<string, map<string, string>> ssio 
 }
 
+struct QueuedCompaction {
+    1:data.TKeyExtent extent
+    2:i64 age
+    3:CompactionReason reason
+    4:i32 numFiles
+    5:double readRate
+    6:double memoryPressure
+    7:double weight
+    8:double priority
+}
+
 struct TIteratorSetting {
     1:i32 priority;
     2:string name;
@@ -157,12 +176,12 @@ service TabletClientService extends client.ClientService {
   void closeMultiScan(2:trace.TInfo tinfo, 1:data.ScanID scanID) throws (1:NoSuchScanIDException nssi),
   
   //the following calls support a batch update to multiple tablets on a tablet server
-  data.UpdateID startUpdate(2:trace.TInfo tinfo, 1:security.TCredentials credentials) throws (1:client.ThriftSecurityException sec),
+  data.UpdateID startUpdate(2:trace.TInfo tinfo, 1:security.TCredentials credentials, 3:TDurability durability) throws (1:client.ThriftSecurityException sec),
   oneway void applyUpdates(1:trace.TInfo tinfo, 2:data.UpdateID updateID, 3:data.TKeyExtent keyExtent, 4:list<data.TMutation> mutations),
   data.UpdateErrors closeUpdate(2:trace.TInfo tinfo, 1:data.UpdateID updateID) throws (1:NoSuchScanIDException nssi),
   
   //the following call supports making a single update to a tablet
-  void update(4:trace.TInfo tinfo, 1:security.TCredentials credentials, 2:data.TKeyExtent keyExtent, 3:data.TMutation mutation)
+  void update(4:trace.TInfo tinfo, 1:security.TCredentials credentials, 2:data.TKeyExtent keyExtent, 3:data.TMutation mutation, 5:TDurability durability)
     throws (1:client.ThriftSecurityException sec, 
             2:NotServingTabletException nste, 
             3:ConstraintViolationException cve),
@@ -187,6 +206,7 @@ service TabletClientService extends client.ClientService {
   
   list<ActiveScan> getActiveScans(2:trace.TInfo tinfo, 1:security.TCredentials credentials) throws (1:client.ThriftSecurityException sec)
   list<ActiveCompaction> getActiveCompactions(2:trace.TInfo tinfo, 1:security.TCredentials credentials) throws (1:client.ThriftSecurityException sec)
+  list<QueuedCompaction> getQueuedCompactions(2:trace.TInfo tinfo, 1:security.TCredentials credentials) throws (1:client.ThriftSecurityException sec)
   oneway void removeLogs(1:trace.TInfo tinfo, 2:security.TCredentials credentials, 3:list<string> filenames)
 }
 
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.bloomfilter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.hadoop.util.bloom.Key;
+import org.apache.hadoop.util.hash.Hash;
+import org.junit.Test;
+
+public class BlockedBloomFilterTest {
+
+  private static Key key(String s) {
+    return new Key(s.getBytes());
+  }
+
+  private static byte[] build(int numKeys, double errorRate) throws IOException {
+    return build(numKeys, errorRate, 1048576);
+  }
+
+  private static byte[] build(int numKeys, double errorRate, int expectedKeys) throws IOException {
+    BlockedBloomFilter.Builder builder = new BlockedBloomFilter.Builder(errorRate, Hash.MURMUR_HASH, expectedKeys);
+    for (int i = 0; i < numKeys; i++) {
+      // add each key twice, like a row functor would for a row with two columns
+      builder.add(key(String.format("r%08d", i)));
+      builder.add(key(String.format("r%08d", i)));
+    }
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream dos = new DataOutputStream(baos);
+    builder.write(dos);
+    dos.close();
+    return baos.toByteArray();
+  }
+
+  private static void checkFilter(BlockedBloomFilter bbf, int numKeys, double errorRate) {
+    for (int i = 0; i < numKeys; i++)
+      assertTrue(bbf.membershipTest(key(String.format("r%08d", i))));
+
+    int falsePositives = 0;
+    for (int i = 0; i < numKeys; i++)
+      if (bbf.membershipTest(key(String.format("x%08d", i))))
+        falsePositives++;
+
+    assertTrue("false positives " + falsePositives, falsePositives < numKeys * errorRate * 2);
+  }
+
+  @Test
+  public void testMembership() throws IOException {
+    byte[] data = build(100000, .005);
+
+    BlockedBloomFilter wrapped = BlockedBloomFilter.wrap(ByteBuffer.wrap(data));
+    assertFalse(wrapped.isDirect());
+    checkFilter(wrapped, 100000, .005);
+
+    BlockedBloomFilter heap = BlockedBloomFilter.read(new DataInputStream(new ByteArrayInputStream(data)), false);
+    assertFalse(heap.isDirect());
+    checkFilter(heap, 100000, .005);
+
+    BlockedBloomFilter direct = BlockedBloomFilter.read(new DataInputStream(new ByteArrayInputStream(data)), true);
+    assertTrue(direct.isDirect());
+    checkFilter(direct, 100000, .005);
+
+    assertEquals(wrapped.getNumBlocks(), direct.getNumBlocks());
+    assertEquals(wrapped.getNumHashes(), direct.getNumHashes());
+    assertEquals(Hash.MURMUR_HASH, direct.getHashType());
+  }
+
+  @Test
+  public void testSizing() throws IOException {
+    // duplicate keys should not make the filter larger
+    byte[] data = build(10000, .01);
+    assertEquals(BlockedBloomFilter.HEADER_BYTES + BlockedBloomFilter.Builder.numBlocks(10000, .01) * BlockedBloomFilter.BLOCK_BYTES, data.length);
+
+    BlockedBloomFilter bbf = BlockedBloomFilter.wrap(ByteBuffer.wrap(build(0, .01)));
+    assertEquals(1, bbf.getNumBlocks());
+    assertFalse(bbf.membershipTest(key("r1")));
+  }
+
+  @Test
+  public void testSegments() throws IOException {
+    // more keys than expected are added to further segments sized for the expected keys
+    byte[] data = build(50000, .01, 20000);
+    assertEquals(BlockedBloomFilter.HEADER_BYTES + 3 * BlockedBloomFilter.Builder.numBlocks(20000, .01) * BlockedBloomFilter.BLOCK_BYTES, data.length);
+
+    BlockedBloomFilter bbf = BlockedBloomFilter.wrap(ByteBuffer.wrap(data));
+    assertEquals(3, bbf.getNumSegments());
+    checkFilter(bbf, 50000, .03);
+
+    BlockedBloomFilter direct = BlockedBloomFilter.read(new DataInputStream(new ByteArrayInputStream(data)), true);
+    assertEquals(3, direct.getNumSegments());
+    checkFilter(direct, 50000, .03);
+
+    // exactly the expected number of distinct keys is a single segment sized by what was seen
+    data = build(10000, .01, 10000);
+    assertEquals(BlockedBloomFilter.HEADER_BYTES + BlockedBloomFilter.Builder.numBlocks(10000, .01) * BlockedBloomFilter.BLOCK_BYTES, data.length);
+    assertEquals(1, BlockedBloomFilter.wrap(ByteBuffer.wrap(data)).getNumSegments());
+  }
+
+  @Test
+  public void testWrapOffset() throws IOException {
+    byte[] data = build(1000, .005);
+    byte[] padded = new byte[data.length + 7];
+    System.arraycopy(data, 0, padded, 7, data.length);
+
+    ByteBuffer bb = ByteBuffer.wrap(padded);
+    bb.position(7);
+    checkFilter(BlockedBloomFilter.wrap(bb.slice()), 1000, .005);
+    // wrap should not move the callers buffer
+    assertEquals(7, bb.position());
+  }
+
+  @Test
+  public void testCorrupt() throws IOException {
+    byte[] data = build(1000, .005);
+
+    try {
+      BlockedBloomFilter.wrap(ByteBuffer.wrap(data, 0, data.length - 1).slice());
+      fail();
+    } catch (IOException ioe) {}
+
+    data[3] = 99;
+    try {
+      BlockedBloomFilter.wrap(ByteBuffer.wrap(data));
+      fail();
+    } catch (IOException ioe) {}
+  }
+}
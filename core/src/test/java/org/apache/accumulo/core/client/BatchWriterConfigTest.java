@@ -46,6 +46,7 @@ public class BatchWriterConfigTest {
     assertEquals(expectedMaxLatency, defaults.getMaxLatency(TimeUnit.MILLISECONDS));
     assertEquals(expectedTimeout, defaults.getTimeout(TimeUnit.MILLISECONDS));
     assertEquals(expectedMaxWriteThreads, defaults.getMaxWriteThreads());
+    assertEquals(Durability.DEFAULT, defaults.getDurability());
   }
   
   @Test
@@ -55,11 +56,13 @@ public class BatchWriterConfigTest {
     bwConfig.setMaxLatency(22, TimeUnit.HOURS);
     bwConfig.setTimeout(33, TimeUnit.DAYS);
     bwConfig.setMaxWriteThreads(42);
+    bwConfig.setDurability(Durability.FLUSH);
     
     assertEquals(1123581321l, bwConfig.getMaxMemory());
     assertEquals(22 * 60 * 60 * 1000l, bwConfig.getMaxLatency(TimeUnit.MILLISECONDS));
     assertEquals(33 * 24 * 60 * 60 * 1000l, bwConfig.getTimeout(TimeUnit.MILLISECONDS));
     assertEquals(42, bwConfig.getMaxWriteThreads());
+    assertEquals(Durability.FLUSH, bwConfig.getDurability());
   }
   
   @Test
@@ -133,6 +136,7 @@ public class BatchWriterConfigTest {
     assertNotEquals(9898989l, bwDefaults.getTimeout(TimeUnit.MILLISECONDS));
     assertNotEquals(42, bwDefaults.getMaxWriteThreads());
     assertNotEquals(1123581321l, bwDefaults.getMaxMemory());
+    assertNotEquals(Durability.LOG, bwDefaults.getDurability());
     
     // test setting all fields
     BatchWriterConfig bwConfig = new BatchWriterConfig();
@@ -140,6 +144,7 @@ public class BatchWriterConfigTest {
     bwConfig.setTimeout(9898989l, TimeUnit.MILLISECONDS);
     bwConfig.setMaxWriteThreads(42);
     bwConfig.setMaxMemory(1123581321l);
+    bwConfig.setDurability(Durability.LOG);
     byte[] bytes = createBytes(bwConfig);
     checkBytes(bwConfig, bytes);
     
@@ -157,6 +162,12 @@ public class BatchWriterConfigTest {
     bytes = createBytes(bwConfig);
     assertEquals("     v#maxWriteThreads=24,timeout=3000", new String(bytes, Charset.forName("UTF-8")));
     checkBytes(bwConfig, bytes);
+    
+    bwConfig = new BatchWriterConfig();
+    bwConfig.setDurability(Durability.NONE);
+    bytes = createBytes(bwConfig);
+    assertEquals("     f#durability=NONE", new String(bytes, Charset.forName("UTF-8")));
+    checkBytes(bwConfig, bytes);
   }
   
   private byte[] createBytes(BatchWriterConfig bwConfig) throws IOException {
@@ -174,6 +185,7 @@ public class BatchWriterConfigTest {
     assertEquals(bwConfig.getMaxLatency(TimeUnit.MILLISECONDS), createdConfig.getMaxLatency(TimeUnit.MILLISECONDS));
     assertEquals(bwConfig.getTimeout(TimeUnit.MILLISECONDS), createdConfig.getTimeout(TimeUnit.MILLISECONDS));
     assertEquals(bwConfig.getMaxWriteThreads(), createdConfig.getMaxWriteThreads());
+    assertEquals(bwConfig.getDurability(), createdConfig.getDurability());
   }
   
 }
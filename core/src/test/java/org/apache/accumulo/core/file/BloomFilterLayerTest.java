@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.blockfile.cache.LruBlockCache;
+import org.apache.accumulo.core.file.keyfunctor.RowPrefixFunctor;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.accumulo.core.util.CachedConfiguration;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.io.Text;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BloomFilterLayerTest {
+
+  private static TemporaryFolder folder = new TemporaryFolder();
+
+  @BeforeClass
+  public static void setup() throws IOException {
+    folder.create();
+  }
+
+  @AfterClass
+  public static void teardown() {
+    folder.delete();
+  }
+
+  private static ConfigurationCopy getConf(String format, boolean offHeap) {
+    ConfigurationCopy acuconf = new ConfigurationCopy(AccumuloConfiguration.getDefaultConfiguration());
+    acuconf.set(Property.TABLE_BLOOM_ENABLED, "true");
+    acuconf.set(Property.TABLE_BLOOM_FORMAT, format);
+    acuconf.set(Property.TABLE_BLOOM_OFFHEAP, "" + offHeap);
+    acuconf.set(Property.TABLE_BLOOM_SIZE, "1000");
+    acuconf.set(Property.TABLE_BLOOM_LOAD_THRESHOLD, "0");
+    acuconf.set(Property.TSERV_BLOOM_LOAD_MAXCONCURRENT, "0");
+    acuconf.set(Property.TABLE_FILE_TYPE, RFile.EXTENSION);
+    return acuconf;
+  }
+
+  private static String writeFile(AccumuloConfiguration acuconf) throws IOException {
+    Configuration conf = CachedConfiguration.getInstance();
+    FileSystem fs = FileSystem.getLocal(conf);
+    String fname = new File(folder.newFolder(), "test." + RFile.EXTENSION).getAbsolutePath();
+
+    FileSKVWriter writer = FileOperations.getInstance().openWriter(fname, fs, conf, acuconf);
+    writer.startDefaultLocalityGroup();
+    for (int i = 0; i < 10000; i += 2) {
+      String row = String.format("r%06d", i);
+      writer.append(new Key(new Text(row), new Text("cf1")), new Value(row.getBytes()));
+      writer.append(new Key(new Text(row), new Text("cf2")), new Value(row.getBytes()));
+    }
+    writer.close();
+    return fname;
+  }
+
+  private static int checkFile(String fname, AccumuloConfiguration acuconf, LruBlockCache indexCache) throws IOException {
+    Configuration conf = CachedConfiguration.getInstance();
+    FileSystem fs = FileSystem.getLocal(conf);
+    FileSKVIterator reader = FileOperations.getInstance().openReader(fname, false, fs, conf, acuconf, null, indexCache);
+
+    int filtered = 0;
+    for (int i = 0; i < 10000; i++) {
+      Range range = new Range(String.format("r%06d", i));
+      reader.seek(range, Collections.<ByteSequence> emptySet(), false);
+      if (i % 2 == 0) {
+        assertTrue(reader.hasTop());
+        assertEquals(new Text(String.format("r%06d", i)), reader.getTopKey().getRow());
+      } else {
+        assertFalse(reader.hasTop());
+      }
+    }
+
+    // a row that sorts inside the file, but is not in it, should be ruled out by the bloom filter without seeking the file
+    for (int i = 1; i < 10000; i += 2) {
+      if (!((BloomFilterLayer.Reader) reader).probablyHasKey(new Range(String.format("r%06d", i))))
+        filtered++;
+    }
+
+    reader.close();
+    return filtered;
+  }
+
+  @Test
+  public void testBlocked() throws IOException {
+    ConfigurationCopy acuconf = getConf(BloomFilterLayer.BLOCKED_FORMAT, false);
+    acuconf.set(Property.TABLE_BLOOM_SIZE, "10000");
+    String fname = writeFile(acuconf);
+
+    // filters loaded from a cached meta block, from a stream, and into direct memory should all work
+    assertTrue(checkFile(fname, acuconf, new LruBlockCache(10000000, 100000)) > 4900);
+    assertTrue(checkFile(fname, acuconf, null) > 4900);
+    assertTrue(checkFile(fname, getConf(BloomFilterLayer.BLOCKED_FORMAT, true), new LruBlockCache(10000000, 100000)) > 4900);
+  }
+
+  @Test
+  public void testRowPrefix() throws IOException {
+    ConfigurationCopy acuconf = getConf(BloomFilterLayer.BLOCKED_FORMAT, false);
+    acuconf.set(Property.TABLE_BLOOM_KEY_FUNCTOR, RowPrefixFunctor.class.getName());
+    acuconf.set(Property.TABLE_BLOOM_PREFIX_DELIMITER, ":");
+
+    Configuration conf = CachedConfiguration.getInstance();
+    FileSystem fs = FileSystem.getLocal(conf);
+    String fname = new File(folder.newFolder(), "test." + RFile.EXTENSION).getAbsolutePath();
+
+    FileSKVWriter writer = FileOperations.getInstance().openWriter(fname, fs, conf, acuconf);
+    writer.startDefaultLocalityGroup();
+    for (int u = 0; u < 1000; u += 2) {
+      for (int d = 0; d < 10; d++) {
+        String row = String.format("u%04d:2013%02d", u, d);
+        writer.append(new Key(new Text(row), new Text("cf1")), new Value(row.getBytes()));
+      }
+    }
+    writer.close();
+
+    // the prefix settings are read from the file, so changing the table configuration has no effect
+    acuconf.set(Property.TABLE_BLOOM_PREFIX_DELIMITER, "3");
+    FileSKVIterator reader = FileOperations.getInstance().openReader(fname, false, fs, conf, acuconf);
+
+    int filtered = 0;
+    for (int u = 0; u < 1000; u++) {
+      Range range = Range.prefix(String.format("u%04d:2013", u));
+      reader.seek(range, Collections.<ByteSequence> emptySet(), false);
+      int count = 0;
+      while (reader.hasTop()) {
+        count++;
+        reader.next();
+      }
+      assertEquals(u % 2 == 0 ? 10 : 0, count);
+
+      if (!((BloomFilterLayer.Reader) reader).probablyHasKey(range))
+        filtered++;
+    }
+    reader.close();
+
+    assertTrue(filtered > 490);
+  }
+
+  @Test
+  public void testDynamic() throws IOException {
+    ConfigurationCopy acuconf = getConf(BloomFilterLayer.DYNAMIC_FORMAT, false);
+    String fname = writeFile(acuconf);
+    // each key is added twice, and the error rate of a dynamic filter grows with every filter it adds
+    assertTrue(checkFile(fname, acuconf, null) > 4500);
+
+    // the format used to read is determined by the file, not the configuration
+    assertTrue(checkFile(fname, getConf(BloomFilterLayer.BLOCKED_FORMAT, true), null) > 4500);
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.accumulo.core.file.blockfile.cache.LruBlockCache;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.accumulo.core.util.CachedConfiguration;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.io.Text;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CachableBlockFileTest {
+  
+  private static TemporaryFolder folder = new TemporaryFolder();
+  
+  @BeforeClass
+  public static void setup() throws IOException {
+    folder.create();
+  }
+  
+  @AfterClass
+  public static void teardown() {
+    folder.delete();
+  }
+  
+  @After
+  public void resetMapping() {
+    CachableBlockFile.setMapLocalFiles(false);
+  }
+  
+  private static String row(int i) {
+    return String.format("r%06d", i);
+  }
+  
+  private static AccumuloConfiguration getConf(String compression) {
+    ConfigurationCopy acuconf = new ConfigurationCopy(AccumuloConfiguration.getDefaultConfiguration());
+    acuconf.set(Property.TABLE_FILE_COMPRESSION_TYPE, compression);
+    acuconf.set(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE, "4K");
+    acuconf.set(Property.TABLE_BLOCKCACHE_ENABLED, "true");
+    acuconf.set(Property.TABLE_BLOOM_ENABLED, "true");
+    acuconf.set(Property.TABLE_BLOOM_LOAD_THRESHOLD, "0");
+    acuconf.set(Property.TSERV_BLOOM_LOAD_MAXCONCURRENT, "0");
+    acuconf.set(Property.TABLE_FILE_TYPE, RFile.EXTENSION);
+    return acuconf;
+  }
+  
+  private static String writeFile(AccumuloConfiguration acuconf) throws IOException {
+    Configuration conf = CachedConfiguration.getInstance();
+    FileSystem fs = FileSystem.getLocal(conf);
+    String fname = new File(folder.newFolder(), "test." + RFile.EXTENSION).getAbsolutePath();
+    
+    FileSKVWriter writer = FileOperations.getInstance().openWriter(fname, fs, conf, acuconf);
+    writer.startDefaultLocalityGroup();
+    for (int i = 0; i < 10000; i++)
+      writer.append(new Key(new Text(row(i)), new Text("cf1")), new Value(("v" + i).getBytes()));
+    writer.close();
+    return fname;
+  }
+  
+  private static void checkFile(String fname, AccumuloConfiguration acuconf, LruBlockCache dataCache, LruBlockCache indexCache) throws IOException {
+    Configuration conf = CachedConfiguration.getInstance();
+    FileSystem fs = FileSystem.getLocal(conf);
+    FileSKVIterator reader = FileOperations.getInstance().openReader(fname, false, fs, conf, acuconf, dataCache, indexCache);
+    
+    // read everything twice, so the second pass comes from the cache or the mapping
+    for (int pass = 0; pass < 2; pass++) {
+      reader.seek(new Range(), Collections.<ByteSequence> emptySet(), false);
+      for (int i = 0; i < 10000; i++) {
+        assertTrue(reader.hasTop());
+        assertEquals(new Text(row(i)), reader.getTopKey().getRow());
+        assertEquals(new Value(("v" + i).getBytes()), reader.getTopValue());
+        reader.next();
+      }
+      assertFalse(reader.hasTop());
+    }
+    
+    for (int i = 0; i < 10000; i += 37) {
+      reader.seek(new Range(row(i)), Collections.<ByteSequence> emptySet(), false);
+      assertTrue(reader.hasTop());
+      assertEquals(new Value(("v" + i).getBytes()), reader.getTopValue());
+    }
+    
+    reader.close();
+  }
+  
+  @Test
+  public void testMappedUncompressed() throws IOException {
+    AccumuloConfiguration acuconf = getConf("none");
+    String fname = writeFile(acuconf);
+    
+    checkFile(fname, acuconf, null, null);
+    
+    CachableBlockFile.setMapLocalFiles(true);
+    checkFile(fname, acuconf, null, null);
+    
+    // uncompressed blocks are read in place and never copied into the data cache
+    LruBlockCache dataCache = new LruBlockCache(10000000, 100000);
+    checkFile(fname, acuconf, dataCache, new LruBlockCache(10000000, 100000));
+    assertEquals(0, dataCache.size());
+  }
+  
+  @Test
+  public void testMappedManyBlocks() throws IOException {
+    ConfigurationCopy acuconf = new ConfigurationCopy(getConf("none"));
+    acuconf.set(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE, "1K");
+    String fname = writeFile(acuconf);
+    
+    // the file has more blocks than a reader keeps mapped, so reading it again maps blocks that were dropped
+    CachableBlockFile.setMapLocalFiles(true);
+    checkFile(fname, acuconf, null, null);
+  }
+  
+  @Test
+  public void testMappedCompressed() throws IOException {
+    AccumuloConfiguration acuconf = getConf("gz");
+    String fname = writeFile(acuconf);
+    
+    CachableBlockFile.setMapLocalFiles(true);
+    checkFile(fname, acuconf, null, null);
+    
+    // decompressed blocks still go in the data cache
+    LruBlockCache dataCache = new LruBlockCache(10000000, 100000);
+    checkFile(fname, acuconf, dataCache, new LruBlockCache(10000000, 100000));
+    assertTrue(dataCache.size() > 0);
+  }
+  
+  @Test
+  public void testCloseStream() throws IOException {
+    AccumuloConfiguration acuconf = getConf("gz");
+    String fname = writeFile(acuconf);
+    
+    for (boolean mapped : new boolean[] {false, true}) {
+      CachableBlockFile.setMapLocalFiles(mapped);
+      
+      Configuration conf = CachedConfiguration.getInstance();
+      FileSystem fs = FileSystem.getLocal(conf);
+      FileSKVIterator reader = FileOperations.getInstance().openReader(fname, false, fs, conf, acuconf, null, null);
+      
+      // closing the stream of a reader that has not read anything yet is allowed
+      assertTrue(reader.closeStream());
+      
+      for (int i = 0; i < 9900; i += 997) {
+        reader.seek(new Range(row(i), null), Collections.<ByteSequence> emptySet(), false);
+        for (int j = i; j < i + 100; j++) {
+          assertTrue(reader.hasTop());
+          assertEquals(new Text(row(j)), reader.getTopKey().getRow());
+          assertEquals(new Value(("v" + j).getBytes()), reader.getTopValue());
+          reader.next();
+        }
+        
+        // the stream reopens on the next seek, reusing the indexes that were already read
+        assertTrue(reader.closeStream());
+        assertFalse(reader.hasTop());
+      }
+      
+      assertEquals(new Text(row(0)), reader.getFirstKey().getRow());
+      assertEquals(new Text(row(9999)), reader.getLastKey().getRow());
+      
+      reader.close();
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.keyfunctor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class RowPrefixFunctorTest {
+
+  private static String bloomKey(KeyFunctor functor, Range range) {
+    org.apache.hadoop.util.bloom.Key bk = functor.transform(range);
+    return bk == null ? null : new String(bk.getBytes());
+  }
+
+  private static String bloomKey(KeyFunctor functor, String row) {
+    return new String(functor.transform(new Key(row, "cf", "cq")).getBytes());
+  }
+
+  @Test
+  public void testDelimiter() {
+    RowPrefixFunctor functor = new RowPrefixFunctor(0, ":".getBytes());
+
+    assertEquals("user1:", bloomKey(functor, "user1:20130101"));
+    assertEquals("user1:", bloomKey(functor, "user1:"));
+    assertEquals("user1", bloomKey(functor, "user1"));
+
+    assertEquals("user1:", bloomKey(functor, Range.prefix("user1:")));
+    assertEquals("user1:", bloomKey(functor, Range.prefix("user1:2013")));
+    assertEquals("user1:", bloomKey(functor, new Range("user1:20130101", "user1:20130201")));
+    assertEquals("user1:", bloomKey(functor, new Range("user1:20130101", true, "user1;", false)));
+    assertEquals("user1:", bloomKey(functor, new Range("user1:20130101")));
+    assertEquals("user1:", bloomKey(functor, new Range(new Key("user1:2013", "cf"), true, new Key("user1;"), false)));
+
+    // ranges that reach past the prefix
+    assertNull(bloomKey(functor, new Range("user1:20130101", true, "user1;", true)));
+    assertNull(bloomKey(functor, new Range(new Key("user1:2013"), true, new Key("user1;", "cf"), false)));
+    assertNull(bloomKey(functor, new Range("user1:20130101", "user2:")));
+    assertNull(bloomKey(functor, new Range("user1:20130101", (String) null)));
+    assertNull(bloomKey(functor, new Range((String) null, "user1:20130101")));
+    assertNull(bloomKey(functor, Range.prefix("user")));
+
+    // rows without the delimiter are their own prefix
+    assertEquals("user1", bloomKey(functor, new Range("user1")));
+    assertNull(bloomKey(functor, new Range("user1", "user1:")));
+  }
+
+  @Test
+  public void testLength() {
+    RowPrefixFunctor functor = new RowPrefixFunctor(4, new byte[0]);
+
+    assertEquals("abcd", bloomKey(functor, "abcdefg"));
+    assertEquals("abc", bloomKey(functor, "abc"));
+
+    assertEquals("abcd", bloomKey(functor, Range.prefix("abcd")));
+    assertEquals("abcd", bloomKey(functor, Range.prefix("abcdef")));
+    assertEquals("abcd", bloomKey(functor, new Range("abcda", "abcdz")));
+    assertEquals("abc", bloomKey(functor, new Range("abc")));
+
+    assertNull(bloomKey(functor, Range.prefix("abc")));
+    assertNull(bloomKey(functor, new Range("abcda", "abcea")));
+
+    // the following prefix of all 0xff bytes does not exist, so any end is within the prefix
+    Text ff = new Text(new byte[] {(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff});
+    assertEquals(new String(ff.getBytes()), bloomKey(functor, Range.prefix(ff)));
+  }
+
+  @Test
+  public void testConfig() throws IOException {
+    ConfigurationCopy acuconf = new ConfigurationCopy(AccumuloConfiguration.getDefaultConfiguration());
+    acuconf.set(Property.TABLE_BLOOM_PREFIX_DELIMITER, "_");
+
+    RowPrefixFunctor functor = new RowPrefixFunctor();
+    functor.init(acuconf);
+    assertEquals("a_", bloomKey(functor, "a_b_c"));
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream dos = new DataOutputStream(baos);
+    functor.write(dos);
+    dos.close();
+
+    RowPrefixFunctor copy = new RowPrefixFunctor();
+    copy.readFields(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+    assertEquals("a_", bloomKey(copy, "a_b_c"));
+
+    // when both or neither are set, whole rows are used rather than failing the file write
+    acuconf.set(Property.TABLE_BLOOM_PREFIX_LENGTH, "3");
+    functor.init(acuconf);
+    checkWholeRows(functor);
+
+    functor = new RowPrefixFunctor();
+    functor.init(AccumuloConfiguration.getDefaultConfiguration());
+    checkWholeRows(functor);
+
+    baos = new ByteArrayOutputStream();
+    dos = new DataOutputStream(baos);
+    functor.write(dos);
+    dos.close();
+
+    copy = new RowPrefixFunctor();
+    copy.readFields(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+    checkWholeRows(copy);
+  }
+
+  private static void checkWholeRows(RowPrefixFunctor functor) {
+    assertEquals("a_b_c", bloomKey(functor, "a_b_c"));
+    assertEquals("a_b_c", bloomKey(functor, new Range("a_b_c")));
+    assertNull(bloomKey(functor, Range.prefix("a_")));
+  }
+}
@@ -27,12 +27,20 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.accumulo.core.data.ArrayByteSequence;
 import org.apache.accumulo.core.data.ByteSequence;
@@ -41,6 +49,7 @@ import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.TimestampRange;
 import org.apache.accumulo.core.file.blockfile.cache.LruBlockCache;
 import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
 import org.apache.accumulo.core.file.rfile.RFile.Reader;
@@ -1500,6 +1509,179 @@ public class RFileTest {
   }
 
 
+  @Test
+  public void testTimestampRange() throws Exception {
+    TestRFile trf = new TestRFile();
+    
+    trf.openWriter();
+    
+    // each block covers a distinct range of timestamps
+    for (int i = 0; i < 2500; i++) {
+      Key k = nk(nf("r_", i), "cf1", "cq1", "L1", 10000 + i);
+      if (i == 2000)
+        k.setDeleted(true);
+      trf.writer.append(k, nv("foo" + i));
+    }
+    
+    trf.closeWriter();
+    trf.openReader();
+    
+    assertEquals(10000, trf.reader.getMinTimestamp());
+    assertEquals(12499, trf.reader.getMaxTimestamp());
+    assertTrue(trf.reader.containsDeletes());
+    
+    Set<ByteSequence> cfs = Collections.emptySet();
+    
+    trf.reader.setTimestampRange(new TimestampRange(11000, 11009));
+    trf.reader.seek(new Range(), cfs, false);
+    
+    int count = 0;
+    Set<Long> seen = new HashSet<Long>();
+    while (trf.reader.hasTop()) {
+      seen.add(trf.reader.getTopKey().getTimestamp());
+      count++;
+      trf.reader.next();
+    }
+    
+    for (long ts = 11000; ts <= 11009; ts++)
+      assertTrue(seen.contains(ts));
+    // only the blocks containing the range and the block with a delete should be read
+    assertTrue(count < 200);
+    assertTrue(seen.contains(12000l));
+    
+    // seeking into the middle of a skipped region should land on the first key in the timestamp range
+    trf.reader.seek(new Range(nf("r_", 300), null), cfs, false);
+    assertTrue(trf.reader.hasTop());
+    assertTrue(trf.reader.getTopKey().getTimestamp() <= 11000);
+    
+    // a range completely outside of the file
+    trf.reader.setTimestampRange(new TimestampRange(20000, 30000));
+    trf.reader.seek(new Range(nf("r_", 0), nf("r_", 1000)), cfs, false);
+    assertFalse(trf.reader.hasTop());
+    
+    // removing the range should return everything again
+    trf.reader.setTimestampRange(null);
+    trf.reader.seek(new Range(), cfs, false);
+    count = 0;
+    while (trf.reader.hasTop()) {
+      count++;
+      trf.reader.next();
+    }
+    assertEquals(2500, count);
+    
+    trf.closeReader();
+  }
+  
+  private static List<Key> readAll(TestRFile trf, Collection<ByteSequence> cfs, boolean inclusive) throws IOException {
+    List<Key> keys = new ArrayList<Key>();
+    trf.iter.seek(new Range(), cfs, inclusive);
+    while (trf.iter.hasTop()) {
+      keys.add(trf.iter.getTopKey());
+      trf.iter.next();
+    }
+    return keys;
+  }
+  
+  @Test
+  public void testAllLocalityGroups() throws Exception {
+    // writing all locality groups in one pass should produce a file that reads the same as writing them one at a time
+    Map<String,Set<ByteSequence>> groups = new LinkedHashMap<String,Set<ByteSequence>>();
+    groups.put("lg1", ncfs("cf1", "cf2"));
+    groups.put("lg2", ncfs("cf3"));
+    
+    TreeMap<Key,Value> data = new TreeMap<Key,Value>();
+    for (int i = 0; i < 1000; i++)
+      for (int cf = 1; cf <= 5; cf++)
+        data.put(nk(nf("r_", i), "cf" + cf, "cq", "", 5 + cf), nv("v" + i + "_" + cf));
+    
+    TestRFile sequential = new TestRFile();
+    sequential.openWriter(false);
+    HashSet<ByteSequence> named = new HashSet<ByteSequence>();
+    for (Entry<String,Set<ByteSequence>> group : groups.entrySet()) {
+      sequential.writer.startNewLocalityGroup(group.getKey(), group.getValue());
+      for (Entry<Key,Value> entry : data.entrySet())
+        if (group.getValue().contains(entry.getKey().getColumnFamilyData()))
+          sequential.writer.append(entry.getKey(), entry.getValue());
+      named.addAll(group.getValue());
+    }
+    sequential.writer.startDefaultLocalityGroup();
+    for (Entry<Key,Value> entry : data.entrySet())
+      if (!named.contains(entry.getKey().getColumnFamilyData()))
+        sequential.writer.append(entry.getKey(), entry.getValue());
+    sequential.closeWriter();
+    
+    TestRFile singlePass = new TestRFile();
+    singlePass.openWriter(false);
+    singlePass.writer.startAllLocalityGroups(groups);
+    for (Entry<Key,Value> entry : data.entrySet())
+      singlePass.writer.append(entry.getKey(), entry.getValue());
+    singlePass.closeWriter();
+    
+    sequential.openReader();
+    singlePass.openReader();
+    
+    assertEquals(new ArrayList<Key>(data.keySet()), readAll(singlePass, EMPTY_COL_FAMS, false));
+    for (Set<ByteSequence> cfs : Arrays.asList(ncfs("cf1"), ncfs("cf2", "cf3"), ncfs("cf4"), ncfs("cf1", "cf5"))) {
+      assertEquals(readAll(sequential, cfs, true), readAll(singlePass, cfs, true));
+      assertEquals(readAll(sequential, cfs, false), readAll(singlePass, cfs, false));
+    }
+    
+    assertEquals(sequential.reader.getFirstKey(), singlePass.reader.getFirstKey());
+    assertEquals(sequential.reader.getLastKey(), singlePass.reader.getLastKey());
+    assertEquals(6, singlePass.reader.getMinTimestamp());
+    assertEquals(10, singlePass.reader.getMaxTimestamp());
+    
+    sequential.closeReader();
+    singlePass.closeReader();
+  }
+  
+  @Test
+  public void testPrefetch() throws Exception {
+    TestRFile trf = new TestRFile();
+    trf.openWriter();
+    for (int i = 0; i < 10000; i++)
+      trf.writer.append(nk(nf("r_", i), "cf1", "cq1", "L1", 55), nv("foo" + i));
+    trf.closeWriter();
+    
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    CachableBlockFile.setPrefetchExecutor(executor);
+    try {
+      trf.openReader();
+      trf.reader.setMaxPrefetchBlocks(4);
+      long requests = CachableBlockFile.getPrefetchRequests();
+      
+      trf.iter.seek(new Range(), EMPTY_COL_FAMS, false);
+      for (int i = 0; i < 10000; i++) {
+        assertTrue(trf.iter.hasTop());
+        assertEquals(nk(nf("r_", i), "cf1", "cq1", "L1", 55), trf.iter.getTopKey());
+        assertEquals(nv("foo" + i), trf.iter.getTopValue());
+        trf.iter.next();
+      }
+      assertFalse(trf.iter.hasTop());
+      assertTrue(CachableBlockFile.getPrefetchRequests() > requests);
+      
+      // blocks prefetched past the end of a range or abandoned by a seek must not disturb later reads
+      Random rand = new Random(42);
+      for (int count = 0; count < 50; count++) {
+        int start = rand.nextInt(10000);
+        int end = Math.min(10000, start + rand.nextInt(1000));
+        trf.iter.seek(new Range(nf("r_", start), true, nf("r_", end), false), EMPTY_COL_FAMS, false);
+        for (int i = start; i < end; i++) {
+          assertTrue(trf.iter.hasTop());
+          assertEquals(nk(nf("r_", i), "cf1", "cq1", "L1", 55), trf.iter.getTopKey());
+          assertEquals(nv("foo" + i), trf.iter.getTopValue());
+          trf.iter.next();
+        }
+        assertFalse(trf.iter.hasTop());
+      }
+      
+      trf.closeReader();
+    } finally {
+      CachableBlockFile.setPrefetchExecutor(null);
+      executor.shutdownNow();
+    }
+  }
+  
   @Test(expected = NullPointerException.class)
   public void testMissingUnreleasedVersions() throws Exception {
     runVersionTest(5);
@@ -17,6 +17,8 @@
 package org.apache.accumulo.core.file.rfile;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -108,6 +110,27 @@ public class RelativeKeyTest {
     assertEquals(expected.getKey(), actual.getKey());
   }
   
+  @Test
+  public void testReadSharesSameFields() throws IOException {
+    Key prevKey = new Key("row1", "columnfamily1", "columnqualifier1", "columnvisibility1", 1000);
+    Key newKey = new Key("row1", "columnfamily1", "columnqualifier2", "columnvisibility1", 1000);
+    
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(baos);
+    new RelativeKey(prevKey, newKey).write(out);
+    
+    RelativeKey actual = new RelativeKey();
+    actual.setPrevKey(prevKey);
+    actual.readFields(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+    
+    Key key = actual.getKey();
+    assertEquals(newKey, key);
+    assertSame(prevKey.getRowData().getBackingArray(), key.getRowData().getBackingArray());
+    assertSame(prevKey.getColumnFamilyData().getBackingArray(), key.getColumnFamilyData().getBackingArray());
+    assertSame(prevKey.getColumnVisibilityData().getBackingArray(), key.getColumnVisibilityData().getBackingArray());
+    assertNotSame(prevKey.getColumnQualifierData().getBackingArray(), key.getColumnQualifierData().getBackingArray());
+  }
+  
   private static ArrayList<Key> expectedKeys;
   private static ArrayList<Value> expectedValues;
   private static ArrayList<Integer> expectedPositions;
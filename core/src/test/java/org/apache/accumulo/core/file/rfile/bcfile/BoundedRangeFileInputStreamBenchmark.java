@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.rfile.bcfile;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Measures block reads from one file shared by many threads, as happens when concurrent scans read a hot RFile. Compares the positional reads done by
+ * {@link BoundedRangeFileInputStream} against seeking and reading the shared stream while holding its monitor.
+ */
+public class BoundedRangeFileInputStreamBenchmark {
+  
+  private interface BlockReader {
+    void read(FSDataInputStream in, long offset, byte[] block) throws IOException;
+  }
+  
+  private static final BlockReader POSITIONAL = new BlockReader() {
+    @Override
+    public void read(FSDataInputStream in, long offset, byte[] block) throws IOException {
+      BoundedRangeFileInputStream region = new BoundedRangeFileInputStream(in, offset, block.length);
+      int read = 0;
+      while (read < block.length) {
+        int n = region.read(block, read, block.length - read);
+        if (n < 0)
+          throw new IOException("Unexpected end of file");
+        read += n;
+      }
+    }
+  };
+  
+  private static final BlockReader SYNCHRONIZED = new BlockReader() {
+    @Override
+    public void read(FSDataInputStream in, long offset, byte[] block) throws IOException {
+      synchronized (in) {
+        in.seek(offset);
+        in.readFully(block);
+      }
+    }
+  };
+  
+  private static double run(final FSDataInputStream in, final long fileSize, final BlockReader reader, int numThreads, final int readsPerThread,
+      final int blockSize) throws Exception {
+    final CountDownLatch start = new CountDownLatch(1);
+    final AtomicLong errors = new AtomicLong();
+    Thread[] threads = new Thread[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      final long seed = i;
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          Random random = new Random(seed);
+          byte[] block = new byte[blockSize];
+          try {
+            start.await();
+            for (int j = 0; j < readsPerThread; j++)
+              reader.read(in, (long) (random.nextDouble() * (fileSize - blockSize)), block);
+          } catch (Exception e) {
+            errors.incrementAndGet();
+          }
+        }
+      };
+      threads[i].start();
+    }
+    
+    long t1 = System.nanoTime();
+    start.countDown();
+    for (Thread thread : threads)
+      thread.join();
+    long t2 = System.nanoTime();
+    
+    if (errors.get() > 0)
+      throw new IOException(errors.get() + " threads failed");
+    
+    return (double) numThreads * readsPerThread * blockSize / (1 << 20) / ((t2 - t1) / 1000000000.0);
+  }
+  
+  public static void main(String[] args) throws Exception {
+    PrintStream out = System.out;
+    
+    int numThreads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+    int fileSizeMB = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+    int readsPerThread = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+    int blockSize = 64 * 1024;
+    
+    File file = File.createTempFile("bcfile-bench", ".dat");
+    file.deleteOnExit();
+    FileOutputStream fos = new FileOutputStream(file);
+    byte[] chunk = new byte[1 << 20];
+    Random random = new Random(42);
+    for (int i = 0; i < fileSizeMB; i++) {
+      random.nextBytes(chunk);
+      fos.write(chunk);
+    }
+    fos.close();
+    
+    // use the raw local file system, since the checksummed one opens the file again for each positional read
+    FileSystem fs = FileSystem.getLocal(new Configuration()).getRaw();
+    FSDataInputStream in = fs.open(new Path(file.getAbsolutePath()));
+    long fileSize = file.length();
+    
+    out.printf("threads %d file %,d MB block %,d bytes reads per thread %,d%n", numThreads, fileSizeMB, blockSize, readsPerThread);
+    try {
+      for (int run = 0; run < 3; run++) {
+        double sync = run(in, fileSize, SYNCHRONIZED, numThreads, readsPerThread, blockSize);
+        double pread = run(in, fileSize, POSITIONAL, numThreads, readsPerThread, blockSize);
+        out.printf("synchronized seek+read %9.1f MB/s   positional read %9.1f MB/s%n", sync, pread);
+      }
+    } finally {
+      in.close();
+      file.delete();
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.rfile.bcfile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BoundedRangeFileInputStreamTest {
+  
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+  
+  private byte[] data;
+  
+  private FSDataInputStream open(int size) throws IOException {
+    data = new byte[size];
+    new Random(42).nextBytes(data);
+    File file = folder.newFile("data");
+    FileOutputStream out = new FileOutputStream(file);
+    out.write(data);
+    out.close();
+    return FileSystem.getLocal(new Configuration()).open(new Path(file.getAbsolutePath()));
+  }
+  
+  private byte[] readRegion(FSDataInputStream in, int offset, int length, boolean positional) throws IOException {
+    BoundedRangeFileInputStream region = new BoundedRangeFileInputStream(in, offset, length, positional);
+    byte[] result = new byte[length];
+    int read = 0;
+    while (read < length) {
+      int n = region.read(result, read, Math.min(1000, length - read));
+      if (n < 0)
+        break;
+      read += n;
+    }
+    assertEquals(-1, region.read());
+    region.close();
+    return result;
+  }
+  
+  private byte[] expected(int offset, int length) {
+    byte[] result = new byte[length];
+    System.arraycopy(data, offset, result, 0, length);
+    return result;
+  }
+  
+  @Test
+  public void testRead() throws IOException {
+    FSDataInputStream in = open(10000);
+    try {
+      assertArrayEquals(expected(100, 5000), readRegion(in, 100, 5000, true));
+      assertArrayEquals(expected(0, 10), readRegion(in, 0, 10, true));
+      assertArrayEquals(expected(100, 5000), readRegion(in, 100, 5000, false));
+      
+      BoundedRangeFileInputStream region = new BoundedRangeFileInputStream(in, 9990, 100);
+      byte[] buf = new byte[100];
+      assertEquals(10, region.read(buf));
+      assertEquals(-1, region.read(buf));
+    } finally {
+      in.close();
+    }
+  }
+  
+  @Test
+  public void testMarkAndSkip() throws IOException {
+    FSDataInputStream in = open(1000);
+    try {
+      BoundedRangeFileInputStream region = new BoundedRangeFileInputStream(in, 200, 100);
+      assertEquals(10, region.skip(10));
+      region.mark(100);
+      assertEquals(data[210] & 0xff, region.read());
+      region.reset();
+      assertEquals(data[210] & 0xff, region.read());
+      assertEquals(89, region.skip(1000));
+      assertEquals(-1, region.read());
+    } finally {
+      in.close();
+    }
+  }
+  
+  @Test
+  public void testConcurrentReads() throws Exception {
+    runConcurrentReads(true);
+  }
+  
+  @Test
+  public void testConcurrentLockedReads() throws Exception {
+    runConcurrentReads(false);
+  }
+  
+  private void runConcurrentReads(final boolean positional) throws Exception {
+    final FSDataInputStream in = open(1 << 20);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+      Random random = new Random(7);
+      for (int i = 0; i < 200; i++) {
+        final int offset = random.nextInt(data.length - 4096);
+        final int length = 1 + random.nextInt(4096);
+        results.add(pool.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() throws Exception {
+            assertArrayEquals(expected(offset, length), readRegion(in, offset, length, positional));
+            return true;
+          }
+        }));
+      }
+      for (Future<Boolean> result : results)
+        result.get();
+    } finally {
+      pool.shutdownNow();
+      in.close();
+    }
+  }
+}
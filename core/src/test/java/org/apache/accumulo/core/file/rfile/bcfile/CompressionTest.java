@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.rfile.bcfile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.rfile.bcfile.Compression.Algorithm;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.compress.BlockCompressorStream;
+import org.apache.hadoop.io.compress.Compressor;
+import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.hadoop.io.compress.zlib.BuiltInZlibDeflater;
+import org.apache.hadoop.io.compress.zlib.BuiltInZlibInflater;
+import org.junit.Test;
+
+public class CompressionTest {
+  
+  /**
+   * @return key values serialized the way a data block stores them
+   */
+  private static byte[] sampleBlock(int entries) throws IOException {
+    DataOutputBuffer out = new DataOutputBuffer();
+    for (int i = 0; i < entries; i++) {
+      new Key(String.format("row_%08d", i / 10), "family", String.format("qual_%04d", i % 10), "A&B", 1385000000000l + i).write(out);
+      new Value(("value " + (i * 31) % 1000).getBytes()).write(out);
+    }
+    return Arrays.copyOf(out.getData(), out.getLength());
+  }
+  
+  // a codec class may be present without the native library it needs
+  private static boolean isUsable(Algorithm algo) {
+    try {
+      algo.returnCompressor(algo.getCompressor());
+      return true;
+    } catch (Throwable t) {
+      return false;
+    }
+  }
+  
+  private static byte[] streamCompress(Algorithm algo, byte[] data) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    Compressor compressor = algo.getCompressor();
+    try {
+      OutputStream out = algo.createCompressionStream(baos, compressor, 0);
+      out.write(data);
+      out.flush();
+      out.close();
+    } finally {
+      algo.returnCompressor(compressor);
+    }
+    return baos.toByteArray();
+  }
+  
+  private static byte[] streamDecompress(Algorithm algo, byte[] compressed, int rawLength) throws IOException {
+    byte[] raw = new byte[rawLength];
+    Decompressor decompressor = algo.getDecompressor();
+    try {
+      InputStream in = algo.createDecompressionStream(new ByteArrayInputStream(compressed), decompressor, 0);
+      new DataInputStream(in).readFully(raw);
+      in.close();
+    } finally {
+      algo.returnDecompressor(decompressor);
+    }
+    return raw;
+  }
+  
+  private static byte[] blockDecompress(Algorithm algo, ByteBuffer compressed, int rawLength) throws IOException {
+    byte[] raw = new byte[rawLength];
+    algo.decompress(compressed, raw, 0, rawLength);
+    return raw;
+  }
+  
+  @Test
+  public void testBlockAndStreamAgree() throws IOException {
+    byte[] data = sampleBlock(5000);
+    
+    for (String name : Compression.getSupportedAlgorithms()) {
+      Algorithm algo = Compression.getCompressionAlgorithmByName(name);
+      if (!isUsable(algo))
+        continue;
+      
+      byte[] compressed = streamCompress(algo, data);
+      
+      assertArrayEquals(name, data, streamDecompress(algo, compressed, data.length));
+      assertArrayEquals(name, data, blockDecompress(algo, ByteBuffer.wrap(compressed), data.length));
+      
+      // compressed bytes that are not on the heap, as when they are memory mapped
+      ByteBuffer direct = ByteBuffer.allocateDirect(compressed.length);
+      direct.put(compressed).flip();
+      assertArrayEquals(name, data, blockDecompress(algo, direct, data.length));
+    }
+  }
+  
+  @Test
+  public void testBlockFraming() throws IOException {
+    // codecs such as snappy and lz4 frame their chunks the way BlockCompressorStream does, here that framing is exercised with the java zlib codec
+    byte[] data = sampleBlock(300);
+    
+    // two writes larger than the small chunk size, so the block holds two runs of several chunks
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    int bufferSize = 4 * 1024;
+    OutputStream out = new BlockCompressorStream(baos, new BuiltInZlibDeflater(), bufferSize, bufferSize / 6 + 32);
+    int half = data.length / 2;
+    assertTrue(half > bufferSize);
+    out.write(data, 0, half);
+    out.write(data, half, data.length - half);
+    out.close();
+    byte[] compressed = baos.toByteArray();
+    
+    byte[] raw = new byte[data.length];
+    Compression.decompress(new BuiltInZlibInflater(), true, ByteBuffer.wrap(compressed), raw, 0, raw.length);
+    assertArrayEquals(data, raw);
+  }
+  
+  @Test(expected = EOFException.class)
+  public void testTruncated() throws IOException {
+    byte[] data = sampleBlock(1000);
+    byte[] compressed = streamCompress(Algorithm.GZ, data);
+    blockDecompress(Algorithm.GZ, ByteBuffer.wrap(compressed, 0, compressed.length / 2), data.length);
+  }
+}
@@ -16,15 +16,21 @@
  */
 package org.apache.accumulo.core.iterators;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
+import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.ConfigurationCopy;
 import org.apache.accumulo.core.conf.Property;
@@ -33,9 +39,14 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.KeyExtent;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.data.thrift.IterInfo;
+import org.apache.accumulo.core.file.TimestampRange;
 import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.iterators.IteratorUtil.ParsedIterators;
 import org.apache.accumulo.core.iterators.system.MultiIteratorTest;
 import org.apache.accumulo.core.iterators.user.AgeOffFilter;
+import org.apache.accumulo.core.iterators.user.TimestampFilter;
+import org.apache.accumulo.core.iterators.user.VersioningIterator;
 import org.apache.hadoop.io.Text;
 import org.junit.Test;
 
@@ -276,4 +287,75 @@ public class IterUtilTest {
     assertFalse(iter.hasTop());
     
   }
+  
+  @Test
+  public void testParsedIterators() throws IOException {
+    ConfigurationCopy conf = new ConfigurationCopy();
+    
+    conf.set(Property.TABLE_ITERATOR_PREFIX + IteratorScope.scan.name() + ".filter", "1," + AgeOffFilter.class.getName());
+    conf.set(Property.TABLE_ITERATOR_PREFIX + IteratorScope.scan.name() + ".filter.opt.ttl", "100");
+    conf.set(Property.TABLE_ITERATOR_PREFIX + IteratorScope.scan.name() + ".filter.opt.currentTime", "1000");
+    
+    ParsedIterators parsed = IteratorUtil.parseIterators(IteratorScope.scan, conf);
+    
+    TreeMap<Key,Value> tm = new TreeMap<Key,Value>();
+    
+    MultiIteratorTest.nkv(tm, 1, 850, false, "1");
+    MultiIteratorTest.nkv(tm, 2, 950, false, "2");
+    
+    // the options of a scan override those of the table for that scan only
+    Map<String,Map<String,String>> ssio = new HashMap<String,Map<String,String>>();
+    ssio.put("filter", Collections.singletonMap("ttl", "200"));
+    List<IterInfo> ssiList = Collections.emptyList();
+    
+    SortedKeyValueIterator<Key,Value> iter = IteratorUtil.loadIterators(new SortedMapIterator(tm), parsed, null, ssiList, ssio,
+        new DefaultIteratorEnvironment(conf));
+    iter.seek(new Range(), EMPTY_COL_FAMS, false);
+    
+    assertTrue(iter.hasTop());
+    assertTrue(iter.getTopKey().equals(MultiIteratorTest.nk(1, 850)));
+    
+    iter = IteratorUtil.loadIterators(new SortedMapIterator(tm), parsed, null, ssiList, new HashMap<String,Map<String,String>>(),
+        new DefaultIteratorEnvironment(conf));
+    iter.seek(new Range(), EMPTY_COL_FAMS, false);
+    
+    assertTrue(iter.hasTop());
+    assertTrue(iter.getTopKey().equals(MultiIteratorTest.nk(2, 950)));
+    iter.next();
+    assertFalse(iter.hasTop());
+    
+    assertEquals(new TimestampRange(900, Long.MAX_VALUE), IteratorUtil.getTimestampRange(parsed, ssiList, new HashMap<String,Map<String,String>>()));
+  }
+  
+  @Test
+  public void testTimestampRange() {
+    ConfigurationCopy conf = new ConfigurationCopy();
+    List<IteratorSetting> none = Collections.emptyList();
+    
+    assertNull(IteratorUtil.getTimestampRange(IteratorScope.scan, conf, none));
+    
+    // an age off filter that sees the data first
+    conf.set(Property.TABLE_ITERATOR_PREFIX + IteratorScope.majc.name() + ".ageoff", "10," + AgeOffFilter.class.getName());
+    conf.set(Property.TABLE_ITERATOR_PREFIX + IteratorScope.majc.name() + ".ageoff.opt.ttl", "100");
+    conf.set(Property.TABLE_ITERATOR_PREFIX + IteratorScope.majc.name() + ".ageoff.opt.currentTime", "1000");
+    assertEquals(new TimestampRange(900, Long.MAX_VALUE), IteratorUtil.getTimestampRange(IteratorScope.majc, conf, none));
+    assertNull(IteratorUtil.getTimestampRange(IteratorScope.scan, conf, none));
+    
+    // versioning sees the data before the filter, so nothing can be skipped
+    conf.set(Property.TABLE_ITERATOR_PREFIX + IteratorScope.majc.name() + ".vers", "5," + VersioningIterator.class.getName());
+    assertNull(IteratorUtil.getTimestampRange(IteratorScope.majc, conf, none));
+    
+    // a scan time timestamp filter
+    conf.set(Property.TABLE_ITERATOR_PREFIX + IteratorScope.scan.name() + ".vers", "20," + VersioningIterator.class.getName());
+    IteratorSetting is = new IteratorSetting(15, TimestampFilter.class);
+    TimestampFilter.setRange(is, 50l, true, 60l, false);
+    assertEquals(new TimestampRange(50, 59), IteratorUtil.getTimestampRange(IteratorScope.scan, conf, Collections.singletonList(is)));
+    
+    TimestampFilter.setNegate(is, true);
+    assertNull(IteratorUtil.getTimestampRange(IteratorScope.scan, conf, Collections.singletonList(is)));
+    
+    is = new IteratorSetting(25, TimestampFilter.class);
+    TimestampFilter.setRange(is, 50l, 60l);
+    assertNull(IteratorUtil.getTimestampRange(IteratorScope.scan, conf, Collections.singletonList(is)));
+  }
 }
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.apache.hadoop.io.WritableComparator;
+import org.junit.Test;
+
+public class FastByteComparisonsTest {
+
+  private static int commonPrefix(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+    int i = 0;
+    while (i < Math.min(l1, l2) && b1[s1 + i] == b2[s2 + i])
+      i++;
+    return i;
+  }
+
+  @Test
+  public void testRandom() {
+    Random r = new Random(42);
+
+    for (int i = 0; i < 100000; i++) {
+      byte[] b1 = new byte[r.nextInt(40)];
+      r.nextBytes(b1);
+      byte[] b2 = new byte[r.nextInt(40)];
+
+      // make long common prefixes likely, so differences land in every byte of a word
+      int common = Math.min(b1.length, b2.length) == 0 ? 0 : r.nextInt(Math.min(b1.length, b2.length) + 1);
+      r.nextBytes(b2);
+      System.arraycopy(b1, 0, b2, 0, common);
+
+      int s1 = b1.length == 0 ? 0 : r.nextInt(Math.min(3, b1.length));
+      int s2 = b2.length == 0 ? 0 : r.nextInt(Math.min(3, b2.length));
+      if (r.nextBoolean()) {
+        s1 = s2 = 0;
+      }
+      int l1 = b1.length - s1;
+      int l2 = b2.length - s2;
+
+      assertEquals(WritableComparator.compareBytes(b1, s1, l1, b2, s2, l2), FastByteComparisons.compareTo(b1, s1, l1, b2, s2, l2));
+      assertEquals(WritableComparator.compareBytes(b2, s2, l2, b1, s1, l1), FastByteComparisons.compareTo(b2, s2, l2, b1, s1, l1));
+      assertEquals(commonPrefix(b1, s1, l1, b2, s2, l2), FastByteComparisons.commonPrefix(b1, s1, l1, b2, s2, l2));
+    }
+  }
+
+  @Test
+  public void testUnsigned() {
+    byte[] b1 = new byte[] {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+    byte[] b2 = b1.clone();
+
+    for (int i = 0; i < b1.length; i++) {
+      b2[i] = (byte) 0x80;
+      assertTrue(FastByteComparisons.compareTo(b1, b2) < 0);
+      assertTrue(FastByteComparisons.compareTo(b2, b1) > 0);
+      assertEquals(i, FastByteComparisons.commonPrefix(b1, 0, b1.length, b2, 0, b2.length));
+      b2[i] = 0;
+    }
+
+    assertEquals(0, FastByteComparisons.compareTo(b1, b2));
+    assertEquals(0, FastByteComparisons.compareTo(b1, b1));
+    assertEquals(-1, FastByteComparisons.compareTo(b1, 0, 15, b2, 0, 16));
+    assertEquals(16, FastByteComparisons.commonPrefix(b1, 0, b1.length, b2, 0, b2.length));
+  }
+
+  @Test
+  public void testBounds() {
+    byte[] b1 = new byte[16];
+    byte[] b2 = new byte[16];
+
+    try {
+      FastByteComparisons.compareTo(b1, 8, 16, b2, 0, 16);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {}
+
+    try {
+      FastByteComparisons.compareTo(b1, 0, 16, b2, -1, 8);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {}
+  }
+}
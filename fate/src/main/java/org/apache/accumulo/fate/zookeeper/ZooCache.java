@@ -52,6 +52,8 @@ public class ZooCache {
   
   private ZooReader zReader;
   
+  private volatile long updateCount = 0;
+  
   private ZooKeeper getZooKeeper() {
     return zReader.getZooKeeper();
   }
@@ -266,15 +268,18 @@ public class ZooCache {
     cache.remove(zPath);
     childrenCache.remove(zPath);
     statCache.remove(zPath);
+    updateCount++;
   }
   
   public synchronized void clear() {
     cache.clear();
     childrenCache.clear();
     statCache.clear();
+    updateCount++;
   }
   
   public synchronized void clear(String zPath) {
+    updateCount++;
     
     for (Iterator<String> i = cache.keySet().iterator(); i.hasNext();) {
       String path = i.next();
@@ -295,6 +300,14 @@ public class ZooCache {
     }
   }
   
+  /**
+   * Changes whenever data is dropped from the cache, which is done before the external watcher is told of a change. Anything derived from the cached data is
+   * current as long as the count read before deriving it has not changed.
+   */
+  public long getUpdateCount() {
+    return updateCount;
+  }
+  
   private static Map<String,ZooCache> instances = new HashMap<String,ZooCache>();
   
   public static synchronized ZooCache getInstance(String zooKeepers, int sessionTimeout) {
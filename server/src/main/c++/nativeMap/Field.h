@@ -59,6 +59,12 @@ struct Field {
 		env->GetByteArrayRegion(f, 0, len, (jbyte *)field);
 	}
 	
+	Field(LinkedBlockAllocator *lba, const uint8_t *f, int32_t l){
+		len = l;
+		field=(uint8_t *)lba->allocate(len);
+		memcpy(field, f, len);
+	}
+
 	Field(uint8_t *f, int32_t l):field(f),len(l){
  	}
 
@@ -51,6 +51,7 @@ struct Iterator {
 	NativeMapData &nativeMap;
 	RowMap::iterator rowIter;
 	ColumnMap::iterator colIter;
+	int32_t lens[7];
 
 	Iterator(NativeMapData &nm, int32_t *ia):nativeMap(nm){
 		rowIter = nativeMap.rowmap.begin();
@@ -60,7 +61,8 @@ struct Iterator {
 
 		colIter = rowIter->second.begin();
 
-		skipAndFillIn(ia, true);
+		skipAndFillIn(lens, true);
+		memcpy(ia, lens, sizeof(lens));
 	}
 
 
@@ -77,7 +79,8 @@ struct Iterator {
 			colIter = rowIter->second.begin();
 		}
 
-		skipAndFillIn(ia, true);
+		skipAndFillIn(lens, true);
+		memcpy(ia, lens, sizeof(lens));
 	}
 
 	bool skipAndFillIn(int32_t *ia, bool firstCall)
@@ -112,6 +115,52 @@ struct Iterator {
 		colIter++;
 		skipAndFillIn(ia, false);
 	}
+
+	/**
+	 * Copies entries into buf, advancing past each one, until the buffer is full, maxEntries were copied or the end is reached.
+	 * The first four bytes of buf are set to 1 if there are entries left after the ones copied. Each entry is written as its
+	 * seven lengths (the row length is -1 when the row is the same as the previous entry), the timestamp and then the row,
+	 * column family, qualifier, visibility and value bytes, all in native byte order.
+	 *
+	 * Returns the number of entries copied, or the negated buffer size needed when the next entry does not fit in an empty buffer.
+	 */
+	int32_t fill(uint8_t *buf, int32_t capacity, int32_t maxEntries){
+		int32_t pos = 4;
+		int32_t count = 0;
+
+		while(!atEnd() && count < maxEntries){
+			int32_t rowLen = lens[0] < 0 ? 0 : lens[0];
+			int32_t entryLen = sizeof(lens) + sizeof(int64_t) + rowLen + colIter->first.totalLen + lens[5];
+
+			if(pos + entryLen > capacity){
+				if(count == 0)
+					return -(pos + entryLen);
+				break;
+			}
+
+			int64_t ts = colIter->first.getTimestamp();
+
+			memcpy(buf + pos, lens, sizeof(lens));
+			pos += sizeof(lens);
+			memcpy(buf + pos, &ts, sizeof(ts));
+			pos += sizeof(ts);
+			memcpy(buf + pos, rowIter->first.field, rowLen);
+			pos += rowLen;
+			//column family, qualifier and visibility are stored contiguously
+			memcpy(buf + pos, colIter->first.keyData, colIter->first.totalLen);
+			pos += colIter->first.totalLen;
+			memcpy(buf + pos, colIter->second.field, lens[5]);
+			pos += lens[5];
+
+			count++;
+			advance(lens);
+		}
+
+		int32_t more = atEnd() ? 0 : 1;
+		memcpy(buf, &more, sizeof(more));
+
+		return count;
+	}
 };
 
 struct NativeMap : public NativeMapData {
@@ -136,6 +185,11 @@ struct NativeMap : public NativeMapData {
 		return startUpdate(row);
 	}
 
+	ColumnMap *startUpdate(const uint8_t *r, int32_t len){
+		Field row(lba, r, len);
+		return startUpdate(row);
+	}
+
 	ColumnMap *startUpdate(Field &row){
 		//cout << "Starting update "<<row.toString()<<endl;
 
@@ -192,6 +246,61 @@ struct NativeMap : public NativeMapData {
 		}
 	}
 
+	void update(ColumnMap *cm, const uint8_t *cf, int32_t cfLen, const uint8_t *cq, int32_t cqLen, const uint8_t *cv, int32_t cvLen, int64_t ts, bool del, const uint8_t *val, int32_t valLen, int32_t mutationCount){
+
+		SubKey sk(lba, cf, cfLen, cq, cqLen, cv, cvLen, ts, del, mutationCount);
+		//do not bother allocating value if not needed
+		Field value(NULL, 0);
+
+		pair<ColumnMap::iterator, bool> insertResult = cm->insert(pair<SubKey, Field>(sk, value));
+		if(insertResult.second){
+			insertResult.first->second  = Field(lba, val, valLen);
+			count++;
+		}else{
+			sk.clear(lba);
+			if(valLen <= insertResult.first->second.length()){
+				insertResult.first->second.set((const char *)val, valLen);
+			}else{
+				insertResult.first->second.clear();
+				insertResult.first->second  = Field(lba, val, valLen);
+			} 
+		}
+	}
+
+	/**
+	 * Applies all of the updates for a row serialized by the java code in one call. The data starts with the row length and row,
+	 * followed by numUpdates updates each written as the column family, qualifier, visibility and value lengths, the timestamp,
+	 * a delete flag byte and then the column family, qualifier, visibility and value bytes, all in native byte order.
+	 */
+	void update(const uint8_t *data, int32_t numUpdates, int32_t mutationCount){
+		int32_t rowLen;
+		memcpy(&rowLen, data, sizeof(rowLen));
+		data += sizeof(rowLen);
+
+		ColumnMap *cm = startUpdate(data, rowLen);
+		data += rowLen;
+
+		for(int32_t i = 0; i < numUpdates; i++){
+			int32_t fieldLens[4];
+			int64_t ts;
+
+			memcpy(fieldLens, data, sizeof(fieldLens));
+			data += sizeof(fieldLens);
+			memcpy(&ts, data, sizeof(ts));
+			data += sizeof(ts);
+			bool del = *data != 0;
+			data++;
+
+			const uint8_t *cf = data;
+			const uint8_t *cq = cf + fieldLens[0];
+			const uint8_t *cv = cq + fieldLens[1];
+			const uint8_t *val = cv + fieldLens[2];
+			data = val + fieldLens[3];
+
+			update(cm, cf, fieldLens[0], cq, fieldLens[1], cv, fieldLens[2], ts, del, val, fieldLens[3], mutationCount);
+		}
+	}
+
 	Iterator *iterator(int32_t *ia){
 		return new Iterator(*this, ia);
 	}
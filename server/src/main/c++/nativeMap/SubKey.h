@@ -102,6 +102,24 @@ public:
 	}
 
 
+	SubKey(LinkedBlockAllocator *lba, const uint8_t *cf, int32_t cfLen, const uint8_t *cq, int32_t cqLen, const uint8_t *cv, int32_t cvLen, int64_t ts, bool del, int32_t mc){
+
+		colQualifierOffset = cfLen;
+		colVisibilityOffset = colQualifierOffset + cqLen;
+		totalLen = colVisibilityOffset + cvLen;
+
+		keyData = (uint8_t *)lba->allocate(totalLen);
+
+		memcpy(keyData, cf, cfLen);
+		memcpy(keyData+colQualifierOffset, cq, cqLen);
+		memcpy(keyData+colVisibilityOffset, cv, cvLen);
+
+		timestamp = ts;
+		deleted = del;
+
+		mutationCount = mc;
+	}
+
 	bool operator<(const SubKey &key) const{
 
 		int result = compare(keyData, colQualifierOffset, key.keyData, key.colQualifierOffset);
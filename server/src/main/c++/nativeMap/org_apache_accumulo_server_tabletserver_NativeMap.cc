@@ -29,8 +29,8 @@
 
 using namespace std;
 
-JNIEXPORT jlong JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_createNM(JNIEnv *env, jclass cls){
-	return (jlong)(new NativeMap(1<<17, 1<<11));
+JNIEXPORT jlong JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_createNM(JNIEnv *env, jclass cls, jint blockSize){
+	return (jlong)(new NativeMap(blockSize, 1<<11));
 }
 
 JNIEXPORT jint JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_sizeNM(JNIEnv *env, jclass cls, jlong nm)
@@ -43,25 +43,10 @@ JNIEXPORT jlong JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_m
 	return ((NativeMap *)nm)->getMemoryUsed();
 }
 
-JNIEXPORT void JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_singleUpdate(JNIEnv *env, jclass cls, jlong nm, jbyteArray r, jbyteArray cf, jbyteArray cq, jbyteArray cv, jlong ts, jboolean del, jbyteArray val, jint mutationCount)
-{
-	jlong uid = Java_org_apache_accumulo_server_tabletserver_NativeMap_startUpdate(env, cls, nm, r);
-	Java_org_apache_accumulo_server_tabletserver_NativeMap_update(env, cls, nm, uid, cf, cq, cv, ts, del, val, mutationCount); 
-}
-
-JNIEXPORT jlong JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_startUpdate(JNIEnv *env, jclass cls, jlong nm, jbyteArray r)
-{
-	NativeMap *nativeMap = (NativeMap *)nm;
-
-	ColumnMap *cm = nativeMap->startUpdate(env, r);
-
-	return (jlong)cm;
-}
-
-JNIEXPORT void JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_update(JNIEnv *env, jclass cls, jlong nm, jlong uid, jbyteArray cf, jbyteArray cq, jbyteArray cv, jlong ts, jboolean del, jbyteArray val, jint mutationCount)
+JNIEXPORT void JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_updateNM(JNIEnv *env, jclass cls, jlong nm, jobject updates, jint numUpdates, jint mutationCount)
 {
 	NativeMap *nativeMap = (NativeMap *)nm;
-	nativeMap->update((ColumnMap *)uid, env, cf, cq, cv, ts, del, val, mutationCount);
+	nativeMap->update((uint8_t *)env->GetDirectBufferAddress(updates), numUpdates, mutationCount);
 }
 
 JNIEXPORT jlong JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_deleteNM(JNIEnv *env, jclass cls, jlong nm)
@@ -110,35 +95,13 @@ JNIEXPORT jlong JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_c
 
 }
 
-JNIEXPORT jboolean JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_nmiNext(JNIEnv *env, jclass cls, jlong ip, jintArray lens){
-	Iterator &iter = *((Iterator *)ip);
-
-	int32_t ia[7];
-	iter.advance(ia);
-	if(iter.atEnd()){
-		return false;
-	}	
-
-	env->SetIntArrayRegion(lens, 0, 7, ia);	
-	return true;
-}
-
-JNIEXPORT void JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_nmiGetData(JNIEnv *env, jclass cls, jlong ip, jbyteArray r, jbyteArray cf, jbyteArray cq, jbyteArray cv, jbyteArray val){
+JNIEXPORT jint JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_nmiFill(JNIEnv *env, jclass cls, jlong ip, jobject buffer, jint maxEntries){
 	Iterator &iter = *((Iterator *)ip);
 
-	if(r != NULL){
-		iter.rowIter->first.fillIn(env, r);
-	}
+	uint8_t *buf = (uint8_t *)env->GetDirectBufferAddress(buffer);
+	jlong capacity = env->GetDirectBufferCapacity(buffer);
 
-	iter.colIter->first.getCF().fillIn(env, cf);
-	iter.colIter->first.getCQ().fillIn(env, cq);
-	iter.colIter->first.getCV().fillIn(env, cv);
-	iter.colIter->second.fillIn(env, val);
-}
-
-JNIEXPORT jlong JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_nmiGetTS(JNIEnv *env, jclass cls, jlong ip){
-	Iterator &iter = *((Iterator *)ip);
-	return iter.colIter->first.getTimestamp();
+	return iter.fill(buf, (int32_t)capacity, maxEntries);
 }
 
 
@@ -26,34 +26,18 @@ extern "C" {
 /*
  * Class:     org_apache_accumulo_server_tabletserver_NativeMap
  * Method:    createNM
- * Signature: ()J
+ * Signature: (I)J
  */
 JNIEXPORT jlong JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_createNM
-  (JNIEnv *, jclass);
+  (JNIEnv *, jclass, jint);
 
 /*
  * Class:     org_apache_accumulo_server_tabletserver_NativeMap
- * Method:    singleUpdate
- * Signature: (J[B[B[B[BJZ[BI)V
+ * Method:    updateNM
+ * Signature: (JLjava/nio/ByteBuffer;II)V
  */
-JNIEXPORT void JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_singleUpdate
-  (JNIEnv *, jclass, jlong, jbyteArray, jbyteArray, jbyteArray, jbyteArray, jlong, jboolean, jbyteArray, jint);
-
-/*
- * Class:     org_apache_accumulo_server_tabletserver_NativeMap
- * Method:    startUpdate
- * Signature: (J[B)J
- */
-JNIEXPORT jlong JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_startUpdate
-  (JNIEnv *, jclass, jlong, jbyteArray);
-
-/*
- * Class:     org_apache_accumulo_server_tabletserver_NativeMap
- * Method:    update
- * Signature: (JJ[B[B[BJZ[BI)V
- */
-JNIEXPORT void JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_update
-  (JNIEnv *, jclass, jlong, jlong, jbyteArray, jbyteArray, jbyteArray, jlong, jboolean, jbyteArray, jint);
+JNIEXPORT void JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_updateNM
+  (JNIEnv *, jclass, jlong, jobject, jint, jint);
 
 /*
  * Class:     org_apache_accumulo_server_tabletserver_NativeMap
@@ -97,27 +81,11 @@ JNIEXPORT jlong JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_c
 
 /*
  * Class:     org_apache_accumulo_server_tabletserver_NativeMap
- * Method:    nmiNext
- * Signature: (J[I)Z
+ * Method:    nmiFill
+ * Signature: (JLjava/nio/ByteBuffer;I)I
  */
-JNIEXPORT jboolean JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_nmiNext
-  (JNIEnv *, jclass, jlong, jintArray);
-
-/*
- * Class:     org_apache_accumulo_server_tabletserver_NativeMap
- * Method:    nmiGetData
- * Signature: (J[B[B[B[B[B)V
- */
-JNIEXPORT void JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_nmiGetData
-  (JNIEnv *, jclass, jlong, jbyteArray, jbyteArray, jbyteArray, jbyteArray, jbyteArray);
-
-/*
- * Class:     org_apache_accumulo_server_tabletserver_NativeMap
- * Method:    nmiGetTS
- * Signature: (J)J
- */
-JNIEXPORT jlong JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_nmiGetTS
-  (JNIEnv *, jclass, jlong);
+JNIEXPORT jint JNICALL Java_org_apache_accumulo_server_tabletserver_NativeMap_nmiFill
+  (JNIEnv *, jclass, jlong, jobject, jint);
 
 /*
  * Class:     org_apache_accumulo_server_tabletserver_NativeMap
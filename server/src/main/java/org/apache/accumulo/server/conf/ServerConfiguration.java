@@ -78,6 +78,13 @@ public class ServerConfiguration {
     }
   }
   
+  static void invalidateAllTableConfigurations() {
+    synchronized (tableInstances) {
+      for (TableConfiguration conf : tableInstances.values())
+        conf.invalidate();
+    }
+  }
+  
   static void expireAllTableObservers() {
     synchronized (tableInstances) {
       for (Entry<String,TableConfiguration> entry : tableInstances.entrySet()) {
@@ -80,6 +80,8 @@ class TableConfWatcher implements Watcher {
           // table node is deleted, not when a tables property is
           // deleted.
           ServerConfiguration.removeTableIdInstance(tableId);
+        } else {
+          ServerConfiguration.getTableConfiguration(instance, tableId).invalidate();
         }
         break;
       case None:
@@ -90,6 +92,8 @@ class TableConfWatcher implements Watcher {
           case SyncConnected:
             break;
           case Disconnected:
+            // the cache of table properties was cleared
+            ServerConfiguration.invalidateAllTableConfigurations();
             break;
           default:
             log.warn("EventNone event not handled path = " + event.getPath() + " state=" + event.getState());
@@ -16,20 +16,29 @@
  */
 package org.apache.accumulo.server.conf;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.accumulo.core.Constants;
 import org.apache.accumulo.core.client.Instance;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.ConfigurationObserver;
 import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.iterators.IteratorUtil;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.iterators.IteratorUtil.ParsedIterators;
 import org.apache.accumulo.core.zookeeper.ZooUtil;
 import org.apache.accumulo.fate.zookeeper.ZooCache;
 import org.apache.accumulo.server.client.HdfsZooInstance;
@@ -38,14 +47,49 @@ import org.apache.log4j.Logger;
 public class TableConfiguration extends AccumuloConfiguration {
   private static final Logger log = Logger.getLogger(TableConfiguration.class);
   
-  private static ZooCache tablePropCache = null;
+  private static volatile ZooCache tablePropCache = null;
+  private final ZooCache propCache;
   private final String instanceId;
   private final AccumuloConfiguration parent;
   
   private String table = null;
   private Set<ConfigurationObserver> observers;
   
+  // bumped by TableConfWatcher when this table's properties change, after the cache has dropped the old values
+  private final AtomicLong version = new AtomicLong();
+  private final ReentrantLock snapshotLock = new ReentrantLock();
+  private volatile Snapshot snapshot = null;
+  
+  /**
+   * The table's properties as of one version of the table and one update count of the system property cache. Everything looked up or parsed from it is kept
+   * with it, so reads only go to the caches again after one of this table's properties or a system property changes.
+   */
+  private static class Snapshot {
+    final long version;
+    final long systemUpdateCount;
+    final SortedMap<String,String> entries;
+    final Map<Property,String> values = new ConcurrentHashMap<Property,String>();
+    final Map<Property,Number> numbers = new ConcurrentHashMap<Property,Number>();
+    final Map<IteratorScope,ParsedIterators> iterators = new ConcurrentHashMap<IteratorScope,ParsedIterators>();
+    volatile List<String> constraintClasses = null;
+    
+    Snapshot(long version, long systemUpdateCount, SortedMap<String,String> entries) {
+      this.version = version;
+      this.systemUpdateCount = systemUpdateCount;
+      this.entries = Collections.unmodifiableSortedMap(entries);
+    }
+  }
+  
   public TableConfiguration(String instanceId, String table, AccumuloConfiguration parent) {
+    this(instanceId, table, parent, null);
+  }
+  
+  /**
+   * @param propCache
+   *          the cache to read the table's properties from, or null to use the one shared by all tables
+   */
+  TableConfiguration(String instanceId, String table, AccumuloConfiguration parent, ZooCache propCache) {
+    this.propCache = propCache;
     this.instanceId = instanceId;
     this.table = table;
     this.parent = parent;
@@ -58,15 +102,65 @@ public class TableConfiguration extends AccumuloConfiguration {
    */
   @Deprecated
   private static ZooCache getTablePropCache() {
-    Instance inst = HdfsZooInstance.getInstance();
     if (tablePropCache == null)
       synchronized (TableConfiguration.class) {
-        if (tablePropCache == null)
+        if (tablePropCache == null) {
+          Instance inst = HdfsZooInstance.getInstance();
           tablePropCache = new ZooCache(inst.getZooKeepers(), inst.getZooKeepersSessionTimeOut(), new TableConfWatcher(inst));
+        }
       }
     return tablePropCache;
   }
   
+  private ZooCache getPropCache() {
+    return propCache == null ? getTablePropCache() : propCache;
+  }
+  
+  long getSystemUpdateCount() {
+    // other parents are site or default configurations, which do not change
+    return parent instanceof ZooConfiguration ? ((ZooConfiguration) parent).getUpdateCount() : 0;
+  }
+  
+  private boolean isCurrent(Snapshot s) {
+    return s != null && s.version == version.get() && s.systemUpdateCount == getSystemUpdateCount();
+  }
+  
+  private Snapshot getSnapshot() {
+    Snapshot s = snapshot;
+    if (isCurrent(s))
+      return s;
+    
+    // one thread reads the properties again, while the others keep using the old snapshot until it is done
+    if (s != null) {
+      if (!snapshotLock.tryLock())
+        return s;
+    } else {
+      snapshotLock.lock();
+    }
+    
+    try {
+      s = snapshot;
+      if (isCurrent(s))
+        return s;
+      
+      // the version and count are read before the properties, so a change made while reading them causes another snapshot to be taken later
+      long v = version.get();
+      long systemUpdateCount = getSystemUpdateCount();
+      s = new Snapshot(v, systemUpdateCount, readEntries());
+      snapshot = s;
+      return s;
+    } finally {
+      snapshotLock.unlock();
+    }
+  }
+  
+  /**
+   * Drops the snapshot of the table's properties, so they are read again the next time they are used.
+   */
+  void invalidate() {
+    version.incrementAndGet();
+  }
+  
   public void addObserver(ConfigurationObserver co) {
     if (table == null) {
       String err = "Attempt to add observer for non-table configuration";
@@ -87,24 +181,38 @@ public class TableConfiguration extends AccumuloConfiguration {
   }
   
   public void expireAllObservers() {
+    invalidate();
     Collection<ConfigurationObserver> copy = Collections.unmodifiableCollection(observers);
     for (ConfigurationObserver co : copy)
       co.sessionExpired();
   }
   
   public void propertyChanged(String key) {
+    invalidate();
     Collection<ConfigurationObserver> copy = Collections.unmodifiableCollection(observers);
     for (ConfigurationObserver co : copy)
       co.propertyChanged(key);
   }
   
   public void propertiesChanged(String key) {
+    invalidate();
     Collection<ConfigurationObserver> copy = Collections.unmodifiableCollection(observers);
     for (ConfigurationObserver co : copy)
       co.propertiesChanged();
   }
   
   public String get(Property property) {
+    Snapshot s = getSnapshot();
+    String value = s.values.get(property);
+    if (value == null) {
+      value = lookup(property);
+      if (value != null)
+        s.values.put(property, value);
+    }
+    return value;
+  }
+  
+  private String lookup(Property property) {
     String key = property.getKey();
     String value = get(key);
     
@@ -118,21 +226,88 @@ public class TableConfiguration extends AccumuloConfiguration {
   
   private String get(String key) {
     String zPath = ZooUtil.getRoot(instanceId) + Constants.ZTABLES + "/" + table + Constants.ZTABLE_CONF + "/" + key;
-    byte[] v = getTablePropCache().get(zPath);
+    byte[] v = getPropCache().get(zPath);
     String value = null;
     if (v != null)
       value = new String(v);
     return value;
   }
   
+  @Override
+  public long getMemoryInBytes(Property property) {
+    Snapshot s = getSnapshot();
+    Number n = s.numbers.get(property);
+    if (n == null) {
+      n = super.getMemoryInBytes(property);
+      s.numbers.put(property, n);
+    }
+    return n.longValue();
+  }
+  
+  @Override
+  public long getTimeInMillis(Property property) {
+    Snapshot s = getSnapshot();
+    Number n = s.numbers.get(property);
+    if (n == null) {
+      n = super.getTimeInMillis(property);
+      s.numbers.put(property, n);
+    }
+    return n.longValue();
+  }
+  
+  @Override
+  public int getCount(Property property) {
+    Snapshot s = getSnapshot();
+    Number n = s.numbers.get(property);
+    if (n == null) {
+      n = super.getCount(property);
+      s.numbers.put(property, n);
+    }
+    return n.intValue();
+  }
+  
+  /**
+   * @return the table's iterators for the scope, parsed once for each change of the table's properties
+   */
+  public ParsedIterators getIterators(IteratorScope scope) {
+    Snapshot s = getSnapshot();
+    ParsedIterators iters = s.iterators.get(scope);
+    if (iters == null) {
+      iters = IteratorUtil.parseIterators(scope, this);
+      s.iterators.put(scope, iters);
+    }
+    return iters;
+  }
+  
+  /**
+   * @return the class names of the table's constraints, in the order of their properties
+   */
+  public List<String> getConstraintClasses() {
+    Snapshot s = getSnapshot();
+    List<String> classes = s.constraintClasses;
+    if (classes == null) {
+      classes = new ArrayList<String>();
+      for (Entry<String,String> entry : s.entries.entrySet())
+        if (entry.getKey().startsWith(Property.TABLE_CONSTRAINT_PREFIX.getKey()))
+          classes.add(entry.getValue());
+      classes = Collections.unmodifiableList(classes);
+      s.constraintClasses = classes;
+    }
+    return classes;
+  }
+  
   @Override
   public Iterator<Entry<String,String>> iterator() {
+    return getSnapshot().entries.entrySet().iterator();
+  }
+  
+  private TreeMap<String,String> readEntries() {
     TreeMap<String,String> entries = new TreeMap<String,String>();
     
     for (Entry<String,String> parentEntry : parent)
       entries.put(parentEntry.getKey(), parentEntry.getValue());
     
-    List<String> children = getTablePropCache().getChildren(ZooUtil.getRoot(instanceId) + Constants.ZTABLES + "/" + table + Constants.ZTABLE_CONF);
+    List<String> children = getPropCache().getChildren(ZooUtil.getRoot(instanceId) + Constants.ZTABLES + "/" + table + Constants.ZTABLE_CONF);
     if (children != null) {
       for (String child : children) {
         String value = get(child);
@@ -141,7 +316,7 @@ public class TableConfiguration extends AccumuloConfiguration {
       }
     }
     
-    return entries.entrySet().iterator();
+    return entries;
   }
   
   public String getTableId() {
@@ -73,6 +73,13 @@ public class ZooConfiguration extends AccumuloConfiguration {
       propCache.clear();
   }
   
+  /**
+   * @see ZooCache#getUpdateCount()
+   */
+  long getUpdateCount() {
+    return propCache == null ? 0 : propCache.getUpdateCount();
+  }
+  
   private String _get(Property property) {
     String key = property.getKey();
     String value = null;
@@ -19,7 +19,6 @@ package org.apache.accumulo.server.constraints;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.accumulo.core.conf.Property;
@@ -57,13 +56,10 @@ public class ConstraintChecker {
         loader = AccumuloVFSClassLoader.getClassLoader();
       }
       
-      for (Entry<String,String> entry : conf) {
-        if (entry.getKey().startsWith(Property.TABLE_CONSTRAINT_PREFIX.getKey())) {
-          String className = entry.getValue();
-          Class<? extends Constraint> clazz = loader.loadClass(className).asSubclass(Constraint.class);
-          log.debug("Loaded constraint " + clazz.getName() + " for " + conf.getTableId());
-          constrains.add(clazz.newInstance());
-        }
+      for (String className : conf.getConstraintClasses()) {
+        Class<? extends Constraint> clazz = loader.loadClass(className).asSubclass(Constraint.class);
+        log.debug("Loaded constraint " + clazz.getName() + " for " + conf.getTableId());
+        constrains.add(clazz.newInstance());
       }
       
       lastCheck.set(System.currentTimeMillis());
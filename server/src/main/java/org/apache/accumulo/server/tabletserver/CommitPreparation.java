@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.constraints.Violations;
+import org.apache.accumulo.core.data.Mutation;
+
+/**
+ * Gathers the results of preparing the mutations queued for several tablets to commit. The tablets are prepared concurrently, so an error on one tablet does
+ * not stop the others from being prepared, and every commit that was prepared must be aborted when any of them fails.
+ *
+ * @param <T>
+ *          the tablet type
+ * @param <S>
+ *          the commit session type
+ */
+abstract class CommitPreparation<T,S> {
+
+  /**
+   * Prepares the mutations queued for one tablet, recording the outcome rather than throwing so that it can run on another thread.
+   */
+  abstract static class Task<T,S> implements Runnable {
+
+    final T tablet;
+    final List<Mutation> mutations;
+
+    private S session;
+    private Violations violations;
+    private List<Mutation> nonViolators;
+    private Throwable error;
+
+    Task(T tablet, List<Mutation> mutations) {
+      this.tablet = tablet;
+      this.mutations = mutations;
+    }
+
+    /**
+     * Prepares the mutations and calls {@link #prepared} or {@link #violated}. Calls neither if the tablet is closed.
+     */
+    abstract void prepare() throws Exception;
+
+    void prepared(S session) {
+      this.session = session;
+    }
+
+    void violated(Violations violations, List<Mutation> nonViolators, S session) {
+      this.violations = violations;
+      this.nonViolators = nonViolators;
+      this.session = session;
+    }
+
+    Throwable getError() {
+      return error;
+    }
+
+    boolean isViolated() {
+      return violations != null;
+    }
+
+    @Override
+    public void run() {
+      try {
+        prepare();
+      } catch (Throwable t) {
+        error = t;
+      }
+    }
+  }
+
+  final Map<S,List<Mutation>> sendables = new HashMap<S,List<Mutation>>();
+  final Violations violations = new Violations();
+  final List<T> closed = new ArrayList<T>();
+  int mutationCount = 0;
+  Throwable error;
+
+  /**
+   * Aborts a commit that was prepared for the mutations.
+   */
+  abstract void abort(S session, List<Mutation> mutations);
+
+  /**
+   * Collects the outcome of tasks that have all run. Violations from every tablet are combined, the mutations that may be committed are grouped by session,
+   * and the first error is kept.
+   */
+  void gather(List<? extends Task<T,S>> tasks) {
+    for (Task<T,S> task : tasks) {
+      if (task.error != null) {
+        if (error == null)
+          error = task.error;
+      } else if (task.violations != null) {
+        violations.add(task.violations);
+        // only commit mutations if there were some that did not violate constraints
+        if (task.nonViolators.size() > 0)
+          sendables.put(task.session, task.nonViolators);
+        mutationCount += task.mutations.size();
+      } else if (task.session == null) {
+        closed.add(task.tablet);
+      } else {
+        sendables.put(task.session, task.mutations);
+        mutationCount += task.mutations.size();
+      }
+    }
+  }
+
+  /**
+   * Aborts every prepared commit if any tablet failed to prepare.
+   *
+   * @throws RuntimeException
+   *           wrapping the first error
+   */
+  void abortIfFailed() {
+    if (error == null)
+      return;
+
+    for (Entry<S,List<Mutation>> e : sendables.entrySet())
+      abort(e.getKey(), e.getValue());
+    throw new RuntimeException(error);
+  }
+}
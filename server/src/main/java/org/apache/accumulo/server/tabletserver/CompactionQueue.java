@@ -17,61 +17,263 @@
 package org.apache.accumulo.server.tabletserver;
 
 import java.util.AbstractQueue;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
-@SuppressWarnings({"rawtypes", "unchecked"})
+import org.apache.accumulo.core.data.KeyExtent;
+import org.apache.accumulo.server.tabletserver.Tablet.MajorCompactionReason;
+
+/**
+ * Orders queued major compactions by how much they reduce read amplification. Each table has its own heap of compactions, ranked by the number of files a
+ * tablet has times how much it is read, scaled by the tablet's memory pressure and the table's weight. When a thread takes a compaction, the best one from
+ * each table is considered and its priority is divided by the number of compactions the table is already running, so that tables share the compaction
+ * threads. Running compactions are only counted when the queue's threads are created by {@link #newExecutor(int, ThreadFactory)}.
+ * 
+ * Priorities are computed when compactions are queued and recomputed periodically, so that polling does not need to examine every queued compaction.
+ */
 public class CompactionQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
   
-  private List<Comparable> task = new LinkedList<Comparable>();
+  /**
+   * A queued compaction. These methods are called while the queue is locked, so they must not lock the tablet. See ACCUMULO-1110.
+   */
+  public interface Task extends Runnable {
+    KeyExtent getExtent();
+    
+    MajorCompactionReason getReason();
+    
+    long getQueuedTime();
+    
+    int getNumFiles();
+    
+    /**
+     * @return recent entries read from the tablet per second
+     */
+    double getReadRate();
+    
+    /**
+     * @return the fraction of tablet server memory used by the tablet, between 0 and 1
+     */
+    double getMemoryPressure();
+    
+    /**
+     * @return the relative priority of the tablet's table
+     */
+    double getWeight();
+  }
   
-  @Override
-  public synchronized Runnable poll() {
-    if (task.size() == 0)
+  static final long REPRIORITIZE_INTERVAL = 5000;
+  
+  private static class QueuedCompaction {
+    final Task task;
+    final long seq;
+    double priority;
+    
+    QueuedCompaction(Task task, long seq) {
+      this.task = task;
+      this.seq = seq;
+      this.priority = priority(task);
+    }
+  }
+  
+  /**
+   * Orders by reason, then user and chop compactions oldest first and all others highest priority first.
+   */
+  private static int compare(QueuedCompaction e1, double priority1, QueuedCompaction e2, double priority2) {
+    int cmp = e1.task.getReason().compareTo(e2.task.getReason());
+    if (cmp != 0)
+      return cmp;
+    
+    MajorCompactionReason reason = e1.task.getReason();
+    if (reason == MajorCompactionReason.USER || reason == MajorCompactionReason.CHOP) {
+      cmp = Long.signum(e1.task.getQueuedTime() - e2.task.getQueuedTime());
+      if (cmp != 0)
+        return cmp;
+    }
+    
+    cmp = Double.compare(priority2, priority1);
+    if (cmp != 0)
+      return cmp;
+    
+    return Long.signum(e1.seq - e2.seq);
+  }
+  
+  private static final Comparator<QueuedCompaction> ENTRY_ORDER = new Comparator<QueuedCompaction>() {
+    @Override
+    public int compare(QueuedCompaction e1, QueuedCompaction e2) {
+      return CompactionQueue.compare(e1, e1.priority, e2, e2.priority);
+    }
+  };
+  
+  /**
+   * @return the read amplification a compaction of the task's tablet would remove, scaled by memory pressure and table weight
+   */
+  static double priority(Task task) {
+    return task.getWeight() * task.getNumFiles() * (1 + task.getReadRate()) * (1 + task.getMemoryPressure());
+  }
+  
+  private Map<String,PriorityQueue<QueuedCompaction>> tables = new HashMap<String,PriorityQueue<QueuedCompaction>>();
+  private Map<String,Integer> running = new HashMap<String,Integer>();
+  private int size = 0;
+  private long seq = 0;
+  private long lastPrioritized = System.currentTimeMillis();
+  
+  private static String tableId(Task task) {
+    return task.getExtent().getTableId().toString();
+  }
+  
+  private void enqueue(Runnable r) {
+    Task task = (Task) r;
+    String tableId = tableId(task);
+    PriorityQueue<QueuedCompaction> queue = tables.get(tableId);
+    if (queue == null) {
+      queue = new PriorityQueue<QueuedCompaction>(11, ENTRY_ORDER);
+      tables.put(tableId, queue);
+    }
+    queue.add(new QueuedCompaction(task, seq++));
+    size++;
+    notify();
+  }
+  
+  private int running(String tableId) {
+    Integer count = running.get(tableId);
+    return count == null ? 0 : count;
+  }
+  
+  private void reprioritize() {
+    long now = System.currentTimeMillis();
+    if (now - lastPrioritized < REPRIORITIZE_INTERVAL)
+      return;
+    lastPrioritized = now;
+    
+    for (Entry<String,PriorityQueue<QueuedCompaction>> table : tables.entrySet()) {
+      PriorityQueue<QueuedCompaction> queue = new PriorityQueue<QueuedCompaction>(Math.max(11, table.getValue().size()), ENTRY_ORDER);
+      for (QueuedCompaction entry : table.getValue()) {
+        entry.priority = priority(entry.task);
+        queue.add(entry);
+      }
+      table.setValue(queue);
+    }
+  }
+  
+  /**
+   * @return the table whose next compaction should run, or null when empty
+   */
+  private String best() {
+    reprioritize();
+    
+    String bestTable = null;
+    QueuedCompaction best = null;
+    double bestPriority = 0;
+    
+    for (Entry<String,PriorityQueue<QueuedCompaction>> table : tables.entrySet()) {
+      QueuedCompaction head = table.getValue().peek();
+      double priority = head.priority / (1 + running(table.getKey()));
+      if (best == null || compare(head, priority, best, bestPriority) < 0) {
+        bestTable = table.getKey();
+        best = head;
+        bestPriority = priority;
+      }
+    }
+    
+    return bestTable;
+  }
+  
+  private Task removeBest() {
+    String tableId = best();
+    if (tableId == null)
       return null;
     
-    Comparable min = Collections.min(task);
-    task.remove(min);
-    return (Runnable) min;
+    PriorityQueue<QueuedCompaction> queue = tables.get(tableId);
+    QueuedCompaction entry = queue.poll();
+    if (queue.isEmpty())
+      tables.remove(tableId);
+    size--;
+    return entry.task;
+  }
+  
+  private synchronized void started(Runnable r) {
+    if (r instanceof Task) {
+      String tableId = tableId((Task) r);
+      running.put(tableId, running(tableId) + 1);
+    }
+  }
+  
+  private synchronized void finished(Runnable r) {
+    if (r instanceof Task) {
+      String tableId = tableId((Task) r);
+      int count = running(tableId) - 1;
+      if (count <= 0)
+        running.remove(tableId);
+      else
+        running.put(tableId, count);
+    }
+  }
+  
+  /**
+   * Creates a fixed size pool that takes compactions from this queue. The pool counts every compaction it runs against its table, including those handed
+   * directly to a new core thread without passing through the queue.
+   */
+  public ThreadPoolExecutor newExecutor(int threads, ThreadFactory threadFactory) {
+    return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, this, threadFactory) {
+      @Override
+      protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        started(r);
+      }
+      
+      @Override
+      protected void afterExecute(Runnable r, Throwable t) {
+        finished(r);
+        super.afterExecute(r, t);
+      }
+    };
+  }
+  
+  @Override
+  public synchronized Runnable poll() {
+    return removeBest();
   }
   
   @Override
   public synchronized Runnable peek() {
-    if (task.size() == 0)
+    String tableId = best();
+    if (tableId == null)
       return null;
-    
-    Comparable min = Collections.min(task);
-    return (Runnable) min;
+    return tables.get(tableId).peek().task;
   }
   
   @Override
   public synchronized boolean offer(Runnable e) {
-    task.add((Comparable) e);
-    notify();
+    enqueue(e);
     return true;
   }
   
   @Override
   public synchronized void put(Runnable e) throws InterruptedException {
-    task.add((Comparable) e);
-    notify();
+    enqueue(e);
   }
   
   @Override
   public synchronized boolean offer(Runnable e, long timeout, TimeUnit unit) throws InterruptedException {
-    task.add((Comparable) e);
-    notify();
+    enqueue(e);
     return true;
   }
   
   @Override
   public synchronized Runnable take() throws InterruptedException {
-    while (task.size() == 0) {
+    while (size == 0) {
       wait();
     }
     
@@ -80,16 +282,33 @@ public class CompactionQueue extends AbstractQueue<Runnable> implements Blocking
   
   @Override
   public synchronized Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
-    if (task.size() == 0) {
+    if (size == 0) {
       wait(unit.toMillis(timeout));
     }
     
-    if (task.size() == 0)
+    if (size == 0)
       return null;
     
     return poll();
   }
   
+  @Override
+  public synchronized boolean remove(Object o) {
+    for (Entry<String,PriorityQueue<QueuedCompaction>> table : tables.entrySet()) {
+      Iterator<QueuedCompaction> iter = table.getValue().iterator();
+      while (iter.hasNext()) {
+        if (iter.next().task == o) {
+          iter.remove();
+          if (table.getValue().isEmpty())
+            tables.remove(table.getKey());
+          size--;
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+  
   @Override
   public synchronized int remainingCapacity() {
     return Integer.MAX_VALUE;
@@ -97,32 +316,42 @@ public class CompactionQueue extends AbstractQueue<Runnable> implements Blocking
   
   @Override
   public synchronized int drainTo(Collection<? super Runnable> c) {
-    return drainTo(c, task.size());
+    return drainTo(c, size);
   }
   
   @Override
   public synchronized int drainTo(Collection<? super Runnable> c, int maxElements) {
-    Collections.sort(task);
+    int num = Math.min(size, maxElements);
     
-    int num = Math.min(task.size(), maxElements);
-    
-    Iterator<Comparable> iter = task.iterator();
-    for (int i = 0; i < num; i++) {
-      c.add((Runnable) iter.next());
-      iter.remove();
-    }
+    for (int i = 0; i < num; i++)
+      c.add(removeBest());
     
     return num;
   }
   
+  /**
+   * @return the queued compactions by priority, without regard to the compactions already running
+   */
+  public synchronized List<Task> getQueued() {
+    List<QueuedCompaction> entries = new ArrayList<QueuedCompaction>(size);
+    for (PriorityQueue<QueuedCompaction> queue : tables.values())
+      entries.addAll(queue);
+    Collections.sort(entries, ENTRY_ORDER);
+    
+    List<Task> queued = new ArrayList<Task>(entries.size());
+    for (QueuedCompaction entry : entries)
+      queued.add(entry.task);
+    return queued;
+  }
+  
   @Override
   public synchronized Iterator<Runnable> iterator() {
-    Collections.sort(task);
-    
-    final Iterator<Comparable> iter = task.iterator();
+    final Iterator<Task> iter = getQueued().iterator();
     
     return new Iterator<Runnable>() {
       
+      Task last = null;
+      
       @Override
       public boolean hasNext() {
         return iter.hasNext();
@@ -130,19 +359,19 @@ public class CompactionQueue extends AbstractQueue<Runnable> implements Blocking
       
       @Override
       public Runnable next() {
-        return (Runnable) iter.next();
+        return last = iter.next();
       }
       
       @Override
       public void remove() {
-        iter.remove();
+        CompactionQueue.this.remove(last);
       }
     };
   }
   
   @Override
   public synchronized int size() {
-    return task.size();
+    return size;
   }
   
 }
@@ -26,11 +26,17 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.accumulo.trace.instrument.Span;
 import org.apache.accumulo.trace.instrument.Trace;
 import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.KeyExtent;
@@ -39,6 +45,7 @@ import org.apache.accumulo.core.data.thrift.IterInfo;
 import org.apache.accumulo.core.file.FileOperations;
 import org.apache.accumulo.core.file.FileSKVIterator;
 import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.accumulo.core.file.TimestampRange;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.IteratorUtil;
 import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
@@ -54,6 +61,7 @@ import org.apache.accumulo.core.tabletserver.thrift.CompactionType;
 import org.apache.accumulo.core.util.LocalityGroupUtil;
 import org.apache.accumulo.core.util.LocalityGroupUtil.LocalityGroupConfigurationError;
 import org.apache.accumulo.core.util.MetadataTable.DataFileValue;
+import org.apache.accumulo.core.util.NamingThreadFactory;
 import org.apache.accumulo.server.conf.TableConfiguration;
 import org.apache.accumulo.server.problems.ProblemReport;
 import org.apache.accumulo.server.problems.ProblemReportingIterator;
@@ -72,6 +80,8 @@ public class Compactor implements Callable<CompactionStats> {
   public class CountingIterator extends WrappingIterator {
     
     private long count;
+    private long bytes;
+    private long bytesCharged;
     
     public CountingIterator deepCopy(IteratorEnvironment env) {
       return new CountingIterator(this, env);
@@ -94,10 +104,16 @@ public class Compactor implements Callable<CompactionStats> {
     
     @Override
     public void next() throws IOException {
+      if (rateLimiter != null)
+        bytes += getTopKey().getSize() + getTopValue().getSize();
       super.next();
       count++;
       if (count % 1024 == 0) {
         entriesRead.addAndGet(1024);
+        if (rateLimiter != null) {
+          rateLimiter.acquire(bytes - bytesCharged);
+          bytesCharged = bytes;
+        }
       }
     }
     
@@ -123,6 +139,8 @@ public class Compactor implements Callable<CompactionStats> {
   private String outputFile;
   private boolean propogateDeletes;
   private TableConfiguration acuTableConf;
+  private AccumuloConfiguration outputConf;
+  private RateLimiter rateLimiter = null;
   private CompactionEnv env;
   private Configuration conf;
   private FileSystem fs;
@@ -139,6 +157,30 @@ public class Compactor implements Callable<CompactionStats> {
   private AtomicLong entriesRead = new AtomicLong(0);
   private AtomicLong entriesWritten = new AtomicLong(0);
   
+  // nanoseconds spent in each stage of the compaction pipeline
+  private AtomicLong readTime = new AtomicLong(0);
+  private AtomicLong readWaitTime = new AtomicLong(0);
+  private AtomicLong writeTime = new AtomicLong(0);
+  private AtomicLong writeWaitTime = new AtomicLong(0);
+  
+  private static ExecutorService pipelineThreads = null;
+  
+  // a compaction that finds every pipeline thread busy does that part of its work on its own thread, so this bounds the threads all compactions use
+  private static synchronized ExecutorService getPipelineThreads(AccumuloConfiguration conf) {
+    if (pipelineThreads == null) {
+      int max = conf.getCount(Property.TSERV_COMPACTION_PIPELINE_THREADS);
+      pipelineThreads = new ThreadPoolExecutor(0, max, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new NamingThreadFactory("compaction pipeline"));
+    }
+    return pipelineThreads;
+  }
+  
+  private int getPipelineDepth() {
+    // minor compactions free memory, so they stay on a single thread and never wait behind major compactions for pipeline threads
+    if (env.getIteratorScope() != IteratorScope.majc || acuTableConf.getCount(Property.TSERV_COMPACTION_PIPELINE_THREADS) <= 0)
+      return 0;
+    return acuTableConf.getCount(Property.TSERV_COMPACTION_PIPELINE_DEPTH);
+  }
+  
   private synchronized void setLocalityGroup(String name) {
     this.currentLocalityGroup = name;
   }
@@ -146,6 +188,10 @@ public class Compactor implements Callable<CompactionStats> {
   private void clearStats() {
     entriesRead.set(0);
     entriesWritten.set(0);
+    readTime.set(0);
+    readWaitTime.set(0);
+    writeTime.set(0);
+    writeWaitTime.set(0);
   }
 
   protected static Set<Compactor> runningCompactions = Collections.synchronizedSet(new HashSet<Compactor>());
@@ -156,13 +202,49 @@ public class Compactor implements Callable<CompactionStats> {
     private String localityGroup;
     private long entriesRead;
     private long entriesWritten;
+    private long readTime;
+    private long readWaitTime;
+    private long writeTime;
+    private long writeWaitTime;
     
     CompactionInfo(Compactor compactor) {
       this.localityGroup = compactor.currentLocalityGroup;
       this.entriesRead = compactor.entriesRead.get();
       this.entriesWritten = compactor.entriesWritten.get();
+      this.readTime = TimeUnit.NANOSECONDS.toMillis(compactor.readTime.get());
+      this.readWaitTime = TimeUnit.NANOSECONDS.toMillis(compactor.readWaitTime.get());
+      this.writeTime = TimeUnit.NANOSECONDS.toMillis(compactor.writeTime.get());
+      this.writeWaitTime = TimeUnit.NANOSECONDS.toMillis(compactor.writeWaitTime.get());
       this.compactor = compactor;
     }
+    
+    /**
+     * @return milliseconds the read ahead threads spent reading and decompressing input files
+     */
+    public long getReadTime() {
+      return readTime;
+    }
+    
+    /**
+     * @return milliseconds the compaction spent waiting for input that had not been read ahead
+     */
+    public long getReadWaitTime() {
+      return readWaitTime;
+    }
+    
+    /**
+     * @return milliseconds the writer thread spent encoding and compressing output
+     */
+    public long getWriteTime() {
+      return writeTime;
+    }
+    
+    /**
+     * @return milliseconds the compaction spent waiting for the writer thread to catch up
+     */
+    public long getWriteWaitTime() {
+      return writeWaitTime;
+    }
 
     public ActiveCompaction toThrift() {
       
@@ -194,21 +276,7 @@ public class Compactor implements Callable<CompactionStats> {
             break;
         }
       else
-        switch (compactor.reason) {
-          case USER:
-            reason = CompactionReason.USER;
-            break;
-          case CHOP:
-            reason = CompactionReason.CHOP;
-            break;
-          case IDLE:
-            reason = CompactionReason.IDLE;
-            break;
-          case NORMAL:
-          default:
-            reason = CompactionReason.SYSTEM;
-            break;
-        }
+        reason = Compactor.toThrift(compactor.reason);
       
       List<IterInfo> iiList = new ArrayList<IterInfo>();
       Map<String,Map<String,String>> iterOptions = new HashMap<String,Map<String,String>>();
@@ -223,6 +291,20 @@ public class Compactor implements Callable<CompactionStats> {
     }
   }
   
+  static CompactionReason toThrift(MajorCompactionReason reason) {
+    switch (reason) {
+      case USER:
+        return CompactionReason.USER;
+      case CHOP:
+        return CompactionReason.CHOP;
+      case IDLE:
+        return CompactionReason.IDLE;
+      case NORMAL:
+      default:
+        return CompactionReason.SYSTEM;
+    }
+  }
+  
   public static List<CompactionInfo> getRunningCompactions() {
     ArrayList<CompactionInfo> compactions = new ArrayList<Compactor.CompactionInfo>();
     
@@ -245,6 +327,7 @@ public class Compactor implements Callable<CompactionStats> {
     this.outputFile = outputFile;
     this.propogateDeletes = propogateDeletes;
     this.acuTableConf = acuTableConf;
+    this.outputConf = acuTableConf;
     this.env = env;
     this.iterators = iterators;
     this.reason = reason;
@@ -257,6 +340,20 @@ public class Compactor implements Callable<CompactionStats> {
     this(conf, fs, files, imm, outputFile, propogateDeletes, acuTableConf, extent, env, new ArrayList<IteratorSetting>(), null);
   }
   
+  /**
+   * Sets the configuration used to write the output file, which defaults to the table configuration.
+   */
+  void setOutputConfiguration(AccumuloConfiguration outputConf) {
+    this.outputConf = outputConf;
+  }
+  
+  /**
+   * Sets a limit shared with other compactions on the bytes read and written per second.
+   */
+  void setRateLimiter(RateLimiter rateLimiter) {
+    this.rateLimiter = rateLimiter;
+  }
+  
   public FileSystem getFileSystem() {
     return fs;
   }
@@ -282,7 +379,11 @@ public class Compactor implements Callable<CompactionStats> {
 
     try {
       FileOperations fileFactory = FileOperations.getInstance();
-      mfw = fileFactory.openWriter(outputFile, fs, conf, acuTableConf);
+      mfw = fileFactory.openWriter(outputFile, fs, conf, outputConf);
+      
+      int pipelineDepth = getPipelineDepth();
+      if (pipelineDepth > 0)
+        mfw = new PipelinedFileSKVWriter(mfw, getPipelineThreads(acuTableConf), pipelineDepth, writeTime, writeWaitTime);
       
       Map<String,Set<ByteSequence>> lGroups;
       try {
@@ -295,17 +396,23 @@ public class Compactor implements Callable<CompactionStats> {
       
       HashSet<ByteSequence> allColumnFamilies = new HashSet<ByteSequence>();
       
-      if (mfw.supportsLocalityGroups()) {
-        for (Entry<String,Set<ByteSequence>> entry : lGroups.entrySet()) {
-          setLocalityGroup(entry.getKey());
-          compactLocalityGroup(entry.getKey(), entry.getValue(), true, mfw, majCStats);
-          allColumnFamilies.addAll(entry.getValue());
+      if (mfw.supportsLocalityGroups() && lGroups.size() > 0 && acuTableConf.getBoolean(Property.TABLE_COMPACTION_SINGLE_PASS)) {
+        // read the input once and let the writer put each key in its locality group
+        setLocalityGroup(lGroups.keySet().toString());
+        compactLocalityGroup(null, allColumnFamilies, false, lGroups, mfw, majCStats);
+      } else {
+        if (mfw.supportsLocalityGroups()) {
+          for (Entry<String,Set<ByteSequence>> entry : lGroups.entrySet()) {
+            setLocalityGroup(entry.getKey());
+            compactLocalityGroup(entry.getKey(), entry.getValue(), true, null, mfw, majCStats);
+            allColumnFamilies.addAll(entry.getValue());
+          }
         }
+        
+        setLocalityGroup("");
+        compactLocalityGroup(null, allColumnFamilies, false, null, mfw, majCStats);
       }
       
-      setLocalityGroup("");
-      compactLocalityGroup(null, allColumnFamilies, false, mfw, majCStats);
-      
       long t2 = System.currentTimeMillis();
       
       FileSKVWriter mfwTmp = mfw;
@@ -314,7 +421,7 @@ public class Compactor implements Callable<CompactionStats> {
       
       // Verify the file, since hadoop 0.20.2 sometimes lies about the success of close()
       try {
-        FileSKVIterator openReader = fileFactory.openReader(outputFile, false, fs, conf, acuTableConf);
+        FileSKVIterator openReader = fileFactory.openReader(outputFile, false, fs, conf, outputConf);
         openReader.close();
       } catch (IOException ex) {
         log.error("Verification of successful compaction fails!!! " + extent + " " + outputFile, ex);
@@ -323,8 +430,11 @@ public class Compactor implements Callable<CompactionStats> {
       
       log.debug(String.format("Compaction %s %,d read | %,d written | %,6d entries/sec | %6.3f secs", extent, majCStats.getEntriesRead(),
           majCStats.getEntriesWritten(), (int) (majCStats.getEntriesRead() / ((t2 - t1) / 1000.0)), (t2 - t1) / 1000.0));
+      if (pipelineDepth > 0)
+        log.debug(String.format("Compaction %s pipeline read %6.3f secs (waited %6.3f) | write %6.3f secs (waited %6.3f)", extent, readTime.get() / 1e9,
+            readWaitTime.get() / 1e9, writeTime.get() / 1e9, writeWaitTime.get() / 1e9));
       
-      majCStats.setFileSize(fileFactory.getFileSize(outputFile, fs, conf, acuTableConf));
+      majCStats.setFileSize(fileFactory.getFileSize(outputFile, fs, conf, outputConf));
       return majCStats;
     } catch (IOException e) {
       log.error(e, e);
@@ -355,10 +465,16 @@ public class Compactor implements Callable<CompactionStats> {
     }
   }
 
-  private List<SortedKeyValueIterator<Key,Value>> openMapDataFiles(String lgName, ArrayList<FileSKVIterator> readers) throws IOException {
+  private List<SortedKeyValueIterator<Key,Value>> openMapDataFiles(String lgName, ArrayList<FileSKVIterator> readers, List<ReadAheadIterator> readAheads)
+      throws IOException {
+    
+    int pipelineDepth = getPipelineDepth();
     
     List<SortedKeyValueIterator<Key,Value>> iters = new ArrayList<SortedKeyValueIterator<Key,Value>>(filesToCompact.size());
     
+    // when the first compaction iterator is an age off filter, data that would be aged off does not need to be read
+    TimestampRange timestampRange = IteratorUtil.getTimestampRange(env.getIteratorScope(), acuTableConf, iterators);
+    
     for (String mapFile : filesToCompact.keySet()) {
       try {
         
@@ -370,12 +486,21 @@ public class Compactor implements Callable<CompactionStats> {
         
         readers.add(reader);
         
+        if (timestampRange != null && !filesToCompact.get(mapFile).isTimeSet())
+          reader.setTimestampRange(timestampRange);
+        
         SortedKeyValueIterator<Key,Value> iter = new ProblemReportingIterator(extent.getTableId().toString(), mapFile, false, reader);
         
         if (filesToCompact.get(mapFile).isTimeSet()) {
           iter = new TimeSettingIterator(iter, filesToCompact.get(mapFile).getTime());
         }
         
+        if (pipelineDepth > 0) {
+          ReadAheadIterator readAhead = new ReadAheadIterator(iter, getPipelineThreads(acuTableConf), pipelineDepth, readTime, readWaitTime);
+          readAheads.add(readAhead);
+          iter = readAhead;
+        }
+        
         iters.add(iter);
         
       } catch (Throwable e) {
@@ -393,6 +518,7 @@ public class Compactor implements Callable<CompactionStats> {
         }
         
         readers.clear();
+        readAheads.clear();
         
         if (e instanceof IOException)
           throw (IOException) e;
@@ -403,13 +529,17 @@ public class Compactor implements Callable<CompactionStats> {
     return iters;
   }
   
-  private void compactLocalityGroup(String lgName, Set<ByteSequence> columnFamilies, boolean inclusive, FileSKVWriter mfw, CompactionStats majCStats)
-      throws IOException, CompactionCanceledException {
+  /**
+   * Compacts the data for one locality group, or for all of them when allGroups is set.
+   */
+  private void compactLocalityGroup(String lgName, Set<ByteSequence> columnFamilies, boolean inclusive, Map<String,Set<ByteSequence>> allGroups,
+      FileSKVWriter mfw, CompactionStats majCStats) throws IOException, CompactionCanceledException {
     ArrayList<FileSKVIterator> readers = new ArrayList<FileSKVIterator>(filesToCompact.size());
+    ArrayList<ReadAheadIterator> readAheads = new ArrayList<ReadAheadIterator>(filesToCompact.size());
     Span span = Trace.start("compact");
     try {
       long entriesCompacted = 0;
-      List<SortedKeyValueIterator<Key,Value>> iters = openMapDataFiles(lgName, readers);
+      List<SortedKeyValueIterator<Key,Value>> iters = openMapDataFiles(lgName, readers, readAheads);
       
       if (imm != null) {
         iters.add(imm.compactionIterator());
@@ -435,7 +565,9 @@ public class Compactor implements Callable<CompactionStats> {
       
       itr.seek(extent.toDataRange(), columnFamilies, inclusive);
       
-      if (!inclusive) {
+      if (allGroups != null) {
+        mfw.startAllLocalityGroups(allGroups);
+      } else if (!inclusive) {
         mfw.startDefaultLocalityGroup();
       } else {
         mfw.startNewLocalityGroup(lgName, columnFamilies);
@@ -443,14 +575,22 @@ public class Compactor implements Callable<CompactionStats> {
       
       Span write = Trace.start("write");
       try {
+        long bytesWritten = 0;
+        long bytesCharged = 0;
         while (itr.hasTop() && env.isCompactionEnabled()) {
           mfw.append(itr.getTopKey(), itr.getTopValue());
+          if (rateLimiter != null)
+            bytesWritten += itr.getTopKey().getSize() + itr.getTopValue().getSize();
           itr.next();
           entriesCompacted++;
           
           if (entriesCompacted % 1024 == 0) {
             // Periodically update stats, do not want to do this too often since its volatile
             entriesWritten.addAndGet(1024);
+            if (rateLimiter != null) {
+              rateLimiter.acquire(bytesWritten - bytesCharged);
+              bytesCharged = bytesWritten;
+            }
           }
         }
 
@@ -476,6 +616,10 @@ public class Compactor implements Callable<CompactionStats> {
       }
       
     } finally {
+      // stop reading ahead before the files are closed
+      for (ReadAheadIterator readAhead : readAheads)
+        readAhead.close();
+      
       // close sequence files opened
       for (FileSKVIterator reader : readers) {
         try {
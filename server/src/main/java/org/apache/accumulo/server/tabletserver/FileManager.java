@@ -26,7 +26,9 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.Key;
@@ -34,6 +36,7 @@ import org.apache.accumulo.core.data.KeyExtent;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.file.FileOperations;
 import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.TimestampRange;
 import org.apache.accumulo.core.file.blockfile.cache.BlockCache;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
@@ -47,6 +50,7 @@ import org.apache.accumulo.server.problems.ProblemReport;
 import org.apache.accumulo.server.problems.ProblemReportingIterator;
 import org.apache.accumulo.server.problems.ProblemReports;
 import org.apache.accumulo.server.problems.ProblemType;
+import org.apache.accumulo.server.tabletserver.metrics.TabletServerScanMetrics;
 import org.apache.accumulo.server.util.time.SimpleTimer;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.io.Text;
@@ -94,9 +98,23 @@ public class FileManager {
     }
   }
   
-  private Map<String,List<OpenReader>> openFiles;
-  private HashMap<FileSKVIterator,String> reservedReaders;
+  // readers that are not reserved are pooled in stripes chosen by file name, so tablets reading different files do not contend on one lock
+  private static final int STRIPES = 16;
   
+  private static class Stripe {
+    // readers with an open stream
+    final Map<String,List<OpenReader>> openFiles = new HashMap<String,List<OpenReader>>();
+    // readers whose stream was closed, kept because reopening them only needs a new stream and not another read of the file's indexes
+    final Map<String,List<OpenReader>> parkedFiles = new HashMap<String,List<OpenReader>>();
+  }
+  
+  private final Stripe[] stripes;
+  private final AtomicInteger openReaders = new AtomicInteger(0);
+  private final AtomicInteger parkedReaders = new AtomicInteger(0);
+  
+  private ConcurrentHashMap<FileSKVIterator,String> reservedReaders;
+  
+  // bounds the number of reserved readers, which all may hold an open stream
   private Semaphore filePermits;
   
   private FileSystem fs;
@@ -112,6 +130,8 @@ public class FileManager {
   
   private final ServerConfiguration conf;
   
+  private volatile TabletServerScanMetrics scanMetrics = null;
+  
   private class IdleFileCloser implements Runnable {
     
     @Override
@@ -123,30 +143,42 @@ public class FileManager {
       
       // determine which files to close in a sync block, and then close the
       // files outside of the sync block
-      synchronized (FileManager.this) {
-        Iterator<Entry<String,List<OpenReader>>> iter = openFiles.entrySet().iterator();
-        while (iter.hasNext()) {
-          Entry<String,List<OpenReader>> entry = iter.next();
-          List<OpenReader> ofl = entry.getValue();
+      for (Stripe stripe : stripes) {
+        synchronized (stripe) {
+          openReaders.addAndGet(-takeIdleReaders(stripe.openFiles, curTime, filesToClose));
+          parkedReaders.addAndGet(-takeIdleReaders(stripe.parkedFiles, curTime, filesToClose));
+        }
+      }
+      
+      closeReaders(filesToClose);
+      
+    }
+    
+    private int takeIdleReaders(Map<String,List<OpenReader>> files, long curTime, List<FileSKVIterator> filesToClose) {
+      int count = 0;
+      
+      Iterator<Entry<String,List<OpenReader>>> iter = files.entrySet().iterator();
+      while (iter.hasNext()) {
+        Entry<String,List<OpenReader>> entry = iter.next();
+        List<OpenReader> ofl = entry.getValue();
+        
+        for (Iterator<OpenReader> oflIter = ofl.iterator(); oflIter.hasNext();) {
+          OpenReader openReader = oflIter.next();
           
-          for (Iterator<OpenReader> oflIter = ofl.iterator(); oflIter.hasNext();) {
-            OpenReader openReader = oflIter.next();
+          if (curTime - openReader.releaseTime > maxIdleTime) {
             
-            if (curTime - openReader.releaseTime > maxIdleTime) {
-              
-              filesToClose.add(openReader.reader);
-              oflIter.remove();
-            }
-          }
-          
-          if (ofl.size() == 0) {
-            iter.remove();
+            filesToClose.add(openReader.reader);
+            oflIter.remove();
+            count++;
           }
         }
+        
+        if (ofl.size() == 0) {
+          iter.remove();
+        }
       }
       
-      closeReaders(filesToClose);
-      
+      return count;
     }
     
   }
@@ -170,54 +202,79 @@ public class FileManager {
     this.maxOpen = maxOpen;
     this.fs = fs;
     
-    this.openFiles = new HashMap<String,List<OpenReader>>();
-    this.reservedReaders = new HashMap<FileSKVIterator,String>();
+    this.stripes = new Stripe[STRIPES];
+    for (int i = 0; i < stripes.length; i++)
+      stripes[i] = new Stripe();
+    this.reservedReaders = new ConcurrentHashMap<FileSKVIterator,String>();
     
     this.maxIdleTime = conf.getConfiguration().getTimeInMillis(Property.TSERV_MAX_IDLE);
     SimpleTimer.getInstance().schedule(new IdleFileCloser(), maxIdleTime, maxIdleTime / 2);
     
   }
   
-  private static int countReaders(Map<String,List<OpenReader>> files) {
-    int count = 0;
-    
-    for (List<OpenReader> list : files.values()) {
-      count += list.size();
-    }
-    
-    return count;
+  /**
+   * Records how long scans wait to reserve their files, when the metrics are enabled.
+   */
+  void setScanMetrics(TabletServerScanMetrics scanMetrics) {
+    this.scanMetrics = scanMetrics;
   }
   
-  private List<FileSKVIterator> takeLRUOpenFiles(int numToTake) {
+  private Stripe getStripe(String file) {
+    return stripes[(file.hashCode() & Integer.MAX_VALUE) % stripes.length];
+  }
+  
+  /**
+   * Removes the least recently released readers from the open or parked pools of all stripes. Readers reserved concurrently are skipped, so fewer may be
+   * returned than asked for.
+   */
+  private List<OpenReader> takeLRUReaders(boolean parked, int numToTake) {
     
-    ArrayList<OpenReader> openReaders = new ArrayList<OpenReader>();
+    ArrayList<OpenReader> readers = new ArrayList<OpenReader>();
     
-    for (Entry<String,List<OpenReader>> entry : openFiles.entrySet()) {
-      openReaders.addAll(entry.getValue());
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        for (List<OpenReader> ofl : (parked ? stripe.parkedFiles : stripe.openFiles).values())
+          readers.addAll(ofl);
+      }
     }
     
-    Collections.sort(openReaders);
+    Collections.sort(readers);
     
-    ArrayList<FileSKVIterator> ret = new ArrayList<FileSKVIterator>();
+    ArrayList<OpenReader> ret = new ArrayList<OpenReader>();
     
-    for (int i = 0; i < numToTake; i++) {
-      OpenReader or = openReaders.get(i);
+    for (int i = 0; i < readers.size() && ret.size() < numToTake; i++) {
+      OpenReader or = readers.get(i);
+      Stripe stripe = getStripe(or.fileName);
       
-      List<OpenReader> ofl = openFiles.get(or.fileName);
-      if (!ofl.remove(or)) {
-        throw new RuntimeException("Failed to remove open reader that should have been there");
-      }
-      
-      if (ofl.size() == 0) {
-        openFiles.remove(or.fileName);
+      synchronized (stripe) {
+        Map<String,List<OpenReader>> files = parked ? stripe.parkedFiles : stripe.openFiles;
+        List<OpenReader> ofl = files.get(or.fileName);
+        if (ofl == null || !removeReader(ofl, or))
+          continue;
+        
+        if (ofl.size() == 0) {
+          files.remove(or.fileName);
+        }
       }
       
-      ret.add(or.reader);
+      (parked ? parkedReaders : openReaders).decrementAndGet();
+      ret.add(or);
     }
     
     return ret;
   }
   
+  private static boolean removeReader(List<OpenReader> ofl, OpenReader or) {
+    // OpenReader's equality compares release times, so look for this exact reader
+    for (Iterator<OpenReader> iter = ofl.iterator(); iter.hasNext();) {
+      if (iter.next() == or) {
+        iter.remove();
+        return true;
+      }
+    }
+    return false;
+  }
+  
   private static <T> List<T> getFileList(String file, Map<String,List<T>> files) {
     List<T> ofl = files.get(file);
     if (ofl == null) {
@@ -238,20 +295,70 @@ public class FileManager {
     }
   }
   
+  /**
+   * Closes the streams of the least recently used unreserved readers until open streams fit within maxOpen, keeping the readers for reuse when they support
+   * it. Reserved readers are counted as open, even though a reader taken from the parked pool does not open its stream until it is read.
+   */
+  private void closeExcessStreams() {
+    int excess = openReaders.get() + (maxOpen - filePermits.availablePermits()) - maxOpen;
+    if (excess <= 0)
+      return;
+    
+    List<FileSKVIterator> filesToClose = new ArrayList<FileSKVIterator>();
+    
+    for (OpenReader or : takeLRUReaders(false, excess)) {
+      boolean parked = false;
+      try {
+        parked = or.reader.closeStream();
+      } catch (Exception e) {
+        log.warn("Failed to close stream of " + or.fileName + " " + e.getMessage(), e);
+      }
+      
+      if (parked) {
+        // keeps its release time, so parked readers age out in the same order
+        Stripe stripe = getStripe(or.fileName);
+        synchronized (stripe) {
+          getFileList(or.fileName, stripe.parkedFiles).add(or);
+        }
+        parkedReaders.incrementAndGet();
+      } else {
+        filesToClose.add(or.reader);
+      }
+    }
+    
+    // parked readers only hold memory, but still limit them to as many as could be open
+    int parkedExcess = parkedReaders.get() - maxOpen;
+    if (parkedExcess > 0)
+      for (OpenReader or : takeLRUReaders(true, parkedExcess))
+        filesToClose.add(or.reader);
+    
+    closeReaders(filesToClose);
+  }
+  
   private List<String> takeOpenFiles(Collection<String> files, List<FileSKVIterator> reservedFiles, Map<FileSKVIterator,String> readersReserved) {
     List<String> filesToOpen;
     filesToOpen = new LinkedList<String>(files);
     for (Iterator<String> iterator = filesToOpen.iterator(); iterator.hasNext();) {
       String file = iterator.next();
       
-      List<OpenReader> ofl = openFiles.get(file);
-      if (ofl != null && ofl.size() > 0) {
-        OpenReader openReader = ofl.remove(ofl.size() - 1);
-        reservedFiles.add(openReader.reader);
-        readersReserved.put(openReader.reader, file);
-        if (ofl.size() == 0) {
-          openFiles.remove(file);
+      FileSKVIterator reader = null;
+      
+      Stripe stripe = getStripe(file);
+      synchronized (stripe) {
+        reader = takeReader(file, stripe.openFiles);
+        if (reader != null) {
+          openReaders.decrementAndGet();
+        } else {
+          // a parked reader reopens its stream when it is first read
+          reader = takeReader(file, stripe.parkedFiles);
+          if (reader != null)
+            parkedReaders.decrementAndGet();
         }
+      }
+      
+      if (reader != null) {
+        reservedFiles.add(reader);
+        readersReserved.put(reader, file);
         iterator.remove();
       }
       
@@ -259,7 +366,19 @@ public class FileManager {
     return filesToOpen;
   }
   
-  private synchronized String getReservedReadeFilename(FileSKVIterator reader) {
+  private static FileSKVIterator takeReader(String file, Map<String,List<OpenReader>> files) {
+    List<OpenReader> ofl = files.get(file);
+    if (ofl == null || ofl.size() == 0)
+      return null;
+    
+    OpenReader openReader = ofl.remove(ofl.size() - 1);
+    if (ofl.size() == 0) {
+      files.remove(file);
+    }
+    return openReader.reader;
+  }
+  
+  private String getReservedReadeFilename(FileSKVIterator reader) {
     return reservedReaders.get(reader);
   }
   
@@ -273,8 +392,9 @@ public class FileManager {
       return Collections.emptyList();
     }
     
+    long t1 = System.nanoTime();
+    
     List<String> filesToOpen = null;
-    List<FileSKVIterator> filesToClose = Collections.emptyList();
     List<FileSKVIterator> reservedFiles = new ArrayList<FileSKVIterator>();
     Map<FileSKVIterator,String> readersReserved = new HashMap<FileSKVIterator,String>();
     
@@ -283,23 +403,11 @@ public class FileManager {
     // now that the we are past the semaphore, we have the authority
     // to open files.size() files
     
-    // determine what work needs to be done in sync block
-    // but do the work of opening and closing files outside
-    // a synch block
-    synchronized (this) {
-      
-      filesToOpen = takeOpenFiles(files, reservedFiles, readersReserved);
-      
-      int numOpen = countReaders(openFiles);
-      
-      if (filesToOpen.size() + numOpen + reservedReaders.size() > maxOpen) {
-        filesToClose = takeLRUOpenFiles((filesToOpen.size() + numOpen + reservedReaders.size()) - maxOpen);
-      }
-    }
+    filesToOpen = takeOpenFiles(files, reservedFiles, readersReserved);
     
-    // close files before opening files to ensure we stay under resource
+    // close streams before opening files to ensure we stay under resource
     // limitations
-    closeReaders(filesToClose);
+    closeExcessStreams();
     
     // open any files that need to be opened
     for (String file : filesToOpen) {
@@ -329,10 +437,12 @@ public class FileManager {
       }
     }
     
-    synchronized (this) {
-      // update set of reserved readers
-      reservedReaders.putAll(readersReserved);
-    }
+    // update set of reserved readers
+    reservedReaders.putAll(readersReserved);
+    
+    TabletServerScanMetrics metrics = scanMetrics;
+    if (metrics != null && metrics.isEnabled())
+      metrics.add(TabletServerScanMetrics.reserve, (System.nanoTime() - t1) / 1000);
     
     return reservedFiles;
   }
@@ -340,27 +450,31 @@ public class FileManager {
   private void releaseReaders(List<FileSKVIterator> readers, boolean sawIOException) {
     // put files in openFiles
     
-    synchronized (this) {
-      
-      // check that readers were actually reserved ... want to make sure a thread does
-      // not try to release readers they never reserved
-      if (!reservedReaders.keySet().containsAll(readers)) {
-        throw new IllegalArgumentException("Asked to release readers that were never reserved ");
+    // check that readers were actually reserved ... want to make sure a thread does
+    // not try to release readers they never reserved
+    if (!reservedReaders.keySet().containsAll(readers)) {
+      throw new IllegalArgumentException("Asked to release readers that were never reserved ");
+    }
+    
+    for (FileSKVIterator reader : readers) {
+      try {
+        reader.closeDeepCopies();
+        // the next user of this reader may not want the same data skipped
+        reader.setTimestampRange(null);
+      } catch (IOException e) {
+        log.warn(e, e);
+        sawIOException = true;
       }
-      
-      for (FileSKVIterator reader : readers) {
-        try {
-          reader.closeDeepCopies();
-        } catch (IOException e) {
-          log.warn(e, e);
-          sawIOException = true;
+    }
+    
+    for (FileSKVIterator reader : readers) {
+      String fileName = reservedReaders.remove(reader);
+      if (!sawIOException) {
+        Stripe stripe = getStripe(fileName);
+        synchronized (stripe) {
+          getFileList(fileName, stripe.openFiles).add(new OpenReader(fileName, reader));
         }
-      }
-      
-      for (FileSKVIterator reader : readers) {
-        String fileName = reservedReaders.remove(reader);
-        if (!sawIOException)
-          getFileList(fileName, openFiles).add(new OpenReader(fileName, reader));
+        openReaders.incrementAndGet();
       }
     }
     
@@ -379,9 +493,11 @@ public class FileManager {
     private boolean current = true;
     private IteratorEnvironment env;
     private String file;
+    private TimestampRange timestampRange;
     
-    FileDataSource(String file, SortedKeyValueIterator<Key,Value> iter) {
+    FileDataSource(String file, TimestampRange timestampRange, SortedKeyValueIterator<Key,Value> iter) {
       this.file = file;
+      this.timestampRange = timestampRange;
       this.iter = iter;
       this.deepCopies = new ArrayList<FileManager.FileDataSource>();
     }
@@ -469,6 +585,15 @@ public class FileManager {
     }
     
     synchronized List<InterruptibleIterator> openFiles(Map<String,DataFileValue> files, boolean detachable) throws IOException {
+      return openFiles(files, detachable, null);
+    }
+    
+    /**
+     * @param timestampRange
+     *          the range of timestamps that the iterators reading the files will let through, files may skip data outside of it. May be null.
+     */
+    synchronized List<InterruptibleIterator> openFiles(Map<String,DataFileValue> files, boolean detachable, TimestampRange timestampRange)
+        throws IOException {
       
       List<FileSKVIterator> newlyReservedReaders = openFiles(files.keySet());
       
@@ -476,9 +601,15 @@ public class FileManager {
       
       for (FileSKVIterator reader : newlyReservedReaders) {
         String filename = getReservedReadeFilename(reader);
+        
+        // the time of bulk imported files is set as they are read, so the timestamps recorded in those files do not apply
+        TimestampRange fileTimestampRange = files.get(filename).isTimeSet() ? null : timestampRange;
+        if (fileTimestampRange != null)
+          reader.setTimestampRange(fileTimestampRange);
+        
         InterruptibleIterator iter;
         if (detachable) {
-          FileDataSource fds = new FileDataSource(filename, reader);
+          FileDataSource fds = new FileDataSource(filename, fileTimestampRange, reader);
           dataSources.add(fds);
           SourceSwitchingIterator ssi = new SourceSwitchingIterator(fds);
           iter = new ProblemReportingIterator(tablet.getTableId().toString(), filename, continueOnFailure, ssi);
@@ -528,6 +659,8 @@ public class FileManager {
       
       for (FileDataSource fds : dataSources) {
         FileSKVIterator reader = map.get(fds.file).remove(0);
+        if (fds.timestampRange != null)
+          reader.setTimestampRange(fds.timestampRange);
         fds.setIterator(reader);
       }
     }
@@ -28,14 +28,17 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.accumulo.core.client.mock.IteratorAdapter;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.ArrayByteSequence;
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.ColumnUpdate;
 import org.apache.accumulo.core.data.Key;
@@ -52,6 +55,7 @@ import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.SortedMapIterator;
 import org.apache.accumulo.core.iterators.WrappingIterator;
 import org.apache.accumulo.core.iterators.system.InterruptibleIterator;
+import org.apache.accumulo.core.iterators.system.MultiIterator;
 import org.apache.accumulo.core.iterators.system.SourceSwitchingIterator;
 import org.apache.accumulo.core.iterators.system.SourceSwitchingIterator.DataSource;
 import org.apache.accumulo.core.util.CachedConfiguration;
@@ -111,6 +115,37 @@ class PartialMutationSkippingIterator extends SkippingIterator implements Interr
   
 }
 
+/**
+ * Merges the iterators over the shards of a sharded in memory map. A row is only ever stored in one shard, so the same key is never seen from two shards.
+ */
+class ShardMergingIterator extends MultiIterator implements InterruptibleIterator {
+  
+  private List<InterruptibleIterator> shards;
+  
+  private static List<SortedKeyValueIterator<Key,Value>> sources(List<InterruptibleIterator> shards) {
+    return new ArrayList<SortedKeyValueIterator<Key,Value>>(shards);
+  }
+  
+  ShardMergingIterator(List<InterruptibleIterator> shards) {
+    super(sources(shards), false);
+    this.shards = shards;
+  }
+  
+  @Override
+  public ShardMergingIterator deepCopy(IteratorEnvironment env) {
+    List<InterruptibleIterator> copies = new ArrayList<InterruptibleIterator>(shards.size());
+    for (InterruptibleIterator shard : shards)
+      copies.add((InterruptibleIterator) shard.deepCopy(env));
+    return new ShardMergingIterator(copies);
+  }
+  
+  @Override
+  public void setInterruptFlag(AtomicBoolean flag) {
+    for (InterruptibleIterator shard : shards)
+      shard.setInterruptFlag(flag);
+  }
+}
+
 class MemKeyConversionIterator extends WrappingIterator implements InterruptibleIterator {
   MemKey currKey = null;
   Value currVal = null;
@@ -187,7 +222,10 @@ class MemKeyConversionIterator extends WrappingIterator implements Interruptible
 public class InMemoryMap {
   MutationLog mutationLog;
   
-  private SimpleMap map = null;
+  // starts out as the shared empty map, and is only allocated by the first write so that tablets which are never written hold no map
+  private volatile SimpleMap map = EMPTY_MAP;
+  private final boolean useNativeMap;
+  private final int nativeMapShards;
   
   private static final Logger log = Logger.getLogger(InMemoryMap.class);
   
@@ -195,22 +233,17 @@ public class InMemoryMap {
   private final String memDumpDir;
   
   public InMemoryMap(boolean useNativeMap, String memDumpDir) {
+    this(useNativeMap, 1, memDumpDir);
+  }
+  
+  public InMemoryMap(boolean useNativeMap, int nativeMapShards, String memDumpDir) {
     this.memDumpDir = memDumpDir;
-    if (useNativeMap && NativeMap.loadedNativeLibraries()) {
-      try {
-        map = new NativeMapWrapper();
-      } catch (Throwable t) {
-        log.error("Failed to create native map", t);
-      }
-    }
-    
-    if (map == null) {
-      map = new DefaultMap();
-    }
+    this.useNativeMap = useNativeMap;
+    this.nativeMapShards = nativeMapShards;
   }
   
   public InMemoryMap(AccumuloConfiguration config) {
-    this(config.getBoolean(Property.TSERV_NATIVEMAP_ENABLED), config.get(Property.TSERV_MEMDUMP_DIR));
+    this(config.getBoolean(Property.TSERV_NATIVEMAP_ENABLED), config.getCount(Property.TSERV_NATIVEMAP_SHARDS), config.get(Property.TSERV_MEMDUMP_DIR));
   }
   
   private interface SimpleMap {
@@ -229,6 +262,37 @@ public class InMemoryMap {
     public void mutate(List<Mutation> mutations, int kvCount);
   }
   
+  private static class EmptyMap implements SimpleMap {
+    
+    public Value get(Key key) {
+      return null;
+    }
+    
+    public Iterator<Entry<Key,Value>> iterator(Key startKey) {
+      return Collections.<Entry<Key,Value>> emptyList().iterator();
+    }
+    
+    public int size() {
+      return 0;
+    }
+    
+    public InterruptibleIterator skvIterator() {
+      return new SortedMapIterator(new TreeMap<Key,Value>());
+    }
+    
+    public void delete() {}
+    
+    public long getMemoryUsed() {
+      return 0;
+    }
+    
+    public void mutate(List<Mutation> mutations, int kvCount) {
+      throw new UnsupportedOperationException();
+    }
+  }
+  
+  private static final SimpleMap EMPTY_MAP = new EmptyMap();
+  
   private static class DefaultMap implements SimpleMap {
     private ConcurrentSkipListMap<Key,Value> map = new ConcurrentSkipListMap<Key,Value>(new MemKeyComparator());
     private AtomicLong bytesInMemory = new AtomicLong();
@@ -295,41 +359,105 @@ public class InMemoryMap {
     }
   }
   
+  /**
+   * Splits the data across several native maps by row. Each native map only allows one writer at a time, so sharding lets writes to different rows proceed
+   * in parallel. Reads merge the shards.
+   */
   private static class NativeMapWrapper implements SimpleMap {
-    private NativeMap nativeMap;
+    private NativeMap[] nativeMaps;
+    
+    NativeMapWrapper(int shards) {
+      nativeMaps = new NativeMap[shards];
+      // keep the memory a lightly used map holds on to about the same as with a single shard
+      for (int i = 0; i < shards; i++)
+        nativeMaps[i] = new NativeMap(NativeMap.DEFAULT_BLOCK_SIZE / shards);
+    }
     
-    NativeMapWrapper() {
-      nativeMap = new NativeMap();
+    private NativeMap getShard(ByteSequence row) {
+      return nativeMaps[(row.hashCode() & Integer.MAX_VALUE) % nativeMaps.length];
     }
     
     public Value get(Key key) {
-      return nativeMap.get(key);
+      return getShard(key.getRowData()).get(key);
     }
     
     public Iterator<Entry<Key,Value>> iterator(Key startKey) {
-      return nativeMap.iterator(startKey);
+      if (nativeMaps.length == 1)
+        return nativeMaps[0].iterator(startKey);
+      
+      InterruptibleIterator iter = skvIterator();
+      try {
+        iter.seek(new Range(startKey, true, null, false), LocalityGroupUtil.EMPTY_CF_SET, false);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      return new IteratorAdapter(iter);
     }
     
     public int size() {
-      return nativeMap.size();
+      int size = 0;
+      for (NativeMap nativeMap : nativeMaps)
+        size += nativeMap.size();
+      return size;
     }
     
     public InterruptibleIterator skvIterator() {
-      return (InterruptibleIterator) nativeMap.skvIterator();
+      if (nativeMaps.length == 1)
+        return (InterruptibleIterator) nativeMaps[0].skvIterator();
+      
+      List<InterruptibleIterator> shards = new ArrayList<InterruptibleIterator>(nativeMaps.length);
+      for (NativeMap nativeMap : nativeMaps)
+        shards.add((InterruptibleIterator) nativeMap.skvIterator());
+      return new ShardMergingIterator(shards);
     }
     
     public void delete() {
-      nativeMap.delete();
+      for (NativeMap nativeMap : nativeMaps)
+        nativeMap.delete();
     }
     
     public long getMemoryUsed() {
-      return nativeMap.getMemoryUsed();
+      long memoryUsed = 0;
+      for (NativeMap nativeMap : nativeMaps)
+        memoryUsed += nativeMap.getMemoryUsed();
+      return memoryUsed;
     }
     
     @Override
     public void mutate(List<Mutation> mutations, int kvCount) {
-      nativeMap.mutate(mutations, kvCount);
+      if (nativeMaps.length == 1) {
+        nativeMaps[0].mutate(mutations, kvCount);
+        return;
+      }
+      
+      for (Mutation m : mutations) {
+        getShard(new ArrayByteSequence(m.getRow())).mutate(m, kvCount++);
+      }
+    }
+  }
+  
+  private SimpleMap createMap() {
+    if (useNativeMap && NativeMap.loadedNativeLibraries()) {
+      try {
+        return new NativeMapWrapper(Math.max(nativeMapShards, 1));
+      } catch (Throwable t) {
+        log.error("Failed to create native map", t);
+      }
     }
+    
+    return new DefaultMap();
+  }
+  
+  private SimpleMap getWritableMap() {
+    SimpleMap m = map;
+    if (m == EMPTY_MAP) {
+      synchronized (this) {
+        if (map == EMPTY_MAP)
+          map = createMap();
+        m = map;
+      }
+    }
+    return m;
   }
   
   private AtomicInteger nextKVCount = new AtomicInteger(1);
@@ -346,20 +474,33 @@ public class InMemoryMap {
     for (int i = 0; i < mutations.size(); i++)
       numKVs += mutations.get(i).size();
     
-    // Can not update mutationCount while writes that started before
-    // are in progress, this would cause partial mutations to be seen.
-    // Also, can not continue until mutation count is updated, because
-    // a read may not see a successful write. Therefore writes must
-    // wait for writes that started before to finish.
+    // Writes are applied to the map in parallel, but can not update
+    // mutationCount while writes that started before are in progress,
+    // this would cause partial mutations to be seen. Also, can not
+    // continue until mutation count is updated, because a read may not
+    // see a successful write. Therefore writes must wait for writes that
+    // started before to finish before publishing their mutation count.
     //
     // using separate lock from this map, to allow read/write in parallel
-    synchronized (writeSerializer ) {
-      int kv = nextKVCount.getAndAdd(numKVs);
-      try {
-        map.mutate(mutations, kv);
-      } finally {
+    SimpleMap m = getWritableMap();
+    int kv = nextKVCount.getAndAdd(numKVs);
+    try {
+      m.mutate(mutations, kv);
+    } finally {
+      boolean interrupted = false;
+      synchronized (writeSerializer) {
+        while (kvCount.get() != kv - 1) {
+          try {
+            writeSerializer.wait();
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
         kvCount.set(kv + numKVs - 1);
+        writeSerializer.notifyAll();
       }
+      if (interrupted)
+        Thread.currentThread().interrupt();
     }
   }
   
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver;
+
+import java.util.ArrayList;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+/**
+ * A group of key values handed between the stages of a compaction. Batches are limited by count and by size, so the memory used by a bounded queue of
+ * batches stays bounded even for large values.
+ */
+class KeyValueBatch {
+  
+  static final int MAX_ENTRIES = 1000;
+  static final int MAX_BYTES = 256 * 1024;
+  
+  final ArrayList<Key> keys = new ArrayList<Key>();
+  final ArrayList<Value> values = new ArrayList<Value>();
+  private long bytes = 0;
+  
+  // set on the last batch produced, when the source is exhausted or failed
+  boolean last = false;
+  Throwable error = null;
+  
+  /**
+   * Adds copies of the key and value, because the source may reuse them.
+   */
+  void add(Key key, Value value) {
+    keys.add(new Key(key));
+    values.add(new Value(value.get()));
+    bytes += key.getSize() + value.getSize();
+  }
+  
+  boolean isFull() {
+    return keys.size() >= MAX_ENTRIES || bytes >= MAX_BYTES;
+  }
+  
+  int size() {
+    return keys.size();
+  }
+}
@@ -18,6 +18,8 @@ package org.apache.accumulo.server.tabletserver;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Collection;
 import java.util.ConcurrentModificationException;
 import java.util.HashSet;
@@ -26,6 +28,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -65,15 +69,15 @@ public class NativeMap implements Iterable<Map.Entry<Key,Value>> {
   
   int modCount = 0;
   
-  private static native long createNM();
+  private static native long createNM(int blockSize);
   
   // private static native void putNM(long nmPointer, byte[] kd, int cfo, int cqo, int cvo, int tl, long ts, boolean del, byte[] value);
   
-  private static native void singleUpdate(long nmPointer, byte[] row, byte cf[], byte cq[], byte cv[], long ts, boolean del, byte[] value, int mutationCount);
-  
-  private static native long startUpdate(long nmPointer, byte[] row);
-  
-  private static native void update(long nmPointer, long updateID, byte cf[], byte cq[], byte cv[], long ts, boolean del, byte[] value, int mutationCount);
+  /**
+   * Applies all of the updates for a row in one call. The direct buffer holds the row length and row followed by numUpdates updates, see
+   * {@link #putUpdate(ByteBuffer, byte[], byte[], byte[], long, boolean, byte[])}
+   */
+  private static native void updateNM(long nmPointer, ByteBuffer updates, int numUpdates, int mutationCount);
   
   private static native int sizeNM(long nmPointer);
   
@@ -85,7 +89,7 @@ public class NativeMap implements Iterable<Map.Entry<Key,Value>> {
   private static long totalAllocations;
   private static HashSet<Long> allocatedNativeMaps;
   
-  private static synchronized long createNativeMap() {
+  private static synchronized long createNativeMap(int blockSize) {
     
     if (!init) {
       allocatedNativeMaps = new HashSet<Long>();
@@ -111,7 +115,7 @@ public class NativeMap implements Iterable<Map.Entry<Key,Value>> {
       init = true;
     }
     
-    long nmPtr = createNM();
+    long nmPtr = createNM(blockSize);
     
     if (allocatedNativeMaps.contains(nmPtr)) {
       // something is really screwy, this should not happen
@@ -165,13 +169,33 @@ public class NativeMap implements Iterable<Map.Entry<Key,Value>> {
   
   private static native long createNMI(long nmp, byte[] row, byte cf[], byte cq[], byte cv[], long ts, boolean del, int fieldLens[]);
   
-  private static native boolean nmiNext(long nmiPointer, int fieldLens[]);
+  /**
+   * Copies up to maxEntries entries into the direct buffer and advances the native iterator past them. Returns the number of entries copied or, when the next
+   * entry does not fit in the buffer, the negated buffer size needed.
+   */
+  private static native int nmiFill(long nmiPointer, ByteBuffer buffer, int maxEntries);
   
-  private static native void nmiGetData(long nmiPointer, byte[] row, byte cf[], byte cq[], byte cv[], byte[] valData);
+  private static native void deleteNMI(long nmiPointer);
   
-  private static native long nmiGetTS(long nmiPointer);
+  // size of the fixed length part of an update passed through a direct buffer
+  private static final int UPDATE_HEADER_SIZE = 4 * 4 + 8 + 1;
   
-  private static native void deleteNMI(long nmiPointer);
+  private static final int BATCH_BUFFER_SIZE = 16 * 1024;
+  private static final int MAX_BATCH_ENTRIES = 256;
+  
+  // creating direct buffers is expensive, so buffers released by deleted iterators are reused
+  private static final BlockingQueue<ByteBuffer> batchBuffers = new ArrayBlockingQueue<ByteBuffer>(64);
+  
+  private static final ThreadLocal<ByteBuffer> threadUpdateBuffer = new ThreadLocal<ByteBuffer>() {
+    @Override
+    protected ByteBuffer initialValue() {
+      return allocateBuffer(BATCH_BUFFER_SIZE);
+    }
+  };
+  
+  private static ByteBuffer allocateBuffer(int size) {
+    return ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+  }
   
   private class ConcurrentIterator implements Iterator<Map.Entry<Key,Value>> {
     
@@ -293,9 +317,14 @@ public class NativeMap implements Iterable<Map.Entry<Key,Value>> {
     private long nmiPointer;
     private boolean hasNext;
     private int expectedModCount;
-    private int[] fieldsLens = new int[7];
     private byte lastRow[];
     
+    // entries are copied out of the native map many at a time and decoded as next() is called
+    private ByteBuffer batch;
+    private int batchEntries;
+    private int maxBatchEntries = 1;
+    private boolean nativeHasNext;
+    
     // it is assumed the read lock is held when this method is called
     NMIterator(Key key) {
       
@@ -306,9 +335,10 @@ public class NativeMap implements Iterable<Map.Entry<Key,Value>> {
       expectedModCount = modCount;
       
       nmiPointer = createNMI(nmPointer, key.getRowData().toArray(), key.getColumnFamilyData().toArray(), key.getColumnQualifierData().toArray(), key
-          .getColumnVisibilityData().toArray(), key.getTimestamp(), key.isDeleted(), fieldsLens);
+          .getColumnVisibilityData().toArray(), key.getTimestamp(), key.isDeleted(), new int[7]);
       
       hasNext = nmiPointer != 0;
+      nativeHasNext = hasNext;
     }
     
     // delete is synchronized on a per iterator basis want to ensure only one
@@ -323,6 +353,10 @@ public class NativeMap implements Iterable<Map.Entry<Key,Value>> {
       
       deleteNMI(nmiPointer);
       nmiPointer = 0;
+      
+      if (batch != null && batch.capacity() == BATCH_BUFFER_SIZE)
+        batchBuffers.offer(batch);
+      batch = null;
     }
     
     @Override
@@ -342,6 +376,28 @@ public class NativeMap implements Iterable<Map.Entry<Key,Value>> {
       }
     }
     
+    private void fillBatch() {
+      if (batch == null) {
+        batch = batchBuffers.poll();
+        if (batch == null)
+          batch = allocateBuffer(BATCH_BUFFER_SIZE);
+      }
+      
+      int count = nmiFill(nmiPointer, batch, maxBatchEntries);
+      if (count < 0) {
+        // the next entry is larger than the buffer
+        batch = allocateBuffer(-count);
+        count = nmiFill(nmiPointer, batch, maxBatchEntries);
+      }
+      
+      // start off small for lookups and grow for scans
+      maxBatchEntries = Math.min(maxBatchEntries * 2, MAX_BATCH_ENTRIES);
+      
+      batch.clear();
+      nativeHasNext = batch.getInt() != 0;
+      batchEntries = count;
+    }
+    
     @Override
     // It is assumed that this method is called w/ the read lock held and
     // that doNextPreCheck() is called prior to calling this method
@@ -356,25 +412,34 @@ public class NativeMap implements Iterable<Map.Entry<Key,Value>> {
         throw new IllegalStateException("Native Map Iterator Deleted");
       }
       
-      byte[] row = null;
-      if (fieldsLens[0] >= 0) {
-        row = new byte[fieldsLens[0]];
-        lastRow = row;
+      if (batchEntries == 0) {
+        fillBatch();
       }
       
-      byte cf[] = new byte[fieldsLens[1]];
-      byte cq[] = new byte[fieldsLens[2]];
-      byte cv[] = new byte[fieldsLens[3]];
-      boolean deleted = fieldsLens[4] == 0 ? false : true;
-      byte val[] = new byte[fieldsLens[5]];
+      int rowLen = batch.getInt();
+      byte cf[] = new byte[batch.getInt()];
+      byte cq[] = new byte[batch.getInt()];
+      byte cv[] = new byte[batch.getInt()];
+      boolean deleted = batch.getInt() == 0 ? false : true;
+      byte val[] = new byte[batch.getInt()];
+      int mutationCount = batch.getInt();
+      long ts = batch.getLong();
+      
+      if (rowLen >= 0) {
+        lastRow = new byte[rowLen];
+        batch.get(lastRow);
+      }
       
-      nmiGetData(nmiPointer, row, cf, cq, cv, val);
-      long ts = nmiGetTS(nmiPointer);
+      batch.get(cf);
+      batch.get(cq);
+      batch.get(cv);
+      batch.get(val);
       
-      Key k = new MemKey(lastRow, cf, cq, cv, ts, deleted, false, fieldsLens[6]);
+      Key k = new MemKey(lastRow, cf, cq, cv, ts, deleted, false, mutationCount);
       Value v = new Value(val, false);
       
-      hasNext = nmiNext(nmiPointer, fieldsLens);
+      batchEntries--;
+      hasNext = batchEntries > 0 || nativeHasNext;
       
       return new NMEntry(k, v);
     }
@@ -425,8 +490,16 @@ public class NativeMap implements Iterable<Map.Entry<Key,Value>> {
     }
   }
   
+  // size of the blocks native memory is allocated in, a map always uses at least one block once something is written to it
+  static final int DEFAULT_BLOCK_SIZE = 1 << 17;
+  static final int MIN_BLOCK_SIZE = 1 << 14;
+  
   public NativeMap() {
-    nmPointer = createNativeMap();
+    this(DEFAULT_BLOCK_SIZE);
+  }
+  
+  NativeMap(int blockSize) {
+    nmPointer = createNativeMap(Math.max(blockSize, MIN_BLOCK_SIZE));
     rwLock = new ReentrantReadWriteLock();
     rlock = rwLock.readLock();
     wlock = rwLock.writeLock();
@@ -442,21 +515,59 @@ public class NativeMap implements Iterable<Map.Entry<Key,Value>> {
     }
   }
   
+  private static ByteBuffer updateBuffer(byte[] row, int size) {
+    size += 4 + row.length;
+    
+    ByteBuffer buffer = threadUpdateBuffer.get();
+    if (buffer.capacity() < size) {
+      buffer = allocateBuffer(size);
+      // do not hold on to the memory used by unusually large mutations
+      if (size <= BATCH_BUFFER_SIZE * 16)
+        threadUpdateBuffer.set(buffer);
+    }
+    
+    buffer.clear();
+    buffer.putInt(row.length);
+    buffer.put(row);
+    return buffer;
+  }
+  
+  private static int updateSize(byte[] cf, byte[] cq, byte[] cv, byte[] value) {
+    return UPDATE_HEADER_SIZE + cf.length + cq.length + cv.length + value.length;
+  }
+  
+  private static void putUpdate(ByteBuffer buffer, byte[] cf, byte[] cq, byte[] cv, long ts, boolean del, byte[] value) {
+    buffer.putInt(cf.length);
+    buffer.putInt(cq.length);
+    buffer.putInt(cv.length);
+    buffer.putInt(value.length);
+    buffer.putLong(ts);
+    buffer.put((byte) (del ? 1 : 0));
+    buffer.put(cf);
+    buffer.put(cq);
+    buffer.put(cv);
+    buffer.put(value);
+  }
+  
   private void _mutate(Mutation mutation, int mutationCount) {
     
     List<ColumnUpdate> updates = mutation.getUpdates();
-    if (updates.size() == 1) {
-      ColumnUpdate update = updates.get(0);
-      singleUpdate(nmPointer, mutation.getRow(), update.getColumnFamily(), update.getColumnQualifier(), update.getColumnVisibility(), update.getTimestamp(),
-          update.isDeleted(), update.getValue(), mutationCount);
-    } else if (updates.size() > 1) {
-      long uid = startUpdate(nmPointer, mutation.getRow());
-      for (ColumnUpdate update : updates) {
-        update(nmPointer, uid, update.getColumnFamily(), update.getColumnQualifier(), update.getColumnVisibility(), update.getTimestamp(), update.isDeleted(),
-            update.getValue(), mutationCount);
-      }
-      
+    if (updates.size() == 0)
+      return;
+    
+    int size = 0;
+    for (ColumnUpdate update : updates) {
+      size += updateSize(update.getColumnFamily(), update.getColumnQualifier(), update.getColumnVisibility(), update.getValue());
     }
+    
+    // pass the whole mutation to the native map in one call
+    ByteBuffer buffer = updateBuffer(mutation.getRow(), size);
+    for (ColumnUpdate update : updates) {
+      putUpdate(buffer, update.getColumnFamily(), update.getColumnQualifier(), update.getColumnVisibility(), update.getTimestamp(), update.isDeleted(),
+          update.getValue());
+    }
+    
+    updateNM(nmPointer, buffer, updates.size(), mutationCount);
   }
   
   public void mutate(Mutation mutation, int mutationCount) {
@@ -509,8 +620,13 @@ public class NativeMap implements Iterable<Map.Entry<Key,Value>> {
       
       modCount++;
       
-      singleUpdate(nmPointer, key.getRowData().toArray(), key.getColumnFamilyData().toArray(), key.getColumnQualifierData().toArray(), key
-          .getColumnVisibilityData().toArray(), key.getTimestamp(), key.isDeleted(), value.get(), 0);
+      byte[] cf = key.getColumnFamilyData().toArray();
+      byte[] cq = key.getColumnQualifierData().toArray();
+      byte[] cv = key.getColumnVisibilityData().toArray();
+      
+      ByteBuffer buffer = updateBuffer(key.getRowData().toArray(), updateSize(cf, cq, cv, value.get()));
+      putUpdate(buffer, cf, cq, cv, key.getTimestamp(), key.isDeleted(), value.get());
+      updateNM(nmPointer, buffer, 1, 0);
     } finally {
       wlock.unlock();
     }
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.FileSKVWriter;
+
+/**
+ * Appends to a file writer on another thread, so encoding and compressing output blocks overlaps with producing the next keys. At most depth batches are
+ * queued. A failure in the writing thread is thrown from a later call.
+ * 
+ * Calls other than append wait for the queued data to be written and then run on the calling thread. If the executor has no thread to spare, appends are
+ * written on the calling thread from then on.
+ */
+class PipelinedFileSKVWriter implements FileSKVWriter {
+  
+  private final FileSKVWriter writer;
+  private final ExecutorService executor;
+  private final BlockingQueue<KeyValueBatch> queue;
+  private final AtomicLong writeTime;
+  private final AtomicLong writeWaitTime;
+  
+  private KeyValueBatch batch = new KeyValueBatch();
+  private Future<?> consumer = null;
+  private volatile Throwable error = null;
+  private boolean synchronous = false;
+  
+  /**
+   * @param writeTime
+   *          accumulates nanoseconds spent appending to the writer
+   * @param writeWaitTime
+   *          accumulates nanoseconds the producer spent waiting for queue space
+   */
+  PipelinedFileSKVWriter(FileSKVWriter writer, ExecutorService executor, int depth, AtomicLong writeTime, AtomicLong writeWaitTime) {
+    if (depth < 1)
+      throw new IllegalArgumentException("depth must be positive " + depth);
+    this.writer = writer;
+    this.executor = executor;
+    this.queue = new ArrayBlockingQueue<KeyValueBatch>(depth);
+    this.writeTime = writeTime;
+    this.writeWaitTime = writeWaitTime;
+  }
+  
+  @Override
+  public boolean supportsLocalityGroups() {
+    return writer.supportsLocalityGroups();
+  }
+  
+  @Override
+  public void startNewLocalityGroup(String name, Set<ByteSequence> columnFamilies) throws IOException {
+    flush();
+    writer.startNewLocalityGroup(name, columnFamilies);
+  }
+  
+  @Override
+  public void startDefaultLocalityGroup() throws IOException {
+    flush();
+    writer.startDefaultLocalityGroup();
+  }
+  
+  @Override
+  public void startAllLocalityGroups(Map<String,Set<ByteSequence>> groups) throws IOException {
+    flush();
+    writer.startAllLocalityGroups(groups);
+  }
+  
+  @Override
+  public void append(Key key, Value value) throws IOException {
+    if (synchronous) {
+      writer.append(key, value);
+      return;
+    }
+    
+    checkError();
+    batch.add(key, value);
+    if (batch.isFull()) {
+      put(batch);
+      batch = new KeyValueBatch();
+    }
+  }
+  
+  @Override
+  public DataOutputStream createMetaStore(String name) throws IOException {
+    flush();
+    return writer.createMetaStore(name);
+  }
+  
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      writer.close();
+    }
+  }
+  
+  private void checkError() throws IOException {
+    Throwable t = error;
+    if (t == null)
+      return;
+    if (t instanceof IOException)
+      throw (IOException) t;
+    if (t instanceof RuntimeException)
+      throw (RuntimeException) t;
+    if (t instanceof Error)
+      throw (Error) t;
+    throw new IOException(t);
+  }
+  
+  private void put(KeyValueBatch kvb) throws IOException {
+    if (consumer == null && !startWriting()) {
+      synchronous = true;
+      for (int i = 0; i < kvb.size(); i++)
+        writer.append(kvb.keys.get(i), kvb.values.get(i));
+      return;
+    }
+    
+    if (!queue.offer(kvb)) {
+      long t1 = System.nanoTime();
+      try {
+        queue.put(kvb);
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+      writeWaitTime.addAndGet(System.nanoTime() - t1);
+    }
+  }
+  
+  /**
+   * Waits for everything appended so far to be passed to the writer.
+   */
+  private void flush() throws IOException {
+    if (batch.size() > 0) {
+      put(batch);
+      batch = new KeyValueBatch();
+    }
+    
+    if (consumer != null) {
+      KeyValueBatch end = new KeyValueBatch();
+      end.last = true;
+      put(end);
+      
+      long t1 = System.nanoTime();
+      try {
+        consumer.get();
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      } catch (ExecutionException e) {
+        throw new IOException(e.getCause());
+      } finally {
+        consumer = null;
+      }
+      writeWaitTime.addAndGet(System.nanoTime() - t1);
+    }
+    
+    checkError();
+  }
+  
+  private boolean startWriting() {
+    Runnable write = new Runnable() {
+      @Override
+      public void run() {
+        while (true) {
+          KeyValueBatch kvb;
+          try {
+            kvb = queue.take();
+          } catch (InterruptedException e) {
+            error = e;
+            return;
+          }
+          
+          if (kvb.last)
+            return;
+          
+          // after a failure keep taking batches, so the producer does not block
+          if (error != null)
+            continue;
+          
+          long t1 = System.nanoTime();
+          try {
+            for (int i = 0; i < kvb.size(); i++)
+              writer.append(kvb.keys.get(i), kvb.values.get(i));
+          } catch (Throwable t) {
+            error = t;
+          }
+          writeTime.addAndGet(System.nanoTime() - t1);
+        }
+      }
+    };
+    
+    try {
+      consumer = executor.submit(write);
+      return true;
+    } catch (RejectedExecutionException e) {
+      return false;
+    }
+  }
+}
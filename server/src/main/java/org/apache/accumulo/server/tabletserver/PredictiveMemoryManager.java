@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.Constants;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.KeyExtent;
+import org.apache.accumulo.server.conf.ServerConfiguration;
+import org.apache.hadoop.io.Text;
+import org.apache.log4j.Logger;
+
+/**
+ * A memory manager that forecasts when commits would be held and starts minor compactions early enough to avoid it. It tracks the ingest rate of each
+ * tablet and how fast minor compactions write. When the memory in use plus what would be ingested while the largest in memory map is flushed exceeds the
+ * point where commits are held, that map is flushed.
+ * 
+ * Like {@link LargestFirstMemoryManager}, tablets idle longer than table.compaction.minor.idle are also flushed.
+ */
+public class PredictiveMemoryManager implements MemoryManager {
+  
+  private static final Logger log = Logger.getLogger(PredictiveMemoryManager.class);
+  
+  // commits are held above this fraction of memory, see TabletServerResourceManager
+  static final double HOLD_FRACTION = 0.95;
+  // flush this far ahead of the forecast, to allow for errors in it
+  static final double SAFETY_FRACTION = 0.85;
+  // with no ingest to forecast from, flush the largest map above this
+  static final double STATIC_FRACTION = 0.75;
+  // assumed bytes per second a minor compaction writes, until one is observed
+  static final double INITIAL_THROUGHPUT = 10 * 1024 * 1024;
+  // how often the memory manager is called
+  static final long INTERVAL = 250;
+  
+  private static final double SMOOTHING = 0.2;
+  
+  private static class TabletHistory {
+    long memTableSize;
+    long compactingSize;
+    long time;
+    double ingestRate = 0;
+    long flushStart = 0;
+    long flushSize = 0;
+    // set once an avoided hold is recorded for the next flush of this tablet
+    boolean holdRecorded = false;
+  }
+  
+  private long maxMemory = -1;
+  private int maxConcurrentMincs;
+  private int numWaitingMultiplier;
+  private ServerConfiguration config = null;
+  
+  private Map<KeyExtent,TabletHistory> history = new HashMap<KeyExtent,TabletHistory>();
+  private double mincThroughput = INITIAL_THROUGHPUT;
+  private final AtomicLong avoidedHoldTime = new AtomicLong(0);
+  
+  PredictiveMemoryManager(long maxMemory, int maxConcurrentMincs, int numWaitingMultiplier) {
+    this.maxMemory = maxMemory;
+    this.maxConcurrentMincs = maxConcurrentMincs;
+    this.numWaitingMultiplier = numWaitingMultiplier;
+  }
+  
+  public PredictiveMemoryManager() {}
+  
+  @Override
+  public void init(ServerConfiguration conf) {
+    this.config = conf;
+    maxMemory = conf.getConfiguration().getMemoryInBytes(Property.TSERV_MAXMEM);
+    maxConcurrentMincs = conf.getConfiguration().getCount(Property.TSERV_MINC_MAXCONCURRENT);
+    numWaitingMultiplier = Constants.TSERV_MINC_MAXCONCURRENT_NUMWAITING_MULTIPLIER;
+  }
+  
+  @Override
+  public MemoryManagementActions getMemoryManagementActions(List<TabletState> tablets) {
+    return getMemoryManagementActions(tablets, System.currentTimeMillis());
+  }
+  
+  synchronized MemoryManagementActions getMemoryManagementActions(List<TabletState> tablets, long now) {
+    if (maxMemory < 0)
+      throw new IllegalStateException("need to initialize " + getClass().getSimpleName());
+    
+    long ingestMemory = 0;
+    long compactionMemory = 0;
+    int numWaitingMincs = 0;
+    double ingestRate = 0;
+    
+    TabletState largest = null;
+    TabletState largestIdle = null;
+    Map<Text,Long> idleThresholds = new HashMap<Text,Long>();
+    
+    for (TabletState ts : tablets) {
+      long mts = ts.getMemTableSize();
+      long mcmts = ts.getMinorCompactingMemTableSize();
+      
+      TabletHistory th = history.get(ts.getExtent());
+      if (th == null) {
+        th = new TabletHistory();
+        th.memTableSize = mts;
+        th.compactingSize = mcmts;
+        th.time = now;
+        history.put(ts.getExtent(), th);
+      } else {
+        update(th, mts, mcmts, now);
+      }
+      
+      ingestMemory += mts;
+      compactionMemory += mcmts;
+      ingestRate += th.ingestRate;
+      if (mcmts > 0)
+        numWaitingMincs++;
+      
+      if (mcmts == 0 && mts > 0) {
+        if (largest == null || mts > largest.getMemTableSize())
+          largest = ts;
+        
+        if (config != null && ts.getLastCommitTime() > 0) {
+          Text tableId = ts.getExtent().getTableId();
+          Long idleThreshold = idleThresholds.get(tableId);
+          if (idleThreshold == null) {
+            idleThreshold = config.getTableConfiguration(tableId.toString()).getTimeInMillis(Property.TABLE_MINC_COMPACT_IDLETIME);
+            idleThresholds.put(tableId, idleThreshold);
+          }
+          if (now - ts.getLastCommitTime() > idleThreshold && (largestIdle == null || mts > largestIdle.getMemTableSize()))
+            largestIdle = ts;
+        }
+      }
+    }
+    
+    MemoryManagementActions mma = new MemoryManagementActions();
+    mma.tabletsToMinorCompact = new ArrayList<KeyExtent>();
+    
+    if (largest == null || numWaitingMincs >= maxConcurrentMincs * numWaitingMultiplier)
+      return mma;
+    
+    long total = ingestMemory + compactionMemory;
+    long holdMemory = (long) (HOLD_FRACTION * maxMemory);
+    
+    // the largest map is flushed after the flushes already running, and its memory is only freed when its flush completes
+    double flushSecs = (compactionMemory / (double) Math.max(1, maxConcurrentMincs) + largest.getMemTableSize()) / mincThroughput;
+    double forecast = total + ingestRate * (flushSecs + INTERVAL / 1000.0);
+    
+    if (ingestRate > 0 && forecast > SAFETY_FRACTION * holdMemory) {
+      mma.tabletsToMinorCompact.add(largest.getExtent());
+      
+      // when memory reaches the hold point before this flush could complete, waiting for that point to flush would have held commits for the time until
+      // it is reached longer
+      double holdSecs = (holdMemory - total) / ingestRate;
+      TabletHistory th = history.get(largest.getExtent());
+      if (holdSecs < flushSecs && !th.holdRecorded) {
+        avoidedHoldTime.addAndGet((long) (Math.max(0, holdSecs) * 1000));
+        th.holdRecorded = true;
+      }
+      
+      log.debug(String.format("COMPACTING %s total = %,d ingest rate = %,.0f/sec flush time = %.2f secs forecast = %,.0f", largest.getExtent(), total,
+          ingestRate, flushSecs, forecast));
+    } else if (total > STATIC_FRACTION * maxMemory) {
+      mma.tabletsToMinorCompact.add(largest.getExtent());
+      log.debug(String.format("COMPACTING %s total = %,d", largest.getExtent(), total));
+    } else if (largestIdle != null) {
+      mma.tabletsToMinorCompact.add(largestIdle.getExtent());
+      log.debug("IDLE minor compaction chosen " + largestIdle.getExtent());
+    }
+    
+    return mma;
+  }
+  
+  private void update(TabletHistory th, long mts, long mcmts, long now) {
+    long elapsed = now - th.time;
+    if (elapsed <= 0)
+      return;
+    
+    // when a minor compaction starts the in memory map moves to the compacting map
+    long ingested;
+    if (th.compactingSize == 0 && mcmts > 0)
+      ingested = mts + mcmts - th.memTableSize;
+    else
+      ingested = mts - th.memTableSize;
+    
+    th.ingestRate = (1 - SMOOTHING) * th.ingestRate + SMOOTHING * Math.max(0, ingested) * 1000.0 / elapsed;
+    
+    if (th.compactingSize == 0 && mcmts > 0) {
+      th.flushStart = now;
+      th.flushSize = mcmts;
+      th.holdRecorded = false;
+    } else if (th.compactingSize > 0 && mcmts == 0 && th.flushStart > 0) {
+      long flushTime = Math.max(INTERVAL, now - th.flushStart);
+      mincThroughput = (1 - SMOOTHING) * mincThroughput + SMOOTHING * th.flushSize * 1000.0 / flushTime;
+      th.flushStart = 0;
+    }
+    
+    th.memTableSize = mts;
+    th.compactingSize = mcmts;
+    th.time = now;
+  }
+  
+  @Override
+  public synchronized void tabletClosed(KeyExtent extent) {
+    history.remove(extent);
+  }
+  
+  /**
+   * @return an estimate of the milliseconds commits would have been held longer had the minor compactions this started ahead of time waited until memory
+   *         reached the hold point, counting only flushes that could not complete before it was reached
+   */
+  public long getAvoidedHoldTime() {
+    return avoidedHoldTime.get();
+  }
+  
+  synchronized double getMinorCompactionThroughput() {
+    return mincThroughput;
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket that limits the bytes per second passed through it. Callers that take more than is available go into debt and sleep until it is repaid, so
+ * later callers wait behind them. Up to one second of unused rate is saved for bursts.
+ */
+public class RateLimiter {
+  
+  /**
+   * Where the limiter reads the time and sleeps, so tests can run it without waiting.
+   */
+  interface Clock {
+    long nanoTime();
+    
+    void sleep(long nanos) throws InterruptedException;
+  }
+  
+  private static final Clock SYSTEM_CLOCK = new Clock() {
+    @Override
+    public long nanoTime() {
+      return System.nanoTime();
+    }
+    
+    @Override
+    public void sleep(long nanos) throws InterruptedException {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+  };
+  
+  private final Clock clock;
+  
+  private long rate = 0;
+  private double available = 0;
+  private long lastRefill;
+  
+  private final AtomicLong total = new AtomicLong(0);
+  private final Rate observed = new Rate(0.2);
+  
+  public RateLimiter() {
+    this(SYSTEM_CLOCK);
+  }
+  
+  RateLimiter(Clock clock) {
+    this.clock = clock;
+    this.lastRefill = clock.nanoTime();
+  }
+  
+  /**
+   * @param rate
+   *          bytes per second, or zero for no limit
+   */
+  public synchronized void setRate(long rate) {
+    if (rate != this.rate) {
+      // credit what was saved at the old rate before changing it
+      refill();
+      this.rate = rate;
+      available = Math.min(available, rate);
+    }
+  }
+  
+  public synchronized long getRate() {
+    return rate;
+  }
+  
+  /**
+   * @return the bytes that may be passed on without waiting, as of the last call; negative while callers are waiting to repay a debt
+   */
+  synchronized double getAvailable() {
+    return available;
+  }
+  
+  /**
+   * Waits until the bytes may be passed on.
+   */
+  public void acquire(long bytes) {
+    tryAcquire(bytes, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+  }
+  
+  /**
+   * Waits until the bytes may be passed on, unless that would take longer than the timeout. Nothing is taken when giving up, so callers that give up do not
+   * hold back later callers.
+   * 
+   * @return false if the bytes may not be passed on within the timeout
+   */
+  public boolean tryAcquire(long bytes, long timeout, TimeUnit unit) {
+    long sleep = 0;
+    synchronized (this) {
+      if (rate > 0) {
+        refill();
+        sleep = (long) ((bytes - available) * 1e9 / rate);
+        if (sleep > unit.toNanos(timeout))
+          return false;
+        available -= bytes;
+      }
+    }
+    
+    total.addAndGet(bytes);
+    sleep(sleep);
+    return true;
+  }
+  
+  private void refill() {
+    long now = clock.nanoTime();
+    available = Math.min(rate, available + (now - lastRefill) * rate / 1e9);
+    lastRefill = now;
+  }
+  
+  private void sleep(long nanos) {
+    if (nanos <= 0)
+      return;
+    try {
+      clock.sleep(nanos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+  
+  /**
+   * Updates the observed rate, and should be called periodically.
+   */
+  public void updateRate(long now) {
+    observed.update(now, total.get());
+  }
+  
+  /**
+   * @return the recent bytes per second passed through, as of the last call to {@link #updateRate(long)}
+   */
+  public double getObservedRate() {
+    return observed.rate();
+  }
+  
+  public long getTotal() {
+    return total.get();
+  }
+}
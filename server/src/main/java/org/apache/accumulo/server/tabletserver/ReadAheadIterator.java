@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+
+/**
+ * Reads a compaction input ahead of the consumer on another thread, so reading and decompressing file blocks overlaps with merging and writing. At most
+ * depth batches are buffered.
+ * 
+ * The reading thread is never interrupted, since interrupting a thread blocked on HDFS can close the underlying stream. It checks a flag instead, so stopping
+ * may wait for the batch being read to complete.
+ * 
+ * If the executor has no thread to spare, the source is read on the calling thread from then on.
+ */
+class ReadAheadIterator implements SortedKeyValueIterator<Key,Value> {
+  
+  private final SortedKeyValueIterator<Key,Value> source;
+  private final ExecutorService executor;
+  private final int depth;
+  private final AtomicLong readTime;
+  private final AtomicLong readWaitTime;
+  
+  private Range range;
+  private Collection<ByteSequence> columnFamilies;
+  private boolean inclusive;
+  
+  private BlockingQueue<KeyValueBatch> queue = null;
+  private Future<?> producer = null;
+  private volatile boolean stop = false;
+  
+  private KeyValueBatch current = null;
+  private int pos = 0;
+  
+  // once deep copied the source is shared, so it can no longer be read on another thread
+  private boolean synchronous = false;
+  
+  /**
+   * @param readTime
+   *          accumulates nanoseconds spent reading the source
+   * @param readWaitTime
+   *          accumulates nanoseconds the consumer spent waiting for a batch
+   */
+  ReadAheadIterator(SortedKeyValueIterator<Key,Value> source, ExecutorService executor, int depth, AtomicLong readTime, AtomicLong readWaitTime) {
+    if (depth < 1)
+      throw new IllegalArgumentException("depth must be positive " + depth);
+    this.source = source;
+    this.executor = executor;
+    this.depth = depth;
+    this.readTime = readTime;
+    this.readWaitTime = readWaitTime;
+  }
+  
+  @Override
+  public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options, IteratorEnvironment env) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+  
+  @Override
+  public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+    stopReading();
+    
+    this.range = range;
+    this.columnFamilies = columnFamilies;
+    this.inclusive = inclusive;
+    
+    source.seek(range, columnFamilies, inclusive);
+    
+    if (!synchronous)
+      startReading();
+    if (!synchronous)
+      nextBatch();
+  }
+  
+  @Override
+  public boolean hasTop() {
+    if (synchronous)
+      return source.hasTop();
+    return pos < current.size();
+  }
+  
+  @Override
+  public Key getTopKey() {
+    if (synchronous)
+      return source.getTopKey();
+    return current.keys.get(pos);
+  }
+  
+  @Override
+  public Value getTopValue() {
+    if (synchronous)
+      return source.getTopValue();
+    return current.values.get(pos);
+  }
+  
+  @Override
+  public void next() throws IOException {
+    if (synchronous) {
+      source.next();
+      return;
+    }
+    
+    pos++;
+    if (pos >= current.size() && !current.last)
+      nextBatch();
+  }
+  
+  @Override
+  public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+    if (!synchronous) {
+      synchronous = true;
+      if (producer != null) {
+        // the source has been read past the current position, so put it back
+        try {
+          stopReading();
+          if (pos < current.size())
+            source.seek(new Range(current.keys.get(pos), true, range.getEndKey(), range.isEndKeyInclusive()), columnFamilies, inclusive);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+        current = null;
+      }
+    }
+    return source.deepCopy(env);
+  }
+  
+  /**
+   * Stops reading ahead and waits for the reading thread to finish with the source. This must be called before the source is closed.
+   */
+  void close() {
+    try {
+      stopReading();
+    } catch (IOException e) {
+      // the source is being discarded, so there is nothing to report
+    }
+  }
+  
+  private void startReading() {
+    final BlockingQueue<KeyValueBatch> batches = new ArrayBlockingQueue<KeyValueBatch>(depth);
+    queue = batches;
+    current = null;
+    pos = 0;
+    stop = false;
+    
+    Runnable reader = new Runnable() {
+      @Override
+      public void run() {
+        boolean done = false;
+        while (!done && !stop) {
+          KeyValueBatch batch = new KeyValueBatch();
+          long t1 = System.nanoTime();
+          try {
+            while (!batch.isFull() && source.hasTop()) {
+              batch.add(source.getTopKey(), source.getTopValue());
+              source.next();
+            }
+            done = !source.hasTop();
+          } catch (Throwable t) {
+            batch.error = t;
+            done = true;
+          }
+          batch.last = done;
+          readTime.addAndGet(System.nanoTime() - t1);
+          
+          try {
+            while (!batches.offer(batch, 100, TimeUnit.MILLISECONDS))
+              if (stop)
+                return;
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+      }
+    };
+    
+    try {
+      producer = executor.submit(reader);
+    } catch (RejectedExecutionException e) {
+      // the source was seeked and nothing has been read from it
+      synchronous = true;
+      queue = null;
+    }
+  }
+  
+  private void stopReading() throws IOException {
+    if (producer == null)
+      return;
+    
+    stop = true;
+    try {
+      producer.get();
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause());
+    } finally {
+      producer = null;
+      queue = null;
+    }
+  }
+  
+  private void nextBatch() throws IOException {
+    KeyValueBatch batch = queue.poll();
+    if (batch == null) {
+      long t1 = System.nanoTime();
+      try {
+        batch = queue.take();
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+      readWaitTime.addAndGet(System.nanoTime() - t1);
+    }
+    
+    current = batch;
+    pos = 0;
+    
+    if (batch.error != null) {
+      if (batch.error instanceof IOException)
+        throw (IOException) batch.error;
+      if (batch.error instanceof RuntimeException)
+        throw (RuntimeException) batch.error;
+      if (batch.error instanceof Error)
+        throw (Error) batch.error;
+      throw new IOException(batch.error);
+    }
+  }
+}
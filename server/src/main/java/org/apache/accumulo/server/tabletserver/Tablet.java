@@ -39,7 +39,6 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.accumulo.core.Constants;
@@ -64,10 +63,12 @@ import org.apache.accumulo.core.data.thrift.MapFileInfo;
 import org.apache.accumulo.core.file.FileOperations;
 import org.apache.accumulo.core.file.FileSKVIterator;
 import org.apache.accumulo.core.file.FileUtil;
+import org.apache.accumulo.core.file.TimestampRange;
 import org.apache.accumulo.core.iterators.IterationInterruptedException;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.IteratorUtil;
 import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.iterators.IteratorUtil.ParsedIterators;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.system.ColumnFamilySkippingIterator;
 import org.apache.accumulo.core.iterators.system.ColumnQualifierFilter;
@@ -107,6 +108,10 @@ import org.apache.accumulo.server.tabletserver.InMemoryMap.MemoryIterator;
 import org.apache.accumulo.server.tabletserver.TabletServer.TservConstraintEnv;
 import org.apache.accumulo.server.tabletserver.TabletServerResourceManager.TabletResourceManager;
 import org.apache.accumulo.server.tabletserver.TabletStatsKeeper.Operation;
+import org.apache.accumulo.server.tabletserver.compaction.CompactionPlan;
+import org.apache.accumulo.server.tabletserver.compaction.CompactionStrategy;
+import org.apache.accumulo.server.tabletserver.compaction.MajorCompactionRequest;
+import org.apache.accumulo.server.tabletserver.compaction.WriteParameters;
 import org.apache.accumulo.server.tabletserver.log.DfsLogger;
 import org.apache.accumulo.server.tabletserver.log.MutationReceiver;
 import org.apache.accumulo.server.tabletserver.mastermessage.TabletStatusMessage;
@@ -151,7 +156,7 @@ import org.apache.zookeeper.KeeperException.NoNodeException;
 
 public class Tablet {
   
-  enum MajorCompactionReason {
+  public enum MajorCompactionReason {
     // do not change the order, the order of this enum determines the order
     // in which queued major compactions are executed
     USER,
@@ -416,7 +421,11 @@ public class Tablet {
   
   private boolean updatingFlushID = false;
   
-  private AtomicReference<ConstraintChecker> constraintChecker = new AtomicReference<ConstraintChecker>();
+  // built from the table configuration on first use, and dropped by the config observer under configLock
+  private volatile ConstraintChecker constraintChecker;
+  private volatile byte[] defaultSecurityLabel;
+  private final Object configLock = new Object();
+  private boolean configReleased = false;
   
   private String tabletDirectory;
   
@@ -437,8 +446,6 @@ public class Tablet {
   private Rate ingestByteRate = new Rate(0.2);
   private long ingestBytes = 0;
   
-  private byte[] defaultSecurityLabel = new byte[0];
-  
   private long lastMinorCompactionFinishTime;
   private long lastMapFileImportTime;
   
@@ -1366,50 +1373,10 @@ public class Tablet {
     
     this.timer = new TabletStatsKeeper();
     
-    setupDefaultSecurityLabels(extent);
-    
     tabletMemory = new TabletMemory();
     tabletTime = TabletTime.getInstance(time);
     persistedTime = tabletTime.getTime();
     
-    acuTableConf.addObserver(configObserver = new ConfigurationObserver() {
-      
-      private void reloadConstraints() {
-        constraintChecker.set(new ConstraintChecker(getTableConfiguration()));
-      }
-      
-      public void propertiesChanged() {
-        reloadConstraints();
-        
-        try {
-          setupDefaultSecurityLabels(extent);
-        } catch (Exception e) {
-          log.error("Failed to reload default security labels for extent: " + extent.toString());
-        }
-      }
-      
-      public void propertyChanged(String prop) {
-        if (prop.startsWith(Property.TABLE_CONSTRAINT_PREFIX.getKey()))
-          reloadConstraints();
-        else if (prop.equals(Property.TABLE_DEFAULT_SCANTIME_VISIBILITY.getKey())) {
-          try {
-            log.info("Default security labels changed for extent: " + extent.toString());
-            setupDefaultSecurityLabels(extent);
-          } catch (Exception e) {
-            log.error("Failed to reload default security labels for extent: " + extent.toString());
-          }
-        }
-        
-      }
-      
-      public void sessionExpired() {
-        log.debug("Session expired, no longer updating per table props...");
-      }
-      
-    });
-    // Force a load of any per-table properties
-    configObserver.propertiesChanged();
-    
     tabletResources.setTablet(this, acuTableConf);
     
     if (!logEntries.isEmpty()) {
@@ -1488,17 +1455,72 @@ public class Tablet {
     log.log(TLevel.TABLET_HIST, extent + " opened ");
   }
   
-  private void setupDefaultSecurityLabels(KeyExtent extent) {
-    if (extent.isMeta()) {
-      defaultSecurityLabel = new byte[0];
-    } else {
-      try {
-        ColumnVisibility cv = new ColumnVisibility(acuTableConf.get(Property.TABLE_DEFAULT_SCANTIME_VISIBILITY));
-        this.defaultSecurityLabel = cv.getExpression();
-      } catch (Exception e) {
-        log.error(e, e);
-        this.defaultSecurityLabel = new byte[0];
+  /**
+   * Registers the observer that drops what was built from the table configuration when it changes. This is done when something is first built rather than
+   * when the tablet loads, so tablets that are never read or written do not observe their table. Must be called while holding configLock.
+   */
+  private void observeConfiguration() {
+    if (configObserver != null || configReleased)
+      return;
+    
+    acuTableConf.addObserver(configObserver = new ConfigurationObserver() {
+      
+      public void propertiesChanged() {
+        synchronized (configLock) {
+          constraintChecker = null;
+          defaultSecurityLabel = null;
+        }
+      }
+      
+      public void propertyChanged(String prop) {
+        if (prop.startsWith(Property.TABLE_CONSTRAINT_PREFIX.getKey())) {
+          synchronized (configLock) {
+            constraintChecker = null;
+          }
+        } else if (prop.equals(Property.TABLE_DEFAULT_SCANTIME_VISIBILITY.getKey())) {
+          log.info("Default security labels changed for extent: " + extent.toString());
+          synchronized (configLock) {
+            defaultSecurityLabel = null;
+          }
+        }
+      }
+      
+      public void sessionExpired() {
+        log.debug("Session expired, no longer updating per table props...");
+      }
+      
+    });
+  }
+  
+  private void releaseConfiguration() {
+    synchronized (configLock) {
+      configReleased = true;
+      if (configObserver != null)
+        acuTableConf.removeObserver(configObserver);
+    }
+  }
+  
+  private byte[] getDefaultSecurityLabel() {
+    byte[] label = defaultSecurityLabel;
+    if (label != null)
+      return label;
+    
+    synchronized (configLock) {
+      if (defaultSecurityLabel == null) {
+        observeConfiguration();
+        if (extent.isMeta()) {
+          defaultSecurityLabel = new byte[0];
+        } else {
+          try {
+            ColumnVisibility cv = new ColumnVisibility(acuTableConf.get(Property.TABLE_DEFAULT_SCANTIME_VISIBILITY));
+            defaultSecurityLabel = cv.getExpression();
+          } catch (Exception e) {
+            log.error("Failed to load default security labels for extent: " + extent.toString(), e);
+            defaultSecurityLabel = new byte[0];
+          }
+        }
       }
+      return defaultSecurityLabel;
     }
   }
   
@@ -1696,7 +1718,7 @@ public class Tablet {
       tabletRange.clip(range);
     }
     
-    ScanDataSource dataSource = new ScanDataSource(authorizations, this.defaultSecurityLabel, columns, ssiList, ssio, interruptFlag);
+    ScanDataSource dataSource = new ScanDataSource(authorizations, getDefaultSecurityLabel(), columns, ssiList, ssio, interruptFlag);
     
     LookupResult result = null;
 
@@ -1814,7 +1836,7 @@ public class Tablet {
     // then clip will throw an exception
     extent.toDataRange().clip(range);
     
-    ScanOptions opts = new ScanOptions(num, authorizations, this.defaultSecurityLabel, columns, ssiList, ssio, interruptFlag, isolated);
+    ScanOptions opts = new ScanOptions(num, authorizations, getDefaultSecurityLabel(), columns, ssiList, ssio, interruptFlag, isolated);
     return new Scanner(range, opts);
   }
   
@@ -2057,7 +2079,9 @@ public class Tablet {
         files = reservation.getSecond();
       }
       
-      Collection<InterruptibleIterator> mapfiles = fileManager.openFiles(files, options.isolated);
+      ParsedIterators tableIters = acuTableConf.getIterators(IteratorScope.scan);
+      TimestampRange timestampRange = IteratorUtil.getTimestampRange(tableIters, options.ssiList, options.ssio);
+      Collection<InterruptibleIterator> mapfiles = fileManager.openFiles(files, options.isolated, timestampRange);
       
       List<SortedKeyValueIterator<Key,Value>> iters = new ArrayList<SortedKeyValueIterator<Key,Value>>(mapfiles.size() + memIters.size());
       
@@ -2081,8 +2105,8 @@ public class Tablet {
       
       VisibilityFilter visFilter = new VisibilityFilter(colFilter, options.authorizations, options.defaultLabels);
       
-      return iterEnv.getTopLevelIterator(IteratorUtil
-          .loadIterators(IteratorScope.scan, visFilter, extent, acuTableConf, options.ssiList, options.ssio, iterEnv));
+      return iterEnv.getTopLevelIterator(IteratorUtil.loadIterators(visFilter, tableIters, acuTableConf.get(Property.TABLE_CLASSPATH), options.ssiList,
+          options.ssio, iterEnv));
     }
     
     private void close(boolean sawErrors) {
@@ -2139,7 +2163,9 @@ public class Tablet {
         dfv = datafileManager.getDatafileSizes().get(mergeFile);
       
       MinorCompactor compactor = new MinorCompactor(conf, fs, memTable, mergeFile, dfv, tmpDatafile, acuTableConf, extent, mincReason);
+      compactor.setRateLimiter(tabletResources.getMinorCompactionRateLimiter());
       CompactionStats stats = compactor.call();
+      tabletServer.minorCompactionWrote(stats.getFileSize(), dfv == null ? 0 : dfv.getSize());
       
       span.stop();
       span = Trace.start("bringOnline");
@@ -2515,18 +2541,33 @@ public class Tablet {
     return commitSession;
   }
   
-  public void checkConstraints() {
-    ConstraintChecker cc = constraintChecker.get();
+  /**
+   * Built under the same lock the config observer takes to drop it, so a checker built from an old configuration can not be installed after a change.
+   */
+  private ConstraintChecker getConstraintChecker() {
+    ConstraintChecker cc = constraintChecker;
+    if (cc != null)
+      return cc;
     
-    if (cc.classLoaderChanged()) {
-      ConstraintChecker ncc = new ConstraintChecker(getTableConfiguration());
-      constraintChecker.compareAndSet(cc, ncc);
+    synchronized (configLock) {
+      if (constraintChecker == null) {
+        observeConfiguration();
+        constraintChecker = new ConstraintChecker(getTableConfiguration());
+      }
+      return constraintChecker;
+    }
+  }
+  
+  public void checkConstraints() {
+    synchronized (configLock) {
+      if (constraintChecker != null && constraintChecker.classLoaderChanged())
+        constraintChecker = new ConstraintChecker(getTableConfiguration());
     }
   }
 
   public CommitSession prepareMutationsForCommit(TservConstraintEnv cenv, List<Mutation> mutations) throws TConstraintViolationException {
     
-    ConstraintChecker cc = constraintChecker.get();
+    ConstraintChecker cc = getConstraintChecker();
     
     List<Mutation> violators = null;
     Violations violations = new Violations();
@@ -2777,7 +2818,7 @@ public class Tablet {
     
     log.log(TLevel.TABLET_HIST, extent + " closed");
     
-    acuTableConf.removeObserver(configObserver);
+    releaseConfiguration();
     
     closeComplete = completeClose;
   }
@@ -2846,16 +2887,19 @@ public class Tablet {
     return location;
   }
   
-  private class CompactionRunner implements Runnable, Comparable<CompactionRunner> {
+  private class CompactionRunner implements CompactionQueue.Task {
     
     long queued;
     long start;
     boolean failed = false;
     private MajorCompactionReason reason;
+    // read once, because the queue asks for it while holding its lock
+    private final double weight;
     
     public CompactionRunner(MajorCompactionReason reason) {
       queued = System.currentTimeMillis();
       this.reason = reason;
+      this.weight = acuTableConf.getFraction(Property.TABLE_MAJC_WEIGHT);
     }
     
     public void run() {
@@ -2891,30 +2935,45 @@ public class Tablet {
       }
     }
     
+    @Override
+    public KeyExtent getExtent() {
+      return extent;
+    }
+    
+    @Override
+    public MajorCompactionReason getReason() {
+      return reason;
+    }
+    
+    @Override
+    public long getQueuedTime() {
+      return queued;
+    }
+    
     // We used to synchronize on the Tablet before fetching this information, 
     // but this method is called by the compaction queue thread to re-order the compactions.
     // The compaction queue holds a lock during this sort.
     // A tablet lock can be held while putting itself on the queue, so we can't lock the tablet
     // while pulling information used to sort the tablets in the queue, or we may get deadlocked.
     // See ACCUMULO-1110.
-    private int getNumFiles() {
+    @Override
+    public int getNumFiles() {
       return datafileManager.datafileSizes.size();
     }
     
     @Override
-    public int compareTo(CompactionRunner o) {
-      int cmp = reason.compareTo(o.reason);
-      if (cmp != 0)
-        return cmp;
-      
-      if (reason == MajorCompactionReason.USER || reason == MajorCompactionReason.CHOP) {
-        // for these types of compactions want to do the oldest first
-        cmp = (int) (queued - o.queued);
-        if (cmp != 0)
-          return cmp;
-      }
-      
-      return o.getNumFiles() - this.getNumFiles();
+    public double getReadRate() {
+      return scanRate();
+    }
+    
+    @Override
+    public double getMemoryPressure() {
+      return tabletResources.getMemoryPressure();
+    }
+    
+    @Override
+    public double getWeight() {
+      return weight;
     }
   }
   
@@ -2940,16 +2999,29 @@ public class Tablet {
       return false;
     if (reason == MajorCompactionReason.CHOP || reason == MajorCompactionReason.USER)
       return true;
-    return tabletResources.needsMajorCompaction(datafileManager.getDatafileSizes(), reason);
+    try {
+      return tabletResources.needsMajorCompaction(createCompactionRequest(reason));
+    } catch (IOException e) {
+      log.warn("Failed to check if " + extent + " needs a major compaction " + e.getMessage(), e);
+      return false;
+    }
+  }
+  
+  private MajorCompactionRequest createCompactionRequest(MajorCompactionReason reason) {
+    MajorCompactionRequest request = new MajorCompactionRequest(extent, reason, fs, conf, acuTableConf);
+    request.setFiles(datafileManager.getDatafileSizes());
+    return request;
   }
   
   private class CompactionTuple {
     private Map<String,Long> filesToCompact;
     private boolean compactAll;
+    private WriteParameters writeParameters;
     
-    public CompactionTuple(Map<String,Long> filesToCompact, boolean doAll) {
+    public CompactionTuple(Map<String,Long> filesToCompact, boolean doAll, WriteParameters writeParameters) {
       this.filesToCompact = filesToCompact;
       compactAll = doAll;
+      this.writeParameters = writeParameters;
     }
     
     public Map<String,Long> getFilesToCompact() {
@@ -2959,24 +3031,47 @@ public class Tablet {
     public boolean getCompactAll() {
       return compactAll;
     }
+    
+    public WriteParameters getWriteParameters() {
+      return writeParameters;
+    }
   }
   
   /**
    * Returns list of files that need to be compacted by major compactor
    */
   
-  private CompactionTuple getFilesToCompact(MajorCompactionReason reason, Map<String,Pair<Key,Key>> falks) {
+  private CompactionTuple getFilesToCompact(MajorCompactionReason reason, Map<String,Pair<Key,Key>> falks, CompactionStrategy strategy,
+      MajorCompactionRequest request) throws IOException {
     SortedMap<String,DataFileValue> files = datafileManager.getDatafileSizes();
     
     Map<String,Long> toCompact;
+    WriteParameters writeParameters = null;
     if (reason == MajorCompactionReason.CHOP) {
       toCompact = findChopFiles(files, falks);
+    } else if (reason == MajorCompactionReason.USER) {
+      toCompact = new HashMap<String,Long>();
+      for (Entry<String,DataFileValue> entry : files.entrySet())
+        toCompact.put(entry.getKey(), entry.getValue().getSize());
     } else {
-      toCompact = tabletResources.findMapFilesToCompact(files, reason);
+      // files may have changed since the strategy gathered information
+      request.setFiles(files);
+      CompactionPlan plan = strategy.getCompactionPlan(request);
+      if (plan == null)
+        return null;
+      
+      toCompact = new HashMap<String,Long>();
+      for (String file : plan.inputFiles) {
+        DataFileValue dfv = files.get(file);
+        if (dfv == null)
+          throw new IllegalStateException("Compaction strategy " + strategy.getClass().getName() + " selected " + file + " which is not a file of " + extent);
+        toCompact.put(file, dfv.getSize());
+      }
+      writeParameters = plan.writeParameters;
     }
-    if (toCompact == null)
+    if (toCompact.size() == 0)
       return null;
-    return new CompactionTuple(toCompact, toCompact.size() == files.size());
+    return new CompactionTuple(toCompact, toCompact.size() == files.size(), writeParameters);
   }
   
   private Map<String,Pair<Key,Key>> getFirstAndLastKeys(SortedMap<String,DataFileValue> files) throws IOException {
@@ -3178,7 +3273,17 @@ public class Tablet {
     if (reason == MajorCompactionReason.CHOP)
       falks = getFirstAndLastKeys(datafileManager.getDatafileSizes());
     
+    // let the compaction strategy do any expensive work outside of the tablet lock
+    CompactionStrategy strategy = null;
+    MajorCompactionRequest request = null;
+    if (reason == MajorCompactionReason.NORMAL || reason == MajorCompactionReason.IDLE) {
+      strategy = tabletResources.getCompactionStrategy();
+      request = createCompactionRequest(reason);
+      strategy.gatherInformation(request);
+    }
+    
     Map<String,Long> filesToCompact;
+    WriteParameters writeParameters;
     
     int maxFilesToCompact = acuTableConf.getCount(Property.TSERV_MAJC_THREAD_MAXOPEN);
     
@@ -3210,12 +3315,13 @@ public class Tablet {
       // getFilesToCompact() and cleanUpFiles() both
       // do dir listings, which means two calls to the namenode
       // we should refactor so that there is only one call
-      CompactionTuple ret = getFilesToCompact(reason, falks);
+      CompactionTuple ret = getFilesToCompact(reason, falks, strategy, request);
       if (ret == null) {
         // nothing to compact
         return majCStats;
       }
       filesToCompact = ret.getFilesToCompact();
+      writeParameters = ret.getWriteParameters();
       
       if (!ret.getCompactAll()) {
         // since not all files are being compacted, we want to propagate delete entries
@@ -3299,13 +3405,17 @@ public class Tablet {
           copy.keySet().retainAll(smallestFiles);
           
           log.debug("Starting MajC " + extent + " (" + reason + ") " + datafileManager.abs2rel(datafileManager.string2path(copy.keySet())) + " --> "
-              + datafileManager.abs2rel(new Path(compactTmpName)) + "  " + compactionIterators);
+              + datafileManager.abs2rel(new Path(compactTmpName)) + "  " + compactionIterators + (writeParameters == null ? "" : " " + writeParameters));
 
           // always propagate deletes, unless last batch
           Compactor compactor = new Compactor(conf, fs, copy, null, compactTmpName, filesToCompact.size() == 0 ? propogateDeletes : true, acuTableConf, extent,
               cenv, compactionIterators, reason);
+          if (writeParameters != null)
+            compactor.setOutputConfiguration(writeParameters.apply(acuTableConf));
+          compactor.setRateLimiter(tabletResources.getMajorCompactionRateLimiter());
           
           CompactionStats mcs = compactor.call();
+          tabletServer.majorCompactionWrote(mcs.getFileSize());
           
           span.data("files", "" + smallestFiles.size());
           span.data("read", "" + mcs.getEntriesRead());
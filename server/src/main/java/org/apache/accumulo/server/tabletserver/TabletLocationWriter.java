@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.accumulo.server.master.state.Assignment;
+import org.apache.accumulo.server.master.state.DistributedStoreException;
+import org.apache.accumulo.server.master.state.MetaDataStateStore;
+import org.apache.accumulo.server.master.state.TabletLocationState;
+import org.apache.accumulo.server.master.state.TabletStateStore;
+
+/**
+ * Records the locations of tablets a tablet server loads and unloads. Updates for user tablets that arrive while another batch is being written are grouped
+ * into the next batch, so concurrent assignments and unloads share metadata writes. Metadata tablets are written on their own, because their locations are
+ * stored in tablets that a batch of user tablet updates could be waiting on.
+ */
+class TabletLocationWriter {
+  
+  /**
+   * Writes items in batches, where each caller returns once the batch holding its item is written. The first caller to find no batch being written writes
+   * everything queued so far.
+   */
+  static abstract class GroupCommit<T> {
+    
+    private static class Batch<T> {
+      final List<T> items = new ArrayList<T>();
+      boolean done = false;
+      DistributedStoreException error = null;
+    }
+    
+    private Batch<T> current = new Batch<T>();
+    private boolean writing = false;
+    
+    protected abstract void write(Collection<T> items) throws DistributedStoreException;
+    
+    void add(T item) throws DistributedStoreException {
+      Batch<T> batch;
+      boolean interrupted = false;
+      
+      synchronized (this) {
+        batch = current;
+        batch.items.add(item);
+        
+        while (writing && !batch.done) {
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+        
+        if (!batch.done) {
+          // this thread writes the batch, and later callers start a new one
+          writing = true;
+          current = new Batch<T>();
+        }
+      }
+      
+      if (interrupted)
+        Thread.currentThread().interrupt();
+      
+      if (!batch.done) {
+        DistributedStoreException error = null;
+        try {
+          write(batch.items);
+        } catch (DistributedStoreException e) {
+          error = e;
+        } catch (RuntimeException e) {
+          error = new DistributedStoreException(e);
+        } finally {
+          synchronized (this) {
+            batch.error = error;
+            batch.done = true;
+            writing = false;
+            notifyAll();
+          }
+        }
+      }
+      
+      if (batch.error != null)
+        throw batch.error;
+    }
+  }
+  
+  private final GroupCommit<Assignment> locations = new GroupCommit<Assignment>() {
+    @Override
+    protected void write(Collection<Assignment> assignments) throws DistributedStoreException {
+      new MetaDataStateStore().setLocations(assignments);
+    }
+  };
+  
+  private final GroupCommit<TabletLocationState> unassignments = new GroupCommit<TabletLocationState>() {
+    @Override
+    protected void write(Collection<TabletLocationState> tablets) throws DistributedStoreException {
+      new MetaDataStateStore().unassign(tablets);
+    }
+  };
+  
+  void setLocation(Assignment assignment) throws DistributedStoreException {
+    if (assignment.tablet.isMeta())
+      TabletStateStore.setLocation(assignment);
+    else
+      locations.add(assignment);
+  }
+  
+  void unassign(TabletLocationState tls) throws DistributedStoreException {
+    if (tls.extent.isMeta())
+      TabletStateStore.unassign(tls);
+    else
+      unassignments.add(tls);
+  }
+}
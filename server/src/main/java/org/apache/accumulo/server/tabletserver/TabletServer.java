@@ -60,6 +60,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.management.ObjectName;
 import javax.management.StandardMBean;
@@ -112,8 +113,10 @@ import org.apache.accumulo.core.tabletserver.thrift.ActiveScan;
 import org.apache.accumulo.core.tabletserver.thrift.ConstraintViolationException;
 import org.apache.accumulo.core.tabletserver.thrift.NoSuchScanIDException;
 import org.apache.accumulo.core.tabletserver.thrift.NotServingTabletException;
+import org.apache.accumulo.core.tabletserver.thrift.QueuedCompaction;
 import org.apache.accumulo.core.tabletserver.thrift.ScanState;
 import org.apache.accumulo.core.tabletserver.thrift.ScanType;
+import org.apache.accumulo.core.tabletserver.thrift.TDurability;
 import org.apache.accumulo.core.tabletserver.thrift.TabletClientService;
 import org.apache.accumulo.core.tabletserver.thrift.TabletClientService.Iface;
 import org.apache.accumulo.core.tabletserver.thrift.TabletClientService.Processor;
@@ -150,7 +153,6 @@ import org.apache.accumulo.server.master.state.DistributedStoreException;
 import org.apache.accumulo.server.master.state.TServerInstance;
 import org.apache.accumulo.server.master.state.TabletLocationState;
 import org.apache.accumulo.server.master.state.TabletLocationState.BadLocationStateException;
-import org.apache.accumulo.server.master.state.TabletStateStore;
 import org.apache.accumulo.server.master.state.ZooTabletStateStore;
 import org.apache.accumulo.server.metrics.AbstractMetricsImpl;
 import org.apache.accumulo.server.problems.ProblemReport;
@@ -172,6 +174,7 @@ import org.apache.accumulo.server.tabletserver.Tablet.TabletClosedException;
 import org.apache.accumulo.server.tabletserver.TabletServerResourceManager.TabletResourceManager;
 import org.apache.accumulo.server.tabletserver.TabletStatsKeeper.Operation;
 import org.apache.accumulo.server.tabletserver.log.DfsLogger;
+import org.apache.accumulo.server.tabletserver.log.Durability;
 import org.apache.accumulo.server.tabletserver.log.LogSorter;
 import org.apache.accumulo.server.tabletserver.log.MutationReceiver;
 import org.apache.accumulo.server.tabletserver.log.TabletServerLogger;
@@ -591,6 +594,15 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
       this.credentials = credentials;
     }
     
+    /**
+     * Creates an environment for the same user that can check another tablet concurrently with this one.
+     */
+    TservConstraintEnv(TservConstraintEnv other) {
+      this.security = other.security;
+      this.credentials = other.credentials;
+      this.auths = other.auths;
+    }
+    
     void setExtent(KeyExtent ke) {
       this.ke = ke;
     }
@@ -618,6 +630,37 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
     
   }
   
+  /**
+   * Checks constraints on the mutations queued for one tablet and prepares the tablet to commit them.
+   */
+  private static class PrepareCommitTask extends CommitPreparation.Task<Tablet,CommitSession> {
+    
+    private final TservConstraintEnv cenv;
+    
+    PrepareCommitTask(Tablet tablet, List<Mutation> mutations, TservConstraintEnv cenv) {
+      super(tablet, mutations);
+      this.cenv = cenv;
+    }
+    
+    @Override
+    void prepare() {
+      try {
+        CommitSession commitSession = tablet.prepareMutationsForCommit(cenv, mutations);
+        if (commitSession != null)
+          prepared(commitSession);
+      } catch (TConstraintViolationException e) {
+        violated(e.getViolations(), e.getNonViolators(), e.getCommitSession());
+      }
+    }
+  }
+  
+  private static class TabletCommitPreparation extends CommitPreparation<Tablet,CommitSession> {
+    @Override
+    void abort(CommitSession commitSession, List<Mutation> mutations) {
+      commitSession.abortCommit(mutations);
+    }
+  }
+  
   private abstract class ScanTask<T> implements RunnableFuture<T> {
     
     protected AtomicBoolean interruptFlag;
@@ -720,9 +763,11 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
     public Tablet currentTablet;
     public MapCounter<Tablet> successfulCommits = new MapCounter<Tablet>();
     Map<KeyExtent,Long> failures = new HashMap<KeyExtent,Long>();
+    Map<KeyExtent,Long> held = new HashMap<KeyExtent,Long>();
     HashMap<KeyExtent,SecurityErrorCode> authFailures = new HashMap<KeyExtent,SecurityErrorCode>();
     public Violations violations;
     public TCredentials credentials;
+    public Durability durability;
     public long totalUpdates = 0;
     public long flushTime = 0;
     Stat prepareTimes = new Stat();
@@ -876,6 +921,7 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
       } catch (Exception e) {
         log.error("Exception registering MBean with MBean Server", e);
       }
+      resourceManager.setScanMetrics(scanMetrics);
     }
     
     @Override
@@ -1372,7 +1418,7 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
     }
     
     @Override
-    public long startUpdate(TInfo tinfo, TCredentials credentials) throws ThriftSecurityException {
+    public long startUpdate(TInfo tinfo, TCredentials credentials, TDurability tdurability) throws ThriftSecurityException {
       // Make sure user is real
       
       security.authenticateUser(credentials, credentials);
@@ -1382,6 +1428,7 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
       UpdateSession us = new UpdateSession();
       us.violations = new Violations();
       us.credentials = credentials;
+      us.durability = Durability.fromThrift(tdurability);
       us.cenv = new TservConstraintEnv(security, us.credentials);
       
       long sid = sessionManager.createSession(us, false);
@@ -1393,6 +1440,11 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
       long t1 = System.currentTimeMillis();
       if (us.currentTablet != null && us.currentTablet.getExtent().equals(keyExtent))
         return;
+      if (us.held.containsKey(keyExtent)) {
+        // writing later mutations for a tablet whose earlier ones were held would reorder them when the client resends
+        us.currentTablet = null;
+        return;
+      }
       if (us.currentTablet == null && (us.failures.containsKey(keyExtent) || us.authFailures.containsKey(keyExtent))) {
         // if there were previous failures, then do not accept additional writes
         return;
@@ -1463,11 +1515,56 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
       }
     }
     
-    private void flush(UpdateSession us) {
+    /**
+     * Applies the per table ingest limits, waiting until each table's mutations may be written. The mutations of tables that are held past the deadline are
+     * removed from the session's queue and reported back to the client as held.
+     */
+    private void waitForIngest(UpdateSession us) {
+      Map<String,Long> tableBytes = new HashMap<String,Long>();
+      for (Entry<Tablet,? extends List<Mutation>> entry : us.queuedMutations.entrySet()) {
+        String tableId = entry.getKey().getExtent().getTableId().toString();
+        long bytes = tableBytes.containsKey(tableId) ? tableBytes.get(tableId) : 0;
+        for (Mutation mutation : entry.getValue())
+          bytes += mutation.numBytes();
+        tableBytes.put(tableId, bytes);
+      }
       
-      int mutationCount = 0;
-      Map<CommitSession,List<Mutation>> sendables = new HashMap<CommitSession,List<Mutation>>();
-      Throwable error = null;
+      long deadline = resourceManager.getIngestDeadline();
+      Set<String> heldTables = new HashSet<String>();
+      for (Entry<String,Long> entry : tableBytes.entrySet())
+        if (entry.getValue() > 0 && !resourceManager.waitForIngest(entry.getKey(), entry.getValue(), deadline))
+          heldTables.add(entry.getKey());
+      
+      if (heldTables.isEmpty())
+        return;
+      
+      log.debug("Holding back mutations for tables " + heldTables + " due to their ingest limits");
+      Iterator<Tablet> iter = us.queuedMutations.keySet().iterator();
+      while (iter.hasNext()) {
+        Tablet tablet = iter.next();
+        if (heldTables.contains(tablet.getExtent().getTableId().toString())) {
+          iter.remove();
+          if (us.currentTablet == tablet)
+            us.currentTablet = null;
+          us.held.put(tablet.getExtent(), us.successfulCommits.get(tablet));
+        }
+      }
+    }
+    
+    /**
+     * Runs the per tablet work of a flush. Batches containing metadata tablets are applied on the calling thread, so they never wait behind user updates for
+     * a commit thread.
+     */
+    private void executeCommitWork(boolean containsMetadataTablet, List<? extends Runnable> tasks) {
+      if (containsMetadataTablet) {
+        for (Runnable task : tasks)
+          task.run();
+      } else {
+        resourceManager.executeCommitWork(tasks);
+      }
+    }
+    
+    private void flush(UpdateSession us) {
       
       long pt1 = System.currentTimeMillis();
       
@@ -1476,57 +1573,51 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
         if (tablet.getExtent().isMeta())
           containsMetadataTablet = true;
       
-      if (!containsMetadataTablet && us.queuedMutations.size() > 0)
+      if (!containsMetadataTablet && us.queuedMutations.size() > 0) {
         TabletServer.this.resourceManager.waitUntilCommitsAreEnabled();
+        waitForIngest(us);
+      }
       
       Span prep = Trace.start("prep");
+      List<PrepareCommitTask> prepareTasks = new ArrayList<PrepareCommitTask>(us.queuedMutations.size());
       for (Entry<Tablet,? extends List<Mutation>> entry : us.queuedMutations.entrySet()) {
-        
-        Tablet tablet = entry.getKey();
-        List<Mutation> mutations = entry.getValue();
-        if (mutations.size() > 0) {
-          try {
-            if (updateMetrics.isEnabled())
-              updateMetrics.add(TabletServerUpdateMetrics.mutationArraySize, mutations.size());
-            
-            CommitSession commitSession = tablet.prepareMutationsForCommit(us.cenv, mutations);
-            if (commitSession == null) {
-              if (us.currentTablet == tablet) {
-                us.currentTablet = null;
-              }
-              us.failures.put(tablet.getExtent(), us.successfulCommits.get(tablet));
-            } else {
-              sendables.put(commitSession, mutations);
-              mutationCount += mutations.size();
-            }
-            
-          } catch (TConstraintViolationException e) {
-            us.violations.add(e.getViolations());
-            if (updateMetrics.isEnabled())
-              updateMetrics.add(TabletServerUpdateMetrics.constraintViolations, 0);
-            
-            if (e.getNonViolators().size() > 0) {
-              // only log and commit mutations if there were some
-              // that did not
-              // violate constraints... this is what
-              // prepareMutationsForCommit()
-              // expects
-              sendables.put(e.getCommitSession(), e.getNonViolators());
-            }
-            
-            mutationCount += mutations.size();
-            
-          } catch (HoldTimeoutException t) {
-            error = t;
-            log.debug("Giving up on mutations due to a long memory hold time");
-            break;
-          } catch (Throwable t) {
-            error = t;
-            log.error("Unexpected error preparing for commit", error);
-            break;
-          }
+        if (entry.getValue().size() > 0) {
+          // each task checks constraints on its own thread, so each needs its own environment
+          TservConstraintEnv cenv = prepareTasks.isEmpty() ? us.cenv : new TservConstraintEnv(us.cenv);
+          prepareTasks.add(new PrepareCommitTask(entry.getKey(), entry.getValue(), cenv));
+        }
+      }
+      executeCommitWork(containsMetadataTablet, prepareTasks);
+      
+      // every tablet was prepared concurrently, so an error on one does not stop the others and their commits are aborted below
+      TabletCommitPreparation preparation = new TabletCommitPreparation();
+      preparation.gather(prepareTasks);
+      
+      if (updateMetrics.isEnabled()) {
+        for (PrepareCommitTask task : prepareTasks) {
+          if (task.getError() != null)
+            continue;
+          updateMetrics.add(TabletServerUpdateMetrics.mutationArraySize, task.mutations.size());
+          if (task.isViolated())
+            updateMetrics.add(TabletServerUpdateMetrics.constraintViolations, 0);
         }
       }
+      
+      us.violations.add(preparation.violations);
+      for (Tablet tablet : preparation.closed) {
+        if (us.currentTablet == tablet) {
+          us.currentTablet = null;
+        }
+        us.failures.put(tablet.getExtent(), us.successfulCommits.get(tablet));
+      }
+      Map<CommitSession,List<Mutation>> sendables = preparation.sendables;
+      int mutationCount = preparation.mutationCount;
+      
+      Throwable error = preparation.error;
+      if (error instanceof HoldTimeoutException)
+        log.debug("Giving up on mutations due to a long memory hold time");
+      else if (error != null)
+        log.error("Unexpected error preparing for commit", error);
       prep.stop();
       
       Span wal = Trace.start("wal");
@@ -1536,18 +1627,13 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
       if (updateMetrics.isEnabled())
         updateMetrics.add(TabletServerUpdateMetrics.commitPrep, (avgPrepareTime));
       
-      if (error != null) {
-        for (Entry<CommitSession,List<Mutation>> e : sendables.entrySet()) {
-          e.getKey().abortCommit(e.getValue());
-        }
-        throw new RuntimeException(error);
-      }
+      preparation.abortIfFailed();
       try {
         while (true) {
           try {
             long t1 = System.currentTimeMillis();
             
-            logger.logManyTablets(sendables);
+            logger.logManyTablets(sendables, us.durability);
             
             long t2 = System.currentTimeMillis();
             us.walogTimes.addStat(t2 - t1);
@@ -1567,12 +1653,18 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
         
         Span commit = Trace.start("commit");
         long t1 = System.currentTimeMillis();
-        for (Entry<CommitSession,? extends List<Mutation>> entry : sendables.entrySet()) {
-          CommitSession commitSession = entry.getKey();
-          List<Mutation> mutations = entry.getValue();
-          
-          commitSession.commit(mutations);
-          
+        List<Runnable> commitTasks = new ArrayList<Runnable>(sendables.size());
+        for (final Entry<CommitSession,? extends List<Mutation>> entry : sendables.entrySet()) {
+          commitTasks.add(new Runnable() {
+            @Override
+            public void run() {
+              entry.getKey().commit(entry.getValue());
+            }
+          });
+        }
+        executeCommitWork(containsMetadataTablet, commitTasks);
+        
+        for (CommitSession commitSession : sendables.keySet()) {
           Tablet tablet = commitSession.getTablet();
           
           if (tablet == us.currentTablet) {
@@ -1630,6 +1722,10 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
         Entry<KeyExtent,Long> first = us.failures.entrySet().iterator().next();
         log.debug(String.format("Failures: %d, first extent %s successful commits: %d", us.failures.size(), first.getKey().toString(), first.getValue()));
       }
+      if (us.held.size() > 0) {
+        Entry<KeyExtent,Long> first = us.held.entrySet().iterator().next();
+        log.debug(String.format("Held: %d, first extent %s successful commits: %d", us.held.size(), first.getKey().toString(), first.getValue()));
+      }
       List<ConstraintViolationSummary> violations = us.violations.asList();
       if (violations.size() > 0) {
         ConstraintViolationSummary first = us.violations.asList().iterator().next();
@@ -1640,12 +1736,15 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
         log.debug(String.format("Authentication Failures: %d, first %s", us.authFailures.size(), first.toString()));
       }
       
-      return new UpdateErrors(Translator.translate(us.failures, Translator.KET), Translator.translate(violations, Translator.CVST), Translator.translate(
-          us.authFailures, Translator.KET));
+      UpdateErrors errors = new UpdateErrors(Translator.translate(us.failures, Translator.KET), Translator.translate(violations, Translator.CVST),
+          Translator.translate(us.authFailures, Translator.KET));
+      if (us.held.size() > 0)
+        errors.setHeldExtents(Translator.translate(us.held, Translator.KET));
+      return errors;
     }
     
     @Override
-    public void update(TInfo tinfo, TCredentials credentials, TKeyExtent tkeyExtent, TMutation tmutation) throws NotServingTabletException,
+    public void update(TInfo tinfo, TCredentials credentials, TKeyExtent tkeyExtent, TMutation tmutation, TDurability tdurability) throws NotServingTabletException,
         ConstraintViolationException, ThriftSecurityException {
       
       if (!security.canWrite(credentials, new String(tkeyExtent.getTable())))
@@ -1656,13 +1755,18 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
         throw new NotServingTabletException(tkeyExtent);
       }
       
-      if (!keyExtent.isMeta())
+      Mutation mutation = new ServerMutation(tmutation);
+      
+      if (!keyExtent.isMeta()) {
         TabletServer.this.resourceManager.waitUntilCommitsAreEnabled();
+        String tableId = keyExtent.getTableId().toString();
+        if (!resourceManager.waitForIngest(tableId, mutation.numBytes(), resourceManager.getIngestDeadline()))
+          throw new HoldTimeoutException("Commits are held for table " + tableId);
+      }
       
       long opid = writeTracker.startWrite(TabletType.type(keyExtent));
       
       try {
-        Mutation mutation = new ServerMutation(tmutation);
         List<Mutation> mutations = Collections.singletonList(mutation);
         
         Span prep = Trace.start("prep");
@@ -1675,7 +1779,7 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
         while (true) {
           try {
             Span wal = Trace.start("wal");
-            logger.log(cs, cs.getWALogSeq(), mutation);
+            logger.log(cs, cs.getWALogSeq(), mutation, Durability.fromThrift(tdurability));
             wal.stop();
             break;
           } catch (IOException ex) {
@@ -2128,6 +2232,27 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
       
       return ret;
     }
+    
+    @Override
+    public List<QueuedCompaction> getQueuedCompactions(TInfo tinfo, TCredentials credentials) throws ThriftSecurityException, TException {
+      try {
+        checkPermission(credentials, null, true, "getQueuedCompactions");
+      } catch (ThriftSecurityException e) {
+        log.error(e, e);
+        throw new RuntimeException(e);
+      }
+      
+      long now = System.currentTimeMillis();
+      List<CompactionQueue.Task> queued = resourceManager.getQueuedMajorCompactions();
+      List<QueuedCompaction> ret = new ArrayList<QueuedCompaction>(queued.size());
+      
+      for (CompactionQueue.Task task : queued) {
+        ret.add(new QueuedCompaction(task.getExtent().toThrift(), now - task.getQueuedTime(), Compactor.toThrift(task.getReason()), task.getNumFiles(),
+            task.getReadRate(), task.getMemoryPressure(), task.getWeight(), CompactionQueue.priority(task)));
+      }
+      
+      return ret;
+    }
   }
   
   private class SplitRunner implements Runnable {
@@ -2376,7 +2501,7 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
           log.error("Unexpected error ", e);
         }
         log.debug("Unassigning " + tls);
-        TabletStateStore.unassign(tls);
+        locationWriter.unassign(tls);
       } catch (DistributedStoreException ex) {
         log.warn("Unable to update storage", ex);
       } catch (KeeperException e) {
@@ -2486,25 +2611,41 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
       try {
         TabletResourceManager trm = resourceManager.createTabletResourceManager();
         
-        // this opens the tablet file and fills in the endKey in the
-        // extent
-        tablet = new Tablet(TabletServer.this, locationToOpen, extent, trm, tabletsKeyValues);
-        /*
-         * If a minor compaction starts after a tablet opens, this indicates a log recovery occurred. This recovered data must be minor compacted.
-         * 
-         * There are three reasons to wait for this minor compaction to finish before placing the tablet in online tablets.
-         * 
-         * 1) The log recovery code does not handle data written to the tablet on multiple tablet servers. 2) The log recovery code does not block if memory is
-         * full. Therefore recovering lots of tablets that use a lot of memory could run out of memory. 3) The minor compaction finish event did not make it to
-         * the logs (the file will be in !METADATA, preventing replay of compacted data)... but do not want a majc to wipe the file out from !METADATA and then
-         * have another process failure... this could cause duplicate data to replay
-         */
-        if (tablet.getNumEntriesInMemory() > 0 && !tablet.minorCompactNow(MinorCompactionReason.SYSTEM)) {
-          throw new RuntimeException("Minor compaction after recovery fails for " + extent);
+        // tablets load concurrently, but log recoveries do not block when memory is full, so only one recovers and flushes the recovered data at a time
+        boolean recovering = false;
+        for (Key key : tabletsKeyValues.keySet()) {
+          if (key.getColumnFamily().equals(Constants.METADATA_LOG_COLUMN_FAMILY)) {
+            recovering = true;
+            break;
+          }
+        }
+        if (recovering)
+          recoveryLock.lock();
+        
+        try {
+          // this opens the tablet file and fills in the endKey in the
+          // extent
+          tablet = new Tablet(TabletServer.this, locationToOpen, extent, trm, tabletsKeyValues);
+          /*
+           * If a minor compaction starts after a tablet opens, this indicates a log recovery occurred. This recovered data must be minor compacted.
+           * 
+           * There are three reasons to wait for this minor compaction to finish before placing the tablet in online tablets.
+           * 
+           * 1) The log recovery code does not handle data written to the tablet on multiple tablet servers. 2) The log recovery code does not block if memory
+           * is full. Therefore recovering lots of tablets that use a lot of memory could run out of memory. 3) The minor compaction finish event did not make
+           * it to the logs (the file will be in !METADATA, preventing replay of compacted data)... but do not want a majc to wipe the file out from !METADATA
+           * and then have another process failure... this could cause duplicate data to replay
+           */
+          if (tablet.getNumEntriesInMemory() > 0 && !tablet.minorCompactNow(MinorCompactionReason.SYSTEM)) {
+            throw new RuntimeException("Minor compaction after recovery fails for " + extent);
+          }
+        } finally {
+          if (recovering)
+            recoveryLock.unlock();
         }
         
         Assignment assignment = new Assignment(extent, getTabletSession());
-        TabletStateStore.setLocation(assignment);
+        locationWriter.setLocation(assignment);
         
         synchronized (openingTablets) {
           synchronized (onlineTablets) {
@@ -2564,6 +2705,8 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
   private final SortedMap<KeyExtent,Tablet> onlineTablets = Collections.synchronizedSortedMap(new TreeMap<KeyExtent,Tablet>());
   private final SortedSet<KeyExtent> unopenedTablets = Collections.synchronizedSortedSet(new TreeSet<KeyExtent>());
   private final SortedSet<KeyExtent> openingTablets = Collections.synchronizedSortedSet(new TreeSet<KeyExtent>());
+  private final ReentrantLock recoveryLock = new ReentrantLock(true);
+  private final TabletLocationWriter locationWriter = new TabletLocationWriter();
   @SuppressWarnings("unchecked")
   private final Map<KeyExtent,Long> recentlyUnloadedCache = Collections.synchronizedMap(new LRUMap(1000));
   
@@ -3025,7 +3168,8 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
     log.info("Tablet server starting on " + hostname);
     security = AuditedSecurityOperation.getInstance();
     clientAddress = new InetSocketAddress(hostname, 0);
-    logger = new TabletServerLogger(this, getSystemConfiguration().getMemoryInBytes(Property.TSERV_WALOG_MAX_SIZE));
+    logger = new TabletServerLogger(this, getSystemConfiguration().getMemoryInBytes(Property.TSERV_WALOG_MAX_SIZE), getSystemConfiguration().getCount(
+        Property.TSERV_WALOG_CONCURRENT));
     
     if (getSystemConfiguration().getBoolean(Property.TSERV_LOCK_MEMORY)) {
       String path = "lib/native/mlock/" + System.mapLibraryName("MLock-" + Platform.getPlatform());
@@ -3321,6 +3465,24 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
     }
   }
   
+  // bytes written by compactions, used to compute write amplification
+  private final AtomicLong flushedBytes = new AtomicLong(0);
+  private final AtomicLong minorCompactionBytesWritten = new AtomicLong(0);
+  private final AtomicLong majorCompactionBytesWritten = new AtomicLong(0);
+  
+  /**
+   * @param mergedBytes
+   *          the size of the file that was merged into the output, which was already counted when it was written
+   */
+  void minorCompactionWrote(long bytesWritten, long mergedBytes) {
+    minorCompactionBytesWritten.addAndGet(bytesWritten);
+    flushedBytes.addAndGet(Math.max(0, bytesWritten - mergedBytes));
+  }
+  
+  void majorCompactionWrote(long bytesWritten) {
+    majorCompactionBytesWritten.addAndGet(bytesWritten);
+  }
+  
   public void minorCompactionFinished(CommitSession tablet, String newDatafile, int walogSeq) throws IOException {
     totalMinorCompactions++;
     logger.minorCompactionFinished(tablet, newDatafile, walogSeq);
@@ -3336,7 +3498,10 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
     Collections.sort(sorted, new Comparator<LogEntry>() {
       @Override
       public int compare(LogEntry e1, LogEntry e2) {
-        return (int) (e1.timestamp - e2.timestamp);
+        // the difference between timestamps may not fit in an int
+        if (e1.timestamp == e2.timestamp)
+          return 0;
+        return e1.timestamp < e2.timestamp ? -1 : 1;
       }
     });
     for (LogEntry entry : sorted) {
@@ -3432,6 +3597,21 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
     return 0;
   }
   
+  @Override
+  public String[] getMajorCompactionQueue() {
+    if (this.isEnabled()) {
+      List<CompactionQueue.Task> queued = resourceManager.getQueuedMajorCompactions();
+      String[] result = new String[queued.size()];
+      for (int i = 0; i < result.length; i++) {
+        CompactionQueue.Task task = queued.get(i);
+        result[i] = String.format("%s %s files=%d readRate=%.1f memory=%.2f priority=%.1f", task.getExtent(), task.getReason(), task.getNumFiles(),
+            task.getReadRate(), task.getMemoryPressure(), CompactionQueue.priority(task));
+      }
+      return result;
+    }
+    return new String[0];
+  }
+  
   @Override
   public int getMinorCompactions() {
     if (this.isEnabled()) {
@@ -3505,6 +3685,52 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
     return 0;
   }
   
+  @Override
+  public long getMinorCompactionBytesWritten() {
+    if (this.isEnabled())
+      return minorCompactionBytesWritten.get();
+    return 0;
+  }
+  
+  @Override
+  public long getMajorCompactionBytesWritten() {
+    if (this.isEnabled())
+      return majorCompactionBytesWritten.get();
+    return 0;
+  }
+  
+  @Override
+  public double getWriteAmplification() {
+    if (this.isEnabled()) {
+      long flushed = flushedBytes.get();
+      if (flushed == 0)
+        return 0;
+      return (minorCompactionBytesWritten.get() + majorCompactionBytesWritten.get()) / (double) flushed;
+    }
+    return 0;
+  }
+  
+  @Override
+  public double getMinorCompactionThroughput() {
+    if (this.isEnabled())
+      return resourceManager.getMinorCompactionRateLimiter().getObservedRate();
+    return 0;
+  }
+  
+  @Override
+  public double getMajorCompactionThroughput() {
+    if (this.isEnabled())
+      return resourceManager.getMajorCompactionRateLimiter().getObservedRate();
+    return 0;
+  }
+  
+  @Override
+  public long getMajorCompactionThroughputLimit() {
+    if (this.isEnabled())
+      return resourceManager.getMajorCompactionRateLimiter().getRate();
+    return 0;
+  }
+  
   @Override
   public double getHoldTime() {
     if (this.isEnabled())
@@ -3512,6 +3738,13 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
     return 0;
   }
   
+  @Override
+  public double getAvoidedHoldTime() {
+    if (this.isEnabled())
+      return this.resourceManager.avoidedHoldTime() / 1000.;
+    return 0;
+  }
+  
   @Override
   public double getAverageFilesPerTablet() {
     if (this.isEnabled()) {
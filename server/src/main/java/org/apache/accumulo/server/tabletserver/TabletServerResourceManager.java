@@ -19,38 +19,45 @@ package org.apache.accumulo.server.tabletserver;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.SortedMap;
 import java.util.TreeMap;
-import java.util.TreeSet;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.accumulo.trace.instrument.TraceExecutorService;
 import org.apache.accumulo.core.Constants;
 import org.apache.accumulo.core.client.Instance;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationObserver;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.KeyExtent;
 import org.apache.accumulo.core.file.blockfile.cache.LruBlockCache;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
 import org.apache.accumulo.core.util.Daemon;
 import org.apache.accumulo.core.util.LoggingRunnable;
-import org.apache.accumulo.core.util.MetadataTable.DataFileValue;
 import org.apache.accumulo.core.util.NamingThreadFactory;
 import org.apache.accumulo.core.util.UtilWaitThread;
 import org.apache.accumulo.server.conf.ServerConfiguration;
+import org.apache.accumulo.server.conf.TableConfiguration;
 import org.apache.accumulo.server.tabletserver.FileManager.ScanFileManager;
 import org.apache.accumulo.server.tabletserver.Tablet.MajorCompactionReason;
 import org.apache.accumulo.server.tabletserver.Tablet.MinorCompactionReason;
+import org.apache.accumulo.server.tabletserver.compaction.CompactionStrategy;
+import org.apache.accumulo.server.tabletserver.compaction.DefaultCompactionStrategy;
+import org.apache.accumulo.server.tabletserver.compaction.MajorCompactionRequest;
+import org.apache.accumulo.server.tabletserver.metrics.TabletServerScanMetrics;
 import org.apache.accumulo.server.util.time.SimpleTimer;
 import org.apache.accumulo.start.classloader.vfs.AccumuloVFSClassLoader;
 import org.apache.hadoop.fs.FileSystem;
@@ -66,6 +73,7 @@ public class TabletServerResourceManager {
   
   private ExecutorService minorCompactionThreadPool;
   private ExecutorService majorCompactionThreadPool;
+  private CompactionQueue majorCompactionQueue;
   private ExecutorService rootMajorCompactionThreadPool;
   private ExecutorService defaultMajorCompactionThreadPool;
   private ExecutorService splitThreadPool;
@@ -76,6 +84,10 @@ public class TabletServerResourceManager {
   private ExecutorService assignMetaDataPool;
   private ExecutorService readAheadThreadPool;
   private ExecutorService defaultReadAheadThreadPool;
+  private ExecutorService commitThreadPool;
+  private final AtomicInteger activeReadAheads = new AtomicInteger(0);
+  private final RateLimiter majorCompactionRateLimiter = new RateLimiter();
+  private final RateLimiter minorCompactionRateLimiter = new RateLimiter();
   private Map<String,ExecutorService> threadPools = new TreeMap<String,ExecutorService>();
   
   private HashSet<TabletResourceManager> tabletResources;
@@ -89,6 +101,7 @@ public class TabletServerResourceManager {
   private final LruBlockCache _dCache;
   private final LruBlockCache _iCache;
   private final ServerConfiguration conf;
+  private final long maxMemory;
   
   private static final Logger log = Logger.getLogger(TabletServerResourceManager.class);
   
@@ -144,7 +157,7 @@ public class TabletServerResourceManager {
     this.conf = new ServerConfiguration(instance);
     final AccumuloConfiguration acuConf = conf.getConfiguration();
     
-    long maxMemory = acuConf.getMemoryInBytes(Property.TSERV_MAXMEM);
+    maxMemory = acuConf.getMemoryInBytes(Property.TSERV_MAXMEM);
     boolean usingNativeMap = acuConf.getBoolean(Property.TSERV_NATIVEMAP_ENABLED) && NativeMap.loadedNativeLibraries();
     
     long blockSize = acuConf.getMemoryInBytes(Property.TSERV_DEFAULT_BLOCKSIZE);
@@ -172,7 +185,9 @@ public class TabletServerResourceManager {
     
     // make this thread pool have a priority queue... and execute tablets with the most
     // files first!
-    majorCompactionThreadPool = createEs(Property.TSERV_MAJC_MAXCONCURRENT, "major compactor", new CompactionQueue());
+    majorCompactionQueue = new CompactionQueue();
+    majorCompactionThreadPool = addEs(Property.TSERV_MAJC_MAXCONCURRENT, "major compactor",
+        majorCompactionQueue.newExecutor(acuConf.getCount(Property.TSERV_MAJC_MAXCONCURRENT), new NamingThreadFactory("major compactor")));
     rootMajorCompactionThreadPool = createEs(0, 1, 300, "md root major compactor");
     defaultMajorCompactionThreadPool = createEs(0, 1, 300, "md major compactor");
     
@@ -182,16 +197,32 @@ public class TabletServerResourceManager {
     defaultMigrationPool = createEs(0, 1, 60, "metadata tablet migration");
     migrationPool = createEs(Property.TSERV_MIGRATE_MAXCONCURRENT, "tablet migration");
     
-    // not sure if concurrent assignments can run safely... even if they could there is probably no benefit at startup because
-    // individual tablet servers are already running assignments concurrently... having each individual tablet server run
-    // concurrent assignments would put more load on the metadata table at startup
-    assignmentPool = createEs(1, "tablet assignment");
+    // one thread by default, operators may opt in to concurrent assignment... the locations of concurrently loaded tablets are written to the metadata
+    // table together, which limits the extra load this puts on it
+    assignmentPool = createEs(Property.TSERV_ASSIGNMENT_MAXCONCURRENT, "tablet assignment");
     
     assignMetaDataPool = createEs(0, 1, 60, "metadata tablet assignment");
     
     readAheadThreadPool = createEs(Property.TSERV_READ_AHEAD_MAXCONCURRENT, "tablet read ahead");
     defaultReadAheadThreadPool = createEs(Property.TSERV_METADATA_READ_AHEAD_MAXCONCURRENT, "metadata tablets read ahead");
     
+    commitThreadPool = createEs(Property.TSERV_COMMIT_MAXCONCURRENT, "commit");
+    
+    CachableBlockFile.setPrefetchExecutor(createEs(Property.TSERV_PREFETCH_MAXCONCURRENT, "block prefetch"));
+    CachableBlockFile.setMapLocalFiles(acuConf.getBoolean(Property.TSERV_MMAP_LOCAL_FILES));
+    
+    SimpleTimer.getInstance().schedule(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          updateCompactionRateLimits();
+          updateIngestRateLimits();
+        } catch (Throwable t) {
+          log.error(t, t);
+        }
+      }
+    }, 1000, 1000);
+    
     tabletResources = new HashSet<TabletResourceManager>();
     
     int maxOpenFiles = acuConf.getCount(Property.TSERV_SCAN_MAX_OPENFILES);
@@ -301,14 +332,36 @@ public class TabletServerResourceManager {
             lastMemCheckTime = System.currentTimeMillis();
             
             long totalMemUsed = 0;
+            Map<String,Long> tableMemUsed = new HashMap<String,Long>();
+            Map<String,TabletStateImpl> largestTablets = new HashMap<String,TabletStateImpl>();
             
             synchronized (tabletReports) {
               for (TabletStateImpl tsi : tabletReports.values()) {
-                totalMemUsed += tsi.getMemTableSize();
-                totalMemUsed += tsi.getMinorCompactingMemTableSize();
+                long tabletMemUsed = tsi.getMemTableSize() + tsi.getMinorCompactingMemTableSize();
+                totalMemUsed += tabletMemUsed;
+                
+                String tableId = tsi.getExtent().getTableId().toString();
+                Long used = tableMemUsed.get(tableId);
+                tableMemUsed.put(tableId, used == null ? tabletMemUsed : used + tabletMemUsed);
+                
+                TabletStateImpl largest = largestTablets.get(tableId);
+                if (largest == null || tsi.getMemTableSize() > largest.getMemTableSize())
+                  largestTablets.put(tableId, tsi);
               }
             }
             
+            synchronized (tableMemoryUpdate) {
+              tableMemoryUsage = tableMemUsed;
+              tableMemoryUpdate.notifyAll();
+            }
+            
+            // writers to a table over its share wait, so flush its largest tablet even when the server as a whole has memory left
+            for (Entry<String,Long> entry : tableMemUsed.entrySet()) {
+              TabletStateImpl largest = largestTablets.get(entry.getKey());
+              if (largest.getMemTableSize() > 0 && overMemoryShare(entry.getKey(), entry.getValue()))
+                largest.getTablet().initiateMinorCompaction(MinorCompactionReason.SYSTEM);
+            }
+            
             if (totalMemUsed > 0.95 * maxMem) {
               holdAllCommits(true);
             } else {
@@ -378,6 +431,78 @@ public class TabletServerResourceManager {
     }
   }
   
+  private final Object tableMemoryUpdate = new Object();
+  private volatile Map<String,Long> tableMemoryUsage = Collections.emptyMap();
+  private final Map<String,RateLimiter> ingestRateLimiters = new HashMap<String,RateLimiter>();
+  
+  private boolean overMemoryShare(String tableId, Long used) {
+    if (used == null)
+      return false;
+    double memoryShare = conf.getTableConfiguration(tableId).getFraction(Property.TABLE_INGEST_MEMORY_MAX);
+    return memoryShare < 1.0 && used > memoryShare * maxMemory;
+  }
+  
+  /**
+   * @return the time until which writes may wait for their table's ingest limits. This is half the rpc timeout, so that a client hears that its writes were
+   *         held before it times out and resends them.
+   */
+  long getIngestDeadline() {
+    return System.currentTimeMillis() + conf.getConfiguration().getTimeInMillis(Property.GENERAL_RPC_TIMEOUT) / 2;
+  }
+  
+  /**
+   * Applies a table's ingest limits to writes of the given size. While the table is over its share of memory, its writes are held the way all commits are
+   * held when memory fills. Writes over the table's rate wait until enough of it is saved up, or go into debt for later writes to repay when they are larger
+   * than can be saved.
+   * 
+   * @param deadline
+   *          see {@link #getIngestDeadline()}
+   * @return false if the writes could not be admitted by the deadline, in which case they must not be applied
+   */
+  boolean waitForIngest(String tableId, long bytes, long deadline) {
+    if (overMemoryShare(tableId, tableMemoryUsage.get(tableId))) {
+      synchronized (tableMemoryUpdate) {
+        while (overMemoryShare(tableId, tableMemoryUsage.get(tableId))) {
+          long remaining = deadline - System.currentTimeMillis();
+          if (remaining <= 0)
+            return false;
+          try {
+            tableMemoryUpdate.wait(Math.min(remaining, 1000));
+          } catch (InterruptedException e) {}
+        }
+      }
+    }
+    
+    long remaining = Math.max(0, deadline - System.currentTimeMillis());
+    return getIngestRateLimiter(tableId).tryAcquire(bytes, remaining, TimeUnit.MILLISECONDS);
+  }
+  
+  private RateLimiter getIngestRateLimiter(String tableId) {
+    synchronized (ingestRateLimiters) {
+      RateLimiter limiter = ingestRateLimiters.get(tableId);
+      if (limiter == null) {
+        limiter = new RateLimiter();
+        limiter.setRate(conf.getTableConfiguration(tableId).getMemoryInBytes(Property.TABLE_INGEST_THROUGHPUT));
+        ingestRateLimiters.put(tableId, limiter);
+      }
+      return limiter;
+    }
+  }
+  
+  /**
+   * Rereads each table's ingest throughput, and drops the limiters of tables that no longer have tablets here, such as deleted tables.
+   */
+  private void updateIngestRateLimits() {
+    Map<String,RateLimiter> limiters;
+    synchronized (ingestRateLimiters) {
+      ingestRateLimiters.keySet().retainAll(tableMemoryUsage.keySet());
+      limiters = new HashMap<String,RateLimiter>(ingestRateLimiters);
+    }
+    
+    for (Entry<String,RateLimiter> entry : limiters.entrySet())
+      entry.getValue().setRate(conf.getTableConfiguration(entry.getKey()).getMemoryInBytes(Property.TABLE_INGEST_THROUGHPUT));
+  }
+  
   private final Object commitHold = new Object();
   private volatile boolean holdCommits = false;
   private long holdStartTime;
@@ -423,6 +548,22 @@ public class TabletServerResourceManager {
     }
   }
   
+  /**
+   * @return milliseconds of commit holds that the memory manager estimates it avoided, or 0 if it does not estimate this
+   */
+  public long avoidedHoldTime() {
+    if (memoryManager instanceof PredictiveMemoryManager)
+      return ((PredictiveMemoryManager) memoryManager).getAvoidedHoldTime();
+    return 0;
+  }
+  
+  /**
+   * Has scans' file reservation times recorded in the given metrics.
+   */
+  public void setScanMetrics(TabletServerScanMetrics scanMetrics) {
+    fileManager.setScanMetrics(scanMetrics);
+  }
+  
   public void close() {
     for (ExecutorService executorService : threadPools.values()) {
       executorService.shutdown();
@@ -454,16 +595,6 @@ public class TabletServerResourceManager {
     tabletResources.remove(tr);
   }
   
-  private class MapFileInfo {
-    private final String path;
-    private final long size;
-    
-    MapFileInfo(String path, long size) {
-      this.path = path;
-      this.size = size;
-    }
-  }
-  
   public class TabletResourceManager {
     
     private final long creationTime = System.currentTimeMillis();
@@ -474,11 +605,11 @@ public class TabletServerResourceManager {
     
     private Tablet tablet;
     
-    private AccumuloConfiguration tableConf;
+    private TableConfiguration tableConf;
     
     TabletResourceManager() {}
     
-    void setTablet(Tablet tablet, AccumuloConfiguration tableConf) {
+    void setTablet(Tablet tablet, TableConfiguration tableConf) {
       this.tablet = tablet;
       this.tableConf = tableConf;
       // TabletResourceManager is not really initialized until this
@@ -508,6 +639,13 @@ public class TabletServerResourceManager {
     private AtomicLong lastReportedMincSize = new AtomicLong();
     private volatile long lastReportedCommitTime = 0;
     
+    /**
+     * @return the last reported memory used by the tablet as a fraction of the memory for all tablets
+     */
+    double getMemoryPressure() {
+      return Math.min(1.0, lastReportedSize.get() / (double) maxMemory);
+    }
+    
     public void updateMemoryUsageStats(long size, long mincSize) {
       
       // do not want to update stats for every little change,
@@ -542,98 +680,83 @@ public class TabletServerResourceManager {
     // END methods that Tablets call to manage memory
     
     // BEGIN methods that Tablets call to make decisions about major compaction
-    // when too many files are open, we may want tablets to compact down
-    // to one map file
-    Map<String,Long> findMapFilesToCompact(SortedMap<String,DataFileValue> tabletFiles, MajorCompactionReason reason) {
-      if (reason == MajorCompactionReason.USER) {
-        Map<String,Long> files = new HashMap<String,Long>();
-        for (Entry<String,DataFileValue> entry : tabletFiles.entrySet()) {
-          files.put(entry.getKey(), entry.getValue().getSize());
-        }
-        return files;
-      }
+    
+    // dropped by the observer when the configuration of the strategy changes, and created again on next use
+    private volatile CompactionStrategy compactionStrategy = null;
+    private ConfigurationObserver compactionStrategyObserver = null;
+    
+    /**
+     * Returns the compaction strategy configured for the table. A new instance is created after the configuration of the strategy changes.
+     */
+    CompactionStrategy getCompactionStrategy() {
+      CompactionStrategy strategy = compactionStrategy;
+      if (strategy != null)
+        return strategy;
       
-      if (tabletFiles.size() <= 1)
-        return null;
-      TreeSet<MapFileInfo> candidateFiles = new TreeSet<MapFileInfo>(new Comparator<MapFileInfo>() {
-        @Override
-        public int compare(MapFileInfo o1, MapFileInfo o2) {
-          if (o1 == o2)
-            return 0;
-          if (o1.size < o2.size)
-            return -1;
-          if (o1.size > o2.size)
-            return 1;
-          return o1.path.compareTo(o2.path);
+      synchronized (this) {
+        if (compactionStrategy == null) {
+          observeCompactionStrategy();
+          compactionStrategy = createCompactionStrategy();
         }
-      });
-      
-      double ratio = tableConf.getFraction(Property.TABLE_MAJC_RATIO);
-      int maxFilesToCompact = tableConf.getCount(Property.TSERV_MAJC_THREAD_MAXOPEN);
-      int maxFilesPerTablet = tableConf.getMaxFilesPerTablet();
-      
-      for (Entry<String,DataFileValue> entry : tabletFiles.entrySet()) {
-        candidateFiles.add(new MapFileInfo(entry.getKey(), entry.getValue().getSize()));
-      }
-      
-      long totalSize = 0;
-      for (MapFileInfo mfi : candidateFiles) {
-        totalSize += mfi.size;
+        return compactionStrategy;
       }
+    }
+    
+    private synchronized void dropCompactionStrategy() {
+      compactionStrategy = null;
+    }
+    
+    /**
+     * Registers the observer that drops the compaction strategy when its configuration changes. Must be called while synchronized on this.
+     */
+    private void observeCompactionStrategy() {
+      if (compactionStrategyObserver != null || closed)
+        return;
       
-      Map<String,Long> files = new HashMap<String,Long>();
-      
-      while (candidateFiles.size() > 1) {
-        MapFileInfo max = candidateFiles.last();
-        if (max.size * ratio <= totalSize) {
-          files.clear();
-          for (MapFileInfo mfi : candidateFiles) {
-            files.put(mfi.path, mfi.size);
-            if (files.size() >= maxFilesToCompact)
-              break;
-          }
-          
-          break;
+      tableConf.addObserver(compactionStrategyObserver = new ConfigurationObserver() {
+        public void propertyChanged(String key) {
+          if (key.equals(Property.TABLE_COMPACTION_STRATEGY.getKey()) || key.startsWith(Property.TABLE_COMPACTION_STRATEGY_PREFIX.getKey()))
+            dropCompactionStrategy();
         }
-        totalSize -= max.size;
-        candidateFiles.remove(max);
-      }
-      
-      int totalFilesToCompact = 0;
-      if (tabletFiles.size() > maxFilesPerTablet)
-        totalFilesToCompact = tabletFiles.size() - maxFilesPerTablet + 1;
-      
-      totalFilesToCompact = Math.min(totalFilesToCompact, maxFilesToCompact);
-      
-      if (files.size() < totalFilesToCompact) {
-        
-        TreeMap<String,DataFileValue> tfc = new TreeMap<String,DataFileValue>(tabletFiles);
-        tfc.keySet().removeAll(files.keySet());
         
-        // put data in candidateFiles to sort it
-        candidateFiles.clear();
-        for (Entry<String,DataFileValue> entry : tfc.entrySet())
-          candidateFiles.add(new MapFileInfo(entry.getKey(), entry.getValue().getSize()));
+        public void propertiesChanged() {
+          dropCompactionStrategy();
+        }
         
-        for (MapFileInfo mfi : candidateFiles) {
-          files.put(mfi.path, mfi.size);
-          if (files.size() >= totalFilesToCompact)
-            break;
+        public void sessionExpired() {
+          // changes may have been missed
+          dropCompactionStrategy();
         }
-      }
-      
-      if (files.size() == 0)
-        return null;
+      });
+    }
+    
+    private CompactionStrategy createCompactionStrategy() {
+      String className = tableConf.get(Property.TABLE_COMPACTION_STRATEGY);
+      Map<String,String> options = new HashMap<String,String>();
+      String prefix = Property.TABLE_COMPACTION_STRATEGY_PREFIX.getKey();
+      for (Entry<String,String> entry : tableConf.getAllPropertiesWithPrefix(Property.TABLE_COMPACTION_STRATEGY_PREFIX).entrySet())
+        options.put(entry.getKey().substring(prefix.length()), entry.getValue());
       
-      return files;
+      CompactionStrategy strategy = null;
+      try {
+        Class<? extends CompactionStrategy> clazz = AccumuloVFSClassLoader.loadClass(className, CompactionStrategy.class);
+        strategy = clazz.newInstance();
+        strategy.init(options);
+      } catch (Exception e) {
+        log.error("Failed to load compaction strategy " + className + " for " + tablet.getExtent() + ", using default", e);
+        strategy = new DefaultCompactionStrategy();
+        strategy.init(Collections.<String,String> emptyMap());
+      }
+      return strategy;
     }
     
-    boolean needsMajorCompaction(SortedMap<String,DataFileValue> tabletFiles, MajorCompactionReason reason) {
+    boolean needsMajorCompaction(MajorCompactionRequest request) throws IOException {
       if (closed)
         return false;// throw new IOException("closed");
         
       // int threshold;
       
+      MajorCompactionReason reason = request.getReason();
       if (reason == MajorCompactionReason.USER)
         return true;
       
@@ -655,7 +778,7 @@ public class TabletServerResourceManager {
         * else{ threshold = tableConf.getCount(Property.TABLE_MAJC_THRESHOLD); }
         */
       
-      return findMapFilesToCompact(tabletFiles, reason) != null;
+      return getCompactionStrategy().shouldCompact(request);
     }
     
     // END methods that Tablets call to make decisions about major compaction
@@ -681,6 +804,9 @@ public class TabletServerResourceManager {
           memMgmt.tabletClosed(tablet.getExtent());
           memoryManager.tabletClosed(tablet.getExtent());
           
+          if (compactionStrategyObserver != null)
+            tableConf.removeObserver(compactionStrategyObserver);
+          
           closed = true;
         }
       }
@@ -694,6 +820,20 @@ public class TabletServerResourceManager {
       TabletServerResourceManager.this.executeMajorCompaction(tablet, compactionTask);
     }
     
+    /**
+     * @return the throughput limit for the tablet's major compactions, or null if they are not limited
+     */
+    RateLimiter getMajorCompactionRateLimiter() {
+      return tablet.getExtent().isMeta() ? null : majorCompactionRateLimiter;
+    }
+    
+    /**
+     * @return the throughput limit for the tablet's minor compactions, or null if they are not limited
+     */
+    RateLimiter getMinorCompactionRateLimiter() {
+      return tablet.getExtent().isMeta() ? null : minorCompactionRateLimiter;
+    }
+    
   }
   
   public void executeSplit(KeyExtent tablet, Runnable splitTask) {
@@ -708,6 +848,13 @@ public class TabletServerResourceManager {
     }
   }
   
+  /**
+   * @return the major compactions waiting for a thread, highest priority first
+   */
+  public List<CompactionQueue.Task> getQueuedMajorCompactions() {
+    return majorCompactionQueue.getQueued();
+  }
+  
   public void executeMajorCompaction(KeyExtent tablet, Runnable compactionTask) {
     if (tablet.equals(Constants.ROOT_TABLET_EXTENT)) {
       rootMajorCompactionThreadPool.execute(compactionTask);
@@ -718,16 +865,104 @@ public class TabletServerResourceManager {
     }
   }
   
-  public void executeReadAhead(KeyExtent tablet, Runnable task) {
+  /**
+   * Runs the per tablet work of a batch of updates and returns once all of it has completed. The calling thread runs the first task itself, while the others
+   * run on the commit pool.
+   */
+  public void executeCommitWork(List<? extends Runnable> tasks) {
+    if (tasks.isEmpty())
+      return;
+    
+    if (tasks.size() == 1 || conf.getConfiguration().getCount(Property.TSERV_COMMIT_MAXCONCURRENT) <= 1) {
+      for (Runnable task : tasks)
+        task.run();
+      return;
+    }
+    
+    List<Future<?>> futures = new ArrayList<Future<?>>(tasks.size() - 1);
+    for (Runnable task : tasks.subList(1, tasks.size()))
+      futures.add(commitThreadPool.submit(task));
+    
+    Throwable error = null;
+    try {
+      tasks.get(0).run();
+    } catch (Throwable t) {
+      error = t;
+    }
+    
+    // the caller may need to undo the work of every task, so wait for all of them even if interrupted
+    boolean interrupted = false;
+    for (Future<?> future : futures) {
+      while (true) {
+        try {
+          future.get();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          if (error == null)
+            error = e.getCause();
+          break;
+        }
+      }
+    }
+    if (interrupted)
+      Thread.currentThread().interrupt();
+    
+    if (error != null)
+      throw new RuntimeException(error);
+  }
+  
+  public void executeReadAhead(KeyExtent tablet, final Runnable task) {
     if (tablet.isRootTablet()) {
       task.run();
     } else if (tablet.isMeta()) {
       defaultReadAheadThreadPool.execute(task);
     } else {
-      readAheadThreadPool.execute(task);
+      readAheadThreadPool.execute(new Runnable() {
+        @Override
+        public void run() {
+          activeReadAheads.incrementAndGet();
+          try {
+            task.run();
+          } finally {
+            activeReadAheads.decrementAndGet();
+          }
+        }
+      });
     }
   }
   
+  /**
+   * Rereads the compaction throughput limits and lowers the major compaction limit in proportion to the number of busy scan threads, so that compactions
+   * yield disk and network bandwidth to scans.
+   */
+  private void updateCompactionRateLimits() {
+    AccumuloConfiguration acuConf = conf.getConfiguration();
+    
+    minorCompactionRateLimiter.setRate(acuConf.getMemoryInBytes(Property.TSERV_MINC_THROUGHPUT));
+    
+    long majcRate = acuConf.getMemoryInBytes(Property.TSERV_MAJC_THROUGHPUT);
+    if (majcRate > 0) {
+      int scanThreads = Math.max(1, acuConf.getCount(Property.TSERV_READ_AHEAD_MAXCONCURRENT));
+      double busy = Math.min(1.0, activeReadAheads.get() / (double) scanThreads);
+      majcRate = Math.max(1, (long) (majcRate * (1.0 - 0.75 * busy)));
+    }
+    majorCompactionRateLimiter.setRate(majcRate);
+    
+    long now = System.currentTimeMillis();
+    minorCompactionRateLimiter.updateRate(now);
+    majorCompactionRateLimiter.updateRate(now);
+  }
+  
+  public RateLimiter getMajorCompactionRateLimiter() {
+    return majorCompactionRateLimiter;
+  }
+  
+  public RateLimiter getMinorCompactionRateLimiter() {
+    return minorCompactionRateLimiter;
+  }
+  
   public void addAssignment(Runnable assignmentHandler) {
     assignmentPool.execute(assignmentHandler);
   }
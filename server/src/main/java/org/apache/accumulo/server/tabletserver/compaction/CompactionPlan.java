@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver.compaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The files a major compaction should read, and optionally how the file it produces should be written.
+ */
+public class CompactionPlan {
+  public final List<String> inputFiles = new ArrayList<String>();
+  public WriteParameters writeParameters = null;
+  
+  @Override
+  public String toString() {
+    StringBuilder b = new StringBuilder(inputFiles.toString());
+    if (writeParameters != null) {
+      b.append(" write ");
+      b.append(writeParameters);
+    }
+    return b.toString();
+  }
+}
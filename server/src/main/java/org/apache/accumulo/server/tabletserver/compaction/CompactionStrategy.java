@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver.compaction;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Decides which files of a tablet a major compaction should read and how the file it produces should be written. A strategy is configured per table with
+ * {@link org.apache.accumulo.core.conf.Property#TABLE_COMPACTION_STRATEGY} and is given the options set under
+ * {@link org.apache.accumulo.core.conf.Property#TABLE_COMPACTION_STRATEGY_PREFIX}.
+ * <p>
+ * Each tablet has its own instance, which is replaced when the table configuration of the strategy changes. Only
+ * {@link #gatherInformation(MajorCompactionRequest)} may run concurrently with the other methods. User requested compactions and compactions that chop files for a merge do not consult the strategy.
+ */
+public abstract class CompactionStrategy {
+  
+  /**
+   * Called once, before any other method, with the options for the table.
+   */
+  public void init(Map<String,String> options) {}
+  
+  /**
+   * Called while the tablet lock is held, so this should be quick and should not read the files. Returning true queues a major compaction, which will call
+   * {@link #gatherInformation(MajorCompactionRequest)} and then {@link #getCompactionPlan(MajorCompactionRequest)}.
+   */
+  public abstract boolean shouldCompact(MajorCompactionRequest request) throws IOException;
+  
+  /**
+   * Called without the tablet lock held before {@link #getCompactionPlan(MajorCompactionRequest)}. This is the place to do expensive work like reading the
+   * files.
+   */
+  public void gatherInformation(MajorCompactionRequest request) throws IOException {}
+  
+  /**
+   * Called while the tablet lock is held.
+   * 
+   * @return the files to compact and how to write the result, or null if there is nothing to compact
+   */
+  public abstract CompactionPlan getCompactionPlan(MajorCompactionRequest request) throws IOException;
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver.compaction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.util.MetadataTable.DataFileValue;
+
+/**
+ * Compacts the largest set of smallest files whose total size is at least {@link Property#TABLE_MAJC_RATIO} times the size of the largest file in the set. If
+ * that leaves the tablet with more than {@link AccumuloConfiguration#getMaxFilesPerTablet()} files, enough of the smallest files are added to get under the
+ * limit.
+ */
+public class DefaultCompactionStrategy extends CompactionStrategy {
+  
+  static class SizedFile {
+    final String path;
+    final long size;
+    
+    SizedFile(String path, long size) {
+      this.path = path;
+      this.size = size;
+    }
+  }
+  
+  static final Comparator<SizedFile> SIZE_ORDER = new Comparator<SizedFile>() {
+    @Override
+    public int compare(SizedFile o1, SizedFile o2) {
+      if (o1 == o2)
+        return 0;
+      if (o1.size < o2.size)
+        return -1;
+      if (o1.size > o2.size)
+        return 1;
+      return o1.path.compareTo(o2.path);
+    }
+  };
+  
+  /**
+   * @return the files sorted from smallest to largest
+   */
+  static List<SizedFile> sortBySize(Map<String,DataFileValue> files) {
+    List<SizedFile> sorted = new ArrayList<SizedFile>(files.size());
+    for (Entry<String,DataFileValue> entry : files.entrySet())
+      sorted.add(new SizedFile(entry.getKey(), entry.getValue().getSize()));
+    Collections.sort(sorted, SIZE_ORDER);
+    return sorted;
+  }
+  
+  /**
+   * @return how many files must be compacted together to bring the tablet down to the maximum number of files per tablet, limited to the number of files a
+   *         compaction may open, or 0 if the tablet is not over the maximum
+   */
+  static int getFilesOverMax(MajorCompactionRequest request) {
+    AccumuloConfiguration tableConf = request.getTableConfig();
+    int maxFilesToCompact = tableConf.getCount(Property.TSERV_MAJC_THREAD_MAXOPEN);
+    int maxFilesPerTablet = tableConf.getMaxFilesPerTablet();
+    
+    int totalFilesToCompact = 0;
+    if (request.getFiles().size() > maxFilesPerTablet)
+      totalFilesToCompact = request.getFiles().size() - maxFilesPerTablet + 1;
+    
+    return Math.min(totalFilesToCompact, maxFilesToCompact);
+  }
+  
+  /**
+   * Adds the smallest files not already in the plan until compacting the plan brings the tablet down to the maximum number of files per tablet.
+   */
+  static void addFilesOverMax(MajorCompactionRequest request, CompactionPlan plan) {
+    int totalFilesToCompact = getFilesOverMax(request);
+    
+    if (plan.inputFiles.size() < totalFilesToCompact) {
+      for (SizedFile sf : sortBySize(request.getFiles())) {
+        if (plan.inputFiles.size() >= totalFilesToCompact)
+          break;
+        if (!plan.inputFiles.contains(sf.path))
+          plan.inputFiles.add(sf.path);
+      }
+    }
+  }
+  
+  @Override
+  public boolean shouldCompact(MajorCompactionRequest request) {
+    return getCompactionPlan(request) != null;
+  }
+  
+  @Override
+  public CompactionPlan getCompactionPlan(MajorCompactionRequest request) {
+    if (request.getFiles().size() <= 1)
+      return null;
+    
+    AccumuloConfiguration tableConf = request.getTableConfig();
+    double ratio = tableConf.getFraction(Property.TABLE_MAJC_RATIO);
+    int maxFilesToCompact = tableConf.getCount(Property.TSERV_MAJC_THREAD_MAXOPEN);
+    
+    TreeSet<SizedFile> candidateFiles = new TreeSet<SizedFile>(SIZE_ORDER);
+    candidateFiles.addAll(sortBySize(request.getFiles()));
+    
+    long totalSize = 0;
+    for (SizedFile sf : candidateFiles) {
+      totalSize += sf.size;
+    }
+    
+    CompactionPlan plan = new CompactionPlan();
+    
+    while (candidateFiles.size() > 1) {
+      SizedFile max = candidateFiles.last();
+      if (max.size * ratio <= totalSize) {
+        for (SizedFile sf : candidateFiles) {
+          plan.inputFiles.add(sf.path);
+          if (plan.inputFiles.size() >= maxFilesToCompact)
+            break;
+        }
+        
+        break;
+      }
+      totalSize -= max.size;
+      candidateFiles.remove(max);
+    }
+    
+    addFilesOverMax(request, plan);
+    
+    if (plan.inputFiles.size() == 0)
+      return null;
+    
+    return plan;
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver.compaction;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.KeyExtent;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.accumulo.core.util.MetadataTable.DataFileValue;
+import org.apache.accumulo.server.tabletserver.Tablet.MajorCompactionReason;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+
+/**
+ * The information about a tablet that a {@link CompactionStrategy} bases its decisions on.
+ */
+public class MajorCompactionRequest {
+  
+  /**
+   * What can be learned about a file by opening it.
+   */
+  public static class FileInfo {
+    private final Key firstKey;
+    private final Key lastKey;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    
+    public FileInfo(Key firstKey, Key lastKey, long minTimestamp, long maxTimestamp) {
+      this.firstKey = firstKey;
+      this.lastKey = lastKey;
+      this.minTimestamp = minTimestamp;
+      this.maxTimestamp = maxTimestamp;
+    }
+    
+    /**
+     * @return the first key in the file, or null if the file is empty
+     */
+    public Key getFirstKey() {
+      return firstKey;
+    }
+    
+    /**
+     * @return the last key in the file, or null if the file is empty
+     */
+    public Key getLastKey() {
+      return lastKey;
+    }
+    
+    /**
+     * @return the smallest timestamp in the file, Long.MIN_VALUE if it is not known
+     */
+    public long getMinTimestamp() {
+      return minTimestamp;
+    }
+    
+    /**
+     * @return the largest timestamp in the file, Long.MAX_VALUE if it is not known
+     */
+    public long getMaxTimestamp() {
+      return maxTimestamp;
+    }
+  }
+  
+  private final KeyExtent extent;
+  private final MajorCompactionReason reason;
+  private final FileSystem fs;
+  private final Configuration conf;
+  private final AccumuloConfiguration tableConfig;
+  private Map<String,DataFileValue> files;
+  
+  public MajorCompactionRequest(KeyExtent extent, MajorCompactionReason reason, FileSystem fs, Configuration conf, AccumuloConfiguration tableConfig) {
+    this.extent = extent;
+    this.reason = reason;
+    this.fs = fs;
+    this.conf = conf;
+    this.tableConfig = tableConfig;
+    this.files = Collections.emptyMap();
+  }
+  
+  public KeyExtent getExtent() {
+    return extent;
+  }
+  
+  public MajorCompactionReason getReason() {
+    return reason;
+  }
+  
+  public AccumuloConfiguration getTableConfig() {
+    return tableConfig;
+  }
+  
+  /**
+   * @return the files of the tablet, with their sizes, entry counts and, for bulk imported files, the time assigned to them
+   */
+  public Map<String,DataFileValue> getFiles() {
+    return files;
+  }
+  
+  public void setFiles(Map<String,DataFileValue> files) {
+    this.files = Collections.unmodifiableMap(new HashMap<String,DataFileValue>(files));
+  }
+  
+  /**
+   * Opens a file to read its first and last keys and its timestamp range. This should only be called from
+   * {@link CompactionStrategy#gatherInformation(MajorCompactionRequest)}.
+   */
+  public FileInfo readFileInfo(String file) throws IOException {
+    if (fs == null)
+      throw new IllegalStateException("Files can not be read for this request");
+    
+    // the timestamps are only available from the underlying file reader
+    ConfigurationCopy acuconf = new ConfigurationCopy(tableConfig);
+    acuconf.set(Property.TABLE_BLOOM_ENABLED, "false");
+    
+    FileSKVIterator reader = FileOperations.getInstance().openReader(file, false, fs, conf, acuconf);
+    try {
+      long minTimestamp = Long.MIN_VALUE;
+      long maxTimestamp = Long.MAX_VALUE;
+      if (reader instanceof RFile.Reader) {
+        minTimestamp = ((RFile.Reader) reader).getMinTimestamp();
+        maxTimestamp = ((RFile.Reader) reader).getMaxTimestamp();
+      }
+      return new FileInfo(reader.getFirstKey(), reader.getLastKey(), minTimestamp, maxTimestamp);
+    } finally {
+      reader.close();
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver.compaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.server.tabletserver.Tablet.MajorCompactionReason;
+import org.apache.accumulo.server.tabletserver.compaction.DefaultCompactionStrategy.SizedFile;
+
+/**
+ * Groups files of similar size into buckets and compacts a bucket once it holds enough files, so each byte is rewritten about once per tier instead of on
+ * every compaction. A file joins a bucket when its size is between {@value #BUCKET_LOW_OPT} and {@value #BUCKET_HIGH_OPT} times the average size of the
+ * bucket. Files smaller than {@value #MIN_SIZE_OPT} all go in one bucket.
+ * <p>
+ * The bucket with the smallest average size that holds at least {@value #MIN_THRESHOLD_OPT} files is compacted, up to {@value #MAX_THRESHOLD_OPT} of its
+ * smallest files. An idle tablet compacts a bucket of two or more files. Like the default strategy, files are added when the tablet holds more files than
+ * allowed per tablet.
+ */
+public class SizeTieredCompactionStrategy extends CompactionStrategy {
+  
+  public static final String MIN_THRESHOLD_OPT = "min.threshold";
+  public static final String MAX_THRESHOLD_OPT = "max.threshold";
+  public static final String BUCKET_LOW_OPT = "bucket.low";
+  public static final String BUCKET_HIGH_OPT = "bucket.high";
+  public static final String MIN_SIZE_OPT = "min.size";
+  
+  private int minThreshold = 4;
+  private int maxThreshold = 32;
+  private double bucketLow = 0.5;
+  private double bucketHigh = 1.5;
+  private long minSize = 50 * 1024 * 1024;
+  
+  private static class Bucket {
+    final List<SizedFile> files = new ArrayList<SizedFile>();
+    long totalSize = 0;
+    
+    long averageSize() {
+      return totalSize / files.size();
+    }
+    
+    void add(SizedFile sf) {
+      files.add(sf);
+      totalSize += sf.size;
+    }
+  }
+  
+  @Override
+  public void init(Map<String,String> options) {
+    if (options.containsKey(MIN_THRESHOLD_OPT))
+      minThreshold = Integer.parseInt(options.get(MIN_THRESHOLD_OPT));
+    if (options.containsKey(MAX_THRESHOLD_OPT))
+      maxThreshold = Integer.parseInt(options.get(MAX_THRESHOLD_OPT));
+    if (options.containsKey(BUCKET_LOW_OPT))
+      bucketLow = Double.parseDouble(options.get(BUCKET_LOW_OPT));
+    if (options.containsKey(BUCKET_HIGH_OPT))
+      bucketHigh = Double.parseDouble(options.get(BUCKET_HIGH_OPT));
+    if (options.containsKey(MIN_SIZE_OPT))
+      minSize = AccumuloConfiguration.getMemoryInBytes(options.get(MIN_SIZE_OPT));
+    
+    if (minThreshold < 2 || maxThreshold < minThreshold)
+      throw new IllegalArgumentException("Bad thresholds " + MIN_THRESHOLD_OPT + "=" + minThreshold + " " + MAX_THRESHOLD_OPT + "=" + maxThreshold);
+    if (bucketLow <= 0 || bucketLow > 1 || bucketHigh < 1)
+      throw new IllegalArgumentException("Bad bucket bounds " + BUCKET_LOW_OPT + "=" + bucketLow + " " + BUCKET_HIGH_OPT + "=" + bucketHigh);
+  }
+  
+  private List<Bucket> createBuckets(List<SizedFile> sorted) {
+    List<Bucket> buckets = new ArrayList<Bucket>();
+    Bucket current = null;
+    
+    // the files are sorted by size, so a file either fits the last bucket or starts a new one
+    for (SizedFile sf : sorted) {
+      if (current != null) {
+        long avg = current.averageSize();
+        if ((sf.size >= avg * bucketLow && sf.size <= avg * bucketHigh) || (sf.size < minSize && avg < minSize)) {
+          current.add(sf);
+          continue;
+        }
+      }
+      current = new Bucket();
+      current.add(sf);
+      buckets.add(current);
+    }
+    
+    return buckets;
+  }
+  
+  @Override
+  public boolean shouldCompact(MajorCompactionRequest request) {
+    return getCompactionPlan(request) != null;
+  }
+  
+  @Override
+  public CompactionPlan getCompactionPlan(MajorCompactionRequest request) {
+    if (request.getFiles().size() <= 1)
+      return null;
+    
+    int threshold = request.getReason() == MajorCompactionReason.IDLE ? 2 : minThreshold;
+    
+    Bucket best = null;
+    for (Bucket bucket : createBuckets(DefaultCompactionStrategy.sortBySize(request.getFiles()))) {
+      if (bucket.files.size() >= threshold && (best == null || bucket.averageSize() < best.averageSize()))
+        best = bucket;
+    }
+    
+    CompactionPlan plan = new CompactionPlan();
+    if (best != null) {
+      for (SizedFile sf : best.files) {
+        if (plan.inputFiles.size() >= maxThreshold)
+          break;
+        plan.inputFiles.add(sf.path);
+      }
+    }
+    
+    DefaultCompactionStrategy.addFilesOverMax(request, plan);
+    
+    if (plan.inputFiles.size() == 0)
+      return null;
+    
+    return plan;
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver.compaction;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.util.MetadataTable.DataFileValue;
+import org.apache.accumulo.server.tabletserver.Tablet.MajorCompactionReason;
+import org.apache.accumulo.server.tabletserver.compaction.DefaultCompactionStrategy.SizedFile;
+
+/**
+ * For time series data, where new data mostly has newer timestamps. Files are grouped into windows of {@value #WINDOW_SIZE_OPT} milliseconds by their largest
+ * timestamp, and files are only ever compacted with files from the same window. Once a window is no longer the newest one it is compacted down to a single
+ * file, which is then left alone. This keeps data that ages off together in the same files and avoids rewriting old data.
+ * <p>
+ * The newest window is compacted when it holds {@value #MIN_THRESHOLD_OPT} files, or two files when the tablet is idle. At most {@value #MAX_THRESHOLD_OPT}
+ * files are compacted at once. If {@value #OLD_COMPRESS_TYPE_OPT} is set, files for older windows are written with that compression type.
+ * <p>
+ * Because there is one file per window, {@link org.apache.accumulo.core.conf.Property#TABLE_FILE_MAX} should allow as many files as windows are kept. When a
+ * tablet has more files than that, the oldest windows are merged until it is back under the limit. The timestamps of a file are read from the file, or taken from the time assigned to a bulk imported file. Files whose timestamps are not known are placed in
+ * the newest window.
+ */
+public class TimeWindowCompactionStrategy extends CompactionStrategy {
+  
+  public static final String WINDOW_SIZE_OPT = "window.size";
+  public static final String MIN_THRESHOLD_OPT = "min.threshold";
+  public static final String MAX_THRESHOLD_OPT = "max.threshold";
+  public static final String OLD_COMPRESS_TYPE_OPT = "old.compress.type";
+  
+  private long windowSize = 24 * 60 * 60 * 1000l;
+  private int minThreshold = 4;
+  private int maxThreshold = 32;
+  private String oldCompressType = null;
+  
+  // files are never modified, so what was read from a file stays valid as long as the tablet has the file
+  private final Map<String,Long> maxTimestamps = new ConcurrentHashMap<String,Long>();
+  
+  @Override
+  public void init(Map<String,String> options) {
+    if (options.containsKey(WINDOW_SIZE_OPT))
+      windowSize = AccumuloConfiguration.getTimeInMillis(options.get(WINDOW_SIZE_OPT));
+    if (options.containsKey(MIN_THRESHOLD_OPT))
+      minThreshold = Integer.parseInt(options.get(MIN_THRESHOLD_OPT));
+    if (options.containsKey(MAX_THRESHOLD_OPT))
+      maxThreshold = Integer.parseInt(options.get(MAX_THRESHOLD_OPT));
+    oldCompressType = options.get(OLD_COMPRESS_TYPE_OPT);
+    
+    if (windowSize <= 0)
+      throw new IllegalArgumentException("Bad " + WINDOW_SIZE_OPT + " " + windowSize);
+    if (minThreshold < 2 || maxThreshold < minThreshold)
+      throw new IllegalArgumentException("Bad thresholds " + MIN_THRESHOLD_OPT + "=" + minThreshold + " " + MAX_THRESHOLD_OPT + "=" + maxThreshold);
+  }
+  
+  private Long getMaxTimestamp(String file, DataFileValue dfv) {
+    if (dfv.isTimeSet())
+      return dfv.getTime();
+    return maxTimestamps.get(file);
+  }
+  
+  long getWindow(long timestamp) {
+    timestamp = Math.max(timestamp, 0);
+    return timestamp - timestamp % windowSize;
+  }
+  
+  @Override
+  public boolean shouldCompact(MajorCompactionRequest request) {
+    if (request.getFiles().size() <= 1)
+      return false;
+    
+    for (Entry<String,DataFileValue> entry : request.getFiles().entrySet()) {
+      if (getMaxTimestamp(entry.getKey(), entry.getValue()) == null) {
+        // the files need to be read before a decision can be made
+        return true;
+      }
+    }
+    
+    return getCompactionPlan(request) != null;
+  }
+  
+  @Override
+  public void gatherInformation(MajorCompactionRequest request) throws IOException {
+    maxTimestamps.keySet().retainAll(request.getFiles().keySet());
+    
+    for (Entry<String,DataFileValue> entry : request.getFiles().entrySet()) {
+      if (getMaxTimestamp(entry.getKey(), entry.getValue()) == null)
+        maxTimestamps.put(entry.getKey(), request.readFileInfo(entry.getKey()).getMaxTimestamp());
+    }
+  }
+  
+  @Override
+  public CompactionPlan getCompactionPlan(MajorCompactionRequest request) {
+    if (request.getFiles().size() <= 1)
+      return null;
+    
+    // windows from newest to oldest
+    TreeMap<Long,Map<String,DataFileValue>> windows = new TreeMap<Long,Map<String,DataFileValue>>();
+    for (Entry<String,DataFileValue> entry : request.getFiles().entrySet()) {
+      Long maxTimestamp = getMaxTimestamp(entry.getKey(), entry.getValue());
+      long window = getWindow(maxTimestamp == null ? Long.MAX_VALUE : maxTimestamp);
+      Map<String,DataFileValue> files = windows.get(-window);
+      if (files == null)
+        windows.put(-window, files = new HashMap<String,DataFileValue>());
+      files.put(entry.getKey(), entry.getValue());
+    }
+    
+    CompactionPlan plan = getWindowPlan(request, windows);
+    
+    int filesOverMax = DefaultCompactionStrategy.getFilesOverMax(request);
+    if (filesOverMax > 0 && (plan == null || plan.inputFiles.size() < filesOverMax))
+      plan = mergeOldestWindows(windows, filesOverMax);
+    
+    return plan;
+  }
+  
+  /**
+   * @return a compaction of the files within the newest window that needs one, or null
+   */
+  private CompactionPlan getWindowPlan(MajorCompactionRequest request, TreeMap<Long,Map<String,DataFileValue>> windows) {
+    boolean newest = true;
+    for (Map<String,DataFileValue> files : windows.values()) {
+      int threshold = 2;
+      if (newest && request.getReason() != MajorCompactionReason.IDLE)
+        threshold = minThreshold;
+      
+      if (files.size() >= threshold) {
+        CompactionPlan plan = new CompactionPlan();
+        List<SizedFile> sorted = DefaultCompactionStrategy.sortBySize(files);
+        for (SizedFile sf : sorted.subList(0, Math.min(sorted.size(), maxThreshold)))
+          plan.inputFiles.add(sf.path);
+        
+        if (!newest)
+          setOldWriteParameters(plan);
+        return plan;
+      }
+      newest = false;
+    }
+    
+    return null;
+  }
+  
+  /**
+   * Compacts the files of the oldest windows together, smallest first within each window. The result is placed in the newest window it took files from, so
+   * any files left in that window are compacted with it later.
+   */
+  private CompactionPlan mergeOldestWindows(TreeMap<Long,Map<String,DataFileValue>> windows, int numFiles) {
+    CompactionPlan plan = new CompactionPlan();
+    boolean newest = false;
+    for (Entry<Long,Map<String,DataFileValue>> window : windows.descendingMap().entrySet()) {
+      newest = window.getKey().equals(windows.firstKey());
+      for (SizedFile sf : DefaultCompactionStrategy.sortBySize(window.getValue())) {
+        if (plan.inputFiles.size() >= numFiles)
+          break;
+        plan.inputFiles.add(sf.path);
+      }
+      if (plan.inputFiles.size() >= numFiles)
+        break;
+    }
+    
+    if (!newest)
+      setOldWriteParameters(plan);
+    return plan;
+  }
+  
+  private void setOldWriteParameters(CompactionPlan plan) {
+    if (oldCompressType != null) {
+      plan.writeParameters = new WriteParameters();
+      plan.writeParameters.setCompressType(oldCompressType);
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver.compaction;
+
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.Property;
+
+/**
+ * Overrides for how the file produced by a major compaction is written. Settings that are not set keep the value from the table configuration.
+ */
+public class WriteParameters {
+  private String compressType = null;
+  private long blockSize = 0;
+  private long indexBlockSize = 0;
+  private long hdfsBlockSize = 0;
+  private int replication = 0;
+  
+  public String getCompressType() {
+    return compressType;
+  }
+  
+  public void setCompressType(String compressType) {
+    this.compressType = compressType;
+  }
+  
+  public long getBlockSize() {
+    return blockSize;
+  }
+  
+  public void setBlockSize(long blockSize) {
+    this.blockSize = blockSize;
+  }
+  
+  public long getIndexBlockSize() {
+    return indexBlockSize;
+  }
+  
+  public void setIndexBlockSize(long indexBlockSize) {
+    this.indexBlockSize = indexBlockSize;
+  }
+  
+  public long getHdfsBlockSize() {
+    return hdfsBlockSize;
+  }
+  
+  public void setHdfsBlockSize(long hdfsBlockSize) {
+    this.hdfsBlockSize = hdfsBlockSize;
+  }
+  
+  public int getReplication() {
+    return replication;
+  }
+  
+  public void setReplication(int replication) {
+    this.replication = replication;
+  }
+  
+  /**
+   * @return a copy of the table configuration with these overrides applied
+   */
+  public AccumuloConfiguration apply(AccumuloConfiguration tableConf) {
+    ConfigurationCopy copy = new ConfigurationCopy(tableConf);
+    if (compressType != null)
+      copy.set(Property.TABLE_FILE_COMPRESSION_TYPE, compressType);
+    if (blockSize > 0)
+      copy.set(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE, Long.toString(blockSize));
+    if (indexBlockSize > 0)
+      copy.set(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE_INDEX, Long.toString(indexBlockSize));
+    if (hdfsBlockSize > 0)
+      copy.set(Property.TABLE_FILE_BLOCK_SIZE, Long.toString(hdfsBlockSize));
+    if (replication > 0)
+      copy.set(Property.TABLE_FILE_REPLICATION, Integer.toString(replication));
+    return copy;
+  }
+  
+  @Override
+  public String toString() {
+    return "compress=" + compressType + " blockSize=" + blockSize + " indexBlockSize=" + indexBlockSize + " hdfsBlockSize=" + hdfsBlockSize + " replication="
+        + replication;
+  }
+}
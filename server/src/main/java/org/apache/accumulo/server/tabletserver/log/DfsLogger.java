@@ -89,7 +89,7 @@ public class DfsLogger {
   
   private final Object closeLock = new Object();
   
-  private static final DfsLogger.LogWork CLOSED_MARKER = new DfsLogger.LogWork(null, null);
+  private static final DfsLogger.LogWork CLOSED_MARKER = new DfsLogger.LogWork(null, null, Durability.LOG);
   
   private static final LogFileValue EMPTY = new LogFileValue();
   
@@ -110,10 +110,18 @@ public class DfsLogger {
         }
         workQueue.drainTo(work);
         
+        // the strongest level asked for by any of the work determines how all of it is persisted
+        Durability durability = Durability.LOG;
+        for (DfsLogger.LogWork logWork : work)
+          durability = durability.max(logWork.durability);
+        
         synchronized (closeLock) {
           if (!closed) {
             try {
-              sync.invoke(logFile);
+              if (durability == Durability.SYNC)
+                sync.invoke(logFile);
+              else if (durability == Durability.FLUSH)
+                flush.invoke(logFile);
             } catch (Exception ex) {
               log.warn("Exception syncing " + ex);
               for (DfsLogger.LogWork logWork : work) {
@@ -147,11 +155,13 @@ public class DfsLogger {
   static class LogWork {
     List<TabletMutations> mutations;
     CountDownLatch latch;
+    Durability durability;
     volatile Exception exception;
     
-    public LogWork(List<TabletMutations> mutations, CountDownLatch latch) {
+    public LogWork(List<TabletMutations> mutations, CountDownLatch latch, Durability durability) {
       this.mutations = mutations;
       this.latch = latch;
+      this.durability = durability;
     }
   }
   
@@ -210,6 +220,7 @@ public class DfsLogger {
   private FSDataOutputStream logFile;
   private DataOutputStream encryptingLogFile = null;
   private Method sync;
+  private Method flush;
   private Path logPath;
   private String logger;
   
@@ -273,9 +284,12 @@ public class DfsLogger {
       try {
         // sync: send data to datanodes
         sync = logFile.getClass().getMethod("sync");
+        flush = sync;
         try {
           // hsych: send data to datanodes and sync the data to disk
           sync = logFile.getClass().getMethod("hsync");
+          // hflush: send data to datanodes, replacing sync
+          flush = logFile.getClass().getMethod("hflush");
         } catch (NoSuchMethodException ex) {
         }
       } catch (Exception e) {
@@ -438,12 +452,16 @@ public class DfsLogger {
     value.write(encryptingLogFile);
   }
   
-  public LoggerOperation log(int seq, int tid, Mutation mutation) throws IOException {
-    return logManyTablets(Collections.singletonList(new TabletMutations(tid, seq, Collections.singletonList(mutation))));
+  public LoggerOperation log(int seq, int tid, Mutation mutation, Durability durability) throws IOException {
+    return logManyTablets(Collections.singletonList(new TabletMutations(tid, seq, Collections.singletonList(mutation))), durability);
   }
   
-  public LoggerOperation logManyTablets(List<TabletMutations> mutations) throws IOException {
-    DfsLogger.LogWork work = new DfsLogger.LogWork(mutations, new CountDownLatch(1));
+  /**
+   * @param durability
+   *          how far the mutations must be persisted before the returned operation completes
+   */
+  public LoggerOperation logManyTablets(List<TabletMutations> mutations, Durability durability) throws IOException {
+    DfsLogger.LogWork work = new DfsLogger.LogWork(mutations, new CountDownLatch(1), durability);
     
     synchronized (DfsLogger.this) {
       try {
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver.log;
+
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.tabletserver.thrift.TDurability;
+
+/**
+ * How far a write is persisted before it is acknowledged. Levels are ordered from weakest to strongest.
+ */
+public enum Durability {
+  /** not written to the write-ahead log */
+  NONE,
+  /** written to the write-ahead log stream, which may buffer it */
+  LOG,
+  /** sent to the datanodes */
+  FLUSH,
+  /** synced to disk by the datanodes */
+  SYNC;
+  
+  public static Durability fromString(String value) {
+    return valueOf(value.toUpperCase());
+  }
+  
+  /**
+   * @return the durability of writes to a table
+   */
+  public static Durability forTable(AccumuloConfiguration tableConf) {
+    if (!tableConf.getBoolean(Property.TABLE_WALOG_ENABLED))
+      return NONE;
+    return fromString(tableConf.get(Property.TABLE_DURABILITY));
+  }
+  
+  /**
+   * @return the level a client asked for, or null if it asked for the durability of each table
+   */
+  public static Durability fromThrift(TDurability durability) {
+    if (durability == null)
+      return null;
+    switch (durability) {
+      case NONE:
+        return NONE;
+      case LOG:
+        return LOG;
+      case FLUSH:
+        return FLUSH;
+      case SYNC:
+        return SYNC;
+      default:
+        return null;
+    }
+  }
+  
+  /**
+   * @param requested
+   *          the level a client asked for, or null for the table's level
+   * @return the durability of a client's writes to a table, which the client may lower but not raise
+   */
+  public static Durability resolve(Durability table, Durability requested) {
+    return requested == null ? table : table.min(requested);
+  }
+  
+  /**
+   * @return the weaker of the two levels
+   */
+  public Durability min(Durability other) {
+    return compareTo(other) <= 0 ? this : other;
+  }
+  
+  /**
+   * @return the stronger of the two levels
+   */
+  public Durability max(Durability other) {
+    return compareTo(other) >= 0 ? this : other;
+  }
+}
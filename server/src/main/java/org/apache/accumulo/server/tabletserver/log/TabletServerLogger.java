@@ -44,8 +44,9 @@ import org.apache.log4j.Logger;
 /**
  * Central logging facility for the TServerInfo.
  * 
- * Forwards in-memory updates to remote logs, carefully writing the same data to every log, while maintaining the maximum thread parallelism for greater
- * performance. As new logs are used and minor compactions are performed, the metadata table is kept up-to-date.
+ * Forwards in-memory updates to remote logs, while maintaining the maximum thread parallelism for greater performance. Several logs may be open at once;
+ * each tablet is assigned to one of them by its extent, so updates for different tablets do not serialize through a single stream. As new logs are used and
+ * minor compactions are performed, the metadata table is kept up-to-date.
  * 
  */
 public class TabletServerLogger {
@@ -54,6 +55,7 @@ public class TabletServerLogger {
   
   private final AtomicLong logSizeEstimate = new AtomicLong();
   private final long maxSize;
+  private final int concurrent;
   
   private final TabletServer tserver;
   
@@ -82,6 +84,10 @@ public class TabletServerLogger {
     return enabled(commitSession.getTablet());
   }
   
+  private static Durability durability(CommitSession commitSession, Durability requested) {
+    return Durability.resolve(Durability.forTable(commitSession.getTablet().getTableConfiguration()), requested);
+  }
+  
   static private abstract class TestCallWithWriteLock {
     abstract boolean test();
     
@@ -126,9 +132,10 @@ public class TabletServerLogger {
     }
   }
   
-  public TabletServerLogger(TabletServer tserver, long maxSize) {
+  public TabletServerLogger(TabletServer tserver, long maxSize, int concurrent) {
     this.tserver = tserver;
     this.maxSize = maxSize;
+    this.concurrent = Math.max(1, concurrent);
   }
   
   private int initializeLoggers(final List<DfsLogger> copy) throws IOException {
@@ -180,12 +187,22 @@ public class TabletServerLogger {
     }
     
     try {
-      DfsLogger alog = new DfsLogger(tserver.getServerConfig());
-      alog.open(tserver.getClientAddressString());
-      loggers.add(alog);
+      for (int i = 0; i < concurrent; i++) {
+        DfsLogger alog = new DfsLogger(tserver.getServerConfig());
+        alog.open(tserver.getClientAddressString());
+        loggers.add(alog);
+      }
       logSetId.incrementAndGet();
       return;
     } catch (Exception t) {
+      for (DfsLogger alog : loggers) {
+        try {
+          alog.close();
+        } catch (Exception ex) {
+          log.warn("Unable to close log " + alog.getFileName() + " after failing to open its peers: " + ex);
+        }
+      }
+      loggers.clear();
       throw new RuntimeException(t);
     }
   }
@@ -221,7 +238,29 @@ public class TabletServerLogger {
   }
   
   interface Writer {
-    LoggerOperation write(DfsLogger logger, int seq) throws Exception;
+    LoggerOperation write(DfsLogger logger, List<CommitSession> sessions, int seq) throws Exception;
+  }
+  
+  /**
+   * Groups commit sessions by the log their tablet is assigned to. A tablet always maps to the same log in a log set, which keeps each of its log entries in
+   * the metadata table referring to a single file.
+   */
+  private static Map<DfsLogger,List<CommitSession>> assign(List<DfsLogger> logs, Collection<CommitSession> sessions) {
+    Map<DfsLogger,List<CommitSession>> assignments = new HashMap<DfsLogger,List<CommitSession>>();
+    for (CommitSession commitSession : sessions) {
+      DfsLogger logger = logs.get(logIndex(commitSession.getExtent(), logs.size()));
+      List<CommitSession> assigned = assignments.get(logger);
+      if (assigned == null) {
+        assigned = new ArrayList<CommitSession>();
+        assignments.put(logger, assigned);
+      }
+      assigned.add(commitSession);
+    }
+    return assignments;
+  }
+  
+  private static int logIndex(KeyExtent extent, int numLogs) {
+    return (extent.hashCode() & Integer.MAX_VALUE) % numLogs;
   }
   
   private int write(CommitSession commitSession, boolean mincFinish, Writer writer) throws IOException {
@@ -246,16 +285,21 @@ public class TabletServerLogger {
         // add the logger to the log set for the memory in the tablet,
         // update the metadata table if we've never used this tablet
         
+        Map<DfsLogger,List<CommitSession>> assignments = copy.isEmpty() ? Collections.<DfsLogger,List<CommitSession>> emptyMap() : assign(copy, sessions);
+        
         if (currentLogSet == logSetId.get()) {
-          for (CommitSession commitSession : sessions) {
-            if (commitSession.beginUpdatingLogsUsed(copy, mincFinish)) {
-              try {
-                // Scribble out a tablet definition and then write to the metadata table
-                defineTablet(commitSession);
-                if (currentLogSet == logSetId.get())
-                  tserver.addLoggersToMetadata(copy, commitSession.getExtent(), commitSession.getLogId());
-              } finally {
-                commitSession.finishUpdatingLogsUsed();
+          for (Entry<DfsLogger,List<CommitSession>> entry : assignments.entrySet()) {
+            ArrayList<DfsLogger> used = new ArrayList<DfsLogger>(Collections.singletonList(entry.getKey()));
+            for (CommitSession commitSession : entry.getValue()) {
+              if (commitSession.beginUpdatingLogsUsed(used, mincFinish)) {
+                try {
+                  // Scribble out a tablet definition and then write to the metadata table
+                  defineTablet(commitSession);
+                  if (currentLogSet == logSetId.get())
+                    tserver.addLoggersToMetadata(used, commitSession.getExtent(), commitSession.getLogId());
+                } finally {
+                  commitSession.finishUpdatingLogsUsed();
+                }
               }
             }
           }
@@ -268,9 +312,9 @@ public class TabletServerLogger {
           seq = seqGen.incrementAndGet();
           if (seq < 0)
             throw new RuntimeException("Logger sequence generator wrapped!  Onos!!!11!eleven");
-          ArrayList<LoggerOperation> queuedOperations = new ArrayList<LoggerOperation>(copy.size());
-          for (DfsLogger wal : copy) {
-            LoggerOperation lop = writer.write(wal, seq);
+          ArrayList<LoggerOperation> queuedOperations = new ArrayList<LoggerOperation>(assignments.size());
+          for (Entry<DfsLogger,List<CommitSession>> entry : assignments.entrySet()) {
+            LoggerOperation lop = writer.write(entry.getKey(), entry.getValue(), seq);
             if (lop != null)
               queuedOperations.add(lop);
           }
@@ -309,11 +353,12 @@ public class TabletServerLogger {
         });
       }
     }
-    // if the log gets too big, reset it .. grab the write lock first
+    // if the logs get too big, reset them .. grab the write lock first
     logSizeEstimate.addAndGet(4 * 3); // event, tid, seq overhead
     testLockAndRun(logSetLock, new TestCallWithWriteLock() {
       boolean test() {
-        return logSizeEstimate.get() > maxSize;
+        // the estimate covers every log in the set
+        return logSizeEstimate.get() > maxSize * concurrent;
       }
       
       void withWriteLock() throws IOException {
@@ -329,45 +374,58 @@ public class TabletServerLogger {
       return -1;
     return write(commitSession, false, new Writer() {
       @Override
-      public LoggerOperation write(DfsLogger logger, int ignored) throws Exception {
+      public LoggerOperation write(DfsLogger logger, List<CommitSession> sessions, int ignored) throws Exception {
         logger.defineTablet(commitSession.getWALogSeq(), commitSession.getLogId(), commitSession.getExtent());
         return null;
       }
     });
   }
   
-  public int log(final CommitSession commitSession, final int tabletSeq, final Mutation m) throws IOException {
-    if (!enabled(commitSession))
+  /**
+   * @param requested
+   *          the durability the client asked for, or null for the table's
+   */
+  public int log(final CommitSession commitSession, final int tabletSeq, final Mutation m, Durability requested) throws IOException {
+    final Durability durability = durability(commitSession, requested);
+    if (durability == Durability.NONE)
       return -1;
     int seq = write(commitSession, false, new Writer() {
       @Override
-      public LoggerOperation write(DfsLogger logger, int ignored) throws Exception {
-        return logger.log(tabletSeq, commitSession.getLogId(), m);
+      public LoggerOperation write(DfsLogger logger, List<CommitSession> sessions, int ignored) throws Exception {
+        return logger.log(tabletSeq, commitSession.getLogId(), m, durability);
       }
     });
     logSizeEstimate.addAndGet(m.numBytes());
     return seq;
   }
   
-  public int logManyTablets(Map<CommitSession,List<Mutation>> mutations) throws IOException {
+  /**
+   * @param requested
+   *          the durability the client asked for, or null for each table's
+   */
+  public int logManyTablets(Map<CommitSession,List<Mutation>> mutations, Durability requested) throws IOException {
     
     final Map<CommitSession,List<Mutation>> loggables = new HashMap<CommitSession,List<Mutation>>(mutations);
+    Durability strongest = Durability.NONE;
     for (CommitSession t : mutations.keySet()) {
-      if (!enabled(t))
+      Durability durability = durability(t, requested);
+      if (durability == Durability.NONE)
         loggables.remove(t);
+      strongest = strongest.max(durability);
     }
     if (loggables.size() == 0)
       return -1;
     
+    final Durability durability = strongest;
+    
     int seq = write(loggables.keySet(), false, new Writer() {
       @Override
-      public LoggerOperation write(DfsLogger logger, int ignored) throws Exception {
-        List<TabletMutations> copy = new ArrayList<TabletMutations>(loggables.size());
-        for (Entry<CommitSession,List<Mutation>> entry : loggables.entrySet()) {
-          CommitSession cs = entry.getKey();
-          copy.add(new TabletMutations(cs.getLogId(), cs.getWALogSeq(), entry.getValue()));
+      public LoggerOperation write(DfsLogger logger, List<CommitSession> sessions, int ignored) throws Exception {
+        List<TabletMutations> copy = new ArrayList<TabletMutations>(sessions.size());
+        for (CommitSession cs : sessions) {
+          copy.add(new TabletMutations(cs.getLogId(), cs.getWALogSeq(), loggables.get(cs)));
         }
-        return logger.logManyTablets(copy);
+        return logger.logManyTablets(copy, durability);
       }
     });
     for (List<Mutation> entry : loggables.values()) {
@@ -389,7 +447,7 @@ public class TabletServerLogger {
     
     int seq = write(commitSession, true, new Writer() {
       @Override
-      public LoggerOperation write(DfsLogger logger, int ignored) throws Exception {
+      public LoggerOperation write(DfsLogger logger, List<CommitSession> sessions, int ignored) throws Exception {
         logger.minorCompactionFinished(walogSeq, commitSession.getLogId(), fullyQualifiedFileName);
         return null;
       }
@@ -405,7 +463,7 @@ public class TabletServerLogger {
       return -1;
     write(commitSession, false, new Writer() {
       @Override
-      public LoggerOperation write(DfsLogger logger, int ignored) throws Exception {
+      public LoggerOperation write(DfsLogger logger, List<CommitSession> sessions, int ignored) throws Exception {
         logger.minorCompactionStarted(seq, commitSession.getLogId(), fullyQualifiedFileName);
         return null;
       }
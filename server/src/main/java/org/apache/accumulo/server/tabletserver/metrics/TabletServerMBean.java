@@ -28,6 +28,11 @@ public interface TabletServerMBean {
   
   public int getMajorCompactionsQueued();
   
+  /**
+   * @return a description of each queued major compaction, highest priority first
+   */
+  public String[] getMajorCompactionQueue();
+  
   public int getMinorCompactions();
   
   public int getMinorCompactionsQueued();
@@ -42,8 +47,37 @@ public interface TabletServerMBean {
   
   public long getTotalMinorCompactions();
   
+  public long getMinorCompactionBytesWritten();
+  
+  public long getMajorCompactionBytesWritten();
+  
+  /**
+   * @return the bytes written by all compactions divided by the bytes flushed from memory
+   */
+  public double getWriteAmplification();
+  
+  /**
+   * @return recent bytes per second read and written by minor compactions
+   */
+  public double getMinorCompactionThroughput();
+  
+  /**
+   * @return recent bytes per second read and written by major compactions
+   */
+  public double getMajorCompactionThroughput();
+  
+  /**
+   * @return the current limit on major compaction bytes per second, after adjusting for scans, or 0 when unlimited
+   */
+  public long getMajorCompactionThroughputLimit();
+  
   public double getHoldTime();
   
+  /**
+   * @return estimated seconds of commit holds avoided by flushing ahead of time, when the memory manager forecasts memory use
+   */
+  public double getAvoidedHoldTime();
+  
   public String getName();
   
   public double getAverageFilesPerTablet();
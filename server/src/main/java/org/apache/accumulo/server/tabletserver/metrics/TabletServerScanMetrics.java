@@ -18,6 +18,7 @@ package org.apache.accumulo.server.tabletserver.metrics;
 
 import javax.management.ObjectName;
 
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
 import org.apache.accumulo.server.metrics.AbstractMetricsImpl;
 
 public class TabletServerScanMetrics extends AbstractMetricsImpl implements TabletServerScanMetricsMBean {
@@ -80,9 +81,34 @@ public class TabletServerScanMetrics extends AbstractMetricsImpl implements Tabl
     return this.getMetricMin(scan);
   }
   
+  public long getFileReserveCount() {
+    return this.getMetricCount(reserve);
+  }
+  
+  public long getFileReserveAvgTime() {
+    return this.getMetricAvg(reserve);
+  }
+  
+  public long getFileReserveMinTime() {
+    return this.getMetricMin(reserve);
+  }
+  
+  public long getFileReserveMaxTime() {
+    return this.getMetricMax(reserve);
+  }
+  
+  public long getBlockPrefetchCount() {
+    return CachableBlockFile.getPrefetchRequests();
+  }
+  
+  public long getBlockPrefetchHits() {
+    return CachableBlockFile.getPrefetchHits();
+  }
+  
   public void reset() {
     createMetric(scan);
     createMetric(resultSize);
+    createMetric(reserve);
   }
   
 }
@@ -20,6 +20,7 @@ public interface TabletServerScanMetricsMBean {
   
   public static final String scan = "scan";
   public static final String resultSize = "result";
+  public static final String reserve = "reserve";
   
   public long getScanCount();
   
@@ -37,6 +38,21 @@ public interface TabletServerScanMetricsMBean {
   
   public long getResultMaxSize();
   
+  /**
+   * Reservation times of the files a scan reads, in microseconds, including any wait for other scans to release files and the time to open them.
+   */
+  public long getFileReserveCount();
+  
+  public long getFileReserveAvgTime();
+  
+  public long getFileReserveMinTime();
+  
+  public long getFileReserveMaxTime();
+  
+  public long getBlockPrefetchCount();
+  
+  public long getBlockPrefetchHits();
+  
   public void reset();
   
 }
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.conf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.Constants;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.iterators.IteratorUtil.ParsedIterators;
+import org.apache.accumulo.core.zookeeper.ZooUtil;
+import org.apache.accumulo.fate.zookeeper.ZooCache;
+import org.apache.accumulo.fate.zookeeper.ZooReader;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TableConfigurationTest {
+  
+  private static final String INSTANCE = "instance";
+  
+  /**
+   * Holds table properties the way zookeeper would, without connecting to it.
+   */
+  private static class TestZooCache extends ZooCache {
+    final Map<String,String> props = new TreeMap<String,String>();
+    
+    TestZooCache() {
+      super(new ZooReader("localhost:1", 1000), null);
+    }
+    
+    private static String confPath(String table) {
+      return ZooUtil.getRoot(INSTANCE) + Constants.ZTABLES + "/" + table + Constants.ZTABLE_CONF;
+    }
+    
+    void set(String table, String key, String value) {
+      props.put(confPath(table) + "/" + key, value);
+    }
+    
+    @Override
+    public synchronized byte[] get(String zPath) {
+      String value = props.get(zPath);
+      return value == null ? null : value.getBytes();
+    }
+    
+    @Override
+    public synchronized List<String> getChildren(String zPath) {
+      List<String> children = new ArrayList<String>();
+      for (String path : props.keySet())
+        if (path.startsWith(zPath + "/"))
+          children.add(path.substring(zPath.length() + 1));
+      return children;
+    }
+  }
+  
+  private TestZooCache cache;
+  private ConfigurationCopy system;
+  private long systemUpdateCount;
+  private TableConfiguration conf1;
+  private TableConfiguration conf2;
+  
+  private TableConfiguration create(String table) {
+    return new TableConfiguration(INSTANCE, table, system, cache) {
+      @Override
+      long getSystemUpdateCount() {
+        return systemUpdateCount;
+      }
+    };
+  }
+  
+  @Before
+  public void setUp() {
+    cache = new TestZooCache();
+    system = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    systemUpdateCount = 0;
+    conf1 = create("1");
+    conf2 = create("2");
+  }
+  
+  @Test
+  public void testTableChanges() {
+    cache.set("1", Property.TABLE_SPLIT_THRESHOLD.getKey(), "10M");
+    cache.set("1", Property.TABLE_CONSTRAINT_PREFIX.getKey() + "1", "a.Constraint");
+    
+    assertEquals("10M", conf1.get(Property.TABLE_SPLIT_THRESHOLD));
+    assertEquals(10 * 1024 * 1024, conf1.getMemoryInBytes(Property.TABLE_SPLIT_THRESHOLD));
+    assertEquals(Arrays.asList("a.Constraint"), conf1.getConstraintClasses());
+    ParsedIterators iters1 = conf1.getIterators(IteratorScope.scan);
+    ParsedIterators iters2 = conf2.getIterators(IteratorScope.scan);
+    assertSame(iters1, conf1.getIterators(IteratorScope.scan));
+    
+    // nothing is read again until the watcher says the table's properties changed
+    cache.set("1", Property.TABLE_SPLIT_THRESHOLD.getKey(), "20M");
+    cache.set("1", Property.TABLE_CONSTRAINT_PREFIX.getKey() + "2", "b.Constraint");
+    assertEquals("10M", conf1.get(Property.TABLE_SPLIT_THRESHOLD));
+    
+    conf1.propertyChanged(Property.TABLE_SPLIT_THRESHOLD.getKey());
+    assertEquals("20M", conf1.get(Property.TABLE_SPLIT_THRESHOLD));
+    assertEquals(20 * 1024 * 1024, conf1.getMemoryInBytes(Property.TABLE_SPLIT_THRESHOLD));
+    assertEquals(Arrays.asList("a.Constraint", "b.Constraint"), conf1.getConstraintClasses());
+    assertNotSame(iters1, conf1.getIterators(IteratorScope.scan));
+    
+    // a change to one table does not drop what was read for another
+    assertSame(iters2, conf2.getIterators(IteratorScope.scan));
+    
+    cache.set("1", Property.TABLE_SPLIT_THRESHOLD.getKey(), "30M");
+    conf1.propertiesChanged(null);
+    assertEquals(30 * 1024 * 1024, conf1.getMemoryInBytes(Property.TABLE_SPLIT_THRESHOLD));
+    
+    cache.set("1", Property.TABLE_SPLIT_THRESHOLD.getKey(), "40M");
+    conf1.invalidate();
+    assertEquals("40M", conf1.get(Property.TABLE_SPLIT_THRESHOLD));
+  }
+  
+  @Test
+  public void testSystemChanges() {
+    system.set(Property.TABLE_SPLIT_THRESHOLD, "10M");
+    system.set(Property.TABLE_CONSTRAINT_PREFIX.getKey() + "1", "a.Constraint");
+    
+    assertEquals("10M", conf1.get(Property.TABLE_SPLIT_THRESHOLD));
+    assertEquals(10 * 1024 * 1024, conf1.getMemoryInBytes(Property.TABLE_SPLIT_THRESHOLD));
+    assertEquals(Arrays.asList("a.Constraint"), conf1.getConstraintClasses());
+    ParsedIterators iters1 = conf1.getIterators(IteratorScope.scan);
+    ParsedIterators iters2 = conf2.getIterators(IteratorScope.scan);
+    
+    system.set(Property.TABLE_SPLIT_THRESHOLD, "20M");
+    system.set(Property.TABLE_CONSTRAINT_PREFIX.getKey() + "2", "b.Constraint");
+    assertEquals("10M", conf1.get(Property.TABLE_SPLIT_THRESHOLD));
+    
+    // a change to the system properties drops what was read for every table
+    systemUpdateCount++;
+    assertEquals("20M", conf1.get(Property.TABLE_SPLIT_THRESHOLD));
+    assertEquals(20 * 1024 * 1024, conf1.getMemoryInBytes(Property.TABLE_SPLIT_THRESHOLD));
+    assertEquals(Arrays.asList("a.Constraint", "b.Constraint"), conf1.getConstraintClasses());
+    assertNotSame(iters1, conf1.getIterators(IteratorScope.scan));
+    assertNotSame(iters2, conf2.getIterators(IteratorScope.scan));
+    
+    // table properties override the system's
+    cache.set("1", Property.TABLE_SPLIT_THRESHOLD.getKey(), "30M");
+    conf1.propertyChanged(Property.TABLE_SPLIT_THRESHOLD.getKey());
+    assertEquals(30 * 1024 * 1024, conf1.getMemoryInBytes(Property.TABLE_SPLIT_THRESHOLD));
+    assertEquals(20 * 1024 * 1024, conf2.getMemoryInBytes(Property.TABLE_SPLIT_THRESHOLD));
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.accumulo.core.constraints.Violations;
+import org.apache.accumulo.core.data.ConstraintViolationSummary;
+import org.apache.accumulo.core.data.Mutation;
+
+public class CommitPreparationTest extends TestCase {
+
+  private static class Session {
+    final String tablet;
+
+    Session(String tablet) {
+      this.tablet = tablet;
+    }
+  }
+
+  private static class TestPreparation extends CommitPreparation<String,Session> {
+    Map<Session,List<Mutation>> aborted = Collections.synchronizedMap(new HashMap<Session,List<Mutation>>());
+
+    @Override
+    void abort(Session session, List<Mutation> mutations) {
+      assertNull(aborted.put(session, mutations));
+    }
+  }
+
+  private static class TestTask extends CommitPreparation.Task<String,Session> {
+    int violating = 0;
+    Exception error;
+    boolean closed = false;
+
+    TestTask(String tablet, int numMutations) {
+      super(tablet, mutations(tablet, numMutations));
+    }
+
+    @Override
+    void prepare() throws Exception {
+      if (error != null)
+        throw error;
+      if (closed)
+        return;
+
+      if (violating > 0) {
+        Violations violations = new Violations();
+        violations.add(new ConstraintViolationSummary("TestConstraint", (short) 1, "bad row", violating));
+        violated(violations, mutations.subList(violating, mutations.size()), new Session(tablet));
+      } else {
+        prepared(new Session(tablet));
+      }
+    }
+  }
+
+  private static List<Mutation> mutations(String row, int num) {
+    List<Mutation> mutations = new ArrayList<Mutation>();
+    for (int i = 0; i < num; i++) {
+      Mutation m = new Mutation(row);
+      m.put("cf", "cq" + i, "v");
+      mutations.add(m);
+    }
+    return mutations;
+  }
+
+  private static void runConcurrently(List<? extends Runnable> tasks) throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+    for (Runnable task : tasks)
+      executor.execute(task);
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+
+  private static Session session(TestPreparation preparation, String tablet) {
+    for (Session session : preparation.sendables.keySet())
+      if (session.tablet.equals(tablet))
+        return session;
+    return null;
+  }
+
+  public void testViolationsAndErrors() throws Exception {
+    TestTask ok = new TestTask("a", 3);
+    TestTask someViolate = new TestTask("b", 5);
+    someViolate.violating = 2;
+    TestTask allViolate = new TestTask("c", 4);
+    allViolate.violating = 4;
+    TestTask closed = new TestTask("d", 2);
+    closed.closed = true;
+
+    List<TestTask> tasks = Arrays.asList(ok, someViolate, allViolate, closed);
+    runConcurrently(tasks);
+
+    TestPreparation preparation = new TestPreparation();
+    preparation.gather(tasks);
+
+    // violations from every tablet are combined
+    List<ConstraintViolationSummary> violations = preparation.violations.asList();
+    assertEquals(1, violations.size());
+    assertEquals(6, violations.get(0).getNumberOfViolatingMutations());
+
+    // only the mutations that did not violate constraints are sent, from tablets that have some
+    assertEquals(2, preparation.sendables.size());
+    assertEquals(ok.mutations, preparation.sendables.get(session(preparation, "a")));
+    assertEquals(someViolate.mutations.subList(2, 5), preparation.sendables.get(session(preparation, "b")));
+    assertEquals(12, preparation.mutationCount);
+
+    assertEquals(Collections.singletonList("d"), preparation.closed);
+
+    assertNull(preparation.error);
+    preparation.abortIfFailed();
+    assertTrue(preparation.aborted.isEmpty());
+
+    // errors on several tablets keep the first, and do not hide the outcome of the others
+    TestTask error1 = new TestTask("e", 1);
+    error1.error = new Exception("e1");
+    TestTask error2 = new TestTask("f", 1);
+    error2.error = new Exception("e2");
+
+    tasks = Arrays.asList(error1, ok, someViolate, error2);
+    runConcurrently(tasks);
+
+    preparation = new TestPreparation();
+    preparation.gather(tasks);
+    assertSame(error1.error, preparation.error);
+    assertSame(error1.error, error1.getError());
+    assertSame(error2.error, error2.getError());
+    assertEquals(2, preparation.sendables.size());
+    assertEquals(1, preparation.violations.asList().size());
+  }
+
+  public void testAbortAll() throws Exception {
+    TestTask a = new TestTask("a", 3);
+    TestTask b = new TestTask("b", 4);
+    b.violating = 1;
+    TestTask failed = new TestTask("c", 2);
+    failed.error = new HoldTimeoutException("held");
+    TestTask d = new TestTask("d", 5);
+
+    List<TestTask> tasks = Arrays.asList(a, b, failed, d);
+    runConcurrently(tasks);
+
+    TestPreparation preparation = new TestPreparation();
+    preparation.gather(tasks);
+
+    try {
+      preparation.abortIfFailed();
+      fail();
+    } catch (RuntimeException e) {
+      assertSame(failed.error, e.getCause());
+    }
+
+    // every commit that was prepared is aborted, including the non-violating mutations of a tablet with violations
+    assertEquals(preparation.sendables, preparation.aborted);
+    assertEquals(3, preparation.aborted.size());
+    assertEquals(a.mutations, preparation.aborted.get(session(preparation, "a")));
+    assertEquals(b.mutations.subList(1, 4), preparation.aborted.get(session(preparation, "b")));
+    assertEquals(d.mutations, preparation.aborted.get(session(preparation, "d")));
+  }
+}
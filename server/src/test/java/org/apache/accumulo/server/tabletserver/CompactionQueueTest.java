@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.accumulo.core.data.KeyExtent;
+import org.apache.accumulo.server.tabletserver.Tablet.MajorCompactionReason;
+import org.apache.hadoop.io.Text;
+
+public class CompactionQueueTest extends TestCase {
+  
+  private static class TestTask implements CompactionQueue.Task {
+    KeyExtent extent;
+    MajorCompactionReason reason = MajorCompactionReason.NORMAL;
+    long queued;
+    int files;
+    double readRate = 0;
+    double weight = 1;
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(0);
+    List<TestTask> ran;
+    
+    TestTask(String table, String endRow, int files, long queued) {
+      this.extent = new KeyExtent(new Text(table), new Text(endRow), null);
+      this.files = files;
+      this.queued = queued;
+    }
+    
+    @Override
+    public void run() {
+      if (ran != null)
+        ran.add(this);
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    
+    @Override
+    public KeyExtent getExtent() {
+      return extent;
+    }
+    
+    @Override
+    public MajorCompactionReason getReason() {
+      return reason;
+    }
+    
+    @Override
+    public long getQueuedTime() {
+      return queued;
+    }
+    
+    @Override
+    public int getNumFiles() {
+      return files;
+    }
+    
+    @Override
+    public double getReadRate() {
+      return readRate;
+    }
+    
+    @Override
+    public double getMemoryPressure() {
+      return 0;
+    }
+    
+    @Override
+    public double getWeight() {
+      return weight;
+    }
+  }
+  
+  public void testOrder() {
+    CompactionQueue queue = new CompactionQueue();
+    
+    TestTask idle = new TestTask("1", "a", 10, 0);
+    TestTask read = new TestTask("1", "b", 4, 0);
+    read.readRate = 100;
+    TestTask few = new TestTask("1", "c", 3, 0);
+    TestTask user1 = new TestTask("1", "d", 2, 5);
+    user1.reason = MajorCompactionReason.USER;
+    TestTask user2 = new TestTask("1", "e", 8, 7);
+    user2.reason = MajorCompactionReason.USER;
+    
+    queue.add(idle);
+    queue.add(read);
+    queue.add(few);
+    queue.add(user2);
+    queue.add(user1);
+    
+    assertEquals(5, queue.size());
+    assertSame(user1, queue.peek());
+    
+    List<CompactionQueue.Task> expected = new ArrayList<CompactionQueue.Task>();
+    expected.add(user1);
+    expected.add(user2);
+    expected.add(read);
+    expected.add(idle);
+    expected.add(few);
+    assertEquals(expected, queue.getQueued());
+    
+    List<Runnable> drained = new ArrayList<Runnable>();
+    assertEquals(5, queue.drainTo(drained));
+    assertEquals(expected, drained);
+    assertEquals(0, queue.size());
+    assertNull(queue.poll());
+  }
+  
+  public void testWeight() {
+    CompactionQueue queue = new CompactionQueue();
+    
+    TestTask t1 = new TestTask("1", "a", 10, 0);
+    TestTask t2 = new TestTask("2", "a", 4, 0);
+    t2.weight = 3;
+    
+    queue.add(t1);
+    queue.add(t2);
+    assertSame(t2, queue.peek());
+  }
+  
+  public void testFairness() throws Exception {
+    CompactionQueue queue = new CompactionQueue();
+    ThreadPoolExecutor executor = queue.newExecutor(2, Executors.defaultThreadFactory());
+    
+    // table 1 fills both core threads; these never pass through the queue
+    TestTask a1 = new TestTask("1", "a", 10, 0);
+    TestTask a2 = new TestTask("1", "b", 10, 0);
+    a1.release = new CountDownLatch(1);
+    a2.release = new CountDownLatch(1);
+    executor.execute(a1);
+    executor.execute(a2);
+    assertTrue(a1.started.await(10, TimeUnit.SECONDS));
+    assertTrue(a2.started.await(10, TimeUnit.SECONDS));
+    assertEquals(0, queue.size());
+    
+    List<TestTask> ran = Collections.synchronizedList(new ArrayList<TestTask>());
+    TestTask a3 = new TestTask("1", "c", 10, 0);
+    TestTask b1 = new TestTask("2", "a", 6, 0);
+    a3.ran = ran;
+    b1.ran = ran;
+    executor.execute(a3);
+    executor.execute(b1);
+    
+    // table 1 is running two compactions, so its next one has a third of the priority
+    assertEquals(2, queue.size());
+    assertSame(b1, queue.peek());
+    
+    // with a2 still running, the thread a1 frees takes table 2's compaction first
+    a1.release.countDown();
+    assertTrue(b1.started.await(10, TimeUnit.SECONDS));
+    a2.release.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(2, ran.size());
+    assertSame(b1, ran.get(0));
+    
+    // once they finish, table 1 is ahead again
+    queue.add(a3);
+    queue.add(b1);
+    assertSame(a3, queue.peek());
+    assertTrue(queue.remove(a3));
+    assertSame(b1, queue.peek());
+    assertNotNull(queue.poll());
+    assertEquals(0, queue.size());
+  }
+}
@@ -99,6 +99,32 @@ public class InMemoryMapTest extends TestCase {
     
   }
   
+  public void testUnwritten() throws Exception {
+    InMemoryMap imm = new InMemoryMap(false, "/tmp");
+    
+    // nothing is allocated until the first write, but the map still behaves as an empty map
+    assertEquals(0, imm.estimatedSizeInBytes());
+    assertEquals(0, imm.getNumEntries());
+    assertFalse(imm.iterator(new Key()).hasNext());
+    
+    SortedKeyValueIterator<Key,Value> iter = imm.compactionIterator();
+    iter.seek(new Range(), LocalityGroupUtil.EMPTY_CF_SET, false);
+    assertFalse(iter.hasTop());
+    
+    MemoryIterator ski1 = imm.skvIterator();
+    ski1.seek(new Range(), LocalityGroupUtil.EMPTY_CF_SET, false);
+    assertFalse(ski1.hasTop());
+    ski1.close();
+    
+    imm.delete(0);
+    
+    imm = new InMemoryMap(false, "/tmp");
+    mutate(imm, "r1", "foo:cq1", 3, "bar1");
+    assertEquals(1, imm.getNumEntries());
+    assertTrue(imm.estimatedSizeInBytes() > 0);
+    imm.delete(0);
+  }
+  
   public void test3() throws Exception {
     InMemoryMap imm = new InMemoryMap(false, "/tmp");
     
@@ -296,6 +322,61 @@ public class InMemoryMapTest extends TestCase {
     ae(skvi1, "r1", "foo:cq", 3, "v1");
   }
   
+  public void testConcurrentWriters() throws Exception {
+    final InMemoryMap imm = new InMemoryMap(false, "/tmp");
+    
+    final int numWriters = 4;
+    final int rowsPerWriter = 500;
+    final int numCols = 10;
+    
+    ExecutorService e = Executors.newFixedThreadPool(numWriters);
+    for (int i = 0; i < numWriters; i++) {
+      final int writer = i;
+      e.execute(new Runnable() {
+        @Override
+        public void run() {
+          for (int r = 0; r < rowsPerWriter; r++) {
+            Mutation m = new Mutation(new Text(String.format("r%d_%04d", writer, r)));
+            for (int c = 0; c < numCols; c++)
+              m.put(new Text("cf"), new Text("cq" + c), new Value("v".getBytes()));
+            imm.mutate(Collections.singletonList(m));
+          }
+        }
+      });
+    }
+    e.shutdown();
+    
+    // writes are applied in parallel, but a snapshot should never contain part of a mutation
+    boolean done = false;
+    while (!done) {
+      done = e.isTerminated();
+      
+      MemoryIterator iter = imm.skvIterator();
+      iter.seek(new Range(), LocalityGroupUtil.EMPTY_CF_SET, false);
+      Text row = null;
+      int cols = 0;
+      while (iter.hasTop()) {
+        Text r = iter.getTopKey().getRow();
+        if (!r.equals(row)) {
+          if (row != null)
+            assertEquals(numCols, cols);
+          row = r;
+          cols = 0;
+        }
+        cols++;
+        iter.next();
+      }
+      if (row != null)
+        assertEquals(numCols, cols);
+      iter.close();
+    }
+    
+    assertEquals(numWriters * rowsPerWriter * numCols, imm.getNumEntries());
+    // throws if the published mutation count does not account for every write
+    imm.compactionIterator();
+    imm.delete(0);
+  }
+  
   private static final Logger log = Logger.getLogger(InMemoryMapTest.class);
   
   static long sum(long[] counts) {
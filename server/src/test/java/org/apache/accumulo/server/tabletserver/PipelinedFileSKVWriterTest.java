@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.FileSKVWriter;
+
+public class PipelinedFileSKVWriterTest extends TestCase {
+  
+  private static final ExecutorService executor = Executors.newCachedThreadPool();
+  
+  // records the calls made to it as strings
+  private static class RecordingWriter implements FileSKVWriter {
+    List<String> calls = new ArrayList<String>();
+    int failAfter = Integer.MAX_VALUE;
+    
+    @Override
+    public boolean supportsLocalityGroups() {
+      return true;
+    }
+    
+    @Override
+    public void startNewLocalityGroup(String name, Set<ByteSequence> columnFamilies) throws IOException {
+      calls.add("start " + name);
+    }
+    
+    @Override
+    public void startDefaultLocalityGroup() throws IOException {
+      calls.add("start default");
+    }
+    
+    @Override
+    public void startAllLocalityGroups(Map<String,Set<ByteSequence>> groups) throws IOException {
+      calls.add("start all");
+    }
+    
+    @Override
+    public void append(Key key, Value value) throws IOException {
+      if (calls.size() >= failAfter)
+        throw new IOException("test failure");
+      calls.add(key.getRow() + "=" + value);
+    }
+    
+    @Override
+    public DataOutputStream createMetaStore(String name) throws IOException {
+      throw new UnsupportedOperationException();
+    }
+    
+    @Override
+    public void close() throws IOException {
+      calls.add("close");
+    }
+  }
+  
+  private static Key nk(int row) {
+    return new Key(String.format("r%06d", row));
+  }
+  
+  public void testOrder() throws IOException {
+    RecordingWriter recorder = new RecordingWriter();
+    PipelinedFileSKVWriter writer = new PipelinedFileSKVWriter(recorder, executor, 2, new AtomicLong(), new AtomicLong());
+    
+    List<String> expected = new ArrayList<String>();
+    
+    writer.startNewLocalityGroup("g1", null);
+    expected.add("start g1");
+    for (int i = 0; i < 5000; i++) {
+      writer.append(nk(i), new Value(("" + i).getBytes()));
+      expected.add(nk(i).getRow() + "=" + i);
+    }
+    
+    writer.startDefaultLocalityGroup();
+    expected.add("start default");
+    for (int i = 5000; i < 5010; i++) {
+      writer.append(nk(i), new Value(("" + i).getBytes()));
+      expected.add(nk(i).getRow() + "=" + i);
+    }
+    
+    writer.close();
+    expected.add("close");
+    
+    assertEquals(expected, recorder.calls);
+  }
+  
+  public void testNoThreads() throws IOException {
+    ExecutorService none = Executors.newSingleThreadExecutor();
+    none.shutdown();
+    
+    RecordingWriter recorder = new RecordingWriter();
+    PipelinedFileSKVWriter writer = new PipelinedFileSKVWriter(recorder, none, 2, new AtomicLong(), new AtomicLong());
+    
+    List<String> expected = new ArrayList<String>();
+    for (int i = 0; i < 5000; i++) {
+      writer.append(nk(i), new Value(("" + i).getBytes()));
+      expected.add(nk(i).getRow() + "=" + i);
+    }
+    writer.close();
+    expected.add("close");
+    
+    assertEquals(expected, recorder.calls);
+  }
+  
+  public void testError() throws IOException {
+    RecordingWriter recorder = new RecordingWriter();
+    recorder.failAfter = 100;
+    PipelinedFileSKVWriter writer = new PipelinedFileSKVWriter(recorder, executor, 2, new AtomicLong(), new AtomicLong());
+    
+    try {
+      for (int i = 0; i < 100000; i++)
+        writer.append(nk(i), new Value(("" + i).getBytes()));
+      writer.close();
+      fail();
+    } catch (IOException e) {
+      assertEquals("test failure", e.getMessage());
+    }
+    
+    // closing after a failure still closes the underlying writer
+    try {
+      writer.close();
+      fail();
+    } catch (IOException e) {}
+    assertEquals("close", recorder.calls.get(recorder.calls.size() - 1));
+  }
+}
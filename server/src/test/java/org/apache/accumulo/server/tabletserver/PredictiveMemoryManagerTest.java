@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.accumulo.core.data.KeyExtent;
+import org.apache.hadoop.io.Text;
+
+public class PredictiveMemoryManagerTest extends TestCase {
+  
+  private static final long MB = 1024 * 1024;
+  
+  private static class TestState implements TabletState {
+    KeyExtent extent;
+    long memTableSize;
+    long compactingSize;
+    
+    TestState(String endRow, long memTableSize, long compactingSize) {
+      this.extent = new KeyExtent(new Text("1"), new Text(endRow), null);
+      this.memTableSize = memTableSize;
+      this.compactingSize = compactingSize;
+    }
+    
+    @Override
+    public KeyExtent getExtent() {
+      return extent;
+    }
+    
+    @Override
+    public long getLastCommitTime() {
+      return 0;
+    }
+    
+    @Override
+    public long getMemTableSize() {
+      return memTableSize;
+    }
+    
+    @Override
+    public long getMinorCompactingMemTableSize() {
+      return compactingSize;
+    }
+  }
+  
+  private static List<KeyExtent> actions(PredictiveMemoryManager mm, long now, TestState... states) {
+    return mm.getMemoryManagementActions(Arrays.<TabletState> asList(states), now).tabletsToMinorCompact;
+  }
+  
+  public void testSlowIngest() {
+    PredictiveMemoryManager mm = new PredictiveMemoryManager(1000 * MB, 4, 2);
+    TestState t1 = new TestState("a", 100 * MB, 0);
+    TestState t2 = new TestState("b", 50 * MB, 0);
+    
+    long now = 1000;
+    for (int i = 0; i < 40; i++) {
+      assertEquals(Collections.emptyList(), actions(mm, now, t1, t2));
+      t1.memTableSize += MB / 4;
+      now += 250;
+    }
+    assertEquals(0, mm.getAvoidedHoldTime());
+  }
+  
+  public void testFastIngest() {
+    PredictiveMemoryManager mm = new PredictiveMemoryManager(1000 * MB, 4, 2);
+    TestState t1 = new TestState("a", 100 * MB, 0);
+    TestState t2 = new TestState("b", 50 * MB, 0);
+    
+    // 40M/sec into the first tablet, which takes longer to flush than the remaining memory lasts
+    long now = 1000;
+    List<KeyExtent> compact = Collections.emptyList();
+    while (compact.isEmpty()) {
+      compact = actions(mm, now, t1, t2);
+      t1.memTableSize += 10 * MB;
+      now += 250;
+      assertTrue(t1.memTableSize + t2.memTableSize < 0.75 * 1000 * MB);
+    }
+    
+    assertEquals(Collections.singletonList(t1.extent), compact);
+    
+    // the flush started early enough to complete before commits would be held, so starting it early avoided nothing
+    assertEquals(0, mm.getAvoidedHoldTime());
+  }
+  
+  public void testSuddenIngest() {
+    PredictiveMemoryManager mm = new PredictiveMemoryManager(1000 * MB, 4, 2);
+    TestState t1 = new TestState("a", 100 * MB, 0);
+    TestState t2 = new TestState("b", 50 * MB, 0);
+    
+    long now = 1000;
+    assertEquals(Collections.emptyList(), actions(mm, now, t1, t2));
+    
+    // 800M/sec arrives, and memory would reach the hold point well before the 30 second flush completes
+    t1.memTableSize += 200 * MB;
+    now += 250;
+    assertEquals(Collections.singletonList(t1.extent), actions(mm, now, t1, t2));
+    long avoided = mm.getAvoidedHoldTime();
+    assertTrue(avoided > 0);
+    assertTrue(avoided < 30000);
+    
+    // asking again before the flush starts does not count it twice
+    now += 250;
+    assertEquals(Collections.singletonList(t1.extent), actions(mm, now, t1, t2));
+    assertEquals(avoided, mm.getAvoidedHoldTime());
+  }
+  
+  public void testStatic() {
+    PredictiveMemoryManager mm = new PredictiveMemoryManager(1000 * MB, 4, 2);
+    TestState t1 = new TestState("a", 300 * MB, 0);
+    TestState t2 = new TestState("b", 500 * MB, 0);
+    
+    assertEquals(Collections.singletonList(t2.extent), actions(mm, 1000, t1, t2));
+    
+    // too many minor compactions waiting
+    t1.compactingSize = t1.memTableSize;
+    t1.memTableSize = 0;
+    mm = new PredictiveMemoryManager(1000 * MB, 1, 1);
+    assertEquals(Collections.emptyList(), actions(mm, 1000, t1, t2));
+  }
+  
+  public void testThroughput() {
+    PredictiveMemoryManager mm = new PredictiveMemoryManager(1000 * MB, 4, 2);
+    TestState t1 = new TestState("a", 100 * MB, 0);
+    
+    actions(mm, 1000, t1);
+    t1.compactingSize = t1.memTableSize;
+    t1.memTableSize = 0;
+    actions(mm, 1250, t1);
+    t1.compactingSize = 0;
+    actions(mm, 2250, t1);
+    
+    // 100M flushed in one second
+    double expected = 0.8 * PredictiveMemoryManager.INITIAL_THROUGHPUT + 0.2 * 100 * MB;
+    assertEquals(expected, mm.getMinorCompactionThroughput(), 1.0);
+  }
+}
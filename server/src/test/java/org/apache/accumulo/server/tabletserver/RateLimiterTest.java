@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+public class RateLimiterTest extends TestCase {
+  
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+  
+  /**
+   * A clock that only moves when the limiter sleeps or the test advances it.
+   */
+  private static class TestClock implements RateLimiter.Clock {
+    long now = 1000 * SECOND;
+    final List<Long> sleeps = new ArrayList<Long>();
+    
+    @Override
+    public long nanoTime() {
+      return now;
+    }
+    
+    @Override
+    public void sleep(long nanos) {
+      sleeps.add(nanos);
+      now += nanos;
+    }
+  }
+  
+  private TestClock clock;
+  private RateLimiter limiter;
+  
+  @Override
+  protected void setUp() {
+    clock = new TestClock();
+    limiter = new RateLimiter(clock);
+  }
+  
+  public void testUnlimited() {
+    for (int i = 0; i < 1000; i++)
+      limiter.acquire(1 << 20);
+    assertTrue(clock.sleeps.isEmpty());
+    assertEquals(1000l << 20, limiter.getTotal());
+  }
+  
+  public void testLimited() {
+    limiter.setRate(10 << 20);
+    assertEquals(10 << 20, limiter.getRate());
+    
+    // starting with nothing saved, each caller waits for its own bytes at 10M/sec
+    for (int i = 0; i < 50; i++) {
+      limiter.acquire(100 << 10);
+      assertEquals(-(100 << 10), limiter.getAvailable(), 1);
+    }
+    assertEquals(50, clock.sleeps.size());
+    for (long sleep : clock.sleeps)
+      assertEquals(SECOND * 10 / 1024, sleep);
+    assertEquals(50l * (100 << 10), limiter.getTotal());
+    
+    // removing the limit does not leave callers waiting
+    limiter.setRate(0);
+    limiter.acquire(100 << 20);
+    assertEquals(50, clock.sleeps.size());
+  }
+  
+  public void testWaitBehindDebt() {
+    limiter.setRate(1 << 20);
+    
+    // the second caller waits for the first caller's debt to be repaid, as well as for its own bytes
+    limiter.acquire(1 << 19);
+    // as if the second caller arrived while the first was still sleeping
+    clock.now -= clock.sleeps.get(0);
+    limiter.acquire(1 << 19);
+    assertEquals(SECOND / 2, (long) clock.sleeps.get(0));
+    assertEquals(SECOND, (long) clock.sleeps.get(1));
+  }
+  
+  public void testSetRateKeepsSaved() {
+    limiter.setRate(10 << 20);
+    
+    // at most a second is saved up at the old rate
+    clock.now += 5 * SECOND;
+    limiter.setRate(20 << 20);
+    assertEquals(10 << 20, limiter.getAvailable(), 1);
+    
+    limiter.acquire(10 << 20);
+    assertTrue(clock.sleeps.isEmpty());
+    assertEquals(0, limiter.getAvailable(), 1);
+    
+    // lowering the rate drops what was saved beyond a second at the new rate
+    clock.now += SECOND;
+    limiter.setRate(1 << 20);
+    assertEquals(1 << 20, limiter.getAvailable(), 1);
+  }
+  
+  public void testLargerThanRate() {
+    limiter.setRate(10 << 20);
+    
+    // more than can ever be saved up goes into debt instead of waiting forever
+    limiter.acquire(12 << 20);
+    assertEquals(1, clock.sleeps.size());
+    assertEquals(SECOND * 12 / 10, (long) clock.sleeps.get(0));
+    assertEquals(12 << 20, limiter.getTotal());
+    
+    // the debt was repaid while sleeping
+    limiter.acquire(0);
+    assertEquals(0, limiter.getAvailable(), 1);
+  }
+  
+  public void testGiveUp() {
+    limiter.setRate(1 << 20);
+    
+    // nothing is saved up, so this would wait ten seconds
+    assertFalse(limiter.tryAcquire(10 << 20, 1, TimeUnit.SECONDS));
+    assertTrue(clock.sleeps.isEmpty());
+    assertEquals(0, limiter.getTotal());
+    assertEquals(0, limiter.getAvailable(), 1);
+    
+    // giving up took nothing, so later callers do not wait behind it
+    assertTrue(limiter.tryAcquire(100 << 10, 1, TimeUnit.SECONDS));
+    assertEquals(1, clock.sleeps.size());
+    assertEquals(SECOND * 100 / 1024, (long) clock.sleeps.get(0));
+    assertEquals(100 << 10, limiter.getTotal());
+    
+    // waiting exactly as long as the timeout is allowed
+    assertTrue(limiter.tryAcquire(1 << 20, 1, TimeUnit.SECONDS));
+    assertEquals(SECOND, (long) clock.sleeps.get(1));
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+
+public class ReadAheadIteratorTest extends TestCase {
+  
+  private static final ExecutorService executor = Executors.newCachedThreadPool();
+  
+  private static Key nk(int row) {
+    return new Key(String.format("r%06d", row), "cf", "cq");
+  }
+  
+  private static TreeMap<Key,Value> createData(int count) {
+    TreeMap<Key,Value> tm = new TreeMap<Key,Value>();
+    for (int i = 0; i < count; i++)
+      tm.put(nk(i), new Value(("v" + i).getBytes()));
+    return tm;
+  }
+  
+  private static void check(SortedKeyValueIterator<Key,Value> iter, TreeMap<Key,Value> expected) throws IOException {
+    for (Entry<Key,Value> entry : expected.entrySet()) {
+      assertTrue(iter.hasTop());
+      assertEquals(entry.getKey(), iter.getTopKey());
+      assertEquals(entry.getValue(), iter.getTopValue());
+      iter.next();
+    }
+    assertFalse(iter.hasTop());
+  }
+  
+  private static ReadAheadIterator create(TreeMap<Key,Value> data, int depth) {
+    return new ReadAheadIterator(new SortedMapIterator(data), executor, depth, new AtomicLong(), new AtomicLong());
+  }
+  
+  public void testReadAll() throws IOException {
+    TreeMap<Key,Value> data = createData(10000);
+    ReadAheadIterator iter = create(data, 2);
+    iter.seek(new Range(), Collections.<ByteSequence> emptySet(), false);
+    check(iter, data);
+    iter.close();
+    
+    ReadAheadIterator empty = create(new TreeMap<Key,Value>(), 2);
+    empty.seek(new Range(), Collections.<ByteSequence> emptySet(), false);
+    assertFalse(empty.hasTop());
+    empty.close();
+  }
+  
+  public void testReseek() throws IOException {
+    TreeMap<Key,Value> data = createData(10000);
+    ReadAheadIterator iter = create(data, 1);
+    iter.seek(new Range(), Collections.<ByteSequence> emptySet(), false);
+    for (int i = 0; i < 10; i++)
+      iter.next();
+    
+    iter.seek(new Range(nk(5000), true, nk(7000), false), Collections.<ByteSequence> emptySet(), false);
+    check(iter, new TreeMap<Key,Value>(data.subMap(nk(5000), nk(7000))));
+    iter.close();
+  }
+  
+  public void testDeepCopy() throws IOException {
+    TreeMap<Key,Value> data = createData(5000);
+    ReadAheadIterator iter = create(data, 3);
+    iter.seek(new Range(nk(0), true, nk(4000), false), Collections.<ByteSequence> emptySet(), false);
+    for (int i = 0; i < 1500; i++)
+      iter.next();
+    
+    SortedKeyValueIterator<Key,Value> copy = iter.deepCopy(null);
+    
+    // the original continues where it was, reading on the calling thread
+    check(iter, new TreeMap<Key,Value>(data.subMap(nk(1500), nk(4000))));
+    
+    copy.seek(new Range(nk(4500), null), Collections.<ByteSequence> emptySet(), false);
+    check(copy, new TreeMap<Key,Value>(data.tailMap(nk(4500))));
+  }
+  
+  public void testNoThreads() throws IOException {
+    ExecutorService none = Executors.newSingleThreadExecutor();
+    none.shutdown();
+    
+    TreeMap<Key,Value> data = createData(5000);
+    ReadAheadIterator iter = new ReadAheadIterator(new SortedMapIterator(data), none, 2, new AtomicLong(), new AtomicLong());
+    iter.seek(new Range(), Collections.<ByteSequence> emptySet(), false);
+    check(iter, data);
+    
+    iter.seek(new Range(nk(1000), true, nk(2000), false), Collections.<ByteSequence> emptySet(), false);
+    check(iter, new TreeMap<Key,Value>(data.subMap(nk(1000), nk(2000))));
+    iter.close();
+  }
+  
+  public void testError() throws IOException {
+    TreeMap<Key,Value> data = createData(3000);
+    SortedKeyValueIterator<Key,Value> failing = new SortedMapIterator(data) {
+      @Override
+      public void next() throws IOException {
+        if (getTopKey().equals(nk(2500)))
+          throw new IOException("test failure");
+        super.next();
+      }
+    };
+    
+    ReadAheadIterator iter = new ReadAheadIterator(failing, executor, 2, new AtomicLong(), new AtomicLong());
+    iter.seek(new Range(), Collections.<ByteSequence> emptySet(), false);
+    try {
+      while (iter.hasTop())
+        iter.next();
+      fail();
+    } catch (IOException e) {
+      assertEquals("test failure", e.getMessage());
+    }
+    iter.close();
+  }
+}
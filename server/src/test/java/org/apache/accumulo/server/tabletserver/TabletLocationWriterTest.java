@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import junit.framework.TestCase;
+
+import org.apache.accumulo.server.master.state.DistributedStoreException;
+import org.apache.accumulo.server.tabletserver.TabletLocationWriter.GroupCommit;
+
+public class TabletLocationWriterTest extends TestCase {
+  
+  private static class TestCommit extends GroupCommit<Integer> {
+    final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<List<Integer>>());
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    volatile boolean fail = false;
+    
+    @Override
+    protected void write(Collection<Integer> items) throws DistributedStoreException {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      
+      ArrayList<Integer> batch = new ArrayList<Integer>(items);
+      Collections.sort(batch);
+      batches.add(batch);
+      
+      if (fail)
+        throw new DistributedStoreException("failed " + batch);
+    }
+  }
+  
+  private static Thread add(final GroupCommit<Integer> commit, final int item, final List<Throwable> errors) {
+    Thread t = new Thread() {
+      @Override
+      public void run() {
+        try {
+          commit.add(item);
+        } catch (Throwable e) {
+          errors.add(e);
+        }
+      }
+    };
+    t.start();
+    return t;
+  }
+  
+  private static void waitUntilWaiting(Thread t) throws InterruptedException {
+    while (t.getState() != Thread.State.WAITING)
+      Thread.sleep(5);
+  }
+  
+  public void testGrouping() throws Exception {
+    TestCommit commit = new TestCommit();
+    List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+    
+    Thread first = add(commit, 0, errors);
+    commit.started.await();
+    
+    // everything added while the first item is being written goes in one batch
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int i = 1; i <= 5; i++) {
+      threads.add(add(commit, i, errors));
+      waitUntilWaiting(threads.get(threads.size() - 1));
+    }
+    
+    commit.release.countDown();
+    first.join();
+    for (Thread t : threads)
+      t.join();
+    
+    assertEquals(Collections.emptyList(), errors);
+    assertEquals(2, commit.batches.size());
+    assertEquals(Collections.singletonList(0), commit.batches.get(0));
+    assertEquals(Arrays.asList(1, 2, 3, 4, 5), commit.batches.get(1));
+  }
+  
+  public void testFailure() throws Exception {
+    TestCommit commit = new TestCommit();
+    List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+    
+    Thread first = add(commit, 0, errors);
+    commit.started.await();
+    
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int i = 1; i <= 3; i++) {
+      threads.add(add(commit, i, errors));
+      waitUntilWaiting(threads.get(threads.size() - 1));
+    }
+    
+    // every caller whose item was in the failed batch sees the failure
+    commit.fail = true;
+    commit.release.countDown();
+    first.join();
+    for (Thread t : threads)
+      t.join();
+    
+    assertEquals(4, errors.size());
+    for (Throwable e : errors)
+      assertTrue(e instanceof DistributedStoreException);
+    
+    // later batches are still written
+    commit.fail = false;
+    commit.add(4);
+    assertEquals(Collections.singletonList(4), commit.batches.get(commit.batches.size() - 1));
+  }
+}
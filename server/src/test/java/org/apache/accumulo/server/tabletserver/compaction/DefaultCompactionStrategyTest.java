@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver.compaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.data.KeyExtent;
+import org.apache.accumulo.core.util.MetadataTable.DataFileValue;
+import org.apache.accumulo.server.tabletserver.Tablet.MajorCompactionReason;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class DefaultCompactionStrategyTest {
+  
+  private static MajorCompactionRequest createRequest(MajorCompactionReason reason, Object... pairs) {
+    Map<String,DataFileValue> files = new HashMap<String,DataFileValue>();
+    for (int i = 0; i < pairs.length; i += 2)
+      files.put((String) pairs[i], new DataFileValue(((Number) pairs[i + 1]).longValue(), 100));
+    MajorCompactionRequest request = new MajorCompactionRequest(new KeyExtent(new Text("1"), null, null), reason, null, null,
+        AccumuloConfiguration.getDefaultConfiguration());
+    request.setFiles(files);
+    return request;
+  }
+  
+  private static HashSet<String> set(String... files) {
+    return new HashSet<String>(Arrays.asList(files));
+  }
+  
+  @Test
+  public void testRatio() throws Exception {
+    DefaultCompactionStrategy s = new DefaultCompactionStrategy();
+    
+    MajorCompactionRequest request = createRequest(MajorCompactionReason.NORMAL, "f1", 1000, "f2", 100, "f3", 10);
+    assertFalse(s.shouldCompact(request));
+    assertNull(s.getCompactionPlan(request));
+    
+    request = createRequest(MajorCompactionReason.NORMAL, "f1", 1000, "f2", 100, "f3", 100, "f4", 100);
+    assertTrue(s.shouldCompact(request));
+    assertEquals(set("f2", "f3", "f4"), new HashSet<String>(s.getCompactionPlan(request).inputFiles));
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver.compaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.KeyExtent;
+import org.apache.accumulo.core.util.MetadataTable.DataFileValue;
+import org.apache.accumulo.server.tabletserver.Tablet.MajorCompactionReason;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class SizeTieredCompactionStrategyTest {
+  
+  private static MajorCompactionRequest createRequest(MajorCompactionReason reason, AccumuloConfiguration conf, Object... pairs) {
+    Map<String,DataFileValue> files = new HashMap<String,DataFileValue>();
+    for (int i = 0; i < pairs.length; i += 2)
+      files.put((String) pairs[i], new DataFileValue(((Number) pairs[i + 1]).longValue(), 100));
+    MajorCompactionRequest request = new MajorCompactionRequest(new KeyExtent(new Text("1"), null, null), reason, null, null, conf);
+    request.setFiles(files);
+    return request;
+  }
+  
+  private static HashSet<String> set(String... files) {
+    return new HashSet<String>(Arrays.asList(files));
+  }
+  
+  private static final long M = 1024 * 1024;
+  
+  @Test
+  public void testBuckets() throws Exception {
+    AccumuloConfiguration conf = AccumuloConfiguration.getDefaultConfiguration();
+    SizeTieredCompactionStrategy s = new SizeTieredCompactionStrategy();
+    s.init(new HashMap<String,String>());
+    
+    // three large files of similar size are not enough
+    MajorCompactionRequest request = createRequest(MajorCompactionReason.NORMAL, conf, "l1", 1000 * M, "l2", 1100 * M, "l3", 900 * M, "s1", 60 * M, "s2",
+        200 * M);
+    assertFalse(s.shouldCompact(request));
+    
+    // a fourth one is
+    request = createRequest(MajorCompactionReason.NORMAL, conf, "l1", 1000 * M, "l2", 1100 * M, "l3", 900 * M, "l4", 1200 * M, "s1", 60 * M, "s2", 200 * M);
+    assertTrue(s.shouldCompact(request));
+    assertEquals(set("l1", "l2", "l3", "l4"), new HashSet<String>(s.getCompactionPlan(request).inputFiles));
+    
+    // the small files all go in one bucket, which is preferred over the large bucket
+    request = createRequest(MajorCompactionReason.NORMAL, conf, "l1", 1000 * M, "l2", 1100 * M, "l3", 900 * M, "l4", 1200 * M, "s1", 1 * M, "s2", 40 * M,
+        "s3", 3 * M, "s4", 7 * M);
+    assertEquals(set("s1", "s2", "s3", "s4"), new HashSet<String>(s.getCompactionPlan(request).inputFiles));
+    
+    // an idle tablet compacts a pair of similar files
+    request = createRequest(MajorCompactionReason.IDLE, conf, "l1", 1000 * M, "l2", 1100 * M, "s1", 60 * M);
+    assertEquals(set("l1", "l2"), new HashSet<String>(s.getCompactionPlan(request).inputFiles));
+  }
+  
+  @Test
+  public void testOptions() throws Exception {
+    AccumuloConfiguration conf = AccumuloConfiguration.getDefaultConfiguration();
+    SizeTieredCompactionStrategy s = new SizeTieredCompactionStrategy();
+    Map<String,String> opts = new HashMap<String,String>();
+    opts.put(SizeTieredCompactionStrategy.MIN_THRESHOLD_OPT, "2");
+    opts.put(SizeTieredCompactionStrategy.MAX_THRESHOLD_OPT, "2");
+    opts.put(SizeTieredCompactionStrategy.MIN_SIZE_OPT, "1K");
+    s.init(opts);
+    
+    MajorCompactionRequest request = createRequest(MajorCompactionReason.NORMAL, conf, "f1", 10 * M, "f2", 11 * M, "f3", 12 * M, "f4", 100 * M);
+    assertEquals(set("f1", "f2"), new HashSet<String>(s.getCompactionPlan(request).inputFiles));
+  }
+  
+  @Test
+  public void testMaxFiles() throws Exception {
+    ConfigurationCopy conf = new ConfigurationCopy(AccumuloConfiguration.getDefaultConfiguration());
+    conf.set(Property.TABLE_FILE_MAX, "3");
+    SizeTieredCompactionStrategy s = new SizeTieredCompactionStrategy();
+    s.init(new HashMap<String,String>());
+    
+    // no bucket is big enough, but there are too many files
+    MajorCompactionRequest request = createRequest(MajorCompactionReason.NORMAL, conf, "f1", 100 * M, "f2", 1000 * M, "f3", 10000 * M, "f4", 100000 * M);
+    assertEquals(set("f1", "f2"), new HashSet<String>(s.getCompactionPlan(request).inputFiles));
+  }
+}
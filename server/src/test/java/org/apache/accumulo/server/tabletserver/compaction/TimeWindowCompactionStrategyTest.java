@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver.compaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.KeyExtent;
+import org.apache.accumulo.core.util.MetadataTable.DataFileValue;
+import org.apache.accumulo.server.tabletserver.Tablet.MajorCompactionReason;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class TimeWindowCompactionStrategyTest {
+  
+  private static final long HOUR = 60 * 60 * 1000l;
+  
+  // the timestamps are given as the time of bulk imported files, so the files do not need to be read
+  private static MajorCompactionRequest createRequest(AccumuloConfiguration conf, MajorCompactionReason reason, long... sizesAndTimes) {
+    Map<String,DataFileValue> files = new HashMap<String,DataFileValue>();
+    for (int i = 0; i < sizesAndTimes.length; i += 2)
+      files.put("f" + (i / 2 + 1), new DataFileValue(sizesAndTimes[i], 100, sizesAndTimes[i + 1]));
+    MajorCompactionRequest request = new MajorCompactionRequest(new KeyExtent(new Text("1"), null, null), reason, null, null, conf);
+    request.setFiles(files);
+    return request;
+  }
+  
+  private static MajorCompactionRequest createRequest(MajorCompactionReason reason, long... sizesAndTimes) {
+    return createRequest(AccumuloConfiguration.getDefaultConfiguration(), reason, sizesAndTimes);
+  }
+  
+  private static HashSet<String> set(String... files) {
+    return new HashSet<String>(Arrays.asList(files));
+  }
+  
+  private static TimeWindowCompactionStrategy createStrategy(Map<String,String> opts) {
+    TimeWindowCompactionStrategy s = new TimeWindowCompactionStrategy();
+    opts.put(TimeWindowCompactionStrategy.WINDOW_SIZE_OPT, "1h");
+    s.init(opts);
+    return s;
+  }
+  
+  @Test
+  public void testWindows() throws Exception {
+    TimeWindowCompactionStrategy s = createStrategy(new HashMap<String,String>());
+    
+    // one file per old window, and less than the threshold in the newest window
+    MajorCompactionRequest request = createRequest(MajorCompactionReason.NORMAL, 100, HOUR + 5, 100, 2 * HOUR + 5, 10, 3 * HOUR + 5, 10, 3 * HOUR + 6);
+    assertFalse(s.shouldCompact(request));
+    assertNull(s.getCompactionPlan(request));
+    
+    // an old window with two files is compacted, even though it is larger
+    request = createRequest(MajorCompactionReason.NORMAL, 100, HOUR + 5, 1000, HOUR + 7, 100, 2 * HOUR + 5, 10, 3 * HOUR + 5, 10, 3 * HOUR + 6);
+    assertTrue(s.shouldCompact(request));
+    assertEquals(set("f1", "f2"), new HashSet<String>(s.getCompactionPlan(request).inputFiles));
+    assertNull(s.getCompactionPlan(request).writeParameters);
+    
+    // the newest window is compacted once it reaches the threshold, and before older windows
+    request = createRequest(MajorCompactionReason.NORMAL, 100, HOUR + 5, 1000, HOUR + 7, 10, 3 * HOUR + 5, 10, 3 * HOUR + 6, 10, 3 * HOUR + 7, 10,
+        3 * HOUR + 8);
+    assertEquals(set("f3", "f4", "f5", "f6"), new HashSet<String>(s.getCompactionPlan(request).inputFiles));
+    
+    // an idle tablet compacts the newest window with two files
+    request = createRequest(MajorCompactionReason.IDLE, 100, HOUR + 5, 10, 3 * HOUR + 5, 10, 3 * HOUR + 6);
+    assertEquals(set("f2", "f3"), new HashSet<String>(s.getCompactionPlan(request).inputFiles));
+  }
+  
+  @Test
+  public void testOldCompression() throws Exception {
+    Map<String,String> opts = new HashMap<String,String>();
+    opts.put(TimeWindowCompactionStrategy.OLD_COMPRESS_TYPE_OPT, "gz");
+    TimeWindowCompactionStrategy s = createStrategy(opts);
+    
+    MajorCompactionRequest request = createRequest(MajorCompactionReason.NORMAL, 100, HOUR + 5, 1000, HOUR + 7, 10, 3 * HOUR + 5);
+    CompactionPlan plan = s.getCompactionPlan(request);
+    assertEquals(set("f1", "f2"), new HashSet<String>(plan.inputFiles));
+    assertEquals("gz", plan.writeParameters.getCompressType());
+  }
+  
+  @Test
+  public void testFilesOverMax() throws Exception {
+    Map<String,String> opts = new HashMap<String,String>();
+    opts.put(TimeWindowCompactionStrategy.OLD_COMPRESS_TYPE_OPT, "gz");
+    TimeWindowCompactionStrategy s = createStrategy(opts);
+    ConfigurationCopy conf = new ConfigurationCopy(AccumuloConfiguration.getDefaultConfiguration());
+    conf.set(Property.TABLE_FILE_MAX, "3");
+    
+    // one file per window, so only the limit on files calls for a compaction, which merges the oldest windows
+    MajorCompactionRequest request = createRequest(conf, MajorCompactionReason.NORMAL, 100, HOUR + 5, 100, 2 * HOUR + 5, 100, 3 * HOUR + 5, 100,
+        4 * HOUR + 5, 10, 5 * HOUR + 5);
+    assertTrue(s.shouldCompact(request));
+    CompactionPlan plan = s.getCompactionPlan(request);
+    assertEquals(set("f1", "f2", "f3"), new HashSet<String>(plan.inputFiles));
+    assertEquals("gz", plan.writeParameters.getCompressType());
+    
+    // a compaction within a window that leaves too many files is replaced by one that merges windows
+    request = createRequest(conf, MajorCompactionReason.NORMAL, 100, HOUR + 5, 1000, HOUR + 6, 100, 2 * HOUR + 5, 100, 3 * HOUR + 5, 100, 4 * HOUR + 5,
+        10, 5 * HOUR + 5);
+    assertEquals(set("f1", "f2", "f3", "f4"), new HashSet<String>(s.getCompactionPlan(request).inputFiles));
+    
+    // a compaction within a window is kept when it brings the tablet under the limit
+    request = createRequest(conf, MajorCompactionReason.NORMAL, 100, HOUR + 5, 1000, HOUR + 6, 100, 2 * HOUR + 5, 10, 3 * HOUR + 5);
+    assertEquals(set("f1", "f2"), new HashSet<String>(s.getCompactionPlan(request).inputFiles));
+    
+    // the newest window is merged when there are not enough older files, and its file is not written as old data
+    conf.set(Property.TABLE_FILE_MAX, "1");
+    request = createRequest(conf, MajorCompactionReason.NORMAL, 100, HOUR + 5, 10, 3 * HOUR + 5);
+    plan = s.getCompactionPlan(request);
+    assertEquals(set("f1", "f2"), new HashSet<String>(plan.inputFiles));
+    assertNull(plan.writeParameters);
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver.log;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.tabletserver.thrift.TDurability;
+import org.junit.Test;
+
+public class DurabilityTest {
+  
+  @Test
+  public void testForTable() {
+    ConfigurationCopy conf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    assertEquals(Durability.SYNC, Durability.forTable(conf));
+    
+    conf.set(Property.TABLE_DURABILITY, "flush");
+    assertEquals(Durability.FLUSH, Durability.forTable(conf));
+    
+    conf.set(Property.TABLE_WALOG_ENABLED, "false");
+    assertEquals(Durability.NONE, Durability.forTable(conf));
+  }
+  
+  @Test
+  public void testMax() {
+    assertEquals(Durability.SYNC, Durability.LOG.max(Durability.SYNC));
+    assertEquals(Durability.FLUSH, Durability.FLUSH.max(Durability.NONE));
+    assertEquals(Durability.LOG, Durability.LOG.max(Durability.LOG));
+  }
+  
+  @Test
+  public void testResolve() {
+    // a client may lower the durability of its writes, but not raise it
+    assertEquals(Durability.LOG, Durability.resolve(Durability.SYNC, Durability.LOG));
+    assertEquals(Durability.FLUSH, Durability.resolve(Durability.FLUSH, Durability.SYNC));
+    assertEquals(Durability.NONE, Durability.resolve(Durability.NONE, Durability.SYNC));
+    assertEquals(Durability.FLUSH, Durability.resolve(Durability.FLUSH, null));
+    
+    assertEquals(null, Durability.fromThrift(TDurability.DEFAULT));
+    assertEquals(null, Durability.fromThrift(null));
+    assertEquals(Durability.NONE, Durability.fromThrift(TDurability.NONE));
+    assertEquals(Durability.SYNC, Durability.fromThrift(TDurability.SYNC));
+  }
+}
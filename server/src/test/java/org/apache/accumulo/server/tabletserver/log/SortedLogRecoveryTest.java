@@ -598,4 +598,38 @@ public class SortedLogRecoveryTest {
     Assert.assertEquals(1, mutations.size());
     Assert.assertEquals(m, mutations.get(0));
   }
+  
+  @Test
+  public void testConcurrentLogs() throws Exception {
+    // a tablet server writing to several logs at once assigns each tablet to one of them, so a log may define other tablets
+    // and a peer log written at the same time may not define the recovering tablet at all
+    KeyExtent other = new KeyExtent(new Text("table"), new Text("m"), null);
+    KeyExtent other2 = new KeyExtent(new Text("table2"), null, null);
+    
+    Mutation ignored = new ServerMutation(new Text("row1"));
+    ignored.put("foo", "bar", "v1");
+    Mutation m = new ServerMutation(new Text("row1"));
+    m.put("foo", "bar", "v2");
+    
+    KeyValue entries[] = new KeyValue[] {createKeyValue(OPEN, 0, -1, "1"), createKeyValue(DEFINE_TABLET, 1, 1, extent),
+        createKeyValue(DEFINE_TABLET, 2, 2, other), createKeyValue(MUTATION, 2, 1, ignored), createKeyValue(MUTATION, 3, 2, ignored),
+        createKeyValue(COMPACTION_START, 3, 1, "/t/f1"),};
+    KeyValue peerEntries[] = new KeyValue[] {createKeyValue(OPEN, 0, -1, "1"), createKeyValue(DEFINE_TABLET, 1, 3, other2),
+        createKeyValue(MUTATION, 2, 3, ignored),};
+    KeyValue entries2[] = new KeyValue[] {createKeyValue(OPEN, 0, -1, "1"), createKeyValue(DEFINE_TABLET, 4, 1, extent),
+        createKeyValue(COMPACTION_FINISH, 5, 1, null), createKeyValue(MUTATION, 6, 1, m),};
+    
+    Arrays.sort(entries);
+    Arrays.sort(peerEntries);
+    Arrays.sort(entries2);
+    Map<String,KeyValue[]> logs = new TreeMap<String,KeyValue[]>();
+    logs.put("entries", entries);
+    logs.put("entries1", peerEntries);
+    logs.put("entries2", entries2);
+    
+    List<Mutation> mutations = recover(logs, extent);
+    
+    Assert.assertEquals(1, mutations.size());
+    Assert.assertEquals(m, mutations.get(0));
+  }
 }
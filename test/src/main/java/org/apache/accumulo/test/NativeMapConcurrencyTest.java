@@ -16,6 +16,7 @@
  */
 package org.apache.accumulo.test;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map.Entry;
 
@@ -23,6 +24,7 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.util.FastFormat;
+import org.apache.accumulo.server.tabletserver.InMemoryMap;
 import org.apache.accumulo.server.tabletserver.NativeMap;
 import org.apache.hadoop.io.Text;
 
@@ -83,6 +85,8 @@ public class NativeMapConcurrencyTest {
     int threads = 1;
     @Parameter(names="--writeThreads", description="write threads")
     int writeThreads = 1;
+    @Parameter(names="--shards", description="native map shards used when measuring write throughput")
+    int shards = 4;
     @Parameter(names="-help", help=true)
     boolean help = false;
   }
@@ -99,6 +103,53 @@ public class NativeMapConcurrencyTest {
     NativeMap nm = create(opts.rows, opts.cols);
     runTest(nm, opts.rows, opts.cols, opts.threads, opts.writeThreads);
     nm.delete();
+    
+    // compare the write throughput of a single native map to a sharded one
+    runWriteTest(opts.rows, opts.cols, opts.writeThreads, 1);
+    if (opts.shards > 1)
+      runWriteTest(opts.rows, opts.cols, opts.writeThreads, opts.shards);
+  }
+  
+  private static void runWriteTest(final int rows, final int cols, int writeThreads, int shards) {
+    final InMemoryMap imm = new InMemoryMap(true, shards, "/tmp");
+    
+    Thread threads[] = new Thread[writeThreads];
+    for (int i = 0; i < writeThreads; i++) {
+      final int start = i * rows;
+      threads[i] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int r = 0; r < rows; r++) {
+            Mutation m = nm(r + start);
+            for (int c = 0; c < cols; c++) {
+              pc(m, c, new Value("test".getBytes()));
+            }
+            imm.mutate(Collections.singletonList(m));
+          }
+        }
+      });
+    }
+    
+    long t1 = System.currentTimeMillis();
+    
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        e.printStackTrace();
+      }
+    }
+    
+    long t2 = System.currentTimeMillis();
+    
+    int count = rows * cols * writeThreads;
+    System.out.printf("shards %d writers %d inserted %,d in %,d %,d %,6.2f%n", shards, writeThreads, count, (t2 - t1), imm.getNumEntries(), rate(count, (t2 - t1)));
+    
+    imm.delete(0);
   }
   
   static class ScanTask implements Runnable {
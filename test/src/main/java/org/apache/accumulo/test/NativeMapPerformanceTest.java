@@ -16,14 +16,17 @@
  */
 package org.apache.accumulo.test;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Random;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentSkipListMap;
 
+import org.apache.accumulo.core.data.ColumnUpdate;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Value;
@@ -67,28 +70,31 @@ public class NativeMapPerformanceTest {
     
     Random rand = new Random(19);
     
+    // create the data before timing the puts, so the put rate reflects the cost of inserting into the map
+    List<Mutation> mutations = new ArrayList<Mutation>(numRows);
+    for (int i = 0; i < numRows; i++) {
+      int row = rand.nextInt(1000000000);
+      Mutation m = nm(row);
+      for (int j = 0; j < numCols; j++) {
+        int col = rand.nextInt(1000000);
+        Value val = new Value("test".getBytes());
+        pc(m, col, val);
+      }
+      mutations.add(m);
+    }
+    
     // puts
     long tps = System.currentTimeMillis();
     
     if (nm != null) {
       for (int i = 0; i < numRows; i++) {
-        int row = rand.nextInt(1000000000);
-        Mutation m = nm(row);
-        for (int j = 0; j < numCols; j++) {
-          int col = rand.nextInt(1000000);
-          Value val = new Value("test".getBytes());
-          pc(m, col, val);
-        }
-        nm.mutate(m, i);
+        nm.mutate(mutations.get(i), i);
       }
     } else {
-      for (int i = 0; i < numRows; i++) {
-        int row = rand.nextInt(1000000000);
-        for (int j = 0; j < numCols; j++) {
-          int col = rand.nextInt(1000000);
-          Key key = nk(row, col);
-          Value val = new Value("test".getBytes());
-          tm.put(key, val);
+      for (Mutation m : mutations) {
+        for (ColumnUpdate cu : m.getUpdates()) {
+          Key key = new Key(m.getRow(), cu.getColumnFamily(), cu.getColumnQualifier(), cu.getColumnVisibility(), cu.getTimestamp(), cu.isDeleted(), false);
+          tm.put(key, new Value(cu.getValue()));
         }
       }
     }
@@ -125,19 +131,24 @@ public class NativeMapPerformanceTest {
       colsToLookup[i] = col;
     }
     
+    Key keysToLookup[] = new Key[numLookups];
+    for (int i = 0; i < numLookups; i++) {
+      keysToLookup[i] = nk(rowsToLookup[i], colsToLookup[i]);
+    }
+    
     // get
     
     long tgs = System.currentTimeMillis();
     if (nm != null) {
       for (int i = 0; i < numLookups; i++) {
-        Key key = nk(rowsToLookup[i], colsToLookup[i]);
+        Key key = keysToLookup[i];
         if (nm.get(key) == null) {
           throw new RuntimeException("Did not find " + rowsToLookup[i] + " " + colsToLookup[i] + " " + i);
         }
       }
     } else {
       for (int i = 0; i < numLookups; i++) {
-        Key key = nk(rowsToLookup[i], colsToLookup[i]);
+        Key key = keysToLookup[i];
         if (tm.get(key) == null) {
           throw new RuntimeException("Did not find " + rowsToLookup[i] + " " + colsToLookup[i] + " " + i);
         }
@@ -163,6 +174,9 @@ public class NativeMapPerformanceTest {
     if (tm != null)
       tm.clear();
     
+    mutations = null;
+    keysToLookup = null;
+    
     System.gc();
     System.gc();
     System.gc();
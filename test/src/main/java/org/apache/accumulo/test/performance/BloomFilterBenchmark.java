@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test.performance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.apache.accumulo.core.bloomfilter.BlockedBloomFilter;
+import org.apache.accumulo.core.bloomfilter.DynamicBloomFilter;
+import org.apache.accumulo.core.file.BloomFilterLayer;
+import org.apache.hadoop.util.bloom.Key;
+import org.apache.hadoop.util.hash.Hash;
+
+/**
+ * Compares the time to load and probe the dynamic bloom filter used by {@link BloomFilterLayer} against a {@link BlockedBloomFilter} holding the same keys.
+ */
+public class BloomFilterBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    PrintStream out = System.out;
+
+    int numKeys = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+    int numProbes = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+    double errorRate = .005;
+    int keysPerFilter = 1048576;
+
+    Random r = new Random(42);
+    Key[] keys = new Key[numKeys];
+    for (int i = 0; i < numKeys; i++)
+      keys[i] = new Key(String.format("r%016x", r.nextLong()).getBytes());
+    Key[] probes = new Key[numProbes];
+    for (int i = 0; i < numProbes; i++)
+      probes[i] = new Key(String.format("p%016x", r.nextLong()).getBytes());
+
+    int hashCount = BloomFilterLayer.HASH_COUNT;
+    int vectorSize = (int) Math.ceil(-hashCount * keysPerFilter / Math.log(1.0 - Math.pow(errorRate, 1.0 / hashCount)));
+    DynamicBloomFilter dbf = new DynamicBloomFilter(vectorSize, hashCount, Hash.MURMUR_HASH, keysPerFilter);
+    BlockedBloomFilter.Builder builder = new BlockedBloomFilter.Builder(errorRate, Hash.MURMUR_HASH, keysPerFilter);
+    for (Key k : keys) {
+      dbf.add(k);
+      builder.add(k);
+    }
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream dos = new DataOutputStream(baos);
+    dbf.write(dos);
+    dos.close();
+    byte[] dynamicData = baos.toByteArray();
+
+    baos = new ByteArrayOutputStream();
+    dos = new DataOutputStream(baos);
+    builder.write(dos);
+    dos.close();
+    byte[] blockedData = baos.toByteArray();
+
+    out.printf("keys %,d probes %,d%n", numKeys, numProbes);
+    out.printf("dynamic size %,d bytes, blocked size %,d bytes%n", dynamicData.length, blockedData.length);
+
+    for (int run = 0; run < 3; run++) {
+      long t1 = System.nanoTime();
+      DynamicBloomFilter loadedDbf = new DynamicBloomFilter();
+      loadedDbf.readFields(new DataInputStream(new ByteArrayInputStream(dynamicData)));
+      long t2 = System.nanoTime();
+      BlockedBloomFilter wrapped = BlockedBloomFilter.wrap(ByteBuffer.wrap(blockedData));
+      long t3 = System.nanoTime();
+      BlockedBloomFilter direct = BlockedBloomFilter.read(new DataInputStream(new ByteArrayInputStream(blockedData)), true);
+      long t4 = System.nanoTime();
+
+      out.printf("load   dynamic %8.3f ms   blocked wrap %8.3f ms   blocked direct %8.3f ms%n", (t2 - t1) / 1000000.0, (t3 - t2) / 1000000.0,
+          (t4 - t3) / 1000000.0);
+
+      int hits = 0;
+      t1 = System.nanoTime();
+      for (Key k : probes)
+        if (loadedDbf.membershipTest(k))
+          hits++;
+      t2 = System.nanoTime();
+      out.printf("probe  dynamic %8.1f ns/probe false positives %d%n", (t2 - t1) / (double) numProbes, hits);
+
+      hits = 0;
+      t1 = System.nanoTime();
+      for (Key k : probes)
+        if (wrapped.membershipTest(k))
+          hits++;
+      t2 = System.nanoTime();
+      out.printf("probe  blocked %8.1f ns/probe false positives %d%n", (t2 - t1) / (double) numProbes, hits);
+
+      hits = 0;
+      t1 = System.nanoTime();
+      for (Key k : probes)
+        if (direct.membershipTest(k))
+          hits++;
+      t2 = System.nanoTime();
+      out.printf("probe  direct  %8.1f ns/probe false positives %d%n", (t2 - t1) / (double) numProbes, hits);
+    }
+  }
+}
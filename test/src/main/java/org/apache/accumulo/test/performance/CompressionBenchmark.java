@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test.performance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.rfile.bcfile.Compression;
+import org.apache.accumulo.core.file.rfile.bcfile.Compression.Algorithm;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.compress.Compressor;
+import org.apache.hadoop.io.compress.Decompressor;
+
+/**
+ * Measures the compression ratio and speed of each available codec on blocks of key values shaped like a table's data, comparing whole block
+ * decompression against decompression streams.
+ */
+public class CompressionBenchmark {
+  
+  private static double mbPerSec(long bytes, long nanos) {
+    return bytes / (double) (1 << 20) / (nanos / 1000000000.0);
+  }
+  
+  /**
+   * @return key values serialized the way a data block stores them
+   */
+  private static byte[] sampleBlock(int entries) throws IOException {
+    DataOutputBuffer out = new DataOutputBuffer();
+    for (int i = 0; i < entries; i++) {
+      new Key(String.format("row_%08d", i / 10), "family", String.format("qual_%04d", i % 10), "A&B", 1385000000000l + i).write(out);
+      new Value(("value " + (i * 31) % 1000).getBytes()).write(out);
+    }
+    return Arrays.copyOf(out.getData(), out.getLength());
+  }
+  
+  private static byte[] compress(Algorithm algo, byte[] block) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream(block.length);
+    Compressor compressor = algo.getCompressor();
+    try {
+      OutputStream os = algo.createCompressionStream(baos, compressor, 0);
+      os.write(block);
+      os.flush();
+      os.close();
+    } finally {
+      algo.returnCompressor(compressor);
+    }
+    return baos.toByteArray();
+  }
+  
+  private static void run(PrintStream out, Algorithm algo, byte[] block, int iterations) throws IOException {
+    byte[] compressed = compress(algo, block);
+    byte[] raw = new byte[block.length];
+    long total = (long) block.length * iterations;
+    
+    long t1 = System.nanoTime();
+    for (int i = 0; i < iterations; i++)
+      compress(algo, block);
+    long t2 = System.nanoTime();
+    double streamCompress = mbPerSec(total, t2 - t1);
+    
+    t1 = System.nanoTime();
+    for (int i = 0; i < iterations; i++)
+      algo.decompress(ByteBuffer.wrap(compressed), raw, 0, raw.length);
+    t2 = System.nanoTime();
+    double blockDecompress = mbPerSec(total, t2 - t1);
+    
+    t1 = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      Decompressor decompressor = algo.getDecompressor();
+      try {
+        InputStream is = algo.createDecompressionStream(new ByteArrayInputStream(compressed), decompressor, 256 * 1024);
+        new DataInputStream(is).readFully(raw);
+        is.close();
+      } finally {
+        algo.returnDecompressor(decompressor);
+      }
+    }
+    t2 = System.nanoTime();
+    double streamDecompress = mbPerSec(total, t2 - t1);
+    
+    out.printf("%-6s ratio %5.2f   compress %8.1f MB/s   decompress block %8.1f stream %8.1f MB/s%n", algo.getName(), block.length
+        / (double) compressed.length, streamCompress, blockDecompress, streamDecompress);
+  }
+  
+  public static void main(String[] args) throws Exception {
+    PrintStream out = System.out;
+    
+    int entries = args.length > 0 ? Integer.parseInt(args[0]) : 1500;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+    byte[] block = sampleBlock(entries);
+    
+    out.printf("block %,d bytes (%,d entries) iterations %,d%n", block.length, entries, iterations);
+    for (int run = 0; run < 2; run++) {
+      for (String name : Compression.getSupportedAlgorithms()) {
+        Algorithm algo = Compression.getCompressionAlgorithmByName(name);
+        try {
+          run(out, algo, block, iterations);
+        } catch (RuntimeException e) {
+          // the codec class may be present without its native library
+          out.printf("%-6s unavailable: %s%n", name, e.getMessage());
+        }
+      }
+    }
+  }
+}
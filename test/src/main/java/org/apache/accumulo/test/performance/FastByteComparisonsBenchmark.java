@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test.performance;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.util.FastByteComparisons;
+import org.apache.hadoop.io.WritableComparator;
+
+/**
+ * Compares the time to sort keys with short and long rows using byte at a time comparison and {@link FastByteComparisons}.
+ */
+public class FastByteComparisonsBenchmark {
+
+  private static Key[] createKeys(Random r, int num, int rowLen) {
+    // rows share a long prefix, as they do for most real key designs
+    byte[] prefix = new byte[rowLen - 4];
+    Arrays.fill(prefix, (byte) 'p');
+    Key[] keys = new Key[num];
+    for (int i = 0; i < num; i++) {
+      byte[] row = Arrays.copyOf(prefix, rowLen);
+      for (int j = prefix.length; j < rowLen; j++)
+        row[j] = (byte) ('a' + r.nextInt(26));
+      keys[i] = new Key(row, "cf".getBytes(), "cq".getBytes(), new byte[0], 0);
+    }
+    return keys;
+  }
+
+  private static long time(Key[] keys, java.util.Comparator<Key> comparator) {
+    Key[] copy = keys.clone();
+    long t1 = System.nanoTime();
+    Arrays.sort(copy, comparator);
+    return System.nanoTime() - t1;
+  }
+
+  public static void main(String[] args) {
+    PrintStream out = System.out;
+    Random r = new Random(42);
+
+    java.util.Comparator<Key> byteAtATime = new java.util.Comparator<Key>() {
+      @Override
+      public int compare(Key k1, Key k2) {
+        byte[] r1 = k1.getRowData().getBackingArray();
+        byte[] r2 = k2.getRowData().getBackingArray();
+        int cmp = WritableComparator.compareBytes(r1, 0, r1.length, r2, 0, r2.length);
+        if (cmp != 0)
+          return cmp;
+        return k1.compareTo(k2);
+      }
+    };
+
+    java.util.Comparator<Key> wordAtATime = new java.util.Comparator<Key>() {
+      @Override
+      public int compare(Key k1, Key k2) {
+        return k1.compareTo(k2);
+      }
+    };
+
+    out.println("word at a time enabled : " + FastByteComparisons.isWordAtATime());
+
+    for (int rowLen : new int[] {8, 16, 64, 256}) {
+      Key[] keys = createKeys(r, 500000, rowLen);
+      for (int run = 0; run < 3; run++) {
+        long bt = time(keys, byteAtATime);
+        long wt = time(keys, wordAtATime);
+        out.printf("row length %3d   byte at a time %8.2f ms   word at a time %8.2f ms%n", rowLen, bt / 1000000.0, wt / 1000000.0);
+      }
+    }
+  }
+}
@@ -50,6 +50,8 @@ import org.apache.accumulo.core.master.thrift.TabletServerStatus;
 import org.apache.accumulo.core.security.thrift.TCredentials;
 import org.apache.accumulo.core.tabletserver.thrift.ActiveCompaction;
 import org.apache.accumulo.core.tabletserver.thrift.ActiveScan;
+import org.apache.accumulo.core.tabletserver.thrift.QueuedCompaction;
+import org.apache.accumulo.core.tabletserver.thrift.TDurability;
 import org.apache.accumulo.core.tabletserver.thrift.TabletClientService;
 import org.apache.accumulo.core.tabletserver.thrift.TabletClientService.Iface;
 import org.apache.accumulo.core.tabletserver.thrift.TabletClientService.Processor;
@@ -89,7 +91,7 @@ public class NullTserver {
     }
     
     @Override
-    public long startUpdate(TInfo tinfo, TCredentials credentials) {
+    public long startUpdate(TInfo tinfo, TCredentials credentials, TDurability durability) {
       return updateSession++;
     }
     
@@ -140,7 +142,7 @@ public class NullTserver {
     }
     
     @Override
-    public void update(TInfo tinfo, TCredentials credentials, TKeyExtent keyExtent, TMutation mutation) {
+    public void update(TInfo tinfo, TCredentials credentials, TKeyExtent keyExtent, TMutation mutation, TDurability durability) {
       
     }
     
@@ -208,6 +210,11 @@ public class NullTserver {
     public List<ActiveCompaction> getActiveCompactions(TInfo tinfo, TCredentials credentials) throws ThriftSecurityException, TException {
       return new ArrayList<ActiveCompaction>();
     }
+    
+    @Override
+    public List<QueuedCompaction> getQueuedCompactions(TInfo tinfo, TCredentials credentials) throws ThriftSecurityException, TException {
+      return new ArrayList<QueuedCompaction>();
+    }
   }
   
   static class Opts extends Help {
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Durability;
+import org.apache.accumulo.core.client.ZooKeeperInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.util.UtilWaitThread;
+import org.apache.accumulo.minicluster.MiniAccumuloCluster;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Writes through batch writers that ask for different durability, and checks how much of each reaches the write-ahead logs.
+ */
+public class BatchWriterDurabilityTest {
+  
+  private static final int ROWS = 1000;
+  private static final int VALUE_SIZE = 1024;
+  
+  public static TemporaryFolder folder = new TemporaryFolder();
+  private MiniAccumuloCluster accumulo;
+  private String secret = "secret";
+  private Connector connector;
+  
+  @Before
+  public void setUp() throws Exception {
+    folder.create();
+    accumulo = new MiniAccumuloCluster(folder.getRoot(), secret);
+    accumulo.start();
+    ZooKeeperInstance instance = new ZooKeeperInstance(accumulo.getConfig().getInstanceName(), accumulo.getConfig().getZooKeepers());
+    connector = instance.getConnector("root", new PasswordToken(secret));
+  }
+  
+  @After
+  public void tearDown() throws Exception {
+    accumulo.stop();
+    folder.delete();
+  }
+  
+  private static long walogSize(File dir) {
+    long size = 0;
+    File[] files = dir.listFiles();
+    if (files == null)
+      return 0;
+    for (File file : files) {
+      if (file.isDirectory())
+        size += walogSize(file);
+      else if (file.getParentFile().getParentFile().getName().equals("wal"))
+        size += file.length();
+    }
+    return size;
+  }
+  
+  /**
+   * @return how much the write-ahead logs grew while writing to the table
+   */
+  private long write(String table, Durability durability) throws Exception {
+    long before = walogSize(folder.getRoot());
+    
+    BatchWriter bw = connector.createBatchWriter(table, new BatchWriterConfig().setDurability(durability));
+    byte[] value = new byte[VALUE_SIZE];
+    for (int i = 0; i < ROWS; i++) {
+      Mutation m = new Mutation(String.format("%s_%06d", durability, i));
+      m.put("cf", "cq", new Value(value));
+      bw.addMutation(m);
+    }
+    bw.close();
+    
+    return walogSize(folder.getRoot()) - before;
+  }
+  
+  private int count(String table) throws Exception {
+    int count = 0;
+    for (@SuppressWarnings("unused")
+    Object entry : connector.createScanner(table, new Authorizations()))
+      count++;
+    return count;
+  }
+  
+  @Test(timeout = 120000)
+  public void test() throws Exception {
+    long written = ROWS * VALUE_SIZE;
+    
+    connector.tableOperations().create("sync");
+    connector.tableOperations().create("none");
+    connector.tableOperations().setProperty("none", Property.TABLE_DURABILITY.getKey(), "none");
+    // give the tablet server time to see the property
+    UtilWaitThread.sleep(2000);
+    
+    // the table's durability is used by default
+    assertTrue(write("sync", Durability.DEFAULT) > written);
+    assertTrue(write("none", Durability.DEFAULT) < written / 10);
+    
+    // a batch writer may lower its table's durability, but not raise it
+    assertTrue(write("sync", Durability.NONE) < written / 10);
+    assertTrue(write("sync", Durability.LOG) > written);
+    assertTrue(write("none", Durability.SYNC) < written / 10);
+    
+    // the writes that skipped the log are still applied
+    assertEquals(3 * ROWS, count("sync"));
+    assertEquals(2 * ROWS, count("none"));
+  }
+}